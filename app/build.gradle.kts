@@ -62,3 +62,31 @@ tasks.named<Test>("test") {
     // Use JUnit Platform for unit tests.
     useJUnitPlatform()
 }
+
+// Compiles the reference data properties files into the memory mapped binary reference data file.
+val referenceDataSources = listOf(
+    "src/main/resources/weather-archive/weather-archive.properties",
+    "src/main/resources/electricity-price/electricityPrice.properties",
+    "src/main/resources/default-devices/deviceProposal.properties"
+)
+val compileReferenceData by tasks.registering(JavaExec::class) {
+    group = "build"
+    description = "Compiles the reference data properties files into build/reference-data/reference-data.bin."
+    val referenceDataFile = layout.buildDirectory.file("reference-data/reference-data.bin")
+    inputs.files(referenceDataSources)
+    outputs.file(referenceDataFile)
+    classpath = sourceSets.main.get().runtimeClasspath
+    mainClass = "ch.nfr.filehandler.ReferenceDataCompiler"
+    argumentProviders.add(CommandLineArgumentProvider {
+        listOf(referenceDataFile.get().asFile.absolutePath) + referenceDataSources.map { file(it).absolutePath }
+    })
+}
+
+tasks.named("assemble") {
+    dependsOn(compileReferenceData)
+}
+
+// The models read build/reference-data/reference-data.bin and fall back to the properties files without it.
+tasks.named("run") {
+    dependsOn(compileReferenceData)
+}
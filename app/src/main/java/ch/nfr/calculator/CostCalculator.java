@@ -1,15 +1,23 @@
 package ch.nfr.calculator;
 
 import ch.nfr.calculator.converter.UnitConverter;
+import ch.nfr.calculator.tariff.FlatTariff;
+import ch.nfr.calculator.tariff.LoadProfile;
+import ch.nfr.calculator.tariff.Tariff;
 import ch.nfr.calculator.units.EnergyUnit;
+import ch.nfr.filehandler.DatedElectricityPrices;
+import ch.nfr.filehandler.ElectricityPriceDataException;
 import ch.nfr.filehandler.WeatherArchiveException;
 import ch.nfr.tablemodel.Household;
 import ch.nfr.tablemodel.Room;
 import ch.nfr.tablemodel.device.Device;
 import ch.nfr.tablemodel.device.DeviceCategory;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
@@ -24,8 +32,12 @@ public class CostCalculator {
     private final Logger logger = Logger.getLogger(CostCalculator.class.getName());
     /** The SolarPanelCalculator instance used to calculate the solar panel production. */
     private final SolarPanelCalculator solarPanelCalculator;
-    /** The electricity cost in Rp per kWh. */
+    /** The mean electricity cost in Rp per kWh of the household consumption, used for the devices and rooms. */
     private double electricityCostInRpPerkWh;
+    /** The tariff of the household. */
+    private Tariff tariff;
+    /** The distribution of the household consumption over the hours of a week. */
+    private LoadProfile loadProfile;
     /** The household to calculate the cost for. */
     private Household household;
     /** The used weather archive path */
@@ -62,12 +74,124 @@ public class CostCalculator {
      * @throws NoRegisteredDeviceException if no devices are registered in the household
      */
     public CalculationRecordWrapper calculateCost(Household household, double electricityCostInRpPerkWh) throws NoRegisteredDeviceException, WeatherArchiveException{
-        this.household = Objects.requireNonNull(household);
+        Objects.requireNonNull(household);
         if (electricityCostInRpPerkWh <= 0) {
             throw new IllegalArgumentException("Electricity cost must be greater than 0");
         }
+        return calculateCost(household, new FlatTariff(electricityCostInRpPerkWh));
+    }
+
+    /**
+     * Calculates the yearly electricity cost for the given household with the electricity price
+     * of its postal code valid at the given date, for example to recalculate a past bill or to project a future one.
+     *
+     * @param household the household to calculate the cost for, if null throws an {@link NullPointerException}
+     * @param electricityPrices the dated electricity prices, if null throws an {@link NullPointerException}
+     * @param asOf the date of the electricity price, if null throws an {@link NullPointerException}
+     * @return a {@link CalculationRecordWrapper} with the results, see {@link #calculateCost(Household, double)}
+     * @throws NoRegisteredDeviceException if no devices are registered in the household
+     * @throws ElectricityPriceDataException if no electricity price is known for the postal code at the date
+     */
+    public CalculationRecordWrapper calculateCost(Household household, DatedElectricityPrices electricityPrices, LocalDate asOf)
+            throws NoRegisteredDeviceException, WeatherArchiveException, ElectricityPriceDataException {
+        return calculateCosts(household, electricityPrices, List.of(asOf)).get(asOf);
+    }
+
+    /**
+     * Calculates the yearly electricity cost for the given household at several dates in one pass.
+     * The electricity prices of all dates are looked up before the calculation,
+     * so a missing price is reported before any calculation is done.
+     * The consumption of the devices and rooms and the solar panel production are aggregated only once,
+     * then the flat electricity price of each date is applied to the aggregated consumption.
+     *
+     * @param household the household to calculate the cost for, if null throws an {@link NullPointerException}
+     * @param electricityPrices the dated electricity prices, if null throws an {@link NullPointerException}
+     * @param asOfDates the dates of the electricity prices, if null throws an {@link NullPointerException}
+     * @return the {@link CalculationRecordWrapper} of each date, in the order of the dates
+     * @throws NoRegisteredDeviceException if no devices are registered in the household
+     * @throws ElectricityPriceDataException if no electricity price is known for the postal code at one of the dates
+     */
+    public Map<LocalDate, CalculationRecordWrapper> calculateCosts(Household household, DatedElectricityPrices electricityPrices, List<LocalDate> asOfDates)
+            throws NoRegisteredDeviceException, WeatherArchiveException, ElectricityPriceDataException {
+        Objects.requireNonNull(household);
+        Objects.requireNonNull(electricityPrices);
+        double[][] pricesPerDate = electricityPrices.pricesFor(new short[]{household.getPostalCode()}, asOfDates);
+        Map<LocalDate, CalculationRecordWrapper> results = new LinkedHashMap<>();
+        if (asOfDates.isEmpty()) {
+            return results;
+        }
+        CalculationRecordWrapper aggregated = calculateCost(household, new FlatTariff(pricesPerDate[0][0]));
+        for (int date = 0; date < asOfDates.size(); date++) {
+            results.put(asOfDates.get(date), withElectricityPrice(aggregated, pricesPerDate[date][0]));
+        }
+        return results;
+    }
+
+    /**
+     * Charges the aggregated consumption of a calculation with another flat electricity price.
+     * The consumption and the solar panel production of the calculation are kept.
+     *
+     * @param aggregated the calculation result with a flat tariff
+     * @param electricityCostInRpPerkWh the flat electricity price in Rp per kWh
+     * @return a {@link CalculationRecordWrapper} with the costs at the given electricity price
+     */
+    private static CalculationRecordWrapper withElectricityPrice(CalculationRecordWrapper aggregated, double electricityCostInRpPerkWh) {
+        List<DeviceCalculationRecord> resultDevices = new ArrayList<>();
+        for (DeviceCalculationRecord device : aggregated.deviceCalculationRecords()) {
+            resultDevices.add(new DeviceCalculationRecord(device.deviceCategory(), device.powerConsumptionInWattSeconds(),
+                    (device.powerConsumptionInWattSeconds() * electricityCostInRpPerkWh) / (1000 * 3600)));
+        }
+        List<RoomCalculationRecord> resultRooms = new ArrayList<>();
+        for (RoomCalculationRecord room : aggregated.roomCalculationRecords()) {
+            resultRooms.add(new RoomCalculationRecord(room.room(), room.powerConsumptionInWattSeconds(),
+                    (room.powerConsumptionInWattSeconds() * electricityCostInRpPerkWh) / (1000 * 3600)));
+        }
+        TotalCostRecord total = aggregated.totalCostRecord();
+        TotalCostRecord totalCostRecord = new TotalCostRecord(total.yearlyCorrectedConsumptionInWattSeconds(),
+                total.yearlyConsumptionInWattSeconds(), total.yearlyProductionInWattSeconds(),
+                (total.yearlyCorrectedConsumptionInWattSeconds() * electricityCostInRpPerkWh) / (1000 * 3600), electricityCostInRpPerkWh);
+        return new CalculationRecordWrapper(resultDevices, resultRooms, aggregated.totalSolarCalculationRecord(), totalCostRecord);
+    }
+
+    /**
+     * Calculates the yearly electricity cost for the given household with a tariff,
+     * the consumption is distributed uniformly over the hours of a week.
+     *
+     * @param household the household to calculate the cost for, if null throws an {@link NullPointerException}
+     * @param tariff the tariff of the household, if null throws an {@link NullPointerException}
+     * @return a {@link CalculationRecordWrapper} with the results, see {@link #calculateCost(Household, double)}
+     * @throws NoRegisteredDeviceException if no devices are registered in the household
+     */
+    public CalculationRecordWrapper calculateCost(Household household, Tariff tariff) throws NoRegisteredDeviceException, WeatherArchiveException {
+        return calculateCost(household, tariff, LoadProfile.UNIFORM);
+    }
 
-        this.electricityCostInRpPerkWh = electricityCostInRpPerkWh;
+    /**
+     * Calculates the yearly electricity cost for the given household with a tariff and a load profile.
+     * The mean energy price of the tariff is evaluated once for the whole household consumption,
+     * the devices and rooms are then charged with this mean price, so a time of use or tiered tariff
+     * costs no more to apply than a flat one. The total cost is charged with the tariff for the
+     * consumption corrected by the solar panel production and includes the base fee of the tariff.
+     *
+     * @param household the household to calculate the cost for, if null throws an {@link NullPointerException}
+     * @param tariff the tariff of the household, if null throws an {@link NullPointerException}
+     * @param loadProfile the distribution of the consumption over the hours of a week, if null throws an {@link NullPointerException}
+     * @return a {@link CalculationRecordWrapper} with the results, see {@link #calculateCost(Household, double)}
+     * @throws NoRegisteredDeviceException if no devices are registered in the household
+     */
+    public CalculationRecordWrapper calculateCost(Household household, Tariff tariff, LoadProfile loadProfile) throws NoRegisteredDeviceException, WeatherArchiveException {
+        this.household = Objects.requireNonNull(household);
+        this.tariff = Objects.requireNonNull(tariff);
+        this.loadProfile = Objects.requireNonNull(loadProfile);
+
+        long yearlyConsumptionInWattSeconds = 0;
+        for (Room room : household.getAllRooms()) {
+            for (Device device : room.getAllDevices()) {
+                yearlyConsumptionInWattSeconds += device.getYearlyConsumptionInWattSeconds();
+            }
+        }
+        this.electricityCostInRpPerkWh = tariff.getMeanPriceInRpPerKiloWattHour(
+                UnitConverter.convertWattSecondsTo(yearlyConsumptionInWattSeconds, EnergyUnit.KILOWATT_HOUR), loadProfile);
 
         ExecutorService executorService = Executors.newFixedThreadPool(4);
 
@@ -198,8 +322,11 @@ public class CostCalculator {
         if (yearlyCorrectedConsumptionInWattSeconds < 0) {
             yearlyCorrectedConsumptionInWattSeconds = 0;
         }
-        double totalElectricityCostInRp = (yearlyCorrectedConsumptionInWattSeconds * electricityCostInRpPerkWh) / (1000 * 3600);
-        return new TotalCostRecord(yearlyCorrectedConsumptionInWattSeconds, yearlyConsumptionInWattSeconds, producedPowerInWattSeconds, totalElectricityCostInRp, electricityCostInRpPerkWh);
+        double correctedElectricityCostInRpPerkWh = tariff.getMeanPriceInRpPerKiloWattHour(
+                UnitConverter.convertWattSecondsTo(yearlyCorrectedConsumptionInWattSeconds, EnergyUnit.KILOWATT_HOUR), loadProfile);
+        double totalElectricityCostInRp = (yearlyCorrectedConsumptionInWattSeconds * correctedElectricityCostInRpPerkWh) / (1000 * 3600)
+                + tariff.getYearlyBaseFeeInRp();
+        return new TotalCostRecord(yearlyCorrectedConsumptionInWattSeconds, yearlyConsumptionInWattSeconds, producedPowerInWattSeconds, totalElectricityCostInRp, correctedElectricityCostInRpPerkWh);
     }
 
     /**
@@ -244,8 +371,8 @@ public class CostCalculator {
      * @param yearlyCorrectedConsumptionInWattSeconds corrected yearly consumption in WattSeconds
      * @param yearlyConsumptionInWattSeconds yearly consumption in WattSeconds
      * @param yearlyProductionInWattSeconds yearly production in WattSeconds
-     * @param yearlyElectricityCostInRp yearly electricity cost in Rp
-     * @param electricityCostInRpPerkWh electricity cost in Rp per kWh
+     * @param yearlyElectricityCostInRp yearly electricity cost in Rp, including the base fee of the tariff
+     * @param electricityCostInRpPerkWh mean electricity cost in Rp per kWh of the corrected consumption
      */
     public record TotalCostRecord(long yearlyCorrectedConsumptionInWattSeconds,
                                   long yearlyConsumptionInWattSeconds,
@@ -0,0 +1,140 @@
+package ch.nfr.calculator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+
+/**
+ * This class is a two-dimensional k-d tree to find the nearest points of a coordinate.
+ * The tree is built once from the coordinates and stored in arrays, the node at the middle
+ * of a range splits it by the east coordinate on even depths and by the north coordinate on odd depths.
+ * Instances are immutable and can be shared between threads.
+ */
+public final class KdTree {
+    /** The used Logger in this class */
+    private static final Logger logger = Logger.getLogger(KdTree.class.getName());
+    /** The east coordinate of each node */
+    private final double[] east;
+    /** The north coordinate of each node */
+    private final double[] north;
+    /** The index of the point in the input coordinates of each node */
+    private final int[] points;
+
+    /**
+     * Builds a new tree from the given coordinates.
+     *
+     * @param east the east coordinate of each point
+     * @param north the north coordinate of each point, with the same length as the east coordinates
+     */
+    public KdTree(double[] east, double[] north) {
+        if (east.length != north.length) {
+            logger.severe("The east and north coordinates must have the same length.");
+            throw new IllegalArgumentException("The east and north coordinates must have the same length.");
+        }
+        Integer[] order = IntStream.range(0, east.length).boxed().toArray(Integer[]::new);
+        build(order, 0, order.length, 0, east, north);
+        this.points = new int[order.length];
+        this.east = new double[order.length];
+        this.north = new double[order.length];
+        for (int node = 0; node < order.length; node++) {
+            points[node] = order[node];
+            this.east[node] = east[order[node]];
+            this.north[node] = north[order[node]];
+        }
+    }
+
+    /**
+     * Sorts a range of points by the axis of its depth and builds the two halves around the middle point.
+     *
+     * @param order the points in the order of the nodes
+     * @param from the first node of the range
+     * @param to the node after the last node of the range
+     * @param depth the depth of the range in the tree
+     * @param east the east coordinate of each point
+     * @param north the north coordinate of each point
+     */
+    private static void build(Integer[] order, int from, int to, int depth, double[] east, double[] north) {
+        if (to - from <= 1) {
+            return;
+        }
+        double[] axis = depth % 2 == 0 ? east : north;
+        Arrays.sort(order, from, to, Comparator.comparingDouble(point -> axis[point]));
+        int middle = (from + to) >>> 1;
+        build(order, from, middle, depth + 1, east, north);
+        build(order, middle + 1, to, depth + 1, east, north);
+    }
+
+    /**
+     * Get the number of points in the tree.
+     *
+     * @return the number of points
+     */
+    public int size() {
+        return points.length;
+    }
+
+    /**
+     * Finds the nearest points of the given coordinate.
+     *
+     * @param east the east coordinate
+     * @param north the north coordinate
+     * @param count the maximum number of points to find
+     * @return the nearest points, sorted by their distance ascending
+     */
+    public List<NeighbourRecord> findNearest(double east, double north, int count) {
+        PriorityQueue<NeighbourRecord> nearest = new PriorityQueue<>(
+                Comparator.comparingDouble(NeighbourRecord::distance).reversed());
+        if (count > 0) {
+            search(0, points.length, 0, east, north, count, nearest);
+        }
+        List<NeighbourRecord> neighbours = new ArrayList<>(nearest);
+        neighbours.sort(Comparator.comparingDouble(NeighbourRecord::distance));
+        return neighbours;
+    }
+
+    /**
+     * Searches a range of nodes for the nearest points, the far half is only searched
+     * if the splitting line is nearer than the farthest point found so far.
+     *
+     * @param from the first node of the range
+     * @param to the node after the last node of the range
+     * @param depth the depth of the range in the tree
+     * @param east the east coordinate
+     * @param north the north coordinate
+     * @param count the maximum number of points to find
+     * @param nearest the nearest points found so far, the farthest first
+     */
+    private void search(int from, int to, int depth, double east, double north, int count, PriorityQueue<NeighbourRecord> nearest) {
+        if (from >= to) {
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        double distance = Math.hypot(this.east[middle] - east, this.north[middle] - north);
+        if (nearest.size() < count) {
+            nearest.add(new NeighbourRecord(points[middle], distance));
+        } else if (distance < nearest.peek().distance()) {
+            nearest.poll();
+            nearest.add(new NeighbourRecord(points[middle], distance));
+        }
+
+        double split = depth % 2 == 0 ? east - this.east[middle] : north - this.north[middle];
+        boolean lowerFirst = split < 0;
+        search(lowerFirst ? from : middle + 1, lowerFirst ? middle : to, depth + 1, east, north, count, nearest);
+        if (nearest.size() < count || Math.abs(split) < nearest.peek().distance()) {
+            search(lowerFirst ? middle + 1 : from, lowerFirst ? to : middle, depth + 1, east, north, count, nearest);
+        }
+    }
+
+    /**
+     * A record to store a point found in the tree.
+     *
+     * @param point the index of the point in the coordinates of the tree
+     * @param distance the distance to the searched coordinate in the unit of the coordinates
+     */
+    public record NeighbourRecord(int point, double distance) {
+    }
+}
@@ -0,0 +1,220 @@
+package ch.nfr.calculator;
+
+import ch.nfr.calculator.converter.UnitConverter;
+import ch.nfr.calculator.tariff.LoadProfile;
+import ch.nfr.calculator.tariff.Tariff;
+import ch.nfr.calculator.units.EnergyUnit;
+import ch.nfr.tablemodel.Household;
+import ch.nfr.tablemodel.Room;
+import ch.nfr.tablemodel.device.BatteryConsumption;
+import ch.nfr.tablemodel.device.Consumption;
+import ch.nfr.tablemodel.device.Device;
+import ch.nfr.tablemodel.device.DeviceCategory;
+import ch.nfr.tablemodel.device.ElectricConsumption;
+import ch.nfr.tablemodel.records.DeviceRecord;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.logging.Logger;
+
+/**
+ * This class recommends which devices of a household to replace with an efficient model and what each replacement saves per year.
+ * <p>
+ * The efficient models are indexed by their {@link DeviceCategory} and kind once, sorted by their power (wired devices)
+ * or battery capacity (mobile devices). The categories are broad, so a device is only compared with a comparable model
+ * of its category and kind: the most efficient model with the same name, for example "A+++ Kühlschrank" for a "Kühlschrank",
+ * or without such a model the most efficient model of the same power class, at least a {@value #MAX_POWER_RATIO}th
+ * of the power of the device. A device without a comparable model is not recommended.
+ * The replacement keeps the usage of the device.
+ * The saving is charged with the tariff as the difference of the yearly cost of the household's aggregated consumption
+ * with and without the saved energy, so the devices are evaluated in parallel without aggregating the household again.
+ * Instances are immutable and can be shared between threads.
+ */
+public class ReplacementRecommender {
+    /** The used Logger in this class */
+    private static final Logger logger = Logger.getLogger(ReplacementRecommender.class.getName());
+
+    /** The maximal ratio of the power of a device to the power of a comparable model without the same name */
+    static final int MAX_POWER_RATIO = 10;
+
+    /** The wired models of each category, sorted by their energy per use ascending */
+    private final Map<DeviceCategory, List<DeviceRecord>> efficientWiredModels = new EnumMap<>(DeviceCategory.class);
+    /** The mobile models of each category, sorted by their energy per use ascending */
+    private final Map<DeviceCategory, List<DeviceRecord>> efficientMobileModels = new EnumMap<>(DeviceCategory.class);
+
+    /**
+     * Creates a new recommender with the given catalog of efficient models.
+     *
+     * @param efficientModels the efficient models, for example the matches of the {@link ch.nfr.filehandler.ApplianceDatabase}
+     */
+    public ReplacementRecommender(Collection<DeviceRecord> efficientModels) {
+        for (DeviceRecord model : Objects.requireNonNull(efficientModels)) {
+            if (model.deviceCategory() == null) {
+                continue;
+            }
+            Map<DeviceCategory, List<DeviceRecord>> index = model.isWired() ? efficientWiredModels : efficientMobileModels;
+            index.computeIfAbsent(model.deviceCategory(), category -> new ArrayList<>()).add(model);
+        }
+        Comparator<DeviceRecord> byEnergyPerUse = Comparator.comparingDouble(model -> energyPerUse(model.consumption()));
+        efficientWiredModels.values().forEach(models -> models.sort(byEnergyPerUse));
+        efficientMobileModels.values().forEach(models -> models.sort(byEnergyPerUse));
+        logger.info("Indexed the efficient models of " + (efficientWiredModels.size() + efficientMobileModels.size()) + " categories");
+    }
+
+    /**
+     * Recommends the replacements with the highest saving, the consumption distributed uniformly over the hours of a week.
+     *
+     * @param household the household to recommend the replacements for
+     * @param consumption the aggregated consumption of the household, see {@link CostCalculator.CalculationRecordWrapper#totalCostRecord()}
+     * @param tariff the current tariff of the household
+     * @param limit the maximal number of recommendations
+     * @return the replacements ranked by their yearly saving, see {@link #recommend(Household, CostCalculator.TotalCostRecord, Tariff, LoadProfile, int)}
+     */
+    public List<ReplacementRecord> recommend(Household household, CostCalculator.TotalCostRecord consumption, Tariff tariff, int limit) {
+        return recommend(household, consumption, tariff, LoadProfile.UNIFORM, limit);
+    }
+
+    /**
+     * Recommends the replacements with the highest saving.
+     * Only devices whose efficient model saves energy are recommended.
+     * Replacements with the same saving keep the order of the rooms and devices of the household.
+     *
+     * @param household the household to recommend the replacements for
+     * @param consumption the aggregated consumption of the household, see {@link CostCalculator.CalculationRecordWrapper#totalCostRecord()}
+     * @param tariff the current tariff of the household
+     * @param loadProfile the distribution of the consumption over the hours of a week
+     * @param limit the maximal number of recommendations
+     * @return the replacements ranked by their yearly saving descending, the highest saving has the rank 1
+     */
+    public List<ReplacementRecord> recommend(Household household, CostCalculator.TotalCostRecord consumption, Tariff tariff,
+                                             LoadProfile loadProfile, int limit) {
+        Objects.requireNonNull(household);
+        Objects.requireNonNull(consumption);
+        Objects.requireNonNull(tariff);
+        Objects.requireNonNull(loadProfile);
+        if (limit < 0) {
+            logger.severe("The limit of the recommendations must not be negative.");
+            throw new IllegalArgumentException("The limit of the recommendations must not be negative.");
+        }
+        double yearlyConsumptionInKiloWattHour = UnitConverter.convertWattSecondsTo(
+                consumption.yearlyCorrectedConsumptionInWattSeconds(), EnergyUnit.KILOWATT_HOUR);
+        double yearlyCostInRp = tariff.calculateYearlyCostInRp(yearlyConsumptionInKiloWattHour, loadProfile);
+
+        List<Map.Entry<Room, Device>> devices = new ArrayList<>();
+        for (Room room : household.getAllRooms()) {
+            for (Device device : room.getAllDevices()) {
+                devices.add(Map.entry(room, device));
+            }
+        }
+        List<ReplacementRecord> replacements = devices.parallelStream()
+                .map(entry -> evaluate(entry.getKey(), entry.getValue(), yearlyConsumptionInKiloWattHour, yearlyCostInRp, tariff, loadProfile))
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparingDouble(ReplacementRecord::yearlySavingInRp).reversed())
+                .limit(limit)
+                .toList();
+
+        List<ReplacementRecord> ranking = new ArrayList<>(replacements.size());
+        for (ReplacementRecord replacement : replacements) {
+            ranking.add(new ReplacementRecord(ranking.size() + 1, replacement.room(), replacement.device(), replacement.replacement(),
+                    replacement.yearlySavingInWattSeconds(), replacement.yearlySavingInRp()));
+        }
+        logger.info("Recommended " + ranking.size() + " of " + devices.size() + " devices for a replacement");
+        return ranking;
+    }
+
+    /**
+     * Evaluates the replacement of a device with the most efficient comparable model, see {@link #findComparableModel(DeviceRecord)}.
+     *
+     * @param room the room of the device
+     * @param device the device to replace
+     * @param yearlyConsumptionInKiloWattHour the corrected yearly consumption of the household in kWh
+     * @param yearlyCostInRp the yearly cost of the household with the tariff
+     * @param tariff the current tariff of the household
+     * @param loadProfile the distribution of the consumption over the hours of a week
+     * @return the unranked replacement, null if there is no comparable model or it saves no energy
+     */
+    private ReplacementRecord evaluate(Room room, Device device, double yearlyConsumptionInKiloWattHour, double yearlyCostInRp,
+                                       Tariff tariff, LoadProfile loadProfile) {
+        DeviceRecord deviceRecord = device.toDeviceRecord();
+        double deviceEnergyPerUse = energyPerUse(deviceRecord.consumption());
+        if (deviceEnergyPerUse <= 0.0) {
+            return null;
+        }
+        DeviceRecord model = findComparableModel(deviceRecord);
+        if (model == null) {
+            return null;
+        }
+        // the replacement is used as often as the device, so its consumption scales with the energy per use
+        long yearlyConsumptionInWattSeconds = device.getYearlyConsumptionInWattSeconds();
+        long savingInWattSeconds = yearlyConsumptionInWattSeconds
+                - Math.round(yearlyConsumptionInWattSeconds * energyPerUse(model.consumption()) / deviceEnergyPerUse);
+        if (savingInWattSeconds <= 0) {
+            return null;
+        }
+        double savingInKiloWattHour = UnitConverter.convertWattSecondsTo(savingInWattSeconds, EnergyUnit.KILOWATT_HOUR);
+        double savingInRp = yearlyCostInRp
+                - tariff.calculateYearlyCostInRp(Math.max(0.0, yearlyConsumptionInKiloWattHour - savingInKiloWattHour), loadProfile);
+        return new ReplacementRecord(0, room, device, model, savingInWattSeconds, savingInRp);
+    }
+
+    /**
+     * Finds the most efficient model which is comparable with the device.
+     * A model with the same name, one name containing the other, is preferred; without such a model
+     * the most efficient model of the same power class is used.
+     *
+     * @param deviceRecord the device to replace
+     * @return the comparable model with the lowest energy per use, null if the category has no comparable model
+     */
+    private DeviceRecord findComparableModel(DeviceRecord deviceRecord) {
+        List<DeviceRecord> models = (deviceRecord.isWired() ? efficientWiredModels : efficientMobileModels)
+                .getOrDefault(deviceRecord.deviceCategory(), List.of());
+        String deviceName = deviceRecord.deviceName().toLowerCase(Locale.ROOT);
+        for (DeviceRecord model : models) {
+            String modelName = model.deviceName().toLowerCase(Locale.ROOT);
+            if (!deviceName.isBlank() && !modelName.isBlank() && (modelName.contains(deviceName) || deviceName.contains(modelName))) {
+                return model;
+            }
+        }
+        double minimalEnergyPerUse = energyPerUse(deviceRecord.consumption()) / MAX_POWER_RATIO;
+        for (DeviceRecord model : models) {
+            if (energyPerUse(model.consumption()) >= minimalEnergyPerUse) {
+                return model;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the energy a consumption needs per unit of use, the power of a wired device
+     * or the battery capacity of a mobile device.
+     *
+     * @param consumption the consumption
+     * @return the watt seconds per hour of use or per charging cycle
+     */
+    private static double energyPerUse(Consumption consumption) {
+        if (consumption instanceof ElectricConsumption electricConsumption) {
+            return electricConsumption.getPowerConsumptionInWattSeconds();
+        }
+        return ((BatteryConsumption) consumption).getCapacityInWattSeconds();
+    }
+
+    /**
+     * This record class represents the recommended replacement of a device.
+     *
+     * @param rank the rank of the replacement, 1 for the highest saving
+     * @param room the room of the device
+     * @param device the device to replace
+     * @param replacement the efficient model to replace the device with
+     * @param yearlySavingInWattSeconds the energy saved per year in WattSeconds
+     * @param yearlySavingInRp the cost saved per year in Rp with the current tariff
+     */
+    public record ReplacementRecord(int rank, Room room, Device device, DeviceRecord replacement,
+                                    long yearlySavingInWattSeconds, double yearlySavingInRp) {
+    }
+}
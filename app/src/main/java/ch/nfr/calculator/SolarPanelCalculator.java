@@ -1,13 +1,19 @@
 package ch.nfr.calculator;
 
 import ch.nfr.calculator.units.MonthUnit;
+import ch.nfr.filehandler.CompiledWeatherArchive;
+import ch.nfr.filehandler.DailySunshineSeries;
 import ch.nfr.filehandler.WeatherArchivHandler;
 import ch.nfr.filehandler.WeatherArchiveException;
 import ch.nfr.tablemodel.Orientation;
 import ch.nfr.tablemodel.SolarPanel;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.logging.Logger;
 
@@ -27,6 +33,79 @@ public class SolarPanelCalculator {
     private static final double SOUTH_PRODUCTION_FACTOR = 1.0; // Approx 0% loss
     /** The production loss factor median for a year */
     private static final double PRODUCTION_LOSS = 0.175; // Approx 35% efficiency from sun angle and 50 from inverter
+    /** The change of the panel efficiency per degree celsius of cell temperature */
+    private static final double TEMPERATURE_COEFFICIENT = -0.004; // Approx -0.4% per °C for crystalline silicon
+    /** The cell temperature in degree celsius at which the nominal production is reached */
+    private static final double REFERENCE_CELL_TEMPERATURE = 25.0; // Standard test conditions
+    /** The heating of the cells above the ambient temperature in degree celsius while the sun is shining */
+    private static final double CELL_HEATING = 20.0; // Approx for a roof mounted panel
+
+    /** The path to the temperature archive, null if no temperature correction is applied */
+    private final String temperatureArchivePath;
+    /** The daily sunshine durations of the measuring stations, null if only the weather archive is used */
+    private final DailySunshineSeries sunshineSeries;
+    /** The interpolator of the sun hours of each postal code from the nearest stations, null if the station of the region is used */
+    private final SunHoursInterpolator sunHoursInterpolator;
+    /** The compiled production factors of each region, indexed by region and cached per weather archive path */
+    private final Map<String, RegionProductionFactors[]> compiledWeatherArchives = new HashMap<>();
+    /** The station of each region, indexed by region and cached per weather archive path */
+    private final Map<String, String[]> stationsOfRegions = new HashMap<>();
+    /** The production factors of a region in a year of the sunshine series, cached per weather archive path, region and year */
+    private final Map<String, RegionProductionFactors> yearlyProductionFactors = new HashMap<>();
+    /** The mean temperatures of each region, read on the first use */
+    private Map<String, List<WeatherArchivHandler.TemperaturePerMonthRecord>> temperaturesPerRegion;
+
+    /**
+     * Creates a new SolarPanelCalculator without temperature correction.
+     */
+    public SolarPanelCalculator() {
+        this(null);
+    }
+
+    /**
+     * Creates a new SolarPanelCalculator which corrects the production with the monthly mean temperatures
+     * of the given temperature archive. Regions without temperature data are not corrected.
+     *
+     * @param temperatureArchivePath the path to the temperature archive, null to disable the temperature correction
+     */
+    public SolarPanelCalculator(String temperatureArchivePath) {
+        this(temperatureArchivePath, null, null);
+    }
+
+    /**
+     * Creates a new SolarPanelCalculator which can calculate the production of a specific year
+     * with the daily sunshine durations of the given series.
+     *
+     * @param temperatureArchivePath the path to the temperature archive, null to disable the temperature correction
+     * @param sunshineSeries the daily sunshine durations of the measuring stations, null to use only the weather archive
+     */
+    public SolarPanelCalculator(String temperatureArchivePath, DailySunshineSeries sunshineSeries) {
+        this(temperatureArchivePath, sunshineSeries, null);
+    }
+
+    /**
+     * Creates a new SolarPanelCalculator which calculates the production of a specific year with the sun hours
+     * interpolated from the nearest stations of the postal code instead of the station of its region.
+     *
+     * @param temperatureArchivePath the path to the temperature archive, null to disable the temperature correction
+     * @param sunHoursInterpolator the interpolator of the sun hours of each postal code
+     */
+    public SolarPanelCalculator(String temperatureArchivePath, SunHoursInterpolator sunHoursInterpolator) {
+        this(temperatureArchivePath, null, Objects.requireNonNull(sunHoursInterpolator));
+    }
+
+    /**
+     * Creates a new SolarPanelCalculator with the given sources of the sun hours.
+     *
+     * @param temperatureArchivePath the path to the temperature archive, null to disable the temperature correction
+     * @param sunshineSeries the daily sunshine durations of the measuring stations, null to use only the weather archive
+     * @param sunHoursInterpolator the interpolator of the sun hours of each postal code, null to use the station of the region
+     */
+    private SolarPanelCalculator(String temperatureArchivePath, DailySunshineSeries sunshineSeries, SunHoursInterpolator sunHoursInterpolator) {
+        this.temperatureArchivePath = temperatureArchivePath;
+        this.sunshineSeries = sunshineSeries;
+        this.sunHoursInterpolator = sunHoursInterpolator;
+    }
 
     /**
      * Calculate the solar panel production for a given postal code and a list of solar panels
@@ -35,10 +114,40 @@ public class SolarPanelCalculator {
      *
      * @param postalCode  to identify the location and with that the sun hours.
      * @param solarPanels the list of solar panels to calculate the production for.
+     * @param weatherArchivePath the path to the weather archive, it is read only on the first call.
      * @return a {@link TotalSolarCalculationWrapper} containing the total yearly production and the production for each solar panel.
      * @throws WeatherArchiveException if an error occurs while getting the sun hours from the weather archive
      */
     public TotalSolarCalculationWrapper calculateSolarPanelProduction(short postalCode, List<SolarPanel> solarPanels, String weatherArchivePath) throws WeatherArchiveException {
+        validateSolarPanels(solarPanels);
+        return calculateSolarPanelProduction(getRegionProductionFactors(postalCode, weatherArchivePath), solarPanels);
+    }
+
+    /**
+     * Calculate the solar panel production for a given postal code and a list of solar panels in a specific year.
+     * The sun hours are taken from the daily sunshine durations of the station in the region of the postal code,
+     * the region of a station is the region of its postal code in the weather archive.
+     * If the calculator has a {@link SunHoursInterpolator}, the sun hours are interpolated from the nearest stations instead.
+     * With the year {@link DailySunshineSeries#AVERAGE_YEAR} the average of all years in the series is used.
+     *
+     * @param postalCode  to identify the location and with that the station.
+     * @param solarPanels the list of solar panels to calculate the production for.
+     * @param weatherArchivePath the path to the weather archive, it is used to find the region of the postal code.
+     * @param year the year to calculate the production for or {@link DailySunshineSeries#AVERAGE_YEAR}.
+     * @return a {@link TotalSolarCalculationWrapper} containing the total yearly production and the production for each solar panel.
+     * @throws WeatherArchiveException if no sunshine series is set, the region has no station or the station has no measurements in the year
+     */
+    public TotalSolarCalculationWrapper calculateSolarPanelProduction(short postalCode, List<SolarPanel> solarPanels, String weatherArchivePath, int year) throws WeatherArchiveException {
+        validateSolarPanels(solarPanels);
+        return calculateSolarPanelProduction(getYearlyProductionFactors(postalCode, weatherArchivePath, year), solarPanels);
+    }
+
+    /**
+     * Checks if the given list of solar panels is not empty or null and all areas are greater than 0.0.
+     *
+     * @param solarPanels the list of solar panels to check.
+     */
+    private void validateSolarPanels(List<SolarPanel> solarPanels) {
         Objects.requireNonNull(solarPanels);
         if (solarPanels.isEmpty()) {
             logger.severe("The list of solar panels must not be empty.");
@@ -48,23 +157,29 @@ public class SolarPanelCalculator {
             logger.severe("The area of all solar panels must be greater than 0.0.");
             throw new InvalidSolarPanelException("The area of the solar panel must be greater than 0.0.");
         }
+    }
 
+    /**
+     * Calculate the production of each solar panel with the production factors of a region.
+     *
+     * @param region the production factors of the region
+     * @param solarPanels the list of solar panels to calculate the production for.
+     * @return a {@link TotalSolarCalculationWrapper} containing the total yearly production and the production for each solar panel.
+     */
+    private TotalSolarCalculationWrapper calculateSolarPanelProduction(RegionProductionFactors region, List<SolarPanel> solarPanels) {
         List<SolarCalculationRecord> solarCalculationRecords = new ArrayList<>();
-        List<WeatherArchivHandler.SunHoursPerMonthRecord> monthlySunHours = WeatherArchivHandler.readSunHoursFile(postalCode, weatherArchivePath);
 
         // Calculate the production for each solar panel
         double totalYearlyProduction = 0;
         for (SolarPanel solarPanel : solarPanels) {
             List<MonthCalculationRecord> monthCalculationRecords = new ArrayList<>();
+            double[] productionFactors = region.productionFactors()[solarPanel.getOrientation().ordinal()];
             double yearlyProductionInKiloWattHour = 0;
-            for (WeatherArchivHandler.SunHoursPerMonthRecord sunHours : monthlySunHours) {
-                double productionFactor = getProductionFactor(solarPanel.getOrientation());
-                double productionPerMonth = solarPanel.getArea() * SOLAR_PANEL_PRODUCTION
-                        * productionFactor * (sunHours.sunHours() / 24) * PRODUCTION_LOSS;
-                monthCalculationRecords.add(new MonthCalculationRecord(productionPerMonth,
-                        sunHours.month()));
+            for (MonthUnit month : MonthUnit.values()) {
+                double productionPerMonth = solarPanel.getArea() * productionFactors[month.ordinal()];
+                monthCalculationRecords.add(new MonthCalculationRecord(productionPerMonth, month));
                 yearlyProductionInKiloWattHour += productionPerMonth;
-                logger.info("Production for " + solarPanel.getName() + " in " + sunHours.month() + ": " + productionPerMonth + " kWh");
+                logger.info("Production for " + solarPanel.getName() + " in " + month + ": " + productionPerMonth + " kWh");
             }
             totalYearlyProduction += yearlyProductionInKiloWattHour;
             solarCalculationRecords.add(new SolarCalculationRecord(solarPanel, yearlyProductionInKiloWattHour, monthCalculationRecords));
@@ -74,6 +189,214 @@ public class SolarPanelCalculator {
         return new TotalSolarCalculationWrapper(totalYearlyProduction, solarCalculationRecords);
     }
 
+    /**
+     * Calculate the production of a solar panel with the given area for all orientations in one pass.
+     * The compiled production factors of the region are multiplied with the area,
+     * so no orientation has to be calculated on its own.
+     *
+     * @param postalCode to identify the location and with that the sun hours.
+     * @param area the area of the solar panel in m^2, must be greater than 0.0.
+     * @param weatherArchivePath the path to the weather archive, it is read only on the first call.
+     * @return a {@link OrientationComparisonWrapper} containing the production of every orientation, the best first.
+     * @throws WeatherArchiveException if an error occurs while getting the sun hours from the weather archive
+     */
+    public OrientationComparisonWrapper calculateOrientationComparison(short postalCode, double area, String weatherArchivePath) throws WeatherArchiveException {
+        if (!(area > 0.0)) {
+            logger.severe("The area of the solar panel must be greater than 0.0.");
+            throw new InvalidSolarPanelException("The area of the solar panel must be greater than 0.0.");
+        }
+
+        RegionProductionFactors region = getRegionProductionFactors(postalCode, weatherArchivePath);
+        List<OrientationProductionRecord> orientationProductionRecords = new ArrayList<>();
+        for (Orientation orientation : Orientation.values()) {
+            double[] productionFactors = region.productionFactors()[orientation.ordinal()];
+            List<MonthCalculationRecord> monthCalculationRecords = new ArrayList<>();
+            for (MonthUnit month : MonthUnit.values()) {
+                monthCalculationRecords.add(new MonthCalculationRecord(area * productionFactors[month.ordinal()], month));
+            }
+            double yearlyProductionInKiloWattHour = area * region.yearlyProductionFactors()[orientation.ordinal()];
+            orientationProductionRecords.add(new OrientationProductionRecord(orientation, yearlyProductionInKiloWattHour, monthCalculationRecords));
+        }
+        orientationProductionRecords.sort(Comparator.comparingDouble(OrientationProductionRecord::yearlyProductionInKiloWattHour).reversed());
+        logger.info("Compared the production of all orientations for an area of " + area + " m^2");
+        return new OrientationComparisonWrapper(area, orientationProductionRecords);
+    }
+
+    /**
+     * Get the compiled production factors of the region the given postal code belongs to.
+     * The weather archive and the temperature archive are read and compiled only once per weather archive path,
+     * afterward the region is found in the {@link CompiledWeatherArchive} and the production factors are served from the cache.
+     *
+     * @param postalCode the postal code to find the region for
+     * @param weatherArchivePath the path to the weather archive
+     * @return the production factors of the region
+     * @throws WeatherArchiveException if an archive could not be read or no region matches the postal code
+     */
+    private synchronized RegionProductionFactors getRegionProductionFactors(short postalCode, String weatherArchivePath) throws WeatherArchiveException {
+        CompiledWeatherArchive weatherArchive = WeatherArchivHandler.getCompiledWeatherArchive(weatherArchivePath);
+        RegionProductionFactors[] regions = compiledWeatherArchives.get(weatherArchivePath);
+        if (regions == null) {
+            regions = compileWeatherArchive(weatherArchive);
+            compiledWeatherArchives.put(weatherArchivePath, regions);
+        }
+        return regions[weatherArchive.getRegionIndex(postalCode)];
+    }
+
+    /**
+     * Compiles the weather archive and the temperature archive into the production factors per region.
+     * The sun hours of the weather archive are counted in full sun days.
+     *
+     * @param weatherArchive the compiled weather archive
+     * @return the production factors for each region in the weather archive, indexed by region
+     * @throws WeatherArchiveException if the temperature archive could not be read
+     */
+    private RegionProductionFactors[] compileWeatherArchive(CompiledWeatherArchive weatherArchive) throws WeatherArchiveException {
+        List<String> regionNames = weatherArchive.getRegions();
+        RegionProductionFactors[] regions = new RegionProductionFactors[regionNames.size()];
+        for (int region = 0; region < regions.length; region++) {
+            double[] sunDays = new double[MonthUnit.values().length];
+            for (MonthUnit month : MonthUnit.values()) {
+                sunDays[month.ordinal()] = weatherArchive.getSunHours(region, month) / 24;
+            }
+            regions[region] = compileProductionFactors(sunDays, regionNames.get(region));
+        }
+        logger.info("Compiled the production factors of " + regions.length + " regions");
+        return regions;
+    }
+
+    /**
+     * Get the production factors of the region the given postal code belongs to in a year of the sunshine series.
+     * The production factors are compiled only once per weather archive path, region and year,
+     * with a {@link SunHoursInterpolator} only once per weather archive path, postal code and year.
+     *
+     * @param postalCode the postal code to find the region for
+     * @param weatherArchivePath the path to the weather archive
+     * @param year the year or {@link DailySunshineSeries#AVERAGE_YEAR}
+     * @return the production factors of the region in the year
+     * @throws WeatherArchiveException if no sunshine series is set, the region has no station or the station has no measurements in the year
+     */
+    private synchronized RegionProductionFactors getYearlyProductionFactors(short postalCode, String weatherArchivePath, int year) throws WeatherArchiveException {
+        if (sunshineSeries == null && sunHoursInterpolator == null) {
+            logger.severe("The production of a year can only be calculated with a sunshine series.");
+            throw new WeatherArchiveException("The production of a year can only be calculated with a sunshine series.");
+        }
+        CompiledWeatherArchive weatherArchive = WeatherArchivHandler.getCompiledWeatherArchive(weatherArchivePath);
+        int region = weatherArchive.getRegionIndex(postalCode);
+        String key = weatherArchivePath + "|" + (sunHoursInterpolator == null ? region : "postal code " + postalCode) + "|" + year;
+        RegionProductionFactors productionFactors = yearlyProductionFactors.get(key);
+        if (productionFactors == null) {
+            double[] sunHours;
+            String station;
+            if (sunHoursInterpolator != null) {
+                sunHours = sunHoursInterpolator.getSunHours(postalCode, year);
+                station = "interpolation of " + postalCode;
+            } else {
+                station = getStationsOfRegions(weatherArchive, weatherArchivePath)[region];
+                if (station == null) {
+                    logger.severe("No measuring station found for the postal code " + postalCode);
+                    throw new WeatherArchiveException("No measuring station found for the given postal code.");
+                }
+                sunHours = sunshineSeries.getMonthlySunHours(station, year);
+            }
+            double[] sunDays = new double[sunHours.length];
+            for (int month = 0; month < sunHours.length; month++) {
+                sunDays[month] = sunHours[month] / 24;
+            }
+            productionFactors = compileProductionFactors(sunDays, weatherArchive.getRegions().get(region));
+            yearlyProductionFactors.put(key, productionFactors);
+            logger.info("Compiled the production factors of the " + (sunHoursInterpolator == null ? "station " : "") + station + (year == DailySunshineSeries.AVERAGE_YEAR ? "" : " in " + year));
+        }
+        return productionFactors;
+    }
+
+    /**
+     * Get the station of each region in the weather archive.
+     * The region of a station is the region of its postal code, if several stations are in the same region the first is used.
+     *
+     * @param weatherArchive the compiled weather archive
+     * @param weatherArchivePath the path to the weather archive
+     * @return the station abbreviation of each region, indexed by region, null for regions without a station
+     */
+    private String[] getStationsOfRegions(CompiledWeatherArchive weatherArchive, String weatherArchivePath) {
+        String[] stations = stationsOfRegions.get(weatherArchivePath);
+        if (stations == null) {
+            stations = new String[weatherArchive.getRegions().size()];
+            for (String station : sunshineSeries.getStations()) {
+                try {
+                    int region = weatherArchive.getRegionIndex(sunshineSeries.getPostalCode(station));
+                    if (stations[region] == null) {
+                        stations[region] = station;
+                    }
+                } catch (WeatherArchiveException e) {
+                    logger.warning("The station " + station + " is in no region of the weather archive.");
+                }
+            }
+            stationsOfRegions.put(weatherArchivePath, stations);
+        }
+        return stations;
+    }
+
+    /**
+     * Compiles the production factors of a region from the full sun days of each month.
+     * The production factor of a month contains the sun hours, the orientation factor, the production loss
+     * and the temperature correction, so the production of a solar panel is its area multiplied with the factor.
+     *
+     * @param sunDays the sun hours of each month divided by 24
+     * @param regionName the postal code regex of the region, used to find the temperatures
+     * @return the production factors of the region
+     * @throws WeatherArchiveException if the temperature archive could not be read
+     */
+    private RegionProductionFactors compileProductionFactors(double[] sunDays, String regionName) throws WeatherArchiveException {
+        double[] temperatureFactors = getTemperatureFactors(getTemperaturesPerRegion().get(regionName));
+        double[][] productionFactors = new double[Orientation.values().length][MonthUnit.values().length];
+        double[] yearlyProductionFactors = new double[Orientation.values().length];
+        for (Orientation orientation : Orientation.values()) {
+            double productionFactor = getProductionFactor(orientation);
+            for (MonthUnit monthUnit : MonthUnit.values()) {
+                int month = monthUnit.ordinal();
+                productionFactors[orientation.ordinal()][month] = SOLAR_PANEL_PRODUCTION
+                        * productionFactor * sunDays[month] * PRODUCTION_LOSS * temperatureFactors[month];
+                yearlyProductionFactors[orientation.ordinal()] += productionFactors[orientation.ordinal()][month];
+            }
+        }
+        return new RegionProductionFactors(productionFactors, yearlyProductionFactors);
+    }
+
+    /**
+     * Get the mean temperatures of each region, the temperature archive is read only on the first call.
+     *
+     * @return the mean temperatures of each region, an empty map if no temperature correction is applied
+     * @throws WeatherArchiveException if the temperature archive could not be read
+     */
+    private Map<String, List<WeatherArchivHandler.TemperaturePerMonthRecord>> getTemperaturesPerRegion() throws WeatherArchiveException {
+        if (temperaturesPerRegion == null) {
+            temperaturesPerRegion = temperatureArchivePath == null
+                    ? Map.of() : WeatherArchivHandler.readTemperatureArchive(temperatureArchivePath);
+        }
+        return temperaturesPerRegion;
+    }
+
+    /**
+     * Get the temperature correction factor for each month.
+     * The cells are heated by the sun above the mean air temperature, every degree above the reference
+     * temperature lowers the production by the temperature coefficient and every degree below raises it.
+     *
+     * @param temperatures the mean temperatures of a region, null if the region has no temperature data
+     * @return the correction factor for each month, 1.0 for months without temperature data
+     */
+    private double[] getTemperatureFactors(List<WeatherArchivHandler.TemperaturePerMonthRecord> temperatures) {
+        double[] temperatureFactors = new double[MonthUnit.values().length];
+        Arrays.fill(temperatureFactors, 1.0);
+        if (temperatures != null) {
+            for (WeatherArchivHandler.TemperaturePerMonthRecord temperature : temperatures) {
+                double cellTemperature = temperature.temperature() + CELL_HEATING;
+                temperatureFactors[temperature.month().ordinal()] = 1.0
+                        + TEMPERATURE_COEFFICIENT * (cellTemperature - REFERENCE_CELL_TEMPERATURE);
+            }
+        }
+        return temperatureFactors;
+    }
+
     /**
      * Get the production factor for a given orientation
      *
@@ -90,6 +413,40 @@ public class SolarPanelCalculator {
         };
     }
 
+    /**
+     * This record is to store the compiled production factors of a region.
+     * @param productionFactors the production in kWh per m^2 for each {@link Orientation} and month
+     * @param yearlyProductionFactors the yearly production in kWh per m^2 for each {@link Orientation}
+     */
+    private record RegionProductionFactors(double[][] productionFactors, double[] yearlyProductionFactors) {
+    }
+
+    /**
+     * This record is to store the production of a solar panel area for every orientation.
+     * @param area the compared area in m^2
+     * @param orientationProductionRecords the production for each orientation, sorted from the best to the worst
+     */
+    public record OrientationComparisonWrapper(double area, List<OrientationProductionRecord> orientationProductionRecords) {
+        /**
+         * Get the orientation with the highest yearly production.
+         * @return the best orientation
+         */
+        public Orientation bestOrientation() {
+            return orientationProductionRecords.getFirst().orientation();
+        }
+    }
+
+    /**
+     * This record is to store the yearly electricity production of one orientation.
+     * And a list of the production for each month.
+     * @param orientation the orientation
+     * @param yearlyProductionInKiloWattHour the total production in kWh
+     * @param monthCalculationRecords the production for each month
+     */
+    public record OrientationProductionRecord(Orientation orientation, double yearlyProductionInKiloWattHour,
+                                              List<MonthCalculationRecord> monthCalculationRecords) {
+    }
+
     /**
      * This record is to store the total yearly production of all the solar panels.
      * And a list of the production for each solar panel.
@@ -0,0 +1,194 @@
+package ch.nfr.calculator;
+
+import ch.nfr.filehandler.CompiledWeatherArchive;
+import ch.nfr.filehandler.CoordinateHandler;
+import ch.nfr.filehandler.DailySunshineSeries;
+import ch.nfr.filehandler.WeatherArchiveException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * This class interpolates the monthly sun hours of a postal code from the nearest measuring stations.
+ * The stations are stored in a {@link KdTree}, the sun hours of a postal code are the inverse distance
+ * weighted mean of the k nearest stations to its centroid. A station at the centroid is used directly.
+ * <p>
+ * The interpolated sun hours are cached per postal code and year, so every postal code is interpolated only once.
+ * Instances can be shared between threads.
+ */
+public class SunHoursInterpolator {
+    /** The used Logger in this class */
+    private static final Logger logger = Logger.getLogger(SunHoursInterpolator.class.getName());
+    /** The default number of stations used for the interpolation */
+    public static final int DEFAULT_NEAREST_STATIONS = 3;
+    /** The power of the distance in the inverse distance weights */
+    private static final double DISTANCE_POWER = 2.0;
+    /** The distance in meters below which a station is treated as at the centroid */
+    private static final double SAME_LOCATION_DISTANCE = 1.0;
+
+    /** The daily sunshine durations of the stations */
+    private final DailySunshineSeries sunshineSeries;
+    /** The abbreviation of each station in the tree, indexed by the point of the tree */
+    private final List<String> stations;
+    /** The tree of the station coordinates */
+    private final KdTree stationTree;
+    /** The east coordinate of the centroid of each postal code, NaN for postal codes without a centroid */
+    private final double[] centroidEast;
+    /** The north coordinate of the centroid of each postal code, NaN for postal codes without a centroid */
+    private final double[] centroidNorth;
+    /** The number of stations used for the interpolation */
+    private final int nearestStations;
+    /** The interpolated sun hours of each month, cached per postal code and year */
+    private final Map<Long, double[]> interpolatedSunHours = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new interpolator with the stations of the series which have a coordinate.
+     *
+     * @param sunshineSeries the daily sunshine durations of the stations
+     * @param stationCoordinates the coordinate of each station by station abbreviation
+     * @param postalCodeCoordinates the centroid of each postal code
+     * @param nearestStations the number of stations used for the interpolation, must be greater than 0
+     */
+    public SunHoursInterpolator(DailySunshineSeries sunshineSeries, Map<String, CoordinateHandler.CoordinateRecord> stationCoordinates,
+                                Map<Short, CoordinateHandler.CoordinateRecord> postalCodeCoordinates, int nearestStations) {
+        if (nearestStations <= 0) {
+            logger.severe("The number of nearest stations must be greater than 0.");
+            throw new IllegalArgumentException("The number of nearest stations must be greater than 0.");
+        }
+        this.sunshineSeries = sunshineSeries;
+        this.nearestStations = nearestStations;
+
+        List<String> locatedStations = new ArrayList<>();
+        for (String station : sunshineSeries.getStations()) {
+            if (stationCoordinates.containsKey(station)) {
+                locatedStations.add(station);
+            } else {
+                logger.warning("The station " + station + " has no coordinate and is not used for the interpolation.");
+            }
+        }
+        this.stations = List.copyOf(locatedStations);
+        double[] stationEast = new double[stations.size()];
+        double[] stationNorth = new double[stations.size()];
+        for (int station = 0; station < stations.size(); station++) {
+            stationEast[station] = stationCoordinates.get(stations.get(station)).east();
+            stationNorth[station] = stationCoordinates.get(stations.get(station)).north();
+        }
+        this.stationTree = new KdTree(stationEast, stationNorth);
+
+        int postalCodes = CompiledWeatherArchive.MAX_POSTAL_CODE - CompiledWeatherArchive.MIN_POSTAL_CODE + 1;
+        this.centroidEast = new double[postalCodes];
+        this.centroidNorth = new double[postalCodes];
+        Arrays.fill(centroidEast, Double.NaN);
+        Arrays.fill(centroidNorth, Double.NaN);
+        for (Map.Entry<Short, CoordinateHandler.CoordinateRecord> centroid : postalCodeCoordinates.entrySet()) {
+            short postalCode = centroid.getKey();
+            if (postalCode >= CompiledWeatherArchive.MIN_POSTAL_CODE && postalCode <= CompiledWeatherArchive.MAX_POSTAL_CODE) {
+                centroidEast[postalCode - CompiledWeatherArchive.MIN_POSTAL_CODE] = centroid.getValue().east();
+                centroidNorth[postalCode - CompiledWeatherArchive.MIN_POSTAL_CODE] = centroid.getValue().north();
+            }
+        }
+        logger.info("Created the sun hours interpolator with " + stations.size() + " stations");
+    }
+
+    /**
+     * Creates a new interpolator from the coordinate files with the {@value #DEFAULT_NEAREST_STATIONS} nearest stations.
+     *
+     * @param sunshineSeries the daily sunshine durations of the stations
+     * @param stationCoordinatePath the path to the station coordinate file
+     * @param postalCodeCoordinatePath the path to the postal code centroid file
+     * @return the interpolator
+     * @throws WeatherArchiveException if a coordinate file could not be read
+     */
+    public static SunHoursInterpolator create(DailySunshineSeries sunshineSeries, String stationCoordinatePath,
+                                              String postalCodeCoordinatePath) throws WeatherArchiveException {
+        return new SunHoursInterpolator(sunshineSeries, CoordinateHandler.readStationCoordinates(stationCoordinatePath),
+                CoordinateHandler.readPostalCodeCoordinates(postalCodeCoordinatePath), DEFAULT_NEAREST_STATIONS);
+    }
+
+    /**
+     * Get the interpolated sun hours of the given postal code in every month of a year.
+     * Stations without measurements in the year are skipped and the next nearest stations are used instead.
+     *
+     * @param postalCode the postal code to interpolate the sun hours for
+     * @param year the year or {@link DailySunshineSeries#AVERAGE_YEAR}
+     * @return the sun hours for each month in the order of {@link ch.nfr.calculator.units.MonthUnit}
+     * @throws WeatherArchiveException if the postal code has no centroid or no station has measurements in the year
+     */
+    public double[] getSunHours(short postalCode, int year) throws WeatherArchiveException {
+        long key = (long) year << Short.SIZE | (postalCode & 0xFFFF);
+        double[] sunHours = interpolatedSunHours.get(key);
+        if (sunHours == null) {
+            sunHours = interpolate(postalCode, year);
+            double[] previous = interpolatedSunHours.putIfAbsent(key, sunHours);
+            if (previous != null) {
+                sunHours = previous;
+            }
+        }
+        return sunHours.clone();
+    }
+
+    /**
+     * Interpolates the sun hours of the given postal code from the nearest stations with measurements in the year.
+     *
+     * @param postalCode the postal code to interpolate the sun hours for
+     * @param year the year or {@link DailySunshineSeries#AVERAGE_YEAR}
+     * @return the sun hours for each month
+     * @throws WeatherArchiveException if the postal code has no centroid or no station has measurements in the year
+     */
+    private double[] interpolate(short postalCode, int year) throws WeatherArchiveException {
+        int index = postalCode - CompiledWeatherArchive.MIN_POSTAL_CODE;
+        if (index < 0 || index >= centroidEast.length || Double.isNaN(centroidEast[index])) {
+            logger.severe("No centroid found for the postal code " + postalCode);
+            throw new WeatherArchiveException("No centroid found for the given postal code.");
+        }
+
+        List<double[]> neighbourSunHours = new ArrayList<>();
+        List<Double> distances = new ArrayList<>();
+        int count = nearestStations;
+        while (neighbourSunHours.size() < nearestStations) {
+            neighbourSunHours.clear();
+            distances.clear();
+            List<KdTree.NeighbourRecord> neighbours = stationTree.findNearest(centroidEast[index], centroidNorth[index], count);
+            for (KdTree.NeighbourRecord neighbour : neighbours) {
+                if (neighbourSunHours.size() == nearestStations) {
+                    break;
+                }
+                try {
+                    neighbourSunHours.add(sunshineSeries.getMonthlySunHours(stations.get(neighbour.point()), year));
+                    distances.add(neighbour.distance());
+                } catch (WeatherArchiveException e) {
+                    logger.fine("The station " + stations.get(neighbour.point()) + " is skipped: " + e.getMessage());
+                }
+            }
+            if (neighbours.size() < count) {
+                break; // all stations are searched
+            }
+            count *= 2;
+        }
+        if (neighbourSunHours.isEmpty()) {
+            logger.severe("No station with measurements found for the postal code " + postalCode);
+            throw new WeatherArchiveException("No station with measurements found for the given postal code.");
+        }
+
+        if (distances.getFirst() < SAME_LOCATION_DISTANCE) {
+            return neighbourSunHours.getFirst();
+        }
+        double[] sunHours = new double[neighbourSunHours.getFirst().length];
+        double weightSum = 0;
+        for (int neighbour = 0; neighbour < neighbourSunHours.size(); neighbour++) {
+            double weight = 1.0 / Math.pow(distances.get(neighbour), DISTANCE_POWER);
+            weightSum += weight;
+            for (int month = 0; month < sunHours.length; month++) {
+                sunHours[month] += weight * neighbourSunHours.get(neighbour)[month];
+            }
+        }
+        for (int month = 0; month < sunHours.length; month++) {
+            sunHours[month] /= weightSum;
+        }
+        return sunHours;
+    }
+}
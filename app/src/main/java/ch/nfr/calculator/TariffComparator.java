@@ -0,0 +1,87 @@
+package ch.nfr.calculator;
+
+import ch.nfr.calculator.converter.UnitConverter;
+import ch.nfr.calculator.tariff.LoadProfile;
+import ch.nfr.calculator.tariff.Tariff;
+import ch.nfr.calculator.units.EnergyUnit;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.logging.Logger;
+
+/**
+ * This class compares the yearly cost of a household under several tariffs.
+ * The consumption of the household is aggregated only once by the {@link CostCalculator},
+ * the comparison then charges the aggregated consumption with every tariff in parallel.
+ */
+public class TariffComparator {
+    /** The used Logger in this class */
+    private static final Logger logger = Logger.getLogger(TariffComparator.class.getName());
+
+    /**
+     * The private constructor to prevent the instantiation of this class.
+     */
+    private TariffComparator() {
+    }
+
+    /**
+     * Compares the tariffs for the consumption of a household, distributed uniformly over the hours of a week.
+     *
+     * @param consumption the aggregated consumption of the household, see {@link CostCalculator.CalculationRecordWrapper#totalCostRecord()}
+     * @param tariffs the tariffs to compare by name
+     * @return the tariffs ranked by their yearly cost ascending, see {@link #compare(CostCalculator.TotalCostRecord, LoadProfile, Map)}
+     */
+    public static List<TariffRankingRecord> compare(CostCalculator.TotalCostRecord consumption, Map<String, Tariff> tariffs) {
+        return compare(consumption, LoadProfile.UNIFORM, tariffs);
+    }
+
+    /**
+     * Compares the tariffs for the consumption of a household.
+     * Every tariff charges the yearly consumption corrected by the solar panel production, including its base fee.
+     * Tariffs with the same yearly cost keep the order of the given tariffs.
+     *
+     * @param consumption the aggregated consumption of the household, see {@link CostCalculator.CalculationRecordWrapper#totalCostRecord()}
+     * @param loadProfile the distribution of the consumption over the hours of a week
+     * @param tariffs the tariffs to compare by name
+     * @return the tariffs ranked by their yearly cost ascending, the cheapest tariff has the rank 1
+     */
+    public static List<TariffRankingRecord> compare(CostCalculator.TotalCostRecord consumption, LoadProfile loadProfile, Map<String, Tariff> tariffs) {
+        Objects.requireNonNull(consumption);
+        Objects.requireNonNull(loadProfile);
+        Objects.requireNonNull(tariffs);
+        double yearlyConsumptionInKiloWattHour = UnitConverter.convertWattSecondsTo(
+                consumption.yearlyCorrectedConsumptionInWattSeconds(), EnergyUnit.KILOWATT_HOUR);
+
+        List<Map.Entry<String, Tariff>> entries = new ArrayList<>(tariffs.entrySet());
+        List<TariffRankingRecord> costs = entries.parallelStream()
+                .map(entry -> new TariffRankingRecord(0, entry.getKey(), entry.getValue(),
+                        entry.getValue().getMeanPriceInRpPerKiloWattHour(yearlyConsumptionInKiloWattHour, loadProfile),
+                        entry.getValue().calculateYearlyCostInRp(yearlyConsumptionInKiloWattHour, loadProfile)))
+                .sorted(Comparator.comparingDouble(TariffRankingRecord::yearlyCostInRp))
+                .toList();
+
+        List<TariffRankingRecord> ranking = new ArrayList<>(costs.size());
+        for (TariffRankingRecord cost : costs) {
+            ranking.add(new TariffRankingRecord(ranking.size() + 1, cost.name(), cost.tariff(),
+                    cost.electricityCostInRpPerkWh(), cost.yearlyCostInRp()));
+        }
+        logger.info("Compared " + ranking.size() + " tariffs for " + yearlyConsumptionInKiloWattHour + " kWh");
+        return ranking;
+    }
+
+    /**
+     * This record class represents the yearly cost of a household under a tariff.
+     *
+     * @param rank the rank of the tariff, 1 for the cheapest tariff
+     * @param name the name of the tariff
+     * @param tariff the tariff
+     * @param electricityCostInRpPerkWh mean electricity cost in Rp per kWh of the corrected consumption
+     * @param yearlyCostInRp yearly electricity cost in Rp, including the base fee of the tariff
+     */
+    public record TariffRankingRecord(int rank, String name, Tariff tariff,
+                                      double electricityCostInRpPerkWh, double yearlyCostInRp) {
+    }
+}
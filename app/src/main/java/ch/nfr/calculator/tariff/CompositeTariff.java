@@ -0,0 +1,73 @@
+package ch.nfr.calculator.tariff;
+
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * A tariff made of several components, for example a time of use grid fee, a tiered energy price and a base fee.
+ * The energy prices and the base fees of all components are added up.
+ */
+public class CompositeTariff implements Tariff {
+    /** The used Logger in this class */
+    private static final Logger logger = Logger.getLogger(CompositeTariff.class.getName());
+    /** The components of the tariff */
+    private final List<Tariff> components;
+
+    /**
+     * Creates a new composite tariff.
+     *
+     * @param components the components of the tariff, at least one
+     */
+    public CompositeTariff(List<Tariff> components) {
+        if (components.isEmpty()) {
+            logger.severe("A composite tariff needs at least one component.");
+            throw new IllegalArgumentException("A composite tariff needs at least one component.");
+        }
+        this.components = List.copyOf(components);
+    }
+
+    /**
+     * Get the components of the tariff.
+     *
+     * @return an unmodifiable list of the components
+     */
+    public List<Tariff> getComponents() {
+        return components;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getMeanPriceInRpPerKiloWattHour(double yearlyConsumptionInKiloWattHour, LoadProfile loadProfile) {
+        double meanPrice = 0;
+        for (Tariff component : components) {
+            meanPrice += component.getMeanPriceInRpPerKiloWattHour(yearlyConsumptionInKiloWattHour, loadProfile);
+        }
+        return meanPrice;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double calculateEnergyCostInRp(double yearlyConsumptionInKiloWattHour, LoadProfile loadProfile) {
+        double energyCost = 0;
+        for (Tariff component : components) {
+            energyCost += component.calculateEnergyCostInRp(yearlyConsumptionInKiloWattHour, loadProfile);
+        }
+        return energyCost;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getYearlyBaseFeeInRp() {
+        double yearlyBaseFee = 0;
+        for (Tariff component : components) {
+            yearlyBaseFee += component.getYearlyBaseFeeInRp();
+        }
+        return yearlyBaseFee;
+    }
+}
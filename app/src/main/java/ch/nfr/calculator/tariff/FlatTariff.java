@@ -0,0 +1,38 @@
+package ch.nfr.calculator.tariff;
+
+/**
+ * A tariff with the same energy price in every hour and an optional monthly base fee.
+ */
+public class FlatTariff extends SlotPriceTariff {
+    /** The energy price in Rp per kWh */
+    private final double priceInRpPerKiloWattHour;
+
+    /**
+     * Creates a new flat tariff without base fee.
+     *
+     * @param priceInRpPerKiloWattHour the energy price in Rp per kWh
+     */
+    public FlatTariff(double priceInRpPerKiloWattHour) {
+        this(priceInRpPerKiloWattHour, 0.0);
+    }
+
+    /**
+     * Creates a new flat tariff.
+     *
+     * @param priceInRpPerKiloWattHour the energy price in Rp per kWh
+     * @param monthlyBaseFeeInRp the monthly base fee in Rp
+     */
+    public FlatTariff(double priceInRpPerKiloWattHour, double monthlyBaseFeeInRp) {
+        super(LoadProfile.filled(priceInRpPerKiloWattHour), monthlyBaseFeeInRp);
+        this.priceInRpPerKiloWattHour = priceInRpPerKiloWattHour;
+    }
+
+    /**
+     * {@inheritDoc}
+     * The energy price is the same for every load profile.
+     */
+    @Override
+    public double getMeanPriceInRpPerKiloWattHour(double yearlyConsumptionInKiloWattHour, LoadProfile loadProfile) {
+        return priceInRpPerKiloWattHour;
+    }
+}
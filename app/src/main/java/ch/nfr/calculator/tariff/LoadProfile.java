@@ -0,0 +1,110 @@
+package ch.nfr.calculator.tariff;
+
+import java.time.DayOfWeek;
+import java.util.Arrays;
+import java.util.logging.Logger;
+
+/**
+ * This class describes how a consumption is distributed over the hours of a week.
+ * Every hour of the week is a slot, the slot of monday 00:00 - 01:00 is the first.
+ * The shares of all slots add up to 1. Instances are immutable and can be shared between threads.
+ */
+public final class LoadProfile {
+    /** The used Logger in this class */
+    private static final Logger logger = Logger.getLogger(LoadProfile.class.getName());
+    /** The number of hours in a day */
+    public static final int HOURS_PER_DAY = 24;
+    /** The number of slots, one for every hour of a week */
+    public static final int SLOTS = DayOfWeek.values().length * HOURS_PER_DAY;
+    /** The load profile with the same consumption in every hour */
+    public static final LoadProfile UNIFORM = of(filled(1.0));
+
+    /** The share of the consumption of each slot */
+    private final double[] shares;
+
+    /**
+     * Creates a new load profile with the given shares.
+     *
+     * @param shares the share of each slot, adding up to 1
+     */
+    private LoadProfile(double[] shares) {
+        this.shares = shares;
+    }
+
+    /**
+     * Creates a new load profile from the consumption weight of each slot, the weights are normalized to shares.
+     *
+     * @param weights the consumption weight of each of the {@value #SLOTS} slots, not negative and not all 0
+     * @return the load profile
+     */
+    public static LoadProfile of(double[] weights) {
+        if (weights.length != SLOTS) {
+            logger.severe("A load profile needs a weight for each of the " + SLOTS + " hours of a week.");
+            throw new IllegalArgumentException("A load profile needs a weight for each of the " + SLOTS + " hours of a week.");
+        }
+        double sum = 0;
+        for (double weight : weights) {
+            if (!(weight >= 0.0) || !Double.isFinite(weight)) {
+                logger.severe("The weights of a load profile must not be negative: " + weight);
+                throw new IllegalArgumentException("The weights of a load profile must not be negative.");
+            }
+            sum += weight;
+        }
+        if (sum == 0.0) {
+            logger.severe("The weights of a load profile must not all be 0.");
+            throw new IllegalArgumentException("The weights of a load profile must not all be 0.");
+        }
+        double[] shares = new double[SLOTS];
+        for (int slot = 0; slot < SLOTS; slot++) {
+            shares[slot] = weights[slot] / sum;
+        }
+        return new LoadProfile(shares);
+    }
+
+    /**
+     * Get the slot of an hour in a week.
+     *
+     * @param day the day of the week
+     * @param hour the hour of the day from 0 to 23
+     * @return the slot of the hour
+     */
+    public static int slotOf(DayOfWeek day, int hour) {
+        return (day.getValue() - 1) * HOURS_PER_DAY + hour;
+    }
+
+    /**
+     * Get the share of the consumption in the given slot.
+     *
+     * @param slot the slot
+     * @return the share of the slot
+     */
+    public double getShare(int slot) {
+        return shares[slot];
+    }
+
+    /**
+     * Get the mean of the given slot values weighted with the shares of this profile.
+     *
+     * @param slotValues a value for every slot
+     * @return the weighted mean of the values
+     */
+    public double weightedMean(double[] slotValues) {
+        double mean = 0;
+        for (int slot = 0; slot < SLOTS; slot++) {
+            mean += shares[slot] * slotValues[slot];
+        }
+        return mean;
+    }
+
+    /**
+     * Creates a slot array filled with the given value.
+     *
+     * @param value the value of every slot
+     * @return the filled slot array
+     */
+    static double[] filled(double value) {
+        double[] slots = new double[SLOTS];
+        Arrays.fill(slots, value);
+        return slots;
+    }
+}
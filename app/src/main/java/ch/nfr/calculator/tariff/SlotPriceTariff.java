@@ -0,0 +1,93 @@
+package ch.nfr.calculator.tariff;
+
+import java.util.logging.Logger;
+
+/**
+ * This class is the base of the tariffs with a precomputed energy price for every slot of a {@link LoadProfile}.
+ * The mean price of the last used load profile is cached, so a tariff with different prices per slot
+ * is evaluated with one multiplication like a flat tariff when the same profile is used again.
+ */
+public abstract class SlotPriceTariff implements Tariff {
+    /** The used Logger in this class */
+    private static final Logger logger = Logger.getLogger(SlotPriceTariff.class.getName());
+    /** The energy price in Rp per kWh of each slot */
+    private final double[] slotPrices;
+    /** The yearly base fee in Rp */
+    private final double yearlyBaseFeeInRp;
+    /** The mean price of the last used load profile */
+    private volatile MeanPrice lastMeanPrice;
+
+    /**
+     * Creates a new tariff with the given slot prices.
+     *
+     * @param slotPrices the energy price in Rp per kWh of each of the {@value LoadProfile#SLOTS} slots
+     * @param monthlyBaseFeeInRp the monthly base fee in Rp
+     */
+    protected SlotPriceTariff(double[] slotPrices, double monthlyBaseFeeInRp) {
+        if (slotPrices.length != LoadProfile.SLOTS) {
+            logger.severe("A tariff needs a price for each of the " + LoadProfile.SLOTS + " hours of a week.");
+            throw new IllegalArgumentException("A tariff needs a price for each of the " + LoadProfile.SLOTS + " hours of a week.");
+        }
+        for (double price : slotPrices) {
+            checkNotNegative(price, "energy price");
+        }
+        this.slotPrices = slotPrices.clone();
+        this.yearlyBaseFeeInRp = checkNotNegative(monthlyBaseFeeInRp, "base fee") * MONTHS_PER_YEAR;
+    }
+
+    /**
+     * Checks that a price or fee is a finite number not below 0.
+     *
+     * @param value the value to check
+     * @param name the name of the value for the error message
+     * @return the checked value
+     */
+    static double checkNotNegative(double value, String name) {
+        if (!Double.isFinite(value) || value < 0.0) {
+            logger.severe("The " + name + " must be a finite number not below 0: " + value);
+            throw new IllegalArgumentException("The " + name + " must be a finite number not below 0: " + value);
+        }
+        return value;
+    }
+
+    /**
+     * Get the energy price of the given slot.
+     *
+     * @param slot the slot
+     * @return the energy price in Rp per kWh
+     */
+    public double getSlotPriceInRpPerKiloWattHour(int slot) {
+        return slotPrices[slot];
+    }
+
+    /**
+     * {@inheritDoc}
+     * The mean price does not depend on the yearly consumption.
+     */
+    @Override
+    public double getMeanPriceInRpPerKiloWattHour(double yearlyConsumptionInKiloWattHour, LoadProfile loadProfile) {
+        MeanPrice meanPrice = lastMeanPrice;
+        if (meanPrice == null || meanPrice.loadProfile() != loadProfile) {
+            meanPrice = new MeanPrice(loadProfile, loadProfile.weightedMean(slotPrices));
+            lastMeanPrice = meanPrice;
+        }
+        return meanPrice.priceInRpPerKiloWattHour();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getYearlyBaseFeeInRp() {
+        return yearlyBaseFeeInRp;
+    }
+
+    /**
+     * A record to store the mean price of a load profile.
+     *
+     * @param loadProfile the load profile
+     * @param priceInRpPerKiloWattHour the mean price in Rp per kWh
+     */
+    private record MeanPrice(LoadProfile loadProfile, double priceInRpPerKiloWattHour) {
+    }
+}
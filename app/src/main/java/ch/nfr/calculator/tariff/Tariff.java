@@ -0,0 +1,49 @@
+package ch.nfr.calculator.tariff;
+
+/**
+ * A tariff calculates the yearly electricity cost of a consumption.
+ * The energy price may depend on the time of the consumption, given by a {@link LoadProfile},
+ * and on the yearly consumption. A fixed base fee is added independent of the consumption.
+ */
+public interface Tariff {
+    /** The number of months in a year, used to convert the monthly base fees */
+    int MONTHS_PER_YEAR = 12;
+
+    /**
+     * Get the mean energy price of the given yearly consumption with the given load profile.
+     *
+     * @param yearlyConsumptionInKiloWattHour the yearly consumption in kWh
+     * @param loadProfile the distribution of the consumption over the hours of a week
+     * @return the mean energy price in Rp per kWh
+     */
+    double getMeanPriceInRpPerKiloWattHour(double yearlyConsumptionInKiloWattHour, LoadProfile loadProfile);
+
+    /**
+     * Get the yearly base fee, which is charged independent of the consumption.
+     *
+     * @return the yearly base fee in Rp
+     */
+    double getYearlyBaseFeeInRp();
+
+    /**
+     * Calculates the yearly energy cost of the given consumption without the base fee.
+     *
+     * @param yearlyConsumptionInKiloWattHour the yearly consumption in kWh
+     * @param loadProfile the distribution of the consumption over the hours of a week
+     * @return the yearly energy cost in Rp
+     */
+    default double calculateEnergyCostInRp(double yearlyConsumptionInKiloWattHour, LoadProfile loadProfile) {
+        return yearlyConsumptionInKiloWattHour * getMeanPriceInRpPerKiloWattHour(yearlyConsumptionInKiloWattHour, loadProfile);
+    }
+
+    /**
+     * Calculates the yearly cost of the given consumption including the base fee.
+     *
+     * @param yearlyConsumptionInKiloWattHour the yearly consumption in kWh
+     * @param loadProfile the distribution of the consumption over the hours of a week
+     * @return the yearly cost in Rp
+     */
+    default double calculateYearlyCostInRp(double yearlyConsumptionInKiloWattHour, LoadProfile loadProfile) {
+        return calculateEnergyCostInRp(yearlyConsumptionInKiloWattHour, loadProfile) + getYearlyBaseFeeInRp();
+    }
+}
@@ -0,0 +1,92 @@
+package ch.nfr.calculator.tariff;
+
+import java.util.logging.Logger;
+
+/**
+ * A tariff with an energy price depending on the yearly consumption.
+ * Every tier starts at a yearly consumption, the consumption above the start of a tier and below the start
+ * of the next tier is charged with the price of the tier. The first tier starts at 0 kWh.
+ */
+public class TieredTariff implements Tariff {
+    /** The used Logger in this class */
+    private static final Logger logger = Logger.getLogger(TieredTariff.class.getName());
+    /** The yearly consumption in kWh at which each tier starts, ascending */
+    private final double[] tierStartsInKiloWattHour;
+    /** The energy price of each tier in Rp per kWh */
+    private final double[] tierPricesInRpPerKiloWattHour;
+
+    /**
+     * Creates a new tiered tariff.
+     *
+     * @param tierStartsInKiloWattHour the yearly consumption in kWh at which each tier starts, ascending and starting at 0
+     * @param tierPricesInRpPerKiloWattHour the energy price of each tier in Rp per kWh
+     */
+    public TieredTariff(double[] tierStartsInKiloWattHour, double[] tierPricesInRpPerKiloWattHour) {
+        if (tierStartsInKiloWattHour.length == 0 || tierStartsInKiloWattHour.length != tierPricesInRpPerKiloWattHour.length) {
+            logger.severe("A tiered tariff needs a price for each tier and at least one tier.");
+            throw new IllegalArgumentException("A tiered tariff needs a price for each tier and at least one tier.");
+        }
+        if (tierStartsInKiloWattHour[0] != 0.0) {
+            logger.severe("The first tier must start at 0 kWh.");
+            throw new IllegalArgumentException("The first tier must start at 0 kWh.");
+        }
+        for (int tier = 0; tier < tierStartsInKiloWattHour.length; tier++) {
+            if (tier > 0 && !(tierStartsInKiloWattHour[tier] > tierStartsInKiloWattHour[tier - 1])) {
+                logger.severe("The tiers must start at ascending consumptions.");
+                throw new IllegalArgumentException("The tiers must start at ascending consumptions.");
+            }
+            SlotPriceTariff.checkNotNegative(tierPricesInRpPerKiloWattHour[tier], "energy price");
+        }
+        this.tierStartsInKiloWattHour = tierStartsInKiloWattHour.clone();
+        this.tierPricesInRpPerKiloWattHour = tierPricesInRpPerKiloWattHour.clone();
+    }
+
+    /**
+     * {@inheritDoc}
+     * The load profile is not used, without consumption the price of the first tier is returned.
+     */
+    @Override
+    public double getMeanPriceInRpPerKiloWattHour(double yearlyConsumptionInKiloWattHour, LoadProfile loadProfile) {
+        if (yearlyConsumptionInKiloWattHour <= 0.0) {
+            return tierPricesInRpPerKiloWattHour[0];
+        }
+        return calculateEnergyCostInRp(yearlyConsumptionInKiloWattHour, loadProfile) / yearlyConsumptionInKiloWattHour;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double calculateEnergyCostInRp(double yearlyConsumptionInKiloWattHour, LoadProfile loadProfile) {
+        double energyCost = 0;
+        for (int tier = 0; tier < tierStartsInKiloWattHour.length && yearlyConsumptionInKiloWattHour > tierStartsInKiloWattHour[tier]; tier++) {
+            double tierEnd = tier + 1 < tierStartsInKiloWattHour.length
+                    ? Math.min(yearlyConsumptionInKiloWattHour, tierStartsInKiloWattHour[tier + 1]) : yearlyConsumptionInKiloWattHour;
+            energyCost += (tierEnd - tierStartsInKiloWattHour[tier]) * tierPricesInRpPerKiloWattHour[tier];
+        }
+        return energyCost;
+    }
+
+    /**
+     * {@inheritDoc}
+     * A tiered tariff has no base fee.
+     */
+    @Override
+    public double getYearlyBaseFeeInRp() {
+        return 0.0;
+    }
+
+    /**
+     * Returns the tiers in the format {@code start:price, ...}.
+     *
+     * @return the tiers as a string
+     */
+    @Override
+    public String toString() {
+        StringBuilder tiers = new StringBuilder();
+        for (int tier = 0; tier < tierStartsInKiloWattHour.length; tier++) {
+            tiers.append(tier == 0 ? "" : ", ").append(tierStartsInKiloWattHour[tier]).append(':').append(tierPricesInRpPerKiloWattHour[tier]);
+        }
+        return "TieredTariff[" + tiers + "]";
+    }
+}
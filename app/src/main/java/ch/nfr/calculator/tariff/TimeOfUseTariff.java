@@ -0,0 +1,77 @@
+package ch.nfr.calculator.tariff;
+
+import java.time.DayOfWeek;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * A tariff with a peak energy price in the peak hours of the peak days and an off-peak energy price otherwise.
+ * The price of every hour of the week is precomputed when the tariff is created.
+ */
+public class TimeOfUseTariff extends SlotPriceTariff {
+    /** The used Logger in this class */
+    private static final Logger logger = Logger.getLogger(TimeOfUseTariff.class.getName());
+    /** The energy price in the peak hours in Rp per kWh */
+    private final double peakPriceInRpPerKiloWattHour;
+    /** The energy price outside the peak hours in Rp per kWh */
+    private final double offPeakPriceInRpPerKiloWattHour;
+
+    /**
+     * Creates a new time of use tariff.
+     *
+     * @param peakPriceInRpPerKiloWattHour the energy price in the peak hours in Rp per kWh
+     * @param offPeakPriceInRpPerKiloWattHour the energy price outside the peak hours in Rp per kWh
+     * @param peakDays the days with peak hours
+     * @param peakStartHour the first peak hour of a peak day, from 0 to 23
+     * @param peakEndHour the hour after the last peak hour of a peak day, from 1 to 24
+     * @param monthlyBaseFeeInRp the monthly base fee in Rp
+     */
+    public TimeOfUseTariff(double peakPriceInRpPerKiloWattHour, double offPeakPriceInRpPerKiloWattHour, Set<DayOfWeek> peakDays,
+                           int peakStartHour, int peakEndHour, double monthlyBaseFeeInRp) {
+        super(slotPrices(peakPriceInRpPerKiloWattHour, offPeakPriceInRpPerKiloWattHour, peakDays, peakStartHour, peakEndHour), monthlyBaseFeeInRp);
+        this.peakPriceInRpPerKiloWattHour = peakPriceInRpPerKiloWattHour;
+        this.offPeakPriceInRpPerKiloWattHour = offPeakPriceInRpPerKiloWattHour;
+    }
+
+    /**
+     * Computes the energy price of every slot.
+     *
+     * @param peakPrice the energy price in the peak hours
+     * @param offPeakPrice the energy price outside the peak hours
+     * @param peakDays the days with peak hours
+     * @param peakStartHour the first peak hour of a peak day
+     * @param peakEndHour the hour after the last peak hour of a peak day
+     * @return the energy price of every slot
+     */
+    private static double[] slotPrices(double peakPrice, double offPeakPrice, Set<DayOfWeek> peakDays, int peakStartHour, int peakEndHour) {
+        if (peakStartHour < 0 || peakEndHour > LoadProfile.HOURS_PER_DAY || peakStartHour >= peakEndHour) {
+            logger.severe("Invalid peak hours " + peakStartHour + "-" + peakEndHour);
+            throw new IllegalArgumentException("Invalid peak hours " + peakStartHour + "-" + peakEndHour);
+        }
+        double[] slotPrices = LoadProfile.filled(offPeakPrice);
+        for (DayOfWeek day : peakDays) {
+            for (int hour = peakStartHour; hour < peakEndHour; hour++) {
+                slotPrices[LoadProfile.slotOf(day, hour)] = peakPrice;
+            }
+        }
+        return slotPrices;
+    }
+
+    /**
+     * Get the energy price in the peak hours.
+     *
+     * @return the peak price in Rp per kWh
+     */
+    public double getPeakPriceInRpPerKiloWattHour() {
+        return peakPriceInRpPerKiloWattHour;
+    }
+
+    /**
+     * Get the energy price outside the peak hours.
+     *
+     * @return the off-peak price in Rp per kWh
+     */
+    public double getOffPeakPriceInRpPerKiloWattHour() {
+        return offPeakPriceInRpPerKiloWattHour;
+    }
+}
@@ -0,0 +1,291 @@
+package ch.nfr.filehandler;
+
+import ch.nfr.calculator.units.EnergyUnit;
+import ch.nfr.calculator.units.TimeUnit;
+import ch.nfr.tablemodel.device.DeviceCategory;
+import ch.nfr.tablemodel.records.DeviceRecord;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * This class reads the binary appliance database written by {@link ApplianceDatabaseImporter}.
+ * The database holds the rated power and the standby power of appliance models and is far too large
+ * for the properties files of the {@link DeviceProposalHandler}.
+ * <p>
+ * The file is memory mapped read-only, a lookup searches the sorted records directly in the mapped file
+ * and decodes only the matching records, so the database is never loaded onto the heap.
+ * All values are stored in big-endian byte order.
+ * <pre>
+ * header:  int magic, short format version, short reserved, int record count, int string pool offset
+ * records: record count records of {@value #RECORD_SIZE} bytes, sorted by the UTF-8 bytes of the search key
+ *          int key offset, int key length, int manufacturer offset, int manufacturer length,
+ *          int model offset, int model length, float rated power in W, float standby power in W,
+ *          byte category ordinal, 7 bytes padding
+ * strings: UTF-8 string pool, the offsets are relative to the string pool offset
+ * </pre>
+ * The search key of a record is its model name in lower case, see {@link #normalize(String)}.
+ */
+public final class ApplianceDatabase {
+    /** The used Logger in this class */
+    private static final Logger logger = Logger.getLogger(ApplianceDatabase.class.getName());
+    /** The file extension of appliance database files */
+    public static final String FILE_EXTENSION = ".adb";
+    /** The magic number at the start of every appliance database file, "ESAD" in ASCII */
+    static final int MAGIC = 0x45534144;
+    /** The version of the binary layout, files with another version are rejected */
+    static final short FORMAT_VERSION = 1;
+    /** The size of the header */
+    static final int HEADER_SIZE = 16;
+    /** The size of one appliance record */
+    static final int RECORD_SIZE = 40;
+    /** The number of hours in a day */
+    private static final double HOURS_PER_DAY = 24.0;
+
+    /** The opened appliance databases, cached per path */
+    private static final Map<String, ApplianceDatabase> openDatabases = new ConcurrentHashMap<>();
+
+    /** The mapped file content */
+    private final ByteBuffer buffer;
+    /** The number of records */
+    private final int recordCount;
+    /** The offset of the string pool in the file */
+    private final int stringPoolOffset;
+
+    /**
+     * Creates a new appliance database from the mapped file content.
+     *
+     * @param path the path of the file, used for error messages
+     * @param buffer the mapped file content
+     * @throws ApplianceDatabaseException if the file is not a valid appliance database
+     */
+    private ApplianceDatabase(String path, ByteBuffer buffer) throws ApplianceDatabaseException {
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            logger.severe("Not an appliance database: " + path);
+            throw new ApplianceDatabaseException("Not an appliance database: " + path);
+        }
+        if (buffer.getShort(4) != FORMAT_VERSION) {
+            logger.severe("Unsupported appliance database format version " + buffer.getShort(4) + ": " + path);
+            throw new ApplianceDatabaseException("Unsupported appliance database format version " + buffer.getShort(4) + ": " + path);
+        }
+        this.buffer = buffer;
+        this.recordCount = buffer.getInt(8);
+        this.stringPoolOffset = buffer.getInt(12);
+        if (recordCount < 0 || stringPoolOffset != HEADER_SIZE + (long) recordCount * RECORD_SIZE
+                || stringPoolOffset > buffer.capacity()) {
+            logger.severe("Invalid record table in the appliance database: " + path);
+            throw new ApplianceDatabaseException("Invalid record table in the appliance database: " + path);
+        }
+    }
+
+    /**
+     * Opens the appliance database of the given path. The file is mapped only on the first call for a path.
+     *
+     * @param path the path to the appliance database
+     * @return the opened appliance database
+     * @throws ApplianceDatabaseException if the file could not be mapped or is not a valid appliance database
+     */
+    public static ApplianceDatabase open(String path) throws ApplianceDatabaseException {
+        Objects.requireNonNull(path, "Appliance database must not be null");
+        ApplianceDatabase database = openDatabases.get(path);
+        if (database == null) {
+            ByteBuffer buffer;
+            try (FileChannel channel = FileChannel.open(Path.of(path), StandardOpenOption.READ)) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            } catch (IOException e) {
+                logger.severe("Error while mapping the appliance database " + path + ": " + e.getMessage());
+                throw new ApplianceDatabaseException("Error while mapping the appliance database " + path + ": " + e.getMessage(), e);
+            }
+            database = new ApplianceDatabase(path, buffer);
+            ApplianceDatabase previous = openDatabases.putIfAbsent(path, database);
+            if (previous != null) {
+                database = previous;
+            }
+            logger.info("Mapped appliance database " + path + " with " + database.recordCount + " appliances");
+        }
+        return database;
+    }
+
+    /**
+     * Normalizes a model name into the search key of the database.
+     *
+     * @param model the model name
+     * @return the trimmed model name in lower case
+     */
+    public static String normalize(String model) {
+        return model.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Get the number of appliances in the database.
+     *
+     * @return the number of appliances
+     */
+    public int size() {
+        return recordCount;
+    }
+
+    /**
+     * Finds the appliances with the given model name, ignoring the case.
+     * Several manufacturers can use the same model name, so more than one appliance can match.
+     *
+     * @param model the model name
+     * @return the matching appliances sorted by the manufacturer, empty if no appliance matches
+     */
+    public List<ApplianceRecord> findByModel(String model) {
+        byte[] key = normalize(model).getBytes(StandardCharsets.UTF_8);
+        List<ApplianceRecord> appliances = new ArrayList<>();
+        for (int record = lowerBound(key); record < recordCount && compareKey(record, key, false) == 0; record++) {
+            appliances.add(readRecord(record));
+        }
+        return appliances;
+    }
+
+    /**
+     * Finds the appliances whose model name starts with the given prefix, ignoring the case.
+     *
+     * @param prefix the prefix of the model name
+     * @param limit the maximal number of appliances to return
+     * @return the matching appliances sorted by the model name, at most limit
+     */
+    public List<ApplianceRecord> findByPrefix(String prefix, int limit) {
+        byte[] key = normalize(prefix).getBytes(StandardCharsets.UTF_8);
+        List<ApplianceRecord> appliances = new ArrayList<>();
+        for (int record = lowerBound(key); record < recordCount && appliances.size() < limit
+                && compareKey(record, key, true) == 0; record++) {
+            appliances.add(readRecord(record));
+        }
+        return appliances;
+    }
+
+    /**
+     * Searches the first record whose key is not less than the given key.
+     *
+     * @param key the UTF-8 bytes of the normalized key
+     * @return the index of the first record not less than the key, the record count if there is none
+     */
+    private int lowerBound(byte[] key) {
+        int low = 0;
+        int high = recordCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compareKey(middle, key, false) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Compares the key of a record in the mapped file with the given key byte by byte, without decoding it.
+     *
+     * @param record the index of the record
+     * @param key the UTF-8 bytes of the normalized key
+     * @param prefix true if only the first key length bytes of the record key are compared
+     * @return a negative number, zero or a positive number if the record key is less than, equal to or greater than the key
+     */
+    private int compareKey(int record, byte[] key, boolean prefix) {
+        int offset = HEADER_SIZE + record * RECORD_SIZE;
+        int keyOffset = stringPoolOffset + buffer.getInt(offset);
+        int keyLength = buffer.getInt(offset + 4);
+        int length = Math.min(keyLength, key.length);
+        for (int index = 0; index < length; index++) {
+            int difference = Byte.toUnsignedInt(buffer.get(keyOffset + index)) - Byte.toUnsignedInt(key[index]);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        if (prefix && keyLength >= key.length) {
+            return 0;
+        }
+        return keyLength - key.length;
+    }
+
+    /**
+     * Decodes the record with the given index.
+     *
+     * @param record the index of the record
+     * @return the appliance of the record
+     */
+    private ApplianceRecord readRecord(int record) {
+        int offset = HEADER_SIZE + record * RECORD_SIZE;
+        int category = buffer.get(offset + 32);
+        return new ApplianceRecord(
+                readString(buffer.getInt(offset + 8), buffer.getInt(offset + 12)),
+                readString(buffer.getInt(offset + 16), buffer.getInt(offset + 20)),
+                category >= 0 && category < DeviceCategory.values().length ? DeviceCategory.values()[category] : DeviceCategory.OTHER,
+                buffer.getFloat(offset + 24),
+                buffer.getFloat(offset + 28));
+    }
+
+    /**
+     * Reads an UTF-8 string from the string pool.
+     *
+     * @param offset the offset of the string in the string pool
+     * @param length the length of the string in bytes
+     * @return the string
+     */
+    private String readString(int offset, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(stringPoolOffset + offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * This record represents an appliance model of the database.
+     *
+     * @param manufacturer the manufacturer of the appliance
+     * @param model the model name of the appliance
+     * @param deviceCategory the category of the appliance
+     * @param ratedPowerInWatt the rated power while the appliance is in use
+     * @param standbyPowerInWatt the power while the appliance is in standby
+     */
+    public record ApplianceRecord(String manufacturer, String model, DeviceCategory deviceCategory,
+                                  double ratedPowerInWatt, double standbyPowerInWatt) {
+
+        /**
+         * Get the name of the appliance, the manufacturer followed by the model name.
+         *
+         * @return the name of the appliance
+         */
+        public String name() {
+            return manufacturer.isEmpty() ? model : manufacturer + " " + model;
+        }
+
+        /**
+         * Converts the appliance into a wired {@link DeviceRecord} used the given hours per day.
+         * A device has only one power, so the standby consumption of the remaining hours of the day
+         * is added to the power while in use. An appliance which is never used is in standby the whole day.
+         *
+         * @param usageHoursPerDay the hours per day the appliance is in use, between 0 and 24
+         * @return a new DeviceRecord
+         */
+        public DeviceRecord toDeviceRecord(double usageHoursPerDay) {
+            if (!(usageHoursPerDay >= 0.0 && usageHoursPerDay <= HOURS_PER_DAY)) {
+                logger.severe("The usage must be between 0 and 24 hours per day: " + usageHoursPerDay);
+                throw new IllegalArgumentException("The usage must be between 0 and 24 hours per day: " + usageHoursPerDay);
+            }
+            double power = standbyPowerInWatt;
+            double usage = HOURS_PER_DAY;
+            if (usageHoursPerDay > 0.0) {
+                power = ratedPowerInWatt + standbyPowerInWatt * (HOURS_PER_DAY - usageHoursPerDay) / usageHoursPerDay;
+                usage = usageHoursPerDay;
+            }
+            return new DeviceProposalHandler.DeviceProposalRecord(null, model, true, name(), deviceCategory,
+                    power, EnergyUnit.WATT_HOUR, usage, TimeUnit.HOUR, TimeUnit.DAY).toDeviceRecord();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package ch.nfr.filehandler;
+
+/**
+ * Exception thrown when an error occurs while importing or reading the appliance database.
+ */
+public class ApplianceDatabaseException extends Exception {
+
+    /**
+     * Constructs a new ApplianceDatabaseException with the specified detail message.
+     *
+     * @param message the detail message. The detail message is saved for later retrieval by the {@link #getMessage()} method.
+     */
+    public ApplianceDatabaseException(String message) {
+        super(message);
+    }
+
+    /**
+     * Constructs a new ApplianceDatabaseException with the specified detail message and cause.
+     *
+     * @param message the detail message. The detail message is saved for later retrieval by the {@link #getMessage()} method.
+     * @param cause the cause. The cause is saved for later retrieval by the {@link #getCause()} method.
+     */
+    public ApplianceDatabaseException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
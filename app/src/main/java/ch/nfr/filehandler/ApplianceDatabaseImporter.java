@@ -0,0 +1,282 @@
+package ch.nfr.filehandler;
+
+import ch.nfr.tablemodel.device.DeviceCategory;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * This class imports the CSV export of the appliance database into a binary {@link ApplianceDatabase}.
+ * The CSV file is separated by semicolons and has a header with the columns {@value #MANUFACTURER_COLUMN},
+ * {@value #MODEL_COLUMN}, {@value #CATEGORY_COLUMN} (name of a {@link DeviceCategory}, empty for other devices),
+ * {@value #RATED_POWER_COLUMN} and {@value #STANDBY_POWER_COLUMN} (both in watt).
+ * Empty lines and lines starting with {@value #COMMENT} are skipped.
+ * <p>
+ * The records are sorted by their search key and the strings are written once into a shared string pool.
+ * A model listed twice for the same manufacturer is imported only with its first line.
+ */
+public class ApplianceDatabaseImporter {
+    /** The used Logger in this class */
+    private static final Logger logger = Logger.getLogger(ApplianceDatabaseImporter.class.getName());
+    /** The separator of the columns in the CSV file */
+    private static final String SEPARATOR = ";";
+    /** The start of a comment line */
+    private static final String COMMENT = "#";
+    /** The name of the manufacturer column */
+    public static final String MANUFACTURER_COLUMN = "manufacturer";
+    /** The name of the model column */
+    public static final String MODEL_COLUMN = "model";
+    /** The name of the category column */
+    public static final String CATEGORY_COLUMN = "category";
+    /** The name of the rated power column */
+    public static final String RATED_POWER_COLUMN = "ratedPower";
+    /** The name of the standby power column */
+    public static final String STANDBY_POWER_COLUMN = "standbyPower";
+
+    /**
+     * The private constructor to prevent the instantiation of this class.
+     */
+    private ApplianceDatabaseImporter() {
+    }
+
+    /**
+     * Imports the CSV export of the appliance database into a binary appliance database.
+     *
+     * @param args the path of the CSV file and the path of the appliance database
+     * @throws ApplianceDatabaseException if the CSV file is invalid or the appliance database could not be written
+     */
+    public static void main(String[] args) throws ApplianceDatabaseException {
+        if (args.length != 2) {
+            logger.severe("Usage: ApplianceDatabaseImporter <csv file> <output>");
+            throw new IllegalArgumentException("Usage: ApplianceDatabaseImporter <csv file> <output>");
+        }
+        importCsv(Path.of(args[0]), Path.of(args[1]));
+    }
+
+    /**
+     * Imports the CSV export of the appliance database into a binary appliance database.
+     * The database is written next to the target first and then moved, so a mapped database is never changed.
+     *
+     * @param csvPath the path of the CSV file
+     * @param target the path of the appliance database
+     * @return the number of imported appliances
+     * @throws ApplianceDatabaseException if the CSV file could not be read or is invalid,
+     * or the appliance database could not be written
+     */
+    public static int importCsv(Path csvPath, Path target) throws ApplianceDatabaseException {
+        List<ImportRecord> appliances = readCsv(csvPath);
+        appliances.sort((first, second) -> {
+            int compare = Arrays.compareUnsigned(first.key(), second.key());
+            return compare != 0 ? compare : first.manufacturer().compareToIgnoreCase(second.manufacturer());
+        });
+        List<ImportRecord> uniqueAppliances = new ArrayList<>(appliances.size());
+        for (ImportRecord appliance : appliances) {
+            ImportRecord last = uniqueAppliances.isEmpty() ? null : uniqueAppliances.getLast();
+            if (last != null && Arrays.equals(last.key(), appliance.key()) && last.manufacturer().equalsIgnoreCase(appliance.manufacturer())) {
+                logger.warning("The model " + appliance.model() + " of " + appliance.manufacturer() + " is listed twice, only the first line is imported.");
+            } else {
+                uniqueAppliances.add(appliance);
+            }
+        }
+
+        try {
+            write(target, uniqueAppliances);
+        } catch (IOException e) {
+            logger.severe("The appliance database " + target + " could not be written: " + e.getMessage());
+            throw new ApplianceDatabaseException("The appliance database " + target + " could not be written.", e);
+        }
+        logger.info("Imported " + uniqueAppliances.size() + " appliances from " + csvPath + " into " + target);
+        return uniqueAppliances.size();
+    }
+
+    /**
+     * Reads all appliances of the CSV file.
+     *
+     * @param csvPath the path of the CSV file
+     * @return the appliances in the order of the file
+     * @throws ApplianceDatabaseException if the file could not be read, has no header or a line is invalid
+     */
+    private static List<ImportRecord> readCsv(Path csvPath) throws ApplianceDatabaseException {
+        List<ImportRecord> appliances = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(csvPath, StandardCharsets.UTF_8)) {
+            int[] columns = null;
+            int lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || line.startsWith(COMMENT)) {
+                    continue;
+                }
+                if (columns == null) {
+                    columns = readHeader(line);
+                } else {
+                    appliances.add(parseLine(line, lineNumber, columns));
+                }
+            }
+            if (columns == null) {
+                logger.severe("The appliance file " + csvPath + " has no header.");
+                throw new ApplianceDatabaseException("The appliance file " + csvPath + " has no header.");
+            }
+        } catch (IOException e) {
+            logger.severe("The appliance file " + csvPath + " could not be read: " + e.getMessage());
+            throw new ApplianceDatabaseException("The appliance file " + csvPath + " could not be read.", e);
+        }
+        return appliances;
+    }
+
+    /**
+     * Reads the header of the CSV file and returns the position of each column.
+     *
+     * @param header the header line
+     * @return the position of the manufacturer, model, category, rated power and standby power column
+     * @throws ApplianceDatabaseException if a column is missing
+     */
+    private static int[] readHeader(String header) throws ApplianceDatabaseException {
+        List<String> names = Arrays.stream(header.split(SEPARATOR)).map(String::trim).toList();
+        int[] columns = {names.indexOf(MANUFACTURER_COLUMN), names.indexOf(MODEL_COLUMN), names.indexOf(CATEGORY_COLUMN),
+                names.indexOf(RATED_POWER_COLUMN), names.indexOf(STANDBY_POWER_COLUMN)};
+        if (Arrays.stream(columns).anyMatch(column -> column < 0)) {
+            logger.severe("The appliance file header " + header + " must contain the columns " + MANUFACTURER_COLUMN + ", "
+                    + MODEL_COLUMN + ", " + CATEGORY_COLUMN + ", " + RATED_POWER_COLUMN + " and " + STANDBY_POWER_COLUMN);
+            throw new ApplianceDatabaseException("The appliance file header must contain the columns " + MANUFACTURER_COLUMN + ", "
+                    + MODEL_COLUMN + ", " + CATEGORY_COLUMN + ", " + RATED_POWER_COLUMN + " and " + STANDBY_POWER_COLUMN);
+        }
+        return columns;
+    }
+
+    /**
+     * Parses one line of the CSV file.
+     *
+     * @param line the line to parse
+     * @param lineNumber the line number in the file, used for error messages
+     * @param columns the position of the manufacturer, model, category, rated power and standby power column
+     * @return the parsed appliance
+     * @throws ApplianceDatabaseException if a column is missing, the model is empty, the category is unknown
+     * or a power is not a finite positive number
+     */
+    private static ImportRecord parseLine(String line, int lineNumber, int[] columns) throws ApplianceDatabaseException {
+        String[] values = line.split(SEPARATOR, -1);
+        if (values.length <= Arrays.stream(columns).max().orElse(0)) {
+            logger.severe("The line " + lineNumber + " of the appliance file has too few columns: " + line);
+            throw new ApplianceDatabaseException("The line " + lineNumber + " of the appliance file has too few columns.");
+        }
+        String manufacturer = values[columns[0]].trim();
+        String model = values[columns[1]].trim();
+        if (model.isEmpty()) {
+            logger.severe("The line " + lineNumber + " of the appliance file has no model: " + line);
+            throw new ApplianceDatabaseException("The line " + lineNumber + " of the appliance file has no model.");
+        }
+        String categoryName = values[columns[2]].trim();
+        DeviceCategory category = categoryName.isEmpty() ? DeviceCategory.OTHER : DeviceCategory.parseDeviceCategory(categoryName);
+        if (category == null) {
+            logger.severe("The line " + lineNumber + " of the appliance file has an unknown category: " + categoryName);
+            throw new ApplianceDatabaseException("The line " + lineNumber + " of the appliance file has an unknown category: " + categoryName);
+        }
+        try {
+            float ratedPower = Float.parseFloat(values[columns[3]].trim());
+            float standbyPower = Float.parseFloat(values[columns[4]].trim());
+            if (!Float.isFinite(ratedPower) || ratedPower < 0.0f || !Float.isFinite(standbyPower) || standbyPower < 0.0f) {
+                throw new NumberFormatException("power must be a finite positive number");
+            }
+            return new ImportRecord(ApplianceDatabase.normalize(model).getBytes(StandardCharsets.UTF_8),
+                    manufacturer, model, category, ratedPower, standbyPower);
+        } catch (NumberFormatException e) {
+            logger.severe("The line " + lineNumber + " of the appliance file has an invalid power: " + line);
+            throw new ApplianceDatabaseException("The line " + lineNumber + " of the appliance file has an invalid power.", e);
+        }
+    }
+
+    /**
+     * Writes the sorted appliances into a new appliance database.
+     *
+     * @param target the path of the appliance database
+     * @param appliances the appliances sorted by their search key
+     * @throws IOException if the file could not be written
+     */
+    private static void write(Path target, List<ImportRecord> appliances) throws IOException {
+        ByteArrayOutputStream stringPool = new ByteArrayOutputStream();
+        Map<String, Integer> stringOffsets = new HashMap<>();
+        int[] offsets = new int[appliances.size() * 3];
+        for (int appliance = 0; appliance < appliances.size(); appliance++) {
+            ImportRecord record = appliances.get(appliance);
+            offsets[appliance * 3] = poolString(stringPool, stringOffsets, new String(record.key(), StandardCharsets.UTF_8));
+            offsets[appliance * 3 + 1] = poolString(stringPool, stringOffsets, record.manufacturer());
+            offsets[appliance * 3 + 2] = poolString(stringPool, stringOffsets, record.model());
+        }
+
+        Path parent = target.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = parent.resolve(target.getFileName() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(ApplianceDatabase.MAGIC);
+                out.writeShort(ApplianceDatabase.FORMAT_VERSION);
+                out.writeShort(0);
+                out.writeInt(appliances.size());
+                out.writeInt(ApplianceDatabase.HEADER_SIZE + appliances.size() * ApplianceDatabase.RECORD_SIZE);
+                for (int appliance = 0; appliance < appliances.size(); appliance++) {
+                    ImportRecord record = appliances.get(appliance);
+                    out.writeInt(offsets[appliance * 3]);
+                    out.writeInt(record.key().length);
+                    out.writeInt(offsets[appliance * 3 + 1]);
+                    out.writeInt(record.manufacturer().getBytes(StandardCharsets.UTF_8).length);
+                    out.writeInt(offsets[appliance * 3 + 2]);
+                    out.writeInt(record.model().getBytes(StandardCharsets.UTF_8).length);
+                    out.writeFloat(record.ratedPower());
+                    out.writeFloat(record.standbyPower());
+                    out.writeByte(record.category().ordinal());
+                    out.write(new byte[ApplianceDatabase.RECORD_SIZE - 33]);
+                }
+                stringPool.writeTo(out);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Adds a string to the string pool, a string already in the pool is not added again.
+     *
+     * @param stringPool the string pool
+     * @param stringOffsets the offset of each string already in the pool
+     * @param string the string to add
+     * @return the offset of the string in the pool
+     */
+    private static int poolString(ByteArrayOutputStream stringPool, Map<String, Integer> stringOffsets, String string) {
+        Integer offset = stringOffsets.get(string);
+        if (offset == null) {
+            offset = stringPool.size();
+            stringPool.writeBytes(string.getBytes(StandardCharsets.UTF_8));
+            stringOffsets.put(string, offset);
+        }
+        return offset;
+    }
+
+    /**
+     * This record represents an appliance read from the CSV file.
+     *
+     * @param key the UTF-8 bytes of the search key
+     * @param manufacturer the manufacturer of the appliance
+     * @param model the model name of the appliance
+     * @param category the category of the appliance
+     * @param ratedPower the rated power in watt
+     * @param standbyPower the standby power in watt
+     */
+    private record ImportRecord(byte[] key, String manufacturer, String model, DeviceCategory category,
+                                float ratedPower, float standbyPower) {
+    }
+}
@@ -0,0 +1,196 @@
+package ch.nfr.filehandler;
+
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+/**
+ * This class holds the electricity prices compiled into a dense lookup table for all postal codes from
+ * {@value CompiledWeatherArchive#MIN_POSTAL_CODE} to {@value CompiledWeatherArchive#MAX_POSTAL_CODE}.
+ * The postal code regex of every price region is evaluated only once while compiling,
+ * afterward the price of a postal code is found with one array lookup.
+ * Instances are immutable and can be shared between threads.
+ */
+public final class CompiledElectricityPrices {
+    /** The used Logger in this class */
+    private static final Logger logger = Logger.getLogger(CompiledElectricityPrices.class.getName());
+
+    /** The electricity price in Rp./kWh of each postal code, starting at the smallest postal code, NaN if not covered */
+    private final DoubleBuffer priceOfPostalCode;
+
+    /**
+     * Creates a new compiled electricity price table from the already compiled prices.
+     * The table is only read with absolute positions, so it can be shared between threads.
+     *
+     * @param priceOfPostalCode the electricity price of each postal code
+     */
+    private CompiledElectricityPrices(DoubleBuffer priceOfPostalCode) {
+        this.priceOfPostalCode = priceOfPostalCode;
+    }
+
+    /**
+     * Reads the electricity price file and compiles it into the lookup table.
+     * The postal code regex keys are compiled into intervals with the {@link PostalCodeIntervalIndex}.
+     * Regions with tariff properties of an extended electricity price file, see {@link CompiledTariffs},
+     * are skipped, they have no flat price and are not covered.
+     *
+     * @param path the path to the electricity price file
+     * @return the compiled electricity prices
+     * @throws ElectricityPriceDataException if the file could not be read, contains an invalid key or price
+     * or regions covering the same postal code
+     */
+    public static CompiledElectricityPrices compile(String path) throws ElectricityPriceDataException {
+        Objects.requireNonNull(path, "Properties file must not be null");
+        Properties properties = new Properties();
+        try (FileInputStream fileInputStream = new FileInputStream(path)) {
+            properties.load(fileInputStream);
+        } catch (IOException e) {
+            logger.severe("Error while reading the electricity cost properties file: " + e.getMessage());
+            throw new ElectricityPriceDataException("Error while reading the electricity cost properties file: " + e.getMessage(), e);
+        }
+
+        Set<String> tariffRegions = new HashSet<>();
+        for (String key : properties.stringPropertyNames()) {
+            if (CompiledTariffs.isTariffKey(key)) {
+                tariffRegions.add(key.substring(0, key.lastIndexOf('.')));
+            }
+        }
+        if (!tariffRegions.isEmpty()) {
+            logger.info("Skipped the regions with tariff properties in " + path + ": " + tariffRegions);
+        }
+
+        Map<String, Double> pricePerRegion = new TreeMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            if (CompiledTariffs.isTariffKey(key) || tariffRegions.contains(key)) {
+                continue;
+            }
+            try {
+                double price = Double.parseDouble(properties.getProperty(key).trim());
+                if (!Double.isFinite(price) || price < 0.0) {
+                    throw new NumberFormatException("price must be a finite positive number: " + price);
+                }
+                pricePerRegion.put(key, price);
+            } catch (NumberFormatException e) {
+                logger.severe("Invalid electricity price for " + key + ": " + e.getMessage());
+                throw new ElectricityPriceDataException("Invalid electricity price for " + key + ": " + e.getMessage(), e);
+            }
+        }
+
+        List<String> regions = new ArrayList<>(pricePerRegion.keySet());
+        PostalCodeIntervalIndex intervalIndex;
+        try {
+            intervalIndex = PostalCodeIntervalIndex.compile(regions);
+        } catch (PostalCodeIntervalException e) {
+            logger.severe("Invalid regions in the electricity cost properties file " + path + ": " + e.getMessage());
+            throw new ElectricityPriceDataException("Invalid regions in the electricity cost properties file " + path + ": " + e.getMessage(), e);
+        }
+        double[] priceOfPostalCode = new double[CompiledWeatherArchive.POSTAL_CODES];
+        Arrays.fill(priceOfPostalCode, Double.NaN);
+        for (PostalCodeIntervalIndex.PostalCodeInterval interval : intervalIndex.getIntervals()) {
+            Arrays.fill(priceOfPostalCode, interval.from() - CompiledWeatherArchive.MIN_POSTAL_CODE,
+                    interval.to() - CompiledWeatherArchive.MIN_POSTAL_CODE + 1, pricePerRegion.get(regions.get(interval.regionIndex())));
+        }
+        logger.info("Compiled electricity prices " + path + " with " + pricePerRegion.size() + " regions");
+        return new CompiledElectricityPrices(DoubleBuffer.wrap(priceOfPostalCode));
+    }
+
+    /**
+     * Creates compiled electricity prices backed by the electricity price section of a {@link ReferenceDataFile}.
+     *
+     * @param section the electricity price section
+     * @return the compiled electricity prices
+     */
+    static CompiledElectricityPrices readSection(ByteBuffer section) {
+        return new CompiledElectricityPrices(section.slice(0, CompiledWeatherArchive.POSTAL_CODES * Double.BYTES).asDoubleBuffer());
+    }
+
+    /**
+     * Writes the electricity price section of a {@link ReferenceDataFile}.
+     *
+     * @param out the stream to write to
+     * @throws IOException if the section could not be written
+     */
+    void writeSection(DataOutputStream out) throws IOException {
+        for (int postalCode = 0; postalCode < CompiledWeatherArchive.POSTAL_CODES; postalCode++) {
+            out.writeDouble(priceOfPostalCode.get(postalCode));
+        }
+    }
+
+    /**
+     * Checks if the given postal code has an electricity price.
+     *
+     * @param postalCode the postal code to check
+     * @return true if the postal code has an electricity price, false otherwise
+     */
+    public boolean covers(short postalCode) {
+        return postalCode >= CompiledWeatherArchive.MIN_POSTAL_CODE && postalCode <= CompiledWeatherArchive.MAX_POSTAL_CODE
+                && !Double.isNaN(priceOfPostalCode.get(postalCode - CompiledWeatherArchive.MIN_POSTAL_CODE));
+    }
+
+    /**
+     * Get the electricity price of the given postal code.
+     *
+     * @param postalCode the postal code
+     * @return the electricity price in Rp./kWh
+     * @throws ElectricityPriceDataException if no electricity price is known for the postal code
+     */
+    public double getElectricityPrice(short postalCode) throws ElectricityPriceDataException {
+        if (!covers(postalCode)) {
+            logger.severe("No electricity price found for the postal code " + postalCode);
+            throw new ElectricityPriceDataException("No electricity price found for the postal code " + postalCode);
+        }
+        return priceOfPostalCode.get(postalCode - CompiledWeatherArchive.MIN_POSTAL_CODE);
+    }
+
+    /**
+     * Get the electricity prices of several postal codes at once, for example for the households of a portfolio.
+     * All postal codes are checked before an error is reported, so the error names every postal code without a price.
+     *
+     * @param postalCodes the postal codes
+     * @return the electricity price in Rp./kWh of each postal code, in the order of the postal codes
+     * @throws ElectricityPriceDataException if no electricity price is known for one of the postal codes
+     */
+    public double[] pricesFor(short[] postalCodes) throws ElectricityPriceDataException {
+        double[] prices = new double[postalCodes.length];
+        List<Short> unmappedPostalCodes = new ArrayList<>();
+        for (int index = 0; index < postalCodes.length; index++) {
+            if (covers(postalCodes[index])) {
+                prices[index] = priceOfPostalCode.get(postalCodes[index] - CompiledWeatherArchive.MIN_POSTAL_CODE);
+            } else {
+                unmappedPostalCodes.add(postalCodes[index]);
+            }
+        }
+        if (!unmappedPostalCodes.isEmpty()) {
+            logger.severe("No electricity price found for the postal codes " + unmappedPostalCodes);
+            throw new ElectricityPriceDataException("No electricity price found for the postal codes " + unmappedPostalCodes);
+        }
+        return prices;
+    }
+
+    /**
+     * Get the number of postal codes with an electricity price.
+     *
+     * @return the number of covered postal codes
+     */
+    public int getCoveredPostalCodes() {
+        int coveredPostalCodes = 0;
+        for (int postalCode = 0; postalCode < CompiledWeatherArchive.POSTAL_CODES; postalCode++) {
+            if (!Double.isNaN(priceOfPostalCode.get(postalCode))) {
+                coveredPostalCodes++;
+            }
+        }
+        return coveredPostalCodes;
+    }
+}
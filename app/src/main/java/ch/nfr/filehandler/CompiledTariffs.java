@@ -0,0 +1,293 @@
+package ch.nfr.filehandler;
+
+import ch.nfr.calculator.tariff.CompositeTariff;
+import ch.nfr.calculator.tariff.FlatTariff;
+import ch.nfr.calculator.tariff.Tariff;
+import ch.nfr.calculator.tariff.TieredTariff;
+import ch.nfr.calculator.tariff.TimeOfUseTariff;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+/**
+ * This class holds the tariffs of an extended electricity price file compiled into a dense lookup table
+ * for all postal codes from {@value CompiledWeatherArchive#MIN_POSTAL_CODE} to {@value CompiledWeatherArchive#MAX_POSTAL_CODE}.
+ * <p>
+ * A key of the file is the postal code regex of a region, optionally followed by a dot and a tariff property:
+ * <ul>
+ *     <li>{@code <region> = 28.61} or {@code <region>.energyPrice = 28.61}: a flat energy price in Rp/kWh,
+ *     the format of the plain electricity price file</li>
+ *     <li>{@code <region>.peakPrice}, {@code <region>.offPeakPrice}: a time of use energy price in Rp/kWh,
+ *     with the optional {@code <region>.peakDays = MONDAY-FRIDAY} and {@code <region>.peakHours = 7-20}</li>
+ *     <li>{@code <region>.tiers = 0:27.5, 5000:25.0}: a tiered energy price, each tier starts at a yearly consumption in kWh</li>
+ *     <li>{@code <region>.baseFee = 500}: a monthly base fee in Rp</li>
+ * </ul>
+ * A region with several properties gets a {@link CompositeTariff} of all components.
+ * Instances are immutable and can be shared between threads.
+ */
+public final class CompiledTariffs {
+    /** The used Logger in this class */
+    private static final Logger logger = Logger.getLogger(CompiledTariffs.class.getName());
+    /** The property of a flat energy price */
+    public static final String ENERGY_PRICE = "energyPrice";
+    /** The property of the energy price in the peak hours */
+    public static final String PEAK_PRICE = "peakPrice";
+    /** The property of the energy price outside the peak hours */
+    public static final String OFF_PEAK_PRICE = "offPeakPrice";
+    /** The property of the days with peak hours */
+    public static final String PEAK_DAYS = "peakDays";
+    /** The property of the peak hours */
+    public static final String PEAK_HOURS = "peakHours";
+    /** The property of the consumption tiers */
+    public static final String TIERS = "tiers";
+    /** The property of the monthly base fee */
+    public static final String BASE_FEE = "baseFee";
+    /** All tariff properties */
+    private static final Set<String> PROPERTIES = Set.of(ENERGY_PRICE, PEAK_PRICE, OFF_PEAK_PRICE, PEAK_DAYS, PEAK_HOURS, TIERS, BASE_FEE);
+    /** The peak days if no peak days are given */
+    private static final String DEFAULT_PEAK_DAYS = "MONDAY-FRIDAY";
+    /** The peak hours if no peak hours are given */
+    private static final String DEFAULT_PEAK_HOURS = "7-20";
+    /** The region index of a postal code without a tariff */
+    private static final short NO_TARIFF = -1;
+
+    /** The postal code regex of each region */
+    private final List<String> regions;
+    /** The tariff of each region */
+    private final List<Tariff> tariffs;
+    /** The index of the tariff of each postal code, starting at the smallest postal code */
+    private final short[] tariffOfPostalCode;
+
+    /**
+     * Creates new compiled tariffs.
+     *
+     * @param regions the postal code regex of each region
+     * @param tariffs the tariff of each region
+     * @param tariffOfPostalCode the index of the tariff of each postal code
+     */
+    private CompiledTariffs(List<String> regions, List<Tariff> tariffs, short[] tariffOfPostalCode) {
+        this.regions = List.copyOf(regions);
+        this.tariffs = List.copyOf(tariffs);
+        this.tariffOfPostalCode = tariffOfPostalCode;
+    }
+
+    /**
+     * Reads the extended electricity price file and compiles it into the lookup table.
+     *
+     * @param path the path to the electricity price file
+     * @return the compiled tariffs
+     * @throws ElectricityPriceDataException if the file could not be read, contains an invalid tariff
+     * or regions covering the same postal code
+     */
+    public static CompiledTariffs compile(String path) throws ElectricityPriceDataException {
+        Objects.requireNonNull(path, "Properties file must not be null");
+        Properties properties = new Properties();
+        try (FileInputStream fileInputStream = new FileInputStream(path)) {
+            properties.load(fileInputStream);
+        } catch (IOException e) {
+            logger.severe("Error while reading the tariff properties file: " + e.getMessage());
+            throw new ElectricityPriceDataException("Error while reading the tariff properties file: " + e.getMessage(), e);
+        }
+
+        Map<String, Map<String, String>> propertiesPerRegion = new TreeMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            int separator = key.lastIndexOf('.');
+            String property = separator < 0 ? "" : key.substring(separator + 1);
+            if (PROPERTIES.contains(property)) {
+                propertiesPerRegion.computeIfAbsent(key.substring(0, separator), region -> new LinkedHashMap<>())
+                        .put(property, properties.getProperty(key).trim());
+            } else {
+                propertiesPerRegion.computeIfAbsent(key, region -> new LinkedHashMap<>())
+                        .put(ENERGY_PRICE, properties.getProperty(key).trim());
+            }
+        }
+
+        List<String> regions = new ArrayList<>(propertiesPerRegion.keySet());
+        List<Tariff> tariffs = new ArrayList<>(regions.size());
+        for (String region : regions) {
+            try {
+                tariffs.add(createTariff(propertiesPerRegion.get(region)));
+            } catch (IllegalArgumentException e) {
+                logger.severe("Invalid tariff for " + region + ": " + e.getMessage());
+                throw new ElectricityPriceDataException("Invalid tariff for " + region + ": " + e.getMessage(), e);
+            }
+        }
+
+        PostalCodeIntervalIndex intervalIndex;
+        try {
+            intervalIndex = PostalCodeIntervalIndex.compile(regions);
+        } catch (PostalCodeIntervalException e) {
+            logger.severe("Invalid regions in the tariff properties file " + path + ": " + e.getMessage());
+            throw new ElectricityPriceDataException("Invalid regions in the tariff properties file " + path + ": " + e.getMessage(), e);
+        }
+        short[] tariffOfPostalCode = new short[CompiledWeatherArchive.POSTAL_CODES];
+        Arrays.fill(tariffOfPostalCode, NO_TARIFF);
+        for (PostalCodeIntervalIndex.PostalCodeInterval interval : intervalIndex.getIntervals()) {
+            Arrays.fill(tariffOfPostalCode, interval.from() - CompiledWeatherArchive.MIN_POSTAL_CODE,
+                    interval.to() - CompiledWeatherArchive.MIN_POSTAL_CODE + 1, (short) interval.regionIndex());
+        }
+        logger.info("Compiled tariffs " + path + " with " + tariffs.size() + " regions");
+        return new CompiledTariffs(regions, tariffs, tariffOfPostalCode);
+    }
+
+    /**
+     * Checks if a key of an electricity price file has a tariff property, like {@code <region>.peakPrice}.
+     *
+     * @param key the key of the electricity price file
+     * @return true if the key ends with a tariff property, false if it is the postal code regex of a flat price
+     */
+    static boolean isTariffKey(String key) {
+        int separator = key.lastIndexOf('.');
+        return separator >= 0 && PROPERTIES.contains(key.substring(separator + 1));
+    }
+
+    /**
+     * Creates the tariff of a region from its properties.
+     *
+     * @param properties the tariff properties of the region
+     * @return the tariff, a {@link CompositeTariff} if the region has several components
+     * @throws IllegalArgumentException if a property is invalid or the region has no energy price
+     */
+    private static Tariff createTariff(Map<String, String> properties) {
+        List<Tariff> components = new ArrayList<>();
+        if (properties.containsKey(ENERGY_PRICE)) {
+            components.add(new FlatTariff(parsePrice(properties.get(ENERGY_PRICE))));
+        }
+        if (properties.containsKey(PEAK_PRICE) || properties.containsKey(OFF_PEAK_PRICE)) {
+            if (!properties.containsKey(PEAK_PRICE) || !properties.containsKey(OFF_PEAK_PRICE)) {
+                throw new IllegalArgumentException("A time of use tariff needs a " + PEAK_PRICE + " and an " + OFF_PEAK_PRICE);
+            }
+            int[] peakHours = parseRange(properties.getOrDefault(PEAK_HOURS, DEFAULT_PEAK_HOURS));
+            components.add(new TimeOfUseTariff(parsePrice(properties.get(PEAK_PRICE)), parsePrice(properties.get(OFF_PEAK_PRICE)),
+                    parseDays(properties.getOrDefault(PEAK_DAYS, DEFAULT_PEAK_DAYS)), peakHours[0], peakHours[1], 0.0));
+        }
+        if (properties.containsKey(TIERS)) {
+            components.add(parseTiers(properties.get(TIERS)));
+        }
+        if (components.isEmpty()) {
+            throw new IllegalArgumentException("The region has no energy price");
+        }
+        if (properties.containsKey(BASE_FEE)) {
+            components.add(new FlatTariff(0.0, parsePrice(properties.get(BASE_FEE))));
+        }
+        return components.size() == 1 ? components.getFirst() : new CompositeTariff(components);
+    }
+
+    /**
+     * Parses a price or a fee.
+     *
+     * @param value the value to parse
+     * @return the parsed price
+     * @throws IllegalArgumentException if the value is not a number
+     */
+    private static double parsePrice(String value) {
+        return Double.parseDouble(value);
+    }
+
+    /**
+     * Parses a range in the format {@code from-to}.
+     *
+     * @param value the value to parse
+     * @return the start and the end of the range
+     * @throws IllegalArgumentException if the value is not a range of numbers
+     */
+    private static int[] parseRange(String value) {
+        String[] range = value.split("-");
+        if (range.length != 2) {
+            throw new IllegalArgumentException("Invalid range " + value);
+        }
+        return new int[]{Integer.parseInt(range[0].trim()), Integer.parseInt(range[1].trim())};
+    }
+
+    /**
+     * Parses days in the format {@code MONDAY-FRIDAY} or {@code SATURDAY, SUNDAY}.
+     *
+     * @param value the value to parse
+     * @return the parsed days
+     * @throws IllegalArgumentException if a day is unknown
+     */
+    private static Set<DayOfWeek> parseDays(String value) {
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        for (String part : value.split(",")) {
+            String[] range = part.trim().split("-");
+            DayOfWeek from = DayOfWeek.valueOf(range[0].trim());
+            DayOfWeek to = range.length > 1 ? DayOfWeek.valueOf(range[1].trim()) : from;
+            days.addAll(EnumSet.range(from, to));
+        }
+        return days;
+    }
+
+    /**
+     * Parses tiers in the format {@code 0:27.5, 5000:25.0}.
+     *
+     * @param value the value to parse
+     * @return the tiered tariff
+     * @throws IllegalArgumentException if a tier is invalid
+     */
+    private static TieredTariff parseTiers(String value) {
+        String[] tiers = value.split(",");
+        double[] starts = new double[tiers.length];
+        double[] prices = new double[tiers.length];
+        for (int tier = 0; tier < tiers.length; tier++) {
+            String[] startAndPrice = tiers[tier].split(":");
+            if (startAndPrice.length != 2) {
+                throw new IllegalArgumentException("Invalid tier " + tiers[tier].trim());
+            }
+            starts[tier] = Double.parseDouble(startAndPrice[0].trim());
+            prices[tier] = Double.parseDouble(startAndPrice[1].trim());
+        }
+        return new TieredTariff(starts, prices);
+    }
+
+    /**
+     * Checks if the given postal code has a tariff.
+     *
+     * @param postalCode the postal code to check
+     * @return true if the postal code has a tariff, false otherwise
+     */
+    public boolean covers(short postalCode) {
+        return postalCode >= CompiledWeatherArchive.MIN_POSTAL_CODE && postalCode <= CompiledWeatherArchive.MAX_POSTAL_CODE
+                && tariffOfPostalCode[postalCode - CompiledWeatherArchive.MIN_POSTAL_CODE] != NO_TARIFF;
+    }
+
+    /**
+     * Get the tariff of the given postal code.
+     *
+     * @param postalCode the postal code
+     * @return the tariff of the postal code
+     * @throws ElectricityPriceDataException if no tariff is known for the postal code
+     */
+    public Tariff getTariff(short postalCode) throws ElectricityPriceDataException {
+        if (!covers(postalCode)) {
+            logger.severe("No tariff found for the postal code " + postalCode);
+            throw new ElectricityPriceDataException("No tariff found for the postal code " + postalCode);
+        }
+        return tariffs.get(tariffOfPostalCode[postalCode - CompiledWeatherArchive.MIN_POSTAL_CODE]);
+    }
+
+    /**
+     * Get the tariffs of all regions, for example to compare them for a household.
+     *
+     * @return the tariff of each region by the postal code regex of the region, in the order of the regions
+     */
+    public Map<String, Tariff> getTariffsByRegion() {
+        Map<String, Tariff> tariffsByRegion = new LinkedHashMap<>();
+        for (int region = 0; region < regions.size(); region++) {
+            tariffsByRegion.put(regions.get(region), tariffs.get(region));
+        }
+        return Collections.unmodifiableMap(tariffsByRegion);
+    }
+}
@@ -0,0 +1,223 @@
+package ch.nfr.filehandler;
+
+import ch.nfr.calculator.units.MonthUnit;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * This class holds a weather archive compiled into dense lookup tables for all postal codes from
+ * {@value #MIN_POSTAL_CODE} to {@value #MAX_POSTAL_CODE}.
+ * The postal code regex of every region is evaluated only once while compiling,
+ * afterward the sun hours of a postal code are found with two array lookups.
+ * Instances are immutable and can be shared between threads.
+ */
+public final class CompiledWeatherArchive {
+    /** The used Logger in this class */
+    private static final Logger logger = Logger.getLogger(CompiledWeatherArchive.class.getName());
+    /** The smallest postal code covered by the lookup table */
+    public static final short MIN_POSTAL_CODE = 1000;
+    /** The largest postal code covered by the lookup table */
+    public static final short MAX_POSTAL_CODE = 9999;
+    /** The region index of a postal code which is not covered by the weather archive */
+    private static final byte NO_REGION = -1;
+    /** The number of months per region */
+    private static final int MONTHS = MonthUnit.values().length;
+
+    /** The number of postal codes in the lookup table */
+    static final int POSTAL_CODES = MAX_POSTAL_CODE - MIN_POSTAL_CODE + 1;
+
+    /** The postal code regex of each region, the position in the list is the region index */
+    private final List<String> regions;
+    /** The region index of each postal code, starting at {@link #MIN_POSTAL_CODE} */
+    private final ByteBuffer regionOfPostalCode;
+    /** The sun hours of each region and month, stored at {@code regionIndex * 12 + month} */
+    private final ShortBuffer sunHours;
+
+    /**
+     * Creates a new compiled weather archive from the already compiled tables.
+     * The tables are only read with absolute positions, so they can be shared between threads.
+     *
+     * @param regions the postal code regex of each region
+     * @param regionOfPostalCode the region index of each postal code
+     * @param sunHours the sun hours of each region and month
+     */
+    private CompiledWeatherArchive(List<String> regions, ByteBuffer regionOfPostalCode, ShortBuffer sunHours) {
+        this.regions = List.copyOf(regions);
+        this.regionOfPostalCode = regionOfPostalCode;
+        this.sunHours = sunHours;
+    }
+
+    /**
+     * Reads the weather archive file and compiles it into the lookup tables.
+     * The postal code regex keys are compiled into intervals with the {@link PostalCodeIntervalIndex}.
+     *
+     * @param weatherArchivePath the path to the weather archive file
+     * @return the compiled weather archive
+     * @throws WeatherArchiveException if the weather archive could not be read, has too many regions,
+     * regions covering the same postal code or a region has not a valid sun hours value for every month
+     */
+    public static CompiledWeatherArchive compile(String weatherArchivePath) throws WeatherArchiveException {
+        Map<String, List<WeatherArchivHandler.SunHoursPerMonthRecord>> sunHoursPerRegion = WeatherArchivHandler.readWeatherArchive(weatherArchivePath);
+        if (sunHoursPerRegion.size() > Byte.MAX_VALUE) {
+            logger.severe("The weather archive has more than " + Byte.MAX_VALUE + " regions.");
+            throw new WeatherArchiveException("The weather archive has more than " + Byte.MAX_VALUE + " regions.");
+        }
+
+        List<String> regions = new ArrayList<>();
+        short[] sunHours = new short[sunHoursPerRegion.size() * MONTHS];
+        for (Map.Entry<String, List<WeatherArchivHandler.SunHoursPerMonthRecord>> region : sunHoursPerRegion.entrySet()) {
+            if (region.getValue().size() != MONTHS) {
+                logger.severe("The weather archive has not the sun hours of every month for the region " + region.getKey());
+                throw new WeatherArchiveException("The weather archive has not the sun hours of every month for the region " + region.getKey());
+            }
+            for (WeatherArchivHandler.SunHoursPerMonthRecord month : region.getValue()) {
+                if (month.sunHours() < 0 || month.sunHours() > Short.MAX_VALUE) {
+                    logger.severe("Invalid sun hours in the weather archive for the region " + region.getKey() + ": " + month.sunHours());
+                    throw new WeatherArchiveException("Invalid sun hours in the weather archive for the region " + region.getKey() + ": " + month.sunHours());
+                }
+                sunHours[regions.size() * MONTHS + month.month().ordinal()] = (short) month.sunHours();
+            }
+            regions.add(region.getKey());
+        }
+
+        PostalCodeIntervalIndex intervalIndex;
+        try {
+            intervalIndex = PostalCodeIntervalIndex.compile(regions);
+        } catch (PostalCodeIntervalException e) {
+            logger.severe("Invalid regions in the weather archive " + weatherArchivePath + ": " + e.getMessage());
+            throw new WeatherArchiveException("Invalid regions in the weather archive " + weatherArchivePath + ": " + e.getMessage(), e);
+        }
+        byte[] regionOfPostalCode = new byte[POSTAL_CODES];
+        Arrays.fill(regionOfPostalCode, NO_REGION);
+        int coveredPostalCodes = 0;
+        for (PostalCodeIntervalIndex.PostalCodeInterval interval : intervalIndex.getIntervals()) {
+            Arrays.fill(regionOfPostalCode, interval.from() - MIN_POSTAL_CODE, interval.to() - MIN_POSTAL_CODE + 1, (byte) interval.regionIndex());
+            coveredPostalCodes += interval.to() - interval.from() + 1;
+        }
+        logger.info("Compiled weather archive " + weatherArchivePath + " with " + regions.size()
+                + " regions covering " + coveredPostalCodes + " postal codes");
+        return new CompiledWeatherArchive(regions, ByteBuffer.wrap(regionOfPostalCode), ShortBuffer.wrap(sunHours));
+    }
+
+    /**
+     * Creates a compiled weather archive backed by the weather archive section of a {@link ReferenceDataFile}.
+     * Only the postal code regex of the regions are decoded, the lookup tables are used directly from the section.
+     *
+     * @param section the weather archive section
+     * @return the compiled weather archive
+     */
+    static CompiledWeatherArchive readSection(ByteBuffer section) {
+        int regionCount = section.getInt(0);
+        ByteBuffer regionOfPostalCode = section.slice(4, POSTAL_CODES);
+        int sunHoursOffset = 4 + POSTAL_CODES;
+        ShortBuffer sunHours = section.slice(sunHoursOffset, regionCount * MONTHS * Short.BYTES).asShortBuffer();
+
+        List<String> regions = new ArrayList<>(regionCount);
+        int offset = sunHoursOffset + regionCount * MONTHS * Short.BYTES;
+        for (int region = 0; region < regionCount; region++) {
+            byte[] name = new byte[section.getShort(offset)];
+            section.get(offset + Short.BYTES, name);
+            regions.add(new String(name, StandardCharsets.UTF_8));
+            offset += Short.BYTES + name.length;
+        }
+        return new CompiledWeatherArchive(regions, regionOfPostalCode, sunHours);
+    }
+
+    /**
+     * Writes the weather archive section of a {@link ReferenceDataFile}.
+     *
+     * @param out the stream to write to
+     * @throws IOException if the section could not be written
+     */
+    void writeSection(DataOutputStream out) throws IOException {
+        out.writeInt(regions.size());
+        for (int postalCode = 0; postalCode < POSTAL_CODES; postalCode++) {
+            out.writeByte(regionOfPostalCode.get(postalCode));
+        }
+        for (int index = 0; index < regions.size() * MONTHS; index++) {
+            out.writeShort(sunHours.get(index));
+        }
+        for (String region : regions) {
+            byte[] name = region.getBytes(StandardCharsets.UTF_8);
+            out.writeShort(name.length);
+            out.write(name);
+        }
+    }
+
+    /**
+     * Get the postal code regex of each region, the position in the list is the region index.
+     *
+     * @return an unmodifiable list with the postal code regex of each region
+     */
+    public List<String> getRegions() {
+        return regions;
+    }
+
+    /**
+     * Get the number of postal codes covered by a region of the weather archive.
+     *
+     * @return the number of covered postal codes
+     */
+    public int getCoveredPostalCodes() {
+        int coveredPostalCodes = 0;
+        for (int postalCode = 0; postalCode < POSTAL_CODES; postalCode++) {
+            if (regionOfPostalCode.get(postalCode) != NO_REGION) {
+                coveredPostalCodes++;
+            }
+        }
+        return coveredPostalCodes;
+    }
+
+    /**
+     * Get the index of the region the given postal code belongs to.
+     *
+     * @param postalCode the postal code to find the region for
+     * @return the region index
+     * @throws WeatherArchiveException if no region covers the postal code
+     */
+    public int getRegionIndex(short postalCode) throws WeatherArchiveException {
+        byte region = postalCode < MIN_POSTAL_CODE || postalCode > MAX_POSTAL_CODE
+                ? NO_REGION : regionOfPostalCode.get(postalCode - MIN_POSTAL_CODE);
+        if (region == NO_REGION) {
+            logger.severe("No weather archive data found for the postal code " + postalCode);
+            throw new WeatherArchiveException("No weather archive data found for the given postal code.");
+        }
+        return region;
+    }
+
+    /**
+     * Get the sun hours of a region in the given month.
+     *
+     * @param regionIndex the index of the region
+     * @param month the month
+     * @return the sun hours of the region in the month
+     */
+    public int getSunHours(int regionIndex, MonthUnit month) {
+        return sunHours.get(regionIndex * MONTHS + month.ordinal());
+    }
+
+    /**
+     * Get the sun hours of the given postal code in every month.
+     *
+     * @param postalCode the postal code to get the sun hours for
+     * @return a list of {@link WeatherArchivHandler.SunHoursPerMonthRecord} in the order of {@link MonthUnit}
+     * @throws WeatherArchiveException if no region covers the postal code
+     */
+    public List<WeatherArchivHandler.SunHoursPerMonthRecord> getSunHours(short postalCode) throws WeatherArchiveException {
+        int regionIndex = getRegionIndex(postalCode);
+        List<WeatherArchivHandler.SunHoursPerMonthRecord> sunHoursPerMonth = new ArrayList<>(MONTHS);
+        for (MonthUnit month : MonthUnit.values()) {
+            sunHoursPerMonth.add(new WeatherArchivHandler.SunHoursPerMonthRecord(month, getSunHours(regionIndex, month)));
+        }
+        return sunHoursPerMonth;
+    }
+}
@@ -0,0 +1,115 @@
+package ch.nfr.filehandler;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * This class reads coordinate files of the postal code centroids and the measuring stations.
+ * A coordinate file is separated by semicolons, the first line is a header and every other line
+ * contains a key (postal code or station abbreviation), the east and the north coordinate
+ * in the Swiss coordinate system LV95 in meters. Lines starting with {@value #COMMENT} are ignored.
+ */
+public class CoordinateHandler {
+    /** The used Logger in this class */
+    private static final Logger logger = Logger.getLogger(CoordinateHandler.class.getName());
+    /** The separator of the columns in the coordinate file */
+    private static final String SEPARATOR = ";";
+    /** The start of a comment line */
+    private static final String COMMENT = "#";
+
+    /**
+     * The private constructor to prevent the instantiation of this class.
+     */
+    private CoordinateHandler() {
+    }
+
+    /**
+     * Reads the station coordinate file.
+     *
+     * @param stationCoordinatePath the path to the station coordinate file
+     * @return the coordinate of each station by station abbreviation, in the order of the file
+     * @throws WeatherArchiveException if the file could not be read or a line is invalid
+     */
+    public static Map<String, CoordinateRecord> readStationCoordinates(String stationCoordinatePath) throws WeatherArchiveException {
+        return readCoordinates(stationCoordinatePath);
+    }
+
+    /**
+     * Reads the postal code centroid file.
+     *
+     * @param postalCodeCoordinatePath the path to the postal code centroid file
+     * @return the centroid of each postal code, in the order of the file
+     * @throws WeatherArchiveException if the file could not be read, a line is invalid or a postal code is not a number
+     */
+    public static Map<Short, CoordinateRecord> readPostalCodeCoordinates(String postalCodeCoordinatePath) throws WeatherArchiveException {
+        Map<Short, CoordinateRecord> postalCodeCoordinates = new LinkedHashMap<>();
+        for (Map.Entry<String, CoordinateRecord> coordinate : readCoordinates(postalCodeCoordinatePath).entrySet()) {
+            try {
+                postalCodeCoordinates.put(Short.parseShort(coordinate.getKey()), coordinate.getValue());
+            } catch (NumberFormatException e) {
+                logger.severe("Invalid postal code in the coordinate file: " + coordinate.getKey());
+                throw new WeatherArchiveException("Invalid postal code in the coordinate file: " + coordinate.getKey(), e);
+            }
+        }
+        return postalCodeCoordinates;
+    }
+
+    /**
+     * Reads a coordinate file.
+     *
+     * @param coordinatePath the path to the coordinate file
+     * @return the coordinate of each key, in the order of the file
+     * @throws WeatherArchiveException if the file could not be read, a line is invalid or a key is duplicated
+     */
+    private static Map<String, CoordinateRecord> readCoordinates(String coordinatePath) throws WeatherArchiveException {
+        Map<String, CoordinateRecord> coordinates = new LinkedHashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(Path.of(coordinatePath), StandardCharsets.UTF_8)) {
+            boolean header = true;
+            int lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || line.startsWith(COMMENT)) {
+                    continue;
+                }
+                if (header) {
+                    header = false;
+                    continue;
+                }
+                String[] values = line.split(SEPARATOR);
+                try {
+                    if (values.length != 3) {
+                        throw new NumberFormatException("A line must contain a key, the east and the north coordinate");
+                    }
+                    CoordinateRecord coordinate = new CoordinateRecord(Double.parseDouble(values[1].trim()), Double.parseDouble(values[2].trim()));
+                    if (coordinates.putIfAbsent(values[0].trim(), coordinate) != null) {
+                        throw new NumberFormatException("The key " + values[0].trim() + " is duplicated");
+                    }
+                } catch (NumberFormatException e) {
+                    logger.severe("Invalid line " + lineNumber + " in the coordinate file " + coordinatePath + ": " + e.getMessage());
+                    throw new WeatherArchiveException("Invalid line " + lineNumber + " in the coordinate file " + coordinatePath + ".", e);
+                }
+            }
+        } catch (IOException e) {
+            logger.severe("The coordinate file " + coordinatePath + " could not be read: " + e.getMessage());
+            throw new WeatherArchiveException("The coordinate file " + coordinatePath + " could not be read.", e);
+        }
+        logger.info("Successfully read " + coordinates.size() + " coordinates from " + coordinatePath);
+        return coordinates;
+    }
+
+    /**
+     * A record to store a coordinate in the Swiss coordinate system LV95.
+     *
+     * @param east the east coordinate in meters
+     * @param north the north coordinate in meters
+     */
+    public record CoordinateRecord(double east, double north) {
+    }
+}
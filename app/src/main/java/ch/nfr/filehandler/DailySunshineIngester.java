@@ -0,0 +1,361 @@
+package ch.nfr.filehandler;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.logging.Logger;
+
+/**
+ * This class ingests the daily sunshine duration CSV files of MeteoSwiss into a {@link DailySunshineSeries}.
+ * The CSV file is separated by semicolons and has a header with the columns {@value #STATION_COLUMN}
+ * (station abbreviation), {@value #DATE_COLUMN} (date as yyyyMMdd) and {@value #SUNSHINE_COLUMN}
+ * (sunshine duration of the day in minutes), missing values are marked with {@value #MISSING_VALUE}.
+ * <p>
+ * The file is streamed in chunks of {@value #CHUNK_SIZE} lines, each chunk is parsed in parallel
+ * and the chunks are merged into the columns of each station afterward.
+ * Only the stations of the station file are ingested, it maps the station abbreviations to their postal code.
+ */
+public class DailySunshineIngester {
+    /** The used Logger in this class */
+    private static final Logger logger = Logger.getLogger(DailySunshineIngester.class.getName());
+    /** The separator of the columns in the CSV file */
+    private static final String SEPARATOR = ";";
+    /** The name of the station column */
+    public static final String STATION_COLUMN = "stn";
+    /** The name of the date column */
+    public static final String DATE_COLUMN = "time";
+    /** The name of the daily sunshine duration column */
+    public static final String SUNSHINE_COLUMN = "sre000d0";
+    /** The value of a missing measurement */
+    public static final String MISSING_VALUE = "-";
+    /** The number of lines parsed in one chunk */
+    static final int CHUNK_SIZE = 8192;
+    /** The number of minutes in a day */
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    /**
+     * The private constructor to prevent the instantiation of this class.
+     */
+    private DailySunshineIngester() {
+    }
+
+    /**
+     * Ingests the daily sunshine duration CSV file into a {@link DailySunshineSeries}.
+     *
+     * @param sunshinePath the path to the CSV file with the daily sunshine durations
+     * @param stationPath the path to the station file with the postal code of each station
+     * @return the ingested series with the stations of the station file
+     * @throws WeatherArchiveException if a file could not be read, a line is invalid or a station has no measurements
+     */
+    public static DailySunshineSeries ingest(String sunshinePath, String stationPath) throws WeatherArchiveException {
+        Map<String, Short> postalCodes = readStationFile(stationPath);
+        List<CompletableFuture<Map<String, ChunkColumns>>> chunks = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(Path.of(sunshinePath), StandardCharsets.UTF_8)) {
+            int[] columns = null;
+            int lineNumber = 0;
+            String line;
+            while (columns == null && (line = reader.readLine()) != null) {
+                lineNumber++;
+                if (!line.isBlank()) {
+                    columns = readHeader(line);
+                }
+            }
+            if (columns == null) {
+                logger.severe("The sunshine file " + sunshinePath + " has no header.");
+                throw new WeatherArchiveException("The sunshine file " + sunshinePath + " has no header.");
+            }
+
+            List<String> chunk = new ArrayList<>(CHUNK_SIZE);
+            int chunkStart = lineNumber + 1;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                chunk.add(line);
+                if (chunk.size() == CHUNK_SIZE) {
+                    chunks.add(parseChunkAsync(chunk, chunkStart, columns, postalCodes));
+                    chunk = new ArrayList<>(CHUNK_SIZE);
+                    chunkStart = lineNumber + 1;
+                }
+            }
+            chunks.add(parseChunkAsync(chunk, chunkStart, columns, postalCodes));
+        } catch (IOException e) {
+            logger.severe("The sunshine file " + sunshinePath + " could not be read: " + e.getMessage());
+            throw new WeatherArchiveException("The sunshine file " + sunshinePath + " could not be read.", e);
+        }
+
+        List<Map<String, ChunkColumns>> parsedChunks = new ArrayList<>(chunks.size());
+        try {
+            for (CompletableFuture<Map<String, ChunkColumns>> chunk : chunks) {
+                parsedChunks.add(chunk.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof WeatherArchiveException weatherArchiveException) {
+                throw weatherArchiveException;
+            }
+            throw e;
+        }
+
+        Map<String, DailySunshineSeries.StationColumns> stations = new LinkedHashMap<>();
+        for (Map.Entry<String, Short> station : postalCodes.entrySet()) {
+            stations.put(station.getKey(), mergeChunks(station.getKey(), station.getValue(), parsedChunks));
+        }
+        logger.info("Ingested the daily sunshine durations of " + stations.size() + " stations from " + sunshinePath);
+        return new DailySunshineSeries(stations);
+    }
+
+    /**
+     * Reads the station file, the keys are the station abbreviations and the values their postal codes.
+     *
+     * @param stationPath the path to the station file
+     * @return the postal code of each station in the order of the station abbreviations
+     * @throws WeatherArchiveException if the station file could not be read or a postal code is invalid
+     */
+    private static Map<String, Short> readStationFile(String stationPath) throws WeatherArchiveException {
+        Properties properties = new Properties();
+        try (FileInputStream input = new FileInputStream(stationPath)) {
+            properties.load(input);
+        } catch (IOException e) {
+            logger.severe("The station file " + stationPath + " could not be read: " + e.getMessage());
+            throw new WeatherArchiveException("The station file " + stationPath + " could not be read.", e);
+        }
+        Map<String, Short> postalCodes = new LinkedHashMap<>();
+        for (String station : properties.stringPropertyNames().stream().sorted().toList()) {
+            try {
+                postalCodes.put(station, Short.parseShort(properties.getProperty(station).trim()));
+            } catch (NumberFormatException e) {
+                logger.severe("Invalid postal code of the station " + station + ": " + properties.getProperty(station));
+                throw new WeatherArchiveException("Invalid postal code of the station " + station + ".", e);
+            }
+        }
+        if (postalCodes.isEmpty()) {
+            logger.severe("The station file " + stationPath + " has no stations.");
+            throw new WeatherArchiveException("The station file " + stationPath + " has no stations.");
+        }
+        return postalCodes;
+    }
+
+    /**
+     * Reads the header of the CSV file and returns the position of the station, date and sunshine column.
+     *
+     * @param header the header line
+     * @return the position of the station, date and sunshine column
+     * @throws WeatherArchiveException if a column is missing
+     */
+    private static int[] readHeader(String header) throws WeatherArchiveException {
+        List<String> names = Arrays.stream(header.split(SEPARATOR)).map(String::trim).toList();
+        int[] columns = {names.indexOf(STATION_COLUMN), names.indexOf(DATE_COLUMN), names.indexOf(SUNSHINE_COLUMN)};
+        if (Arrays.stream(columns).anyMatch(column -> column < 0)) {
+            logger.severe("The sunshine file header " + header + " must contain the columns "
+                    + STATION_COLUMN + ", " + DATE_COLUMN + " and " + SUNSHINE_COLUMN);
+            throw new WeatherArchiveException("The sunshine file header must contain the columns "
+                    + STATION_COLUMN + ", " + DATE_COLUMN + " and " + SUNSHINE_COLUMN);
+        }
+        return columns;
+    }
+
+    /**
+     * Parses the lines of a chunk in the common fork join pool.
+     *
+     * @param lines the lines of the chunk
+     * @param firstLineNumber the line number of the first line in the file, used for error messages
+     * @param columns the position of the station, date and sunshine column
+     * @param postalCodes the stations to ingest
+     * @return a future with the parsed columns of each station in the chunk
+     */
+    private static CompletableFuture<Map<String, ChunkColumns>> parseChunkAsync(List<String> lines, int firstLineNumber,
+                                                                              int[] columns, Map<String, Short> postalCodes) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return parseChunk(lines, firstLineNumber, columns, postalCodes);
+            } catch (WeatherArchiveException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    /**
+     * Parses the lines of a chunk into the columns of each station.
+     * Blank lines, missing values and stations which are not in the station file are skipped.
+     *
+     * @param lines the lines of the chunk
+     * @param firstLineNumber the line number of the first line in the file, used for error messages
+     * @param columns the position of the station, date and sunshine column
+     * @param postalCodes the stations to ingest
+     * @return the parsed columns of each station in the chunk
+     * @throws WeatherArchiveException if a line is invalid
+     */
+    static Map<String, ChunkColumns> parseChunk(List<String> lines, int firstLineNumber, int[] columns,
+                                                Map<String, Short> postalCodes) throws WeatherArchiveException {
+        Map<String, ChunkColumns> chunk = new HashMap<>();
+        for (int index = 0; index < lines.size(); index++) {
+            String line = lines.get(index);
+            if (line.isBlank()) {
+                continue;
+            }
+            String[] values = line.split(SEPARATOR);
+            if (values.length <= Math.max(columns[0], Math.max(columns[1], columns[2]))) {
+                logger.severe("Invalid line " + (firstLineNumber + index) + " in the sunshine file: " + line);
+                throw new WeatherArchiveException("Invalid line " + (firstLineNumber + index) + " in the sunshine file.");
+            }
+            String station = values[columns[0]].trim();
+            String sunshine = values[columns[2]].trim();
+            if (!postalCodes.containsKey(station) || sunshine.equals(MISSING_VALUE)) {
+                continue;
+            }
+            try {
+                String date = values[columns[1]].trim();
+                if (date.length() != 8) {
+                    throw new NumberFormatException("The date must be in the format yyyyMMdd");
+                }
+                int epochDay = (int) LocalDate.of(Integer.parseInt(date.substring(0, 4)),
+                        Integer.parseInt(date.substring(4, 6)), Integer.parseInt(date.substring(6, 8))).toEpochDay();
+                double minutes = Double.parseDouble(sunshine);
+                if (!(minutes >= 0 && minutes <= MINUTES_PER_DAY)) {
+                    throw new NumberFormatException("The sunshine duration must be between 0 and " + MINUTES_PER_DAY + " minutes");
+                }
+                chunk.computeIfAbsent(station, key -> new ChunkColumns()).add(epochDay, (short) Math.round(minutes));
+            } catch (NumberFormatException | DateTimeException e) {
+                logger.severe("Invalid line " + (firstLineNumber + index) + " in the sunshine file: " + line);
+                throw new WeatherArchiveException("Invalid line " + (firstLineNumber + index) + " in the sunshine file.", e);
+            }
+        }
+        return chunk;
+    }
+
+    /**
+     * Merges the parsed chunks of a station into its delta encoded columns.
+     *
+     * @param station the abbreviation of the station
+     * @param postalCode the postal code of the station
+     * @param chunks the parsed chunks in the order of the file
+     * @return the columns of the station
+     * @throws WeatherArchiveException if the station has no measurements, a date is measured twice
+     *                                 or two following dates are too far apart
+     */
+    private static DailySunshineSeries.StationColumns mergeChunks(String station, short postalCode,
+                                                                  List<Map<String, ChunkColumns>> chunks) throws WeatherArchiveException {
+        ChunkColumns merged = new ChunkColumns();
+        for (Map<String, ChunkColumns> chunk : chunks) {
+            ChunkColumns columns = chunk.get(station);
+            if (columns != null) {
+                merged.addAll(columns);
+            }
+        }
+        if (merged.size == 0) {
+            logger.severe("No sunshine measurements of the station " + station);
+            throw new WeatherArchiveException("No sunshine measurements of the station " + station);
+        }
+        merged.sort();
+
+        int firstYear = LocalDate.ofEpochDay(merged.epochDays[0]).getYear();
+        int lastYear = LocalDate.ofEpochDay(merged.epochDays[merged.size - 1]).getYear();
+        int[] yearRows = new int[lastYear - firstYear + 1];
+        int[] yearEpochDays = new int[yearRows.length];
+        short[] dayDeltas = new short[merged.size];
+        int year = firstYear;
+        yearEpochDays[0] = merged.epochDays[0];
+        for (int row = 1; row < merged.size; row++) {
+            int delta = merged.epochDays[row] - merged.epochDays[row - 1];
+            if (delta == 0 || delta > Short.MAX_VALUE) {
+                String date = LocalDate.ofEpochDay(merged.epochDays[row]).toString();
+                logger.severe("The sunshine of the station " + station + " on " + date + (delta == 0 ? " is measured twice" : " follows a too long gap"));
+                throw new WeatherArchiveException("The sunshine of the station " + station + " on " + date
+                        + (delta == 0 ? " is measured twice." : " follows a too long gap."));
+            }
+            dayDeltas[row] = (short) delta;
+            int rowYear = LocalDate.ofEpochDay(merged.epochDays[row]).getYear();
+            while (year < rowYear) {
+                year++;
+                yearRows[year - firstYear] = row;
+                yearEpochDays[year - firstYear] = merged.epochDays[row];
+            }
+        }
+        return new DailySunshineSeries.StationColumns(postalCode, merged.epochDays[0], dayDeltas,
+                Arrays.copyOf(merged.sunshineMinutes, merged.size), firstYear, yearRows, yearEpochDays);
+    }
+
+    /**
+     * This class collects the parsed dates and sunshine durations of one station in growing arrays.
+     */
+    static final class ChunkColumns {
+        /** The dates as epoch days */
+        private int[] epochDays = new int[64];
+        /** The sunshine durations in minutes */
+        private short[] sunshineMinutes = new short[64];
+        /** The number of used rows */
+        private int size;
+
+        /**
+         * Adds a row to the columns.
+         *
+         * @param epochDay the date as epoch day
+         * @param minutes the sunshine duration in minutes
+         */
+        void add(int epochDay, short minutes) {
+            ensureCapacity(size + 1);
+            epochDays[size] = epochDay;
+            sunshineMinutes[size] = minutes;
+            size++;
+        }
+
+        /**
+         * Adds all rows of the other columns.
+         *
+         * @param other the columns to add
+         */
+        void addAll(ChunkColumns other) {
+            ensureCapacity(size + other.size);
+            System.arraycopy(other.epochDays, 0, epochDays, size, other.size);
+            System.arraycopy(other.sunshineMinutes, 0, sunshineMinutes, size, other.size);
+            size += other.size;
+        }
+
+        /**
+         * Sorts the rows by date, the rows of a MeteoSwiss file are usually already sorted.
+         */
+        void sort() {
+            for (int row = 1; row < size; row++) {
+                if (epochDays[row] < epochDays[row - 1]) {
+                    Integer[] order = new Integer[size];
+                    Arrays.setAll(order, index -> index);
+                    Arrays.sort(order, (first, second) -> Integer.compare(epochDays[first], epochDays[second]));
+                    int[] sortedEpochDays = new int[size];
+                    short[] sortedMinutes = new short[size];
+                    for (int index = 0; index < size; index++) {
+                        sortedEpochDays[index] = epochDays[order[index]];
+                        sortedMinutes[index] = sunshineMinutes[order[index]];
+                    }
+                    epochDays = sortedEpochDays;
+                    sunshineMinutes = sortedMinutes;
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Grows the arrays to hold at least the given number of rows.
+         *
+         * @param capacity the needed number of rows
+         */
+        private void ensureCapacity(int capacity) {
+            if (capacity > epochDays.length) {
+                int newCapacity = Math.max(capacity, epochDays.length * 2);
+                epochDays = Arrays.copyOf(epochDays, newCapacity);
+                sunshineMinutes = Arrays.copyOf(sunshineMinutes, newCapacity);
+            }
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package ch.nfr.filehandler;
+
+import ch.nfr.calculator.units.MonthUnit;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * This class stores the daily sunshine duration of the measuring stations in a compact columnar form.
+ * The dates of a station are delta encoded as 16-bit day differences and the sunshine durations
+ * are stored as 16-bit minutes, so one day of one station takes four bytes.
+ * For every year the first row and its date are kept as a checkpoint, so a year is decoded
+ * without scanning the years before it.
+ * <p>
+ * Instances are created by the {@link DailySunshineIngester}, they are immutable and can be shared between threads.
+ */
+public final class DailySunshineSeries {
+    /** The used Logger in this class */
+    private static final Logger logger = Logger.getLogger(DailySunshineSeries.class.getName());
+    /** The year to request the average of all years in the series */
+    public static final int AVERAGE_YEAR = 0;
+    /** The number of minutes in an hour */
+    private static final double MINUTES_PER_HOUR = 60.0;
+    /** The number of months in a year */
+    private static final int MONTHS = MonthUnit.values().length;
+
+    /** The columns of each station, by station abbreviation in the order of the station file */
+    private final Map<String, StationColumns> stations;
+
+    /**
+     * Creates a new series from the columns of each station.
+     *
+     * @param stations the columns of each station by station abbreviation
+     */
+    DailySunshineSeries(Map<String, StationColumns> stations) {
+        this.stations = Collections.unmodifiableMap(new LinkedHashMap<>(stations));
+    }
+
+    /**
+     * Get the abbreviations of all stations in the series.
+     *
+     * @return an unmodifiable list with the station abbreviations
+     */
+    public List<String> getStations() {
+        return List.copyOf(stations.keySet());
+    }
+
+    /**
+     * Get the postal code of the given station, it is used to find the region of the station.
+     *
+     * @param station the abbreviation of the station
+     * @return the postal code of the station
+     * @throws WeatherArchiveException if the station is not in the series
+     */
+    public short getPostalCode(String station) throws WeatherArchiveException {
+        return getStationColumns(station).postalCode();
+    }
+
+    /**
+     * Get the number of measured days of the given station.
+     *
+     * @param station the abbreviation of the station
+     * @return the number of days with a sunshine duration
+     * @throws WeatherArchiveException if the station is not in the series
+     */
+    public int getDays(String station) throws WeatherArchiveException {
+        return getStationColumns(station).sunshineMinutes().length;
+    }
+
+    /**
+     * Get the years with measurements of the given station, the first and the last year may be incomplete.
+     *
+     * @param station the abbreviation of the station
+     * @return a list with the years in ascending order
+     * @throws WeatherArchiveException if the station is not in the series
+     */
+    public List<Integer> getYears(String station) throws WeatherArchiveException {
+        StationColumns columns = getStationColumns(station);
+        List<Integer> years = new ArrayList<>();
+        for (int year = 0; year < columns.yearRows().length; year++) {
+            if (columns.yearRows()[year] < getEndRow(columns, year)) {
+                years.add(columns.firstYear() + year);
+            }
+        }
+        return years;
+    }
+
+    /**
+     * Get the sun hours of the given station in every month of a year.
+     * Missing days are filled with the mean sunshine duration of the measured days of the month.
+     * With the year {@link #AVERAGE_YEAR} the mean sunshine duration of every month over all years is returned.
+     *
+     * @param station the abbreviation of the station
+     * @param year the year or {@link #AVERAGE_YEAR}
+     * @return the sun hours for each month in the order of {@link MonthUnit}
+     * @throws WeatherArchiveException if the station is not in the series or a month of the year has no measurements
+     */
+    public double[] getMonthlySunHours(String station, int year) throws WeatherArchiveException {
+        StationColumns columns = getStationColumns(station);
+        long[] minutesPerMonth = new long[MONTHS];
+        int[] daysPerMonth = new int[MONTHS];
+        if (year == AVERAGE_YEAR) {
+            decode(columns, 0, columns.firstEpochDay(), columns.sunshineMinutes().length, minutesPerMonth, daysPerMonth);
+        } else {
+            int yearIndex = year - columns.firstYear();
+            if (yearIndex < 0 || yearIndex >= columns.yearRows().length) {
+                logger.severe("No sunshine measurements of the station " + station + " in the year " + year);
+                throw new WeatherArchiveException("No sunshine measurements of the station " + station + " in the year " + year);
+            }
+            decode(columns, columns.yearRows()[yearIndex], columns.yearEpochDays()[yearIndex], getEndRow(columns, yearIndex),
+                    minutesPerMonth, daysPerMonth);
+        }
+
+        double[] sunHours = new double[MONTHS];
+        for (int month = 0; month < MONTHS; month++) {
+            if (daysPerMonth[month] == 0) {
+                logger.severe("No sunshine measurements of the station " + station + " in " + MonthUnit.values()[month]
+                        + (year == AVERAGE_YEAR ? "" : " " + year));
+                throw new WeatherArchiveException("No sunshine measurements of the station " + station + " in "
+                        + MonthUnit.values()[month] + (year == AVERAGE_YEAR ? "" : " " + year));
+            }
+            int monthLength = year == AVERAGE_YEAR ? Month.of(month + 1).length(false) : Month.of(month + 1).length(LocalDate.of(year, 1, 1).isLeapYear());
+            sunHours[month] = (double) minutesPerMonth[month] / daysPerMonth[month] * monthLength / MINUTES_PER_HOUR;
+        }
+        return sunHours;
+    }
+
+    /**
+     * Get the row after the last row of a year.
+     *
+     * @param columns the columns of the station
+     * @param yearIndex the index of the year since the first year of the station
+     * @return the first row of the next year or the number of rows for the last year
+     */
+    private static int getEndRow(StationColumns columns, int yearIndex) {
+        return yearIndex + 1 < columns.yearRows().length ? columns.yearRows()[yearIndex + 1] : columns.sunshineMinutes().length;
+    }
+
+    /**
+     * Decodes the rows of a station and sums up the sunshine minutes and measured days of every month.
+     *
+     * @param columns the columns of the station
+     * @param startRow the first row to decode
+     * @param startEpochDay the date of the first row as epoch day
+     * @param endRow the row after the last row to decode
+     * @param minutesPerMonth the sum of the sunshine minutes per month to add to
+     * @param daysPerMonth the number of measured days per month to add to
+     */
+    private static void decode(StationColumns columns, int startRow, int startEpochDay, int endRow, long[] minutesPerMonth, int[] daysPerMonth) {
+        int epochDay = startEpochDay;
+        for (int row = startRow; row < endRow; row++) {
+            if (row > startRow) {
+                epochDay += columns.dayDeltas()[row];
+            }
+            int month = LocalDate.ofEpochDay(epochDay).getMonthValue() - 1;
+            minutesPerMonth[month] += columns.sunshineMinutes()[row];
+            daysPerMonth[month]++;
+        }
+    }
+
+    /**
+     * Get the columns of the given station.
+     *
+     * @param station the abbreviation of the station
+     * @return the columns of the station
+     * @throws WeatherArchiveException if the station is not in the series
+     */
+    private StationColumns getStationColumns(String station) throws WeatherArchiveException {
+        StationColumns columns = stations.get(station);
+        if (columns == null) {
+            logger.severe("No sunshine measurements of the station " + station);
+            throw new WeatherArchiveException("No sunshine measurements of the station " + station);
+        }
+        return columns;
+    }
+
+    /**
+     * A record to store the columns of one station.
+     * The date of a row is the date of the previous row plus its day delta, the first row has the delta 0.
+     *
+     * @param postalCode the postal code of the station
+     * @param firstEpochDay the date of the first row as epoch day
+     * @param dayDeltas the number of days since the previous row
+     * @param sunshineMinutes the sunshine duration of each row in minutes
+     * @param firstYear the year of the first row
+     * @param yearRows the first row of each year since the first year, the next row for years without measurements
+     * @param yearEpochDays the date of the first row of each year as epoch day
+     */
+    record StationColumns(short postalCode, int firstEpochDay, short[] dayDeltas, short[] sunshineMinutes,
+                          int firstYear, int[] yearRows, int[] yearEpochDays) {
+    }
+}
@@ -0,0 +1,235 @@
+package ch.nfr.filehandler;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+/**
+ * This class holds dated electricity price series per region, so past bills can be recalculated
+ * with the prices valid at that time and future bills can be projected with announced prices.
+ * <p>
+ * A key of the file is the postal code regex of a region, optionally followed by {@value #DATE_SEPARATOR}
+ * and the date from which the price is effective:
+ * <ul>
+ *     <li>{@code <region> = 28.61}: a price without date, valid until the first dated price of the region,
+ *     the format of the plain electricity price file</li>
+ *     <li>{@code <region>@2024-01-01 = 30.4}: a price effective from the given date until the next price of the region</li>
+ * </ul>
+ * The prices of all regions are stored sorted by their effective date in one primitive array,
+ * the prices of a region are a range of it and the price valid at a date is found with a binary search in this range.
+ * Instances are immutable and can be shared between threads.
+ */
+public final class DatedElectricityPrices {
+    /** The used Logger in this class */
+    private static final Logger logger = Logger.getLogger(DatedElectricityPrices.class.getName());
+    /** The separator between the region and the effective date in a key */
+    public static final String DATE_SEPARATOR = "@";
+    /** The effective day of a price without date, before every dated price */
+    private static final int UNDATED = Integer.MIN_VALUE;
+    /** The region index of a postal code without a price */
+    private static final short NO_REGION = -1;
+
+    /** The first price of each region, the prices of a region end at the first price of the next region */
+    private final int[] regionStart;
+    /** The effective epoch day of each price, sorted ascending within a region */
+    private final int[] effectiveEpochDays;
+    /** The electricity price in Rp./kWh of each price */
+    private final double[] prices;
+    /** The index of the region of each postal code, starting at the smallest postal code */
+    private final short[] regionOfPostalCode;
+
+    /**
+     * Creates new dated electricity prices from the already compiled series.
+     *
+     * @param regionStart the first price of each region and the number of prices at the end
+     * @param effectiveEpochDays the effective epoch day of each price
+     * @param prices the electricity price of each price
+     * @param regionOfPostalCode the index of the region of each postal code
+     */
+    private DatedElectricityPrices(int[] regionStart, int[] effectiveEpochDays, double[] prices, short[] regionOfPostalCode) {
+        this.regionStart = regionStart;
+        this.effectiveEpochDays = effectiveEpochDays;
+        this.prices = prices;
+        this.regionOfPostalCode = regionOfPostalCode;
+    }
+
+    /**
+     * Reads the dated electricity price file and compiles it into the price series of each region.
+     *
+     * @param path the path to the dated electricity price file
+     * @return the compiled dated electricity prices
+     * @throws ElectricityPriceDataException if the file could not be read, contains an invalid date or price,
+     * the same date twice for a region or regions covering the same postal code
+     */
+    public static DatedElectricityPrices compile(String path) throws ElectricityPriceDataException {
+        Objects.requireNonNull(path, "Properties file must not be null");
+        Properties properties = new Properties();
+        try (FileInputStream fileInputStream = new FileInputStream(path)) {
+            properties.load(fileInputStream);
+        } catch (IOException e) {
+            logger.severe("Error while reading the dated electricity price file: " + e.getMessage());
+            throw new ElectricityPriceDataException("Error while reading the dated electricity price file: " + e.getMessage(), e);
+        }
+
+        Map<String, TreeMap<Integer, Double>> seriesPerRegion = new TreeMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            int separator = key.lastIndexOf(DATE_SEPARATOR);
+            String region = separator < 0 ? key : key.substring(0, separator);
+            try {
+                int effectiveEpochDay = separator < 0 ? UNDATED
+                        : Math.toIntExact(LocalDate.parse(key.substring(separator + 1).trim()).toEpochDay());
+                double price = Double.parseDouble(properties.getProperty(key).trim());
+                if (!Double.isFinite(price) || price < 0.0) {
+                    throw new NumberFormatException("price must be a finite positive number: " + price);
+                }
+                seriesPerRegion.computeIfAbsent(region, series -> new TreeMap<>()).put(effectiveEpochDay, price);
+            } catch (NumberFormatException | DateTimeParseException | ArithmeticException e) {
+                logger.severe("Invalid electricity price for " + key + ": " + e.getMessage());
+                throw new ElectricityPriceDataException("Invalid electricity price for " + key + ": " + e.getMessage(), e);
+            }
+        }
+
+        List<String> regions = new ArrayList<>(seriesPerRegion.keySet());
+        int[] regionStart = new int[regions.size() + 1];
+        int[] effectiveEpochDays = new int[properties.size()];
+        double[] prices = new double[properties.size()];
+        int price = 0;
+        for (int region = 0; region < regions.size(); region++) {
+            regionStart[region] = price;
+            for (Map.Entry<Integer, Double> entry : seriesPerRegion.get(regions.get(region)).entrySet()) {
+                effectiveEpochDays[price] = entry.getKey();
+                prices[price] = entry.getValue();
+                price++;
+            }
+        }
+        regionStart[regions.size()] = price;
+
+        PostalCodeIntervalIndex intervalIndex;
+        try {
+            intervalIndex = PostalCodeIntervalIndex.compile(regions);
+        } catch (PostalCodeIntervalException e) {
+            logger.severe("Invalid regions in the dated electricity price file " + path + ": " + e.getMessage());
+            throw new ElectricityPriceDataException("Invalid regions in the dated electricity price file " + path + ": " + e.getMessage(), e);
+        }
+        short[] regionOfPostalCode = new short[CompiledWeatherArchive.POSTAL_CODES];
+        Arrays.fill(regionOfPostalCode, NO_REGION);
+        for (PostalCodeIntervalIndex.PostalCodeInterval interval : intervalIndex.getIntervals()) {
+            Arrays.fill(regionOfPostalCode, interval.from() - CompiledWeatherArchive.MIN_POSTAL_CODE,
+                    interval.to() - CompiledWeatherArchive.MIN_POSTAL_CODE + 1, (short) interval.regionIndex());
+        }
+        logger.info("Compiled dated electricity prices " + path + " with " + regions.size() + " regions and " + price + " prices");
+        return new DatedElectricityPrices(regionStart, Arrays.copyOf(effectiveEpochDays, price), Arrays.copyOf(prices, price), regionOfPostalCode);
+    }
+
+    /**
+     * Checks if the given postal code has an electricity price at the given date.
+     *
+     * @param postalCode the postal code to check
+     * @param asOf the date of the price
+     * @return true if the postal code has an electricity price at the date, false otherwise
+     */
+    public boolean covers(short postalCode, LocalDate asOf) {
+        return indexOf(postalCode, asOf.toEpochDay()) >= 0;
+    }
+
+    /**
+     * Get the electricity price of the given postal code valid at the given date.
+     *
+     * @param postalCode the postal code
+     * @param asOf the date of the price
+     * @return the electricity price in Rp./kWh
+     * @throws ElectricityPriceDataException if no electricity price is known for the postal code at the date
+     */
+    public double getElectricityPrice(short postalCode, LocalDate asOf) throws ElectricityPriceDataException {
+        int index = indexOf(postalCode, asOf.toEpochDay());
+        if (index < 0) {
+            logger.severe("No electricity price found for the postal code " + postalCode + " at " + asOf);
+            throw new ElectricityPriceDataException("No electricity price found for the postal code " + postalCode + " at " + asOf);
+        }
+        return prices[index];
+    }
+
+    /**
+     * Get the electricity prices of several postal codes at several dates in one pass,
+     * for example for the households of a portfolio over several years.
+     * The region of each postal code is looked up only once for all dates.
+     * All postal codes and dates are checked before an error is reported, so the error names every missing price.
+     *
+     * @param postalCodes the postal codes
+     * @param asOfDates the dates of the prices
+     * @return the electricity price in Rp./kWh of each postal code at each date, indexed by the date and then the postal code
+     * @throws ElectricityPriceDataException if no electricity price is known for one of the postal codes at one of the dates
+     */
+    public double[][] pricesFor(short[] postalCodes, List<LocalDate> asOfDates) throws ElectricityPriceDataException {
+        long[] epochDays = asOfDates.stream().mapToLong(LocalDate::toEpochDay).toArray();
+        double[][] pricesPerDate = new double[epochDays.length][postalCodes.length];
+        List<String> missingPrices = new ArrayList<>();
+        for (int postalCode = 0; postalCode < postalCodes.length; postalCode++) {
+            int region = regionOf(postalCodes[postalCode]);
+            for (int date = 0; date < epochDays.length; date++) {
+                int index = region < 0 ? -1 : indexOf(region, epochDays[date]);
+                if (index < 0) {
+                    missingPrices.add(postalCodes[postalCode] + " at " + asOfDates.get(date));
+                } else {
+                    pricesPerDate[date][postalCode] = prices[index];
+                }
+            }
+        }
+        if (!missingPrices.isEmpty()) {
+            logger.severe("No electricity price found for the postal codes " + missingPrices);
+            throw new ElectricityPriceDataException("No electricity price found for the postal codes " + missingPrices);
+        }
+        return pricesPerDate;
+    }
+
+    /**
+     * Get the index of the price of the given postal code valid at the given epoch day.
+     *
+     * @param postalCode the postal code
+     * @param epochDay the epoch day of the price
+     * @return the index of the price, -1 if the postal code has no price at the epoch day
+     */
+    private int indexOf(short postalCode, long epochDay) {
+        int region = regionOf(postalCode);
+        return region < 0 ? -1 : indexOf(region, epochDay);
+    }
+
+    /**
+     * Get the index of the region of the given postal code.
+     *
+     * @param postalCode the postal code
+     * @return the index of the region, -1 if the postal code has no region
+     */
+    private int regionOf(short postalCode) {
+        if (postalCode < CompiledWeatherArchive.MIN_POSTAL_CODE || postalCode > CompiledWeatherArchive.MAX_POSTAL_CODE) {
+            return -1;
+        }
+        return regionOfPostalCode[postalCode - CompiledWeatherArchive.MIN_POSTAL_CODE];
+    }
+
+    /**
+     * Searches the last price of the region effective at or before the given epoch day.
+     *
+     * @param region the index of the region
+     * @param epochDay the epoch day of the price
+     * @return the index of the price, -1 if the first price of the region is effective after the epoch day
+     */
+    private int indexOf(int region, long epochDay) {
+        int key = (int) Math.max(Integer.MIN_VALUE + 1L, Math.min(Integer.MAX_VALUE, epochDay));
+        int from = regionStart[region];
+        int index = Arrays.binarySearch(effectiveEpochDays, from, regionStart[region + 1], key);
+        if (index < 0) {
+            index = -index - 2; // the price before the insertion point
+        }
+        return index < from ? -1 : index;
+    }
+}
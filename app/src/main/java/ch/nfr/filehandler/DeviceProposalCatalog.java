@@ -0,0 +1,100 @@
+package ch.nfr.filehandler;
+
+import ch.nfr.tablemodel.RoomType;
+import ch.nfr.tablemodel.records.DeviceRecord;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.logging.Logger;
+
+/**
+ * This class holds the device proposals of a device proposal file as {@link DeviceRecord}s per {@link RoomType}.
+ * The file is read only once while loading, afterward the device proposals of a room type are returned without reading the file again.
+ * Instances are immutable and can be shared between threads, a changed file is loaded into a new catalog.
+ */
+public final class DeviceProposalCatalog {
+    /** The used Logger in this class */
+    private static final Logger logger = Logger.getLogger(DeviceProposalCatalog.class.getName());
+
+    /** The device proposals of each room type */
+    private final Map<RoomType, List<DeviceRecord>> deviceRecordsPerRoomType;
+
+    /**
+     * Creates a new catalog with the given device proposals.
+     *
+     * @param deviceRecordsPerRoomType the device proposals of each room type
+     */
+    private DeviceProposalCatalog(EnumMap<RoomType, List<DeviceRecord>> deviceRecordsPerRoomType) {
+        this.deviceRecordsPerRoomType = Collections.unmodifiableMap(deviceRecordsPerRoomType);
+    }
+
+    /**
+     * Loads the device proposals of the given file.
+     * If the path ends with {@value ReferenceDataFile#FILE_EXTENSION}, the device proposals are read from the
+     * memory mapped {@link ReferenceDataFile}, otherwise from the properties file.
+     *
+     * @param propertiesFile the path to the properties file or the reference data file
+     * @return the loaded catalog
+     * @throws DeviceProposalException if a device proposal of the properties file has a missing or invalid value
+     */
+    public static DeviceProposalCatalog load(String propertiesFile) throws DeviceProposalException {
+        Objects.requireNonNull(propertiesFile);
+        EnumMap<RoomType, List<DeviceRecord>> deviceRecordsPerRoomType = new EnumMap<>(RoomType.class);
+        if (ReferenceDataFile.isReferenceDataFile(propertiesFile)) {
+            try {
+                ReferenceDataFile referenceDataFile = ReferenceDataFile.open(propertiesFile);
+                for (RoomType roomType : RoomType.values()) {
+                    referenceDataFile.getDeviceProposals(roomType).forEach(deviceProposal -> deviceRecordsPerRoomType
+                            .computeIfAbsent(roomType, type -> new ArrayList<>()).add(deviceProposal.toDeviceRecord()));
+                }
+            } catch (IOException e) {
+                logger.severe("Could not read the reference data file: " + e.getMessage());
+            }
+        } else {
+            for (DeviceProposalHandler.DeviceProposalRecord deviceProposal : DeviceProposalHandler.readDeviceProposals(propertiesFile)) {
+                deviceRecordsPerRoomType.computeIfAbsent(deviceProposal.roomType(), type -> new ArrayList<>())
+                        .add(deviceProposal.toDeviceRecord());
+            }
+        }
+        deviceRecordsPerRoomType.replaceAll((roomType, deviceRecords) -> List.copyOf(deviceRecords));
+
+        DeviceProposalCatalog catalog = new DeviceProposalCatalog(deviceRecordsPerRoomType);
+        logger.info("Loaded " + catalog.size() + " device proposals for " + deviceRecordsPerRoomType.size() + " room types from " + propertiesFile);
+        return catalog;
+    }
+
+    /**
+     * Get the device proposals of the given {@link RoomType}, sorted by the device key.
+     *
+     * @param roomType the room type
+     * @return an unmodifiable list of {@link DeviceRecord}s, empty if the room type has no device proposals
+     */
+    public List<DeviceRecord> getDeviceRecords(RoomType roomType) {
+        return deviceRecordsPerRoomType.getOrDefault(roomType, List.of());
+    }
+
+    /**
+     * Get the device proposals of all room types, in the order of the room types.
+     *
+     * @return an unmodifiable list of {@link DeviceRecord}s
+     */
+    public List<DeviceRecord> getAllDeviceRecords() {
+        List<DeviceRecord> deviceRecords = new ArrayList<>(size());
+        deviceRecordsPerRoomType.values().forEach(deviceRecords::addAll);
+        return Collections.unmodifiableList(deviceRecords);
+    }
+
+    /**
+     * Get the number of device proposals of all room types.
+     *
+     * @return the number of device proposals
+     */
+    public int size() {
+        return deviceRecordsPerRoomType.values().stream().mapToInt(List::size).sum();
+    }
+}
@@ -0,0 +1,26 @@
+package ch.nfr.filehandler;
+
+/**
+ * Exception thrown when a device proposal of the device proposal file has a missing or invalid value.
+ */
+public class DeviceProposalException extends Exception {
+
+    /**
+     * Constructs a new DeviceProposalException with the specified detail message.
+     *
+     * @param message the detail message. The detail message is saved for later retrieval by the {@link #getMessage()} method.
+     */
+    public DeviceProposalException(String message) {
+        super(message);
+    }
+
+    /**
+     * Constructs a new DeviceProposalException with the specified detail message and cause.
+     *
+     * @param message the detail message. The detail message is saved for later retrieval by the {@link #getMessage()} method.
+     * @param cause the cause. The cause is saved for later retrieval by the {@link #getCause()} method.
+     */
+    public DeviceProposalException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -12,6 +12,7 @@ import ch.nfr.tablemodel.records.DeviceRecord;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
 import static ch.nfr.filehandler.property.DeviceProperty.*;
@@ -22,6 +23,8 @@ import static ch.nfr.filehandler.property.DeviceProperty.*;
 public class DeviceProposalHandler {
     /** The used Logger in this class. */
     private static final Logger logger = Logger.getLogger(DeviceProposalHandler.class.getName());
+    /** The loaded device proposal catalogs, cached per path. */
+    private static final Map<String, DeviceProposalCatalog> catalogs = new ConcurrentHashMap<>();
     /** The path to the properties file. */
     private final String propertiesPath;
 
@@ -36,79 +39,235 @@ public class DeviceProposalHandler {
 
     /**
      * Reads the device proposal file and returns a list of {@link DeviceRecord}s for the given {@link RoomType}.
+     * The file is loaded into a {@link DeviceProposalCatalog} on the first call for a path,
+     * see {@link #getCatalog(String)}.
      * @param propertiesFile the path to the properties file
      * @param roomType the room type to read from
-     * @return a list of {@link DeviceRecord}s
+     * @return an unmodifiable list of {@link DeviceRecord}s
+     * @throws DeviceProposalException if a device proposal of the file has a missing or invalid value
      */
-    public static List<DeviceRecord> readDeviceProposalFile(String propertiesFile, RoomType roomType) {
-        List<DeviceRecord> deviceRecords = new ArrayList<>();
+    public static List<DeviceRecord> readDeviceProposalFile(String propertiesFile, RoomType roomType) throws DeviceProposalException {
+        return getCatalog(propertiesFile).getDeviceRecords(roomType);
+    }
+
+    /**
+     * Get the device proposal catalog of the given path.
+     * The file is read only on the first call for a path, afterward the same catalog is returned
+     * until it is replaced by {@link #reloadCatalog(String)}.
+     *
+     * @param propertiesFile the path to the properties file or the reference data file
+     * @return the {@link DeviceProposalCatalog} of the path
+     * @throws DeviceProposalException if a device proposal of the file has a missing or invalid value
+     */
+    public static DeviceProposalCatalog getCatalog(String propertiesFile) throws DeviceProposalException {
+        Objects.requireNonNull(propertiesFile);
+        DeviceProposalCatalog catalog = catalogs.get(propertiesFile);
+        if (catalog == null) {
+            catalog = DeviceProposalCatalog.load(propertiesFile);
+            DeviceProposalCatalog previous = catalogs.putIfAbsent(propertiesFile, catalog);
+            if (previous != null) {
+                catalog = previous;
+            }
+        }
+        return catalog;
+    }
+
+    /**
+     * Reads the device proposal file again and replaces the catalog of the path as a whole.
+     * Callers which already got the previous catalog keep using it unchanged.
+     *
+     * @param propertiesFile the path to the properties file or the reference data file
+     * @return the new {@link DeviceProposalCatalog} of the path
+     * @throws DeviceProposalException if a device proposal of the file has a missing or invalid value
+     */
+    public static DeviceProposalCatalog reloadCatalog(String propertiesFile) throws DeviceProposalException {
+        Objects.requireNonNull(propertiesFile);
+        DeviceProposalCatalog catalog = DeviceProposalCatalog.load(propertiesFile);
+        catalogs.put(propertiesFile, catalog);
+        return catalog;
+    }
+
+    /**
+     * Reads all device proposals of the properties file without converting them into {@link DeviceRecord}s.
+     * The device proposals are sorted by the {@link RoomType} and the device key.
+     * Keys with an unknown {@link RoomType} are ignored.
+     *
+     * @param propertiesFile the path to the properties file
+     * @return a list of {@link DeviceProposalRecord}s, empty if the file could not be read
+     * @throws DeviceProposalException if a device proposal has a missing or invalid value
+     */
+    public static List<DeviceProposalRecord> readDeviceProposals(String propertiesFile) throws DeviceProposalException {
         DeviceProposalHandler deviceProposalHandler = new DeviceProposalHandler(propertiesFile);
-        Set<String> processedDevices = new HashSet<>();
+        List<DeviceProposalRecord> deviceProposals = new ArrayList<>();
 
         Properties properties = new Properties();
         try (FileInputStream fileInputStream = new FileInputStream(deviceProposalHandler.propertiesPath)) {
             properties.load(fileInputStream);
-
-            properties.stringPropertyNames()
-                    .stream()
-                    .filter(key -> {
-                        String[] keyParts = key.split("\\.");
-                        return RoomType.parseRoomType(keyParts[0]) == roomType;
-                    })
-                    .forEach(key -> {
-                        String[] keyParts = key.split("\\.");
-                        String subKey = keyParts[0] + "." + keyParts[1] + ".";
-                        if (processedDevices.add(subKey)) {
-                            logger.info("Found new device: " + keyParts[1] + " in " + roomType.name());
-                            deviceRecords.add(deviceProposalHandler.createDeviceRecord(properties, subKey));
-                        }
-                    });
         } catch (IOException e) {
             logger.severe("Could not read the properties file: " + e.getMessage());
+            return deviceProposals;
+        }
+
+        Map<RoomType, SortedSet<String>> deviceKeysPerRoomType = new EnumMap<>(RoomType.class);
+        for (String key : properties.stringPropertyNames()) {
+            String[] keyParts = key.split("\\.");
+            RoomType roomType = RoomType.parseRoomType(keyParts[0]);
+            if (roomType != null && keyParts.length == 3) {
+                deviceKeysPerRoomType.computeIfAbsent(roomType, type -> new TreeSet<>()).add(keyParts[1]);
+            }
+        }
+        for (Map.Entry<RoomType, SortedSet<String>> deviceKeys : deviceKeysPerRoomType.entrySet()) {
+            for (String deviceKey : deviceKeys.getValue()) {
+                deviceProposals.add(deviceProposalHandler.createDeviceProposal(properties, deviceKeys.getKey(), deviceKey));
+            }
         }
-        return deviceRecords;
+        return deviceProposals;
     }
 
     /**
-     * Creates a new DeviceRecord from the given properties and subKey.
+     * Creates a new DeviceProposalRecord from the given properties.
      * @param properties the properties to read from
-     * @param subKey the subKey to read from
-     * @return a new DeviceRecord
+     * @param roomType the room type of the device
+     * @param deviceKey the key of the device within the room type
+     * @return a new DeviceProposalRecord
+     * @throws DeviceProposalException if a value of the device is missing or invalid
      */
-    private DeviceRecord createDeviceRecord(Properties properties, String subKey) {
-        boolean isWired = Boolean.parseBoolean(properties.getProperty(subKey + IS_WIRED.name()));
-        String name = properties.getProperty(subKey + DEVICE_NAME.name());
-        DeviceCategory deviceCategory = DeviceCategory.parseDeviceCategory(properties.getProperty(subKey + DEVICE_CATEGORY.name()));
+    private DeviceProposalRecord createDeviceProposal(Properties properties, RoomType roomType, String deviceKey) throws DeviceProposalException {
+        String subKey = roomType.name() + "." + deviceKey + ".";
+        boolean isWired = Boolean.parseBoolean(getValue(properties, subKey + IS_WIRED.name()));
+        String name = getValue(properties, subKey + DEVICE_NAME.name());
+        DeviceCategory deviceCategory = requireValid(DeviceCategory.parseDeviceCategory(getValue(properties, subKey + DEVICE_CATEGORY.name())),
+                subKey + DEVICE_CATEGORY.name());
 
         if (isWired) {
-            double powerConsumption = Double.parseDouble(properties.getProperty(subKey + POWER_CONSUMPTION.name()));
-            double usage = Double.parseDouble(properties.getProperty(subKey + USAGE.name()));
+            return new DeviceProposalRecord(roomType, deviceKey, true, name, deviceCategory,
+                    getNumber(properties, subKey + POWER_CONSUMPTION.name()),
+                    getEnergyUnit(properties, subKey + POWER_CONSUMPTION_UNIT.name()),
+                    getNumber(properties, subKey + USAGE.name()),
+                    getTimeUnit(properties, subKey + USAGE_UNIT.name()),
+                    getTimeUnit(properties, subKey + USAGE_PER_UNIT.name()));
+        } else {
+            return new DeviceProposalRecord(roomType, deviceKey, false, name, deviceCategory,
+                    getNumber(properties, subKey + BATTERY_CAPACITY.name()),
+                    getEnergyUnit(properties, subKey + BATTERY_CAPACITY_UNIT.name()),
+                    getNumber(properties, subKey + CHARGING_CYCLE.name()),
+                    getTimeUnit(properties, subKey + CHARGING_CYCLE_UNIT.name()),
+                    null);
+        }
+    }
 
-            EnergyUnit powerConsumptionUnit = EnergyUnit.parseEnergyUnit(properties.getProperty(subKey + POWER_CONSUMPTION_UNIT.name()));
-            TimeUnit usageUnit = TimeUnit.parseTimeUnit(properties.getProperty(subKey + USAGE_UNIT.name()));
-            TimeUnit usagePerUnit = TimeUnit.parseTimeUnit(properties.getProperty(subKey + USAGE_PER_UNIT.name()));
+    /**
+     * Get the value of a key of the device proposal file.
+     * @param properties the properties to read from
+     * @param key the key of the value
+     * @return the value
+     * @throws DeviceProposalException if the value is missing
+     */
+    private String getValue(Properties properties, String key) throws DeviceProposalException {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            logger.severe("The device proposal file " + propertiesPath + " has no value for " + key);
+            throw new DeviceProposalException("The device proposal file " + propertiesPath + " has no value for " + key);
+        }
+        return value;
+    }
 
-            assert usagePerUnit != null;
-            double yearlyUsage = usage * (double) (TimeUnit.YEAR.getFactor() / usagePerUnit.getFactor());
+    /**
+     * Get the number of a key of the device proposal file.
+     * @param properties the properties to read from
+     * @param key the key of the number
+     * @return the number
+     * @throws DeviceProposalException if the number is missing or not a number
+     */
+    private double getNumber(Properties properties, String key) throws DeviceProposalException {
+        String value = getValue(properties, key);
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            logger.severe("The device proposal file " + propertiesPath + " has an invalid number for " + key + ": " + value);
+            throw new DeviceProposalException("The device proposal file " + propertiesPath + " has an invalid number for " + key + ": " + value, e);
+        }
+    }
 
-            long powerConsumptionInWattSeconds = UnitConverter.convertEnergyToWattSeconds(powerConsumption, powerConsumptionUnit);
-            long yearlyUsageInSeconds = UnitConverter.convertTimeToSeconds(yearlyUsage, usageUnit);
+    /**
+     * Get the energy unit of a key of the device proposal file.
+     * @param properties the properties to read from
+     * @param key the key of the energy unit
+     * @return the energy unit
+     * @throws DeviceProposalException if the energy unit is missing or unknown
+     */
+    private EnergyUnit getEnergyUnit(Properties properties, String key) throws DeviceProposalException {
+        return requireValid(EnergyUnit.parseEnergyUnit(getValue(properties, key)), key);
+    }
 
-            return new DeviceRecord(true, name, deviceCategory,
-                    new ElectricConsumption(powerConsumptionInWattSeconds, yearlyUsageInSeconds, usageUnit, usagePerUnit, powerConsumptionUnit));
-        } else {
-            double batteryCapacity = Double.parseDouble(properties.getProperty(subKey + BATTERY_CAPACITY.name()));
-            double chargingCycle = Double.parseDouble(properties.getProperty(subKey + CHARGING_CYCLE.name()));
+    /**
+     * Get the time unit of a key of the device proposal file.
+     * @param properties the properties to read from
+     * @param key the key of the time unit
+     * @return the time unit
+     * @throws DeviceProposalException if the time unit is missing or unknown
+     */
+    private TimeUnit getTimeUnit(Properties properties, String key) throws DeviceProposalException {
+        return requireValid(TimeUnit.parseTimeUnit(getValue(properties, key)), key);
+    }
+
+    /**
+     * Checks that a value of the device proposal file could be parsed.
+     * @param parsedValue the parsed value, null if the value is unknown
+     * @param key the key of the value
+     * @param <T> the type of the value
+     * @return the parsed value
+     * @throws DeviceProposalException if the value is unknown
+     */
+    private <T> T requireValid(T parsedValue, String key) throws DeviceProposalException {
+        if (parsedValue == null) {
+            logger.severe("The device proposal file " + propertiesPath + " has an unknown value for " + key);
+            throw new DeviceProposalException("The device proposal file " + propertiesPath + " has an unknown value for " + key);
+        }
+        return parsedValue;
+    }
+
+    /**
+     * A record to store a device proposal with the values as they are written in the device proposal file.
+     * For a mobile device the consumption is the battery capacity and the usage is the number of charging cycles.
+     *
+     * @param roomType the room type the device is proposed for
+     * @param deviceKey the key of the device within the room type
+     * @param isWired true if the device is wired, false if it is mobile
+     * @param deviceName the name of the device
+     * @param deviceCategory the category of the device
+     * @param consumption the power consumption or the battery capacity
+     * @param energyUnit the unit of the consumption
+     * @param usage the usage or the number of charging cycles
+     * @param usageUnit the unit of the usage or the charging cycle unit
+     * @param usagePerUnit the unit the usage is given per, null for a mobile device
+     */
+    public record DeviceProposalRecord(RoomType roomType, String deviceKey, boolean isWired, String deviceName,
+                                       DeviceCategory deviceCategory, double consumption, EnergyUnit energyUnit,
+                                       double usage, TimeUnit usageUnit, TimeUnit usagePerUnit) {
+
+        /**
+         * Converts the device proposal into a {@link DeviceRecord}.
+         * @return a new DeviceRecord
+         */
+        public DeviceRecord toDeviceRecord() {
+            if (isWired) {
+                assert usagePerUnit != null;
+                double yearlyUsage = usage * (double) (TimeUnit.YEAR.getFactor() / usagePerUnit.getFactor());
 
-            EnergyUnit batteryCapacityUnit = EnergyUnit.parseEnergyUnit(properties.getProperty(subKey + BATTERY_CAPACITY_UNIT.name()));
-            TimeUnit chargingCycleUnit = TimeUnit.parseTimeUnit(properties.getProperty(subKey + CHARGING_CYCLE_UNIT.name()));
+                long powerConsumptionInWattSeconds = UnitConverter.convertEnergyToWattSeconds(consumption, energyUnit);
+                long yearlyUsageInSeconds = UnitConverter.convertTimeToSeconds(yearlyUsage, usageUnit);
 
-            long batteryCapacityInWattSeconds = UnitConverter.convertEnergyToWattSeconds(batteryCapacity, batteryCapacityUnit);
-            assert chargingCycleUnit != null;
-            long yearlyChargingCycles = (long) (chargingCycle * (TimeUnit.YEAR.getFactor() / chargingCycleUnit.getFactor()));
+                return new DeviceRecord(true, deviceName, deviceCategory,
+                        new ElectricConsumption(powerConsumptionInWattSeconds, yearlyUsageInSeconds, usageUnit, usagePerUnit, energyUnit));
+            } else {
+                long batteryCapacityInWattSeconds = UnitConverter.convertEnergyToWattSeconds(consumption, energyUnit);
+                assert usageUnit != null;
+                long yearlyChargingCycles = (long) (usage * (TimeUnit.YEAR.getFactor() / usageUnit.getFactor()));
 
-            return new DeviceRecord(false, name, deviceCategory,
-                    new BatteryConsumption(yearlyChargingCycles, batteryCapacityInWattSeconds, chargingCycleUnit, batteryCapacityUnit));
+                return new DeviceRecord(false, deviceName, deviceCategory,
+                        new BatteryConsumption(yearlyChargingCycles, batteryCapacityInWattSeconds, usageUnit, energyUnit));
+            }
         }
     }
 }
@@ -0,0 +1,350 @@
+package ch.nfr.filehandler;
+
+import ch.nfr.tablemodel.records.DeviceRecord;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+/**
+ * This class is an in-memory search index over device records, used to complete a device name while it is typed.
+ * <p>
+ * Every word of a device name is a key of a prefix trie, so "kühl" finds "Kühlschrank" and "Gefrierschrank Kühl".
+ * The trie is stored in arrays, each node holds the range of its keys in the sorted key array,
+ * so all completions of a prefix are found by walking the prefix once.
+ * If no device name starts with the query, a trigram index finds names which are similar to the query,
+ * so a typo like "kühlschrnak" still finds "Kühlschrank".
+ * Instances are immutable and can be shared between threads.
+ */
+public final class DeviceSearchIndex {
+    /** The used Logger in this class */
+    private static final Logger logger = Logger.getLogger(DeviceSearchIndex.class.getName());
+    /** The number of characters of a trigram */
+    private static final int TRIGRAM_LENGTH = 3;
+    /** The character used to pad the start and the end of a name for the trigrams */
+    private static final char PADDING = ' ';
+    /** The minimum similarity of a name to the query to be suggested by the trigram index */
+    private static final double MIN_SIMILARITY = 0.3;
+    /** The index of the root node of the trie */
+    private static final int ROOT = 0;
+    /** The index of a missing node */
+    private static final int NO_NODE = -1;
+
+    /** The device records in the order of their normalized name */
+    private final DeviceRecord[] records;
+    /** The normalized name of each device record */
+    private final String[] names;
+    /** The device record of each key of the trie, the keys are sorted */
+    private final int[] keyRecords;
+    /** The character of each node of the trie */
+    private final char[] nodeCharacters;
+    /** The first child of each node of the trie */
+    private final int[] firstChild;
+    /** The next sibling of each node of the trie */
+    private final int[] nextSibling;
+    /** The first key below each node of the trie */
+    private final int[] keyFrom;
+    /** The key after the last key below each node of the trie */
+    private final int[] keyTo;
+    /** The trigrams of all names, sorted ascending */
+    private final long[] trigrams;
+    /** The first posting of each trigram, the postings of a trigram end at the first posting of the next trigram */
+    private final int[] postingStart;
+    /** The device records containing a trigram */
+    private final int[] postings;
+    /** The number of distinct trigrams of each name */
+    private final int[] trigramCounts;
+
+    /**
+     * Creates a new search index over the given device records.
+     * A device record with the same normalized name as a previous one is left out,
+     * so the first records win, for example the user defined templates over the device proposals.
+     *
+     * @param deviceRecords the device records to search
+     */
+    public DeviceSearchIndex(List<DeviceRecord> deviceRecords) {
+        TreeMap<String, DeviceRecord> recordsByName = new TreeMap<>();
+        for (DeviceRecord deviceRecord : deviceRecords) {
+            String name = normalize(deviceRecord.deviceName());
+            if (!name.isEmpty()) {
+                recordsByName.putIfAbsent(name, deviceRecord);
+            }
+        }
+        this.names = recordsByName.keySet().toArray(new String[0]);
+        this.records = recordsByName.values().toArray(new DeviceRecord[0]);
+
+        List<String> keys = new ArrayList<>();
+        List<Integer> recordOfKey = new ArrayList<>();
+        for (int record = 0; record < names.length; record++) {
+            for (int start = 0; start < names[record].length(); start++) {
+                if (start == 0 || names[record].charAt(start - 1) == PADDING) {
+                    keys.add(names[record].substring(start));
+                    recordOfKey.add(record);
+                }
+            }
+        }
+        Integer[] keyOrder = new Integer[keys.size()];
+        Arrays.setAll(keyOrder, key -> key);
+        Arrays.sort(keyOrder, Comparator.comparing(keys::get));
+        String[] sortedKeys = new String[keyOrder.length];
+        this.keyRecords = new int[keyOrder.length];
+        for (int key = 0; key < keyOrder.length; key++) {
+            sortedKeys[key] = keys.get(keyOrder[key]);
+            keyRecords[key] = recordOfKey.get(keyOrder[key]);
+        }
+
+        TrieBuilder trie = new TrieBuilder(sortedKeys);
+        this.nodeCharacters = Arrays.copyOf(trie.nodeCharacters, trie.nodes);
+        this.firstChild = Arrays.copyOf(trie.firstChild, trie.nodes);
+        this.nextSibling = Arrays.copyOf(trie.nextSibling, trie.nodes);
+        this.keyFrom = Arrays.copyOf(trie.keyFrom, trie.nodes);
+        this.keyTo = Arrays.copyOf(trie.keyTo, trie.nodes);
+
+        TreeMap<Long, List<Integer>> postingsByTrigram = new TreeMap<>();
+        this.trigramCounts = new int[names.length];
+        for (int record = 0; record < names.length; record++) {
+            Set<Long> recordTrigrams = trigramsOf(names[record]);
+            trigramCounts[record] = recordTrigrams.size();
+            for (long trigram : recordTrigrams) {
+                postingsByTrigram.computeIfAbsent(trigram, postingList -> new ArrayList<>()).add(record);
+            }
+        }
+        this.trigrams = new long[postingsByTrigram.size()];
+        this.postingStart = new int[postingsByTrigram.size() + 1];
+        this.postings = new int[postingsByTrigram.values().stream().mapToInt(List::size).sum()];
+        int trigram = 0;
+        int posting = 0;
+        for (var entry : postingsByTrigram.entrySet()) {
+            trigrams[trigram] = entry.getKey();
+            postingStart[trigram++] = posting;
+            for (int record : entry.getValue()) {
+                postings[posting++] = record;
+            }
+        }
+        postingStart[trigram] = posting;
+        logger.info("Created the device search index with " + names.length + " devices, " + trie.nodes + " trie nodes and " + trigrams.length + " trigrams");
+    }
+
+    /**
+     * Get the number of device records in the index.
+     *
+     * @return the number of device records
+     */
+    public int size() {
+        return records.length;
+    }
+
+    /**
+     * Completes the given query with the device records of the index.
+     * Device records with a word starting with the query are ranked first, names starting with the query before
+     * names with a later word starting with it and shorter names before longer ones.
+     * After that, device records with a name similar to the query are ranked by their similarity.
+     *
+     * @param query the typed device name
+     * @param limit the maximum number of completions
+     * @return the completed device records, the best completion first, empty if the query is blank
+     */
+    public List<DeviceRecord> complete(String query, int limit) {
+        String normalizedQuery = normalize(query);
+        if (normalizedQuery.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        int node = findNode(normalizedQuery);
+        Set<Integer> found = new HashSet<>();
+        List<Integer> prefixMatches = new ArrayList<>();
+        if (node != NO_NODE) {
+            for (int key = keyFrom[node]; key < keyTo[node]; key++) {
+                if (found.add(keyRecords[key])) {
+                    prefixMatches.add(keyRecords[key]);
+                }
+            }
+        }
+        prefixMatches.sort(Comparator.<Integer>comparingInt(record -> names[record].startsWith(normalizedQuery) ? 0 : 1)
+                .thenComparingInt(record -> names[record].length())
+                .thenComparing(record -> names[record]));
+
+        List<DeviceRecord> completions = new ArrayList<>();
+        for (int record : prefixMatches) {
+            if (completions.size() == limit) {
+                return completions;
+            }
+            completions.add(records[record]);
+        }
+        for (int record : findSimilar(normalizedQuery)) {
+            if (completions.size() == limit) {
+                break;
+            }
+            if (found.add(record)) {
+                completions.add(records[record]);
+            }
+        }
+        return completions;
+    }
+
+    /**
+     * Walks the trie along the given prefix.
+     *
+     * @param prefix the normalized prefix
+     * @return the node of the prefix, {@value #NO_NODE} if no key starts with the prefix
+     */
+    private int findNode(String prefix) {
+        int node = ROOT;
+        for (int index = 0; index < prefix.length() && node != NO_NODE; index++) {
+            int child = firstChild[node];
+            while (child != NO_NODE && nodeCharacters[child] != prefix.charAt(index)) {
+                child = nextSibling[child];
+            }
+            node = child;
+        }
+        return node;
+    }
+
+    /**
+     * Finds the device records with a name similar to the query by the share of their common trigrams.
+     *
+     * @param query the normalized query
+     * @return the similar device records, the most similar first
+     */
+    private List<Integer> findSimilar(String query) {
+        Set<Long> queryTrigrams = trigramsOf(query);
+        int[] commonTrigrams = new int[names.length];
+        for (long trigram : queryTrigrams) {
+            int index = Arrays.binarySearch(trigrams, trigram);
+            if (index >= 0) {
+                for (int posting = postingStart[index]; posting < postingStart[index + 1]; posting++) {
+                    commonTrigrams[postings[posting]]++;
+                }
+            }
+        }
+        double[] similarity = new double[names.length];
+        List<Integer> similarRecords = new ArrayList<>();
+        for (int record = 0; record < names.length; record++) {
+            if (commonTrigrams[record] > 0) {
+                similarity[record] = (double) commonTrigrams[record]
+                        / (queryTrigrams.size() + trigramCounts[record] - commonTrigrams[record]);
+                if (similarity[record] >= MIN_SIMILARITY) {
+                    similarRecords.add(record);
+                }
+            }
+        }
+        similarRecords.sort(Comparator.<Integer>comparingDouble(record -> -similarity[record]).thenComparing(record -> names[record]));
+        return similarRecords;
+    }
+
+    /**
+     * Get the distinct trigrams of a normalized name, padded at the start and the end.
+     * A trigram is packed into a long with 16 bits per character.
+     *
+     * @param name the normalized name
+     * @return the trigrams of the name
+     */
+    private static Set<Long> trigramsOf(String name) {
+        String padded = PADDING + name + PADDING;
+        Set<Long> nameTrigrams = new HashSet<>();
+        for (int start = 0; start + TRIGRAM_LENGTH <= padded.length(); start++) {
+            long trigram = 0;
+            for (int index = start; index < start + TRIGRAM_LENGTH; index++) {
+                trigram = trigram << Character.SIZE | padded.charAt(index);
+            }
+            nameTrigrams.add(trigram);
+        }
+        return nameTrigrams;
+    }
+
+    /**
+     * Normalizes a device name for the search, lower case with single spaces between the words.
+     *
+     * @param name the device name
+     * @return the normalized name
+     */
+    private static String normalize(String name) {
+        return name == null ? "" : name.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * A helper class to build the trie arrays from the sorted keys.
+     */
+    private static final class TrieBuilder {
+        /** The character of each node */
+        private char[] nodeCharacters = new char[16];
+        /** The first child of each node */
+        private int[] firstChild = new int[16];
+        /** The next sibling of each node */
+        private int[] nextSibling = new int[16];
+        /** The first key below each node */
+        private int[] keyFrom = new int[16];
+        /** The key after the last key below each node */
+        private int[] keyTo = new int[16];
+        /** The number of nodes */
+        private int nodes;
+
+        /**
+         * Builds the trie of the sorted keys.
+         * As the keys are sorted, the keys below a node are a range and the children of a node are added in order.
+         *
+         * @param sortedKeys the sorted keys
+         */
+        private TrieBuilder(String[] sortedKeys) {
+            addNode(PADDING, 0, sortedKeys.length);
+            int[] lastChild = new int[16];
+            Arrays.fill(lastChild, NO_NODE);
+            for (int key = 0; key < sortedKeys.length; key++) {
+                int node = ROOT;
+                for (int index = 0; index < sortedKeys[key].length(); index++) {
+                    char character = sortedKeys[key].charAt(index);
+                    int child = lastChild[node];
+                    if (child == NO_NODE || nodeCharacters[child] != character) {
+                        int newChild = addNode(character, key, key + 1);
+                        if (newChild >= lastChild.length) {
+                            int oldLength = lastChild.length;
+                            lastChild = Arrays.copyOf(lastChild, nodeCharacters.length);
+                            Arrays.fill(lastChild, oldLength, lastChild.length, NO_NODE);
+                        }
+                        if (child == NO_NODE) {
+                            firstChild[node] = newChild;
+                        } else {
+                            nextSibling[child] = newChild;
+                        }
+                        lastChild[node] = newChild;
+                        child = newChild;
+                    } else {
+                        keyTo[child] = key + 1;
+                    }
+                    node = child;
+                }
+            }
+        }
+
+        /**
+         * Adds a new node without children and siblings.
+         *
+         * @param character the character of the node
+         * @param from the first key below the node
+         * @param to the key after the last key below the node
+         * @return the index of the new node
+         */
+        private int addNode(char character, int from, int to) {
+            if (nodes == nodeCharacters.length) {
+                int length = nodes * 2;
+                nodeCharacters = Arrays.copyOf(nodeCharacters, length);
+                firstChild = Arrays.copyOf(firstChild, length);
+                nextSibling = Arrays.copyOf(nextSibling, length);
+                keyFrom = Arrays.copyOf(keyFrom, length);
+                keyTo = Arrays.copyOf(keyTo, length);
+            }
+            nodeCharacters[nodes] = character;
+            firstChild[nodes] = NO_NODE;
+            nextSibling[nodes] = NO_NODE;
+            keyFrom[nodes] = from;
+            keyTo[nodes] = to;
+            return nodes++;
+        }
+    }
+}
@@ -1,45 +1,173 @@
 package ch.nfr.filehandler;
 
-import java.io.FileInputStream;
+import ch.nfr.calculator.tariff.FlatTariff;
+import ch.nfr.calculator.tariff.Tariff;
+
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Properties;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
 /**
  * This class is responsible for handling the electricity cost.
  * It reads the electricity cost from a properties file and returns the electricity cost for a given postal code.
+ * The properties file is compiled into a {@link CompiledElectricityPrices} tariff index only once per path,
+ * afterward every lookup is served from the index without reading the file again.
  */
 public class ElectricityCostHandler {
     /** The used logger for this class. */
     private static final Logger logger = Logger.getLogger(ElectricityCostHandler.class.getName());
+    /** The compiled electricity prices, cached per path */
+    private static final Map<String, CompiledElectricityPrices> compiledElectricityPrices = new ConcurrentHashMap<>();
+    /** The compiled tariffs, cached per path */
+    private static final Map<String, CompiledTariffs> compiledTariffs = new ConcurrentHashMap<>();
+    /** The dated electricity prices, cached per path */
+    private static final Map<String, DatedElectricityPrices> datedElectricityPrices = new ConcurrentHashMap<>();
+
+    /**
+     * The private constructor to prevent the instantiation of this class.
+     */
+    private ElectricityCostHandler() {
+    }
 
     /**
      * Get the electricity price for a given postal code.
-     * Reads from a properties file and returns the electricity cost for the given postal code.
+     * The regions of the file are compiled into postal code intervals on the first call for a path,
+     * regions covering the same postal code are reported as an error when the file is compiled.
+     * Postal codes without a region are only logged as a warning when the file is compiled
+     * and reported as an error when their electricity price is looked up.
      *
      * @param postalCode the postal code
-     * @param path the path to the properties file
+     * @param path the path to the properties file or the reference data file
      * @return the electricity cost for the given postal code
-     * @throws ElectricityPriceDataException if an error occurs while reading the properties file
+     * @throws ElectricityPriceDataException if an error occurs while reading the properties file,
+     * the regions overlap or no electricity price is known for the postal code
      */
     public static double getElectricityPrice(short postalCode, String path) throws ElectricityPriceDataException {
-        String postalCodeString = Short.toString(postalCode);
-        List<Double> electricityCost = new ArrayList<>();
-        Properties properties = new Properties();
-
-        try (FileInputStream fileInputStream = new FileInputStream(path)) {
-            properties.load(fileInputStream);
-
-            properties.stringPropertyNames()
-                    .stream()
-                    .filter(postalCodeString::matches)
-                    .forEach(key -> electricityCost.add(Double.parseDouble(properties.getProperty(key))));
-        } catch (IOException e) {
-            logger.severe("Error while reading the electricity cost properties file: " + e.getMessage());
-            throw new ElectricityPriceDataException("Error while reading the electricity cost properties file: " + e.getMessage());
+        return getElectricityPrices(path).getElectricityPrice(postalCode);
+    }
+
+    /**
+     * Get the electricity prices of several postal codes at once, for example for the households of a portfolio.
+     *
+     * @param postalCodes the postal codes
+     * @param path the path to the properties file or the reference data file
+     * @return the electricity price in Rp./kWh of each postal code, in the order of the postal codes
+     * @throws ElectricityPriceDataException if an error occurs while reading the properties file,
+     * the regions overlap or no electricity price is known for one of the postal codes
+     */
+    public static double[] pricesFor(short[] postalCodes, String path) throws ElectricityPriceDataException {
+        return getElectricityPrices(path).pricesFor(postalCodes);
+    }
+
+    /**
+     * Get the compiled electricity prices of the given path.
+     * The file is read and compiled only on the first call for a path.
+     * If the path ends with {@value ReferenceDataFile#FILE_EXTENSION}, the electricity prices are used directly
+     * from the memory mapped {@link ReferenceDataFile}.
+     *
+     * @param path the path to the properties file or the reference data file
+     * @return the {@link CompiledElectricityPrices} of the path
+     * @throws ElectricityPriceDataException if the file could not be read or compiled
+     */
+    public static CompiledElectricityPrices getElectricityPrices(String path) throws ElectricityPriceDataException {
+        Objects.requireNonNull(path, "Properties file must not be null");
+        CompiledElectricityPrices electricityPrices = compiledElectricityPrices.get(path);
+        if (electricityPrices == null) {
+            if (ReferenceDataFile.isReferenceDataFile(path)) {
+                try {
+                    electricityPrices = ReferenceDataFile.open(path).getElectricityPrices();
+                } catch (IOException e) {
+                    logger.severe("Error while reading the reference data file: " + e.getMessage());
+                    throw new ElectricityPriceDataException("Error while reading the reference data file: " + e.getMessage(), e);
+                }
+            } else {
+                electricityPrices = CompiledElectricityPrices.compile(path);
+            }
+            CompiledElectricityPrices previous = compiledElectricityPrices.putIfAbsent(path, electricityPrices);
+            if (previous != null) {
+                electricityPrices = previous;
+            }
+        }
+        return electricityPrices;
+    }
+
+    /**
+     * Get the tariff for a given postal code from an extended electricity price file, see {@link CompiledTariffs}.
+     * The file is read and compiled only on the first call for a path.
+     * If the path ends with {@value ReferenceDataFile#FILE_EXTENSION}, a flat tariff with the electricity price
+     * of the memory mapped {@link ReferenceDataFile} is returned, regions with other tariffs are not covered by it,
+     * see {@link CompiledElectricityPrices#compile(String)}.
+     *
+     * @param postalCode the postal code
+     * @param path the path to the extended electricity price file or the reference data file
+     * @return the tariff of the given postal code
+     * @throws ElectricityPriceDataException if an error occurs while reading the file,
+     * a tariff is invalid or no tariff is known for the postal code
+     */
+    public static Tariff getTariff(short postalCode, String path) throws ElectricityPriceDataException {
+        if (ReferenceDataFile.isReferenceDataFile(path)) {
+            return new FlatTariff(getElectricityPrice(postalCode, path));
+        }
+        return getTariffs(path).getTariff(postalCode);
+    }
+
+    /**
+     * Get the compiled tariffs of the given extended electricity price file.
+     * The file is read and compiled only on the first call for a path.
+     *
+     * @param path the path to the extended electricity price file
+     * @return the {@link CompiledTariffs} of the path
+     * @throws ElectricityPriceDataException if the file could not be read or compiled
+     */
+    public static CompiledTariffs getTariffs(String path) throws ElectricityPriceDataException {
+        Objects.requireNonNull(path, "Properties file must not be null");
+        CompiledTariffs tariffs = compiledTariffs.get(path);
+        if (tariffs == null) {
+            tariffs = CompiledTariffs.compile(path);
+            CompiledTariffs previous = compiledTariffs.putIfAbsent(path, tariffs);
+            if (previous != null) {
+                tariffs = previous;
+            }
+        }
+        return tariffs;
+    }
+
+    /**
+     * Get the electricity price for a given postal code valid at the given date from a dated electricity price file,
+     * see {@link DatedElectricityPrices}.
+     *
+     * @param postalCode the postal code
+     * @param path the path to the dated electricity price file
+     * @param asOf the date of the price
+     * @return the electricity price in Rp./kWh valid at the date
+     * @throws ElectricityPriceDataException if an error occurs while reading the file
+     * or no electricity price is known for the postal code at the date
+     */
+    public static double getElectricityPrice(short postalCode, String path, LocalDate asOf) throws ElectricityPriceDataException {
+        return getDatedElectricityPrices(path).getElectricityPrice(postalCode, asOf);
+    }
+
+    /**
+     * Get the compiled dated electricity prices of the given path.
+     * The file is read and compiled only on the first call for a path.
+     *
+     * @param path the path to the dated electricity price file
+     * @return the {@link DatedElectricityPrices} of the path
+     * @throws ElectricityPriceDataException if the file could not be read or compiled
+     */
+    public static DatedElectricityPrices getDatedElectricityPrices(String path) throws ElectricityPriceDataException {
+        Objects.requireNonNull(path, "Properties file must not be null");
+        DatedElectricityPrices prices = datedElectricityPrices.get(path);
+        if (prices == null) {
+            prices = DatedElectricityPrices.compile(path);
+            DatedElectricityPrices previous = datedElectricityPrices.putIfAbsent(path, prices);
+            if (previous != null) {
+                prices = previous;
+            }
         }
-        return electricityCost.getFirst();
+        return prices;
     }
 }
@@ -0,0 +1,116 @@
+package ch.nfr.filehandler;
+
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * This enum represents the file formats of the household files.
+ * Both formats hold the JSON object of a household, so the converters work with either format.
+ */
+public enum HouseholdFormat {
+
+    /**
+     * The JSON file, written with the {@link HouseholdHeader} first. It is also the import and export format.
+     */
+    JSON(".json") {
+        @Override
+        public JSONObject read(Path file) throws IOException {
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                return new JSONObject(new JSONTokener(reader));
+            }
+        }
+
+        @Override
+        public void write(JSONObject household, OutputStream out) throws IOException {
+            Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            HouseholdHeader.write(household, writer);
+            writer.flush();
+        }
+
+        @Override
+        public HouseholdHeader readHeader(Path file) throws IOException {
+            return HouseholdHeader.read(file);
+        }
+    },
+
+    /**
+     * The compact binary snapshot, see {@link HouseholdSnapshot}.
+     */
+    SNAPSHOT(HouseholdSnapshot.FILE_EXTENSION) {
+        @Override
+        public JSONObject read(Path file) throws IOException {
+            return HouseholdSnapshot.read(file);
+        }
+
+        @Override
+        public void write(JSONObject household, OutputStream out) throws IOException {
+            HouseholdSnapshot.write(household, out);
+        }
+
+        @Override
+        public HouseholdHeader readHeader(Path file) throws IOException {
+            return HouseholdSnapshot.readHeader(file);
+        }
+    };
+
+    /**
+     * The file extension of the format.
+     */
+    private final String fileExtension;
+
+    /**
+     * Creates a new household format.
+     *
+     * @param fileExtension the file extension of the format
+     */
+    HouseholdFormat(String fileExtension) {
+        this.fileExtension = fileExtension;
+    }
+
+    /**
+     * This method returns the file extension of the format.
+     *
+     * @return the file extension, including the dot
+     */
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    /**
+     * This method reads the JSON object of a household from a file.
+     *
+     * @param file the household file
+     * @return the JSON object of the household
+     * @throws IOException if the file could not be read or has an invalid format
+     * @throws org.json.JSONException if the JSON file is no valid JSON object
+     */
+    public abstract JSONObject read(Path file) throws IOException;
+
+    /**
+     * This method writes the JSON object of a household to a stream.
+     *
+     * @param household the JSON object of the household
+     * @param out the stream to write to, it is flushed but not closed
+     * @throws IOException if the stream could not be written
+     */
+    public abstract void write(JSONObject household, OutputStream out) throws IOException;
+
+    /**
+     * This method reads only the header of a household file.
+     *
+     * @param file the household file
+     * @return the header of the household
+     * @throws IOException if the file could not be read or has an invalid format
+     * @throws org.json.JSONException if the JSON file is no valid JSON object
+     */
+    public abstract HouseholdHeader readHeader(Path file) throws IOException;
+}
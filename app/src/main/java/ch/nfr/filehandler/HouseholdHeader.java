@@ -0,0 +1,391 @@
+package ch.nfr.filehandler;
+
+import ch.nfr.filehandler.property.HouseholdProperty;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class represents the header of a household file, the household properties and the delete flag.
+ * <p>
+ * The header is read with a streaming parser which only looks at the top-level keys of the file.
+ * The values of other keys, like the rooms with all their devices, are skipped character by character
+ * without building a JSON tree. The household files are written with the header keys first, see {@link #write(JSONObject, Writer)},
+ * so the parser stops at the first other key and reads only the start of the file.
+ * Files written in another key order are scanned to the end, but still without building the JSON tree.
+ */
+public final class HouseholdHeader {
+    /** The key of the delete flag */
+    public static final String DELETE_KEY = "delete";
+    /** The keys of the header in the order they are written */
+    private static final List<String> HEADER_KEYS = List.of(HouseholdProperty.HOUSEHOLD_NAME.name(),
+            HouseholdProperty.POSTAL_CODE.name(), HouseholdProperty.NUMBER_OF_RESIDENTS.name(), DELETE_KEY);
+    /** The value of the end of the file */
+    private static final int END_OF_FILE = -1;
+
+    /** The household properties found in the header */
+    private final Map<HouseholdProperty, Object> properties;
+    /** True if the household is marked for deletion */
+    private final boolean deleted;
+
+    /**
+     * Creates a new header with the read values.
+     *
+     * @param properties the household properties found in the header
+     * @param deleted true if the household is marked for deletion
+     */
+    HouseholdHeader(Map<HouseholdProperty, Object> properties, boolean deleted) {
+        this.properties = properties;
+        this.deleted = deleted;
+    }
+
+    /**
+     * Reads the header of the given household file.
+     *
+     * @param file the household file
+     * @return the header of the file
+     * @throws IOException if the file could not be read
+     * @throws JSONException if the file is no JSON object
+     */
+    public static HouseholdHeader read(Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return read(reader);
+        }
+    }
+
+    /**
+     * Reads the header of a household file from the given reader.
+     * The reader is read only up to the first key after the header if the file starts with the header keys.
+     *
+     * @param reader the reader of the household file
+     * @return the header of the file
+     * @throws IOException if the reader could not be read
+     * @throws JSONException if the file is no JSON object
+     */
+    public static HouseholdHeader read(Reader reader) throws IOException {
+        Tokenizer tokenizer = new Tokenizer(reader);
+        Map<HouseholdProperty, Object> properties = new EnumMap<>(HouseholdProperty.class);
+        Boolean deleted = null;
+        boolean headerFirst = false;
+        if (tokenizer.nextClean() != '{') {
+            throw new JSONException("A household file must start with '{'");
+        }
+        int next = tokenizer.nextClean();
+        while (next != '}') {
+            if (next != '"') {
+                throw new JSONException("Expected a key in the household file");
+            }
+            String key = tokenizer.readString();
+            if (tokenizer.nextClean() != ':') {
+                throw new JSONException("Expected ':' after the key " + key);
+            }
+            if (properties.isEmpty() && deleted == null && key.equals(HouseholdProperty.HOUSEHOLD_NAME.name())) {
+                headerFirst = true;
+            }
+            if (headerFirst && properties.size() == HouseholdProperty.values().length && !HEADER_KEYS.contains(key)) {
+                break; // the header is complete, the rest of the file is not read
+            }
+
+            int first = tokenizer.nextClean();
+            if (key.equals(DELETE_KEY)) {
+                deleted = Boolean.TRUE.equals(tokenizer.readValue(first));
+            } else if (HEADER_KEYS.contains(key)) {
+                properties.put(HouseholdProperty.valueOf(key), tokenizer.readValue(first));
+            } else {
+                tokenizer.skipValue(first);
+            }
+            if (deleted != null && properties.size() == HouseholdProperty.values().length) {
+                break;
+            }
+
+            next = tokenizer.nextClean();
+            if (next == ',') {
+                next = tokenizer.nextClean();
+            } else if (next != '}') {
+                throw new JSONException("Expected ',' or '}' after the value of " + key);
+            }
+        }
+        return new HouseholdHeader(properties, deleted != null && deleted);
+    }
+
+    /**
+     * Writes a household JSON object with the header keys first, followed by all other keys.
+     *
+     * @param jsonObject the household JSON object
+     * @param writer the writer to write to
+     * @throws IOException if the writer could not be written
+     */
+    public static void write(JSONObject jsonObject, Writer writer) throws IOException {
+        writer.write('{');
+        boolean first = true;
+        for (String key : HEADER_KEYS) {
+            if (jsonObject.has(key)) {
+                writeMember(writer, first, key, jsonObject.get(key));
+                first = false;
+            }
+        }
+        for (String key : jsonObject.keySet()) {
+            if (!HEADER_KEYS.contains(key)) {
+                writeMember(writer, first, key, jsonObject.get(key));
+                first = false;
+            }
+        }
+        writer.write('}');
+    }
+
+    /**
+     * Writes one member of a JSON object.
+     *
+     * @param writer the writer to write to
+     * @param first true if it is the first member of the object
+     * @param key the key of the member
+     * @param value the value of the member
+     * @throws IOException if the writer could not be written
+     */
+    private static void writeMember(Writer writer, boolean first, String key, Object value) throws IOException {
+        if (!first) {
+            writer.write(',');
+        }
+        writer.write(JSONObject.quote(key));
+        writer.write(':');
+        if (value instanceof JSONObject jsonObject) {
+            jsonObject.write(writer);
+        } else if (value instanceof JSONArray jsonArray) {
+            jsonArray.write(writer);
+        } else {
+            writer.write(JSONObject.valueToString(value));
+        }
+    }
+
+    /**
+     * Checks if the header has all household properties and a name, and is not marked for deletion.
+     * The types of the other properties are checked when the household is loaded.
+     *
+     * @return true if the file is a household, false otherwise
+     */
+    public boolean isHousehold() {
+        return !deleted && getMissingProperties().isEmpty() && getHouseholdName() != null;
+    }
+
+    /**
+     * Get the household properties which are missing in the header.
+     *
+     * @return the missing household properties
+     */
+    public List<HouseholdProperty> getMissingProperties() {
+        return Arrays.stream(HouseholdProperty.values())
+                .filter(property -> !properties.containsKey(property))
+                .toList();
+    }
+
+    /**
+     * Get the name of the household.
+     *
+     * @return the name of the household, null if the header has no valid name
+     */
+    public String getHouseholdName() {
+        return properties.get(HouseholdProperty.HOUSEHOLD_NAME) instanceof String name ? name : null;
+    }
+
+    /**
+     * Get the value of a household property.
+     *
+     * @param property the household property
+     * @return the value of the property, null if the header has no such property
+     */
+    public Object getProperty(HouseholdProperty property) {
+        return properties.get(property);
+    }
+
+    /**
+     * Checks if the household is marked for deletion.
+     *
+     * @return true if the household is marked for deletion, false otherwise
+     */
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    /**
+     * This class reads the tokens of a JSON text one character at a time.
+     */
+    private static final class Tokenizer {
+        /** The reader of the JSON text */
+        private final Reader reader;
+        /** The character read ahead, or -2 if no character is read ahead */
+        private int peeked = -2;
+
+        /**
+         * Creates a new tokenizer.
+         *
+         * @param reader the reader of the JSON text
+         */
+        private Tokenizer(Reader reader) {
+            this.reader = reader;
+        }
+
+        /**
+         * Returns the next character without consuming it.
+         *
+         * @return the next character, {@value #END_OF_FILE} at the end of the text
+         * @throws IOException if the reader could not be read
+         */
+        private int peek() throws IOException {
+            if (peeked == -2) {
+                peeked = reader.read();
+            }
+            return peeked;
+        }
+
+        /**
+         * Consumes the next character.
+         *
+         * @return the next character
+         * @throws IOException if the reader could not be read
+         * @throws JSONException at the end of the text
+         */
+        private int next() throws IOException {
+            int character = peek();
+            peeked = -2;
+            if (character == END_OF_FILE) {
+                throw new JSONException("Unexpected end of the household file");
+            }
+            return character;
+        }
+
+        /**
+         * Consumes the next character which is no whitespace.
+         *
+         * @return the next character which is no whitespace
+         * @throws IOException if the reader could not be read
+         * @throws JSONException at the end of the text
+         */
+        private int nextClean() throws IOException {
+            int character = next();
+            while (Character.isWhitespace(character)) {
+                character = next();
+            }
+            return character;
+        }
+
+        /**
+         * Reads a string after its opening quote.
+         *
+         * @return the unescaped string
+         * @throws IOException if the reader could not be read
+         * @throws JSONException if the string is not terminated or has an invalid escape
+         */
+        private String readString() throws IOException {
+            StringBuilder string = new StringBuilder();
+            int character = next();
+            while (character != '"') {
+                if (character == '\\') {
+                    character = next();
+                    switch (character) {
+                        case 'b' -> string.append('\b');
+                        case 'f' -> string.append('\f');
+                        case 'n' -> string.append('\n');
+                        case 'r' -> string.append('\r');
+                        case 't' -> string.append('\t');
+                        case 'u' -> {
+                            char[] hex = {(char) next(), (char) next(), (char) next(), (char) next()};
+                            try {
+                                string.append((char) Integer.parseInt(new String(hex), 16));
+                            } catch (NumberFormatException e) {
+                                throw new JSONException("Invalid unicode escape in the household file", e);
+                            }
+                        }
+                        case '"', '\\', '/' -> string.append((char) character);
+                        default -> throw new JSONException("Invalid escape in the household file");
+                    }
+                } else {
+                    string.append((char) character);
+                }
+                character = next();
+            }
+            return string.toString();
+        }
+
+        /**
+         * Skips a string after its opening quote.
+         *
+         * @throws IOException if the reader could not be read
+         * @throws JSONException if the string is not terminated
+         */
+        private void skipString() throws IOException {
+            int character = next();
+            while (character != '"') {
+                if (character == '\\') {
+                    next();
+                }
+                character = next();
+            }
+        }
+
+        /**
+         * Reads a value, nested objects and arrays are skipped.
+         *
+         * @param first the first character of the value
+         * @return the string, number or boolean, JSONObject.NULL for null, null for a nested object or array
+         * @throws IOException if the reader could not be read
+         * @throws JSONException if the value is invalid
+         */
+        private Object readValue(int first) throws IOException {
+            if (first == '"') {
+                return readString();
+            }
+            if (first == '{' || first == '[') {
+                skipValue(first);
+                return null;
+            }
+            StringBuilder token = new StringBuilder().append((char) first);
+            while (peek() != END_OF_FILE && peek() != ',' && peek() != '}' && peek() != ']'
+                    && !Character.isWhitespace(peek())) {
+                token.append((char) next());
+            }
+            return JSONObject.stringToValue(token.toString());
+        }
+
+        /**
+         * Skips a value without materialising it, nested objects and arrays are skipped by counting their brackets.
+         *
+         * @param first the first character of the value
+         * @throws IOException if the reader could not be read
+         * @throws JSONException if the value is not terminated
+         */
+        private void skipValue(int first) throws IOException {
+            if (first == '"') {
+                skipString();
+            } else if (first == '{' || first == '[') {
+                int depth = 1;
+                while (depth > 0) {
+                    int character = next();
+                    if (character == '"') {
+                        skipString();
+                    } else if (character == '{' || character == '[') {
+                        depth++;
+                    } else if (character == '}' || character == ']') {
+                        depth--;
+                    }
+                }
+            } else {
+                while (peek() != END_OF_FILE && peek() != ',' && peek() != '}' && peek() != ']'
+                        && !Character.isWhitespace(peek())) {
+                    next();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package ch.nfr.filehandler;
+
+import ch.nfr.filehandler.property.HouseholdProperty;
+import org.json.JSONException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * This class is the sidecar index of the household folder, stored as {@value #FILE_NAME} next to the household files.
+ * It holds the size, the modification time, the household name and the delete flag
+ * of every JSON file, so the households can be listed at startup without reading every file.
+ * <p>
+ * An entry is used only as long as the size and the modification time of its file are unchanged.
+ * A changed file is read again, but only its {@link HouseholdHeader}, so the rooms and devices are never parsed.
+ * A missing or unreadable index is treated as empty and rebuilt.
+ * The files can be checked and scanned from several threads at once, the index is saved by one thread.
+ * <pre>
+ * int magic, short format version, int entry count,
+ * per entry: UTF file name, long size, long modification time in ms, boolean household, UTF household name if household,
+ *            boolean delete flag
+ * </pre>
+ */
+public final class HouseholdIndex {
+    /** The used Logger in this class */
+    private static final Logger logger = Logger.getLogger(HouseholdIndex.class.getName());
+    /** The name of the index file in the household folder */
+    public static final String FILE_NAME = ".households.index";
+    /** The magic number at the start of every index file, "ESHI" in ASCII */
+    private static final int MAGIC = 0x45534849;
+    /** The version of the binary layout, files with another version are rebuilt */
+    private static final short FORMAT_VERSION = 3;
+
+    /** The household folder */
+    private final Path folder;
+    /** The entries by the file name relative to the folder */
+    private final Map<String, Entry> entries;
+    /** True if an entry was changed since the index was loaded or saved */
+    private volatile boolean changed = false;
+
+    /**
+     * Creates a new index of the given folder.
+     *
+     * @param folder the household folder
+     * @param entries the entries by the file name relative to the folder
+     */
+    private HouseholdIndex(Path folder, Map<String, Entry> entries) {
+        this.folder = folder;
+        this.entries = new ConcurrentHashMap<>(entries);
+    }
+
+    /**
+     * Loads the index of the given household folder.
+     *
+     * @param folder the household folder
+     * @return the loaded index, an empty index if there is no index or it could not be read
+     */
+    public static HouseholdIndex load(Path folder) {
+        Path indexFile = folder.resolve(FILE_NAME);
+        Map<String, Entry> entries = new HashMap<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+            if (in.readInt() != MAGIC || in.readShort() != FORMAT_VERSION) {
+                logger.warning("The household index " + indexFile + " has an unknown format and is rebuilt.");
+                return new HouseholdIndex(folder, new HashMap<>());
+            }
+            int count = in.readInt();
+            for (int entry = 0; entry < count; entry++) {
+                String fileName = in.readUTF();
+                long size = in.readLong();
+                long lastModified = in.readLong();
+                String householdName = in.readBoolean() ? in.readUTF() : null;
+                entries.put(fileName, new Entry(fileName, size, lastModified, householdName, in.readBoolean()));
+            }
+        } catch (NoSuchFileException e) {
+            logger.info("No household index found in " + folder + ", the index is built.");
+            return new HouseholdIndex(folder, new HashMap<>());
+        } catch (IOException e) {
+            logger.warning("The household index " + indexFile + " could not be read and is rebuilt: " + e.getMessage());
+            return new HouseholdIndex(folder, new HashMap<>());
+        }
+        return new HouseholdIndex(folder, entries);
+    }
+
+    /**
+     * Get the entry of the given file if the file is unchanged since it was indexed.
+     *
+     * @param file the JSON file
+     * @return the entry of the file, null if the file is not indexed or has changed
+     */
+    public Entry get(Path file) {
+        Entry entry = entries.get(key(file));
+        if (entry == null) {
+            return null;
+        }
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            if (attributes.size() == entry.size() && attributes.lastModifiedTime().toMillis() == entry.lastModified()) {
+                return entry;
+            }
+        } catch (IOException e) {
+            logger.fine("The household file " + file + " could not be checked: " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Reads the header of the given file and updates its entry.
+     * A file which is no valid JSON or no household is indexed without household name.
+     *
+     * @param file the JSON file
+     * @param format the format of the file
+     * @return the new entry of the file
+     * @throws IOException if the file could not be read
+     */
+    public Entry scan(Path file, HouseholdFormat format) throws IOException {
+        String key = key(file);
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        String householdName = null;
+        boolean deleted = false;
+        try {
+            HouseholdHeader header = format.readHeader(file);
+            deleted = header.isDeleted();
+            for (HouseholdProperty property : header.getMissingProperties()) {
+                logger.severe("Error while loading the JSON file: Property: " + property.name() + " is missing");
+            }
+            if (header.isHousehold()) {
+                householdName = header.getHouseholdName();
+            }
+        } catch (JSONException e) {
+            logger.warning("Error while loading the JSON file: " + file);
+        }
+        Entry entry = new Entry(key, attributes.size(), attributes.lastModifiedTime().toMillis(), householdName, deleted);
+        entries.put(key, entry);
+        changed = true;
+        return entry;
+    }
+
+    /**
+     * Marks the entry of the given file as no household, for example if the header is valid but the file could not be loaded.
+     * The file is listed again after it has changed.
+     *
+     * @param file the household file
+     */
+    public void markInvalid(Path file) {
+        Entry entry = entries.get(key(file));
+        if (entry != null && entry.isHousehold()) {
+            entries.put(entry.fileName(), new Entry(entry.fileName(), entry.size(), entry.lastModified(), null, entry.deleted()));
+            changed = true;
+        }
+    }
+
+    /**
+     * Removes the entries of all files which are not in the given files.
+     *
+     * @param files the JSON files of the folder
+     */
+    public void retainAll(Collection<Path> files) {
+        Set<String> keys = new HashSet<>();
+        for (Path file : files) {
+            keys.add(key(file));
+        }
+        if (entries.keySet().retainAll(keys)) {
+            changed = true;
+        }
+    }
+
+    /**
+     * Saves the index into the household folder if an entry has changed.
+     * The index is written next to the target first and then moved, so a crash never leaves a partial index.
+     *
+     * @throws IOException if the index could not be written
+     */
+    public void save() throws IOException {
+        if (!changed) {
+            return;
+        }
+        Path indexFile = folder.resolve(FILE_NAME);
+        Path temp = folder.resolve(FILE_NAME + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeShort(FORMAT_VERSION);
+                out.writeInt(entries.size());
+                for (Entry entry : entries.values()) {
+                    out.writeUTF(entry.fileName());
+                    out.writeLong(entry.size());
+                    out.writeLong(entry.lastModified());
+                    out.writeBoolean(entry.isHousehold());
+                    if (entry.isHousehold()) {
+                        out.writeUTF(entry.householdName());
+                    }
+                    out.writeBoolean(entry.deleted());
+                }
+            }
+            Files.move(temp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        changed = false;
+        logger.info("Saved the household index " + indexFile + " with " + entries.size() + " files");
+    }
+
+    /**
+     * Get the key of the given file, its path relative to the household folder.
+     *
+     * @param file the JSON file
+     * @return the key of the file
+     */
+    private String key(Path file) {
+        return folder.toAbsolutePath().relativize(file.toAbsolutePath()).toString();
+    }
+
+    /**
+     * This record represents the indexed state of a JSON file in the household folder.
+     *
+     * @param fileName the path of the file relative to the household folder
+     * @param size the size of the file in bytes
+     * @param lastModified the modification time of the file in milliseconds
+     * @param householdName the name of the household, null if the file is no valid household or is marked for deletion
+     * @param deleted true if the file is marked for deletion
+     */
+    public record Entry(String fileName, long size, long lastModified, String householdName, boolean deleted) {
+
+        /**
+         * Checks if the file is a valid household which is not marked for deletion.
+         *
+         * @return true if the file is a household, false otherwise
+         */
+        public boolean isHousehold() {
+            return householdName != null;
+        }
+    }
+}
@@ -0,0 +1,433 @@
+package ch.nfr.filehandler;
+
+import ch.nfr.filehandler.property.HouseholdProperty;
+import ch.nfr.filehandler.property.RoomProperty;
+import ch.nfr.filehandler.property.SolarPanelProperty;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * This class is the append-only change journal of a household file, stored as {@value #FILE_EXTENSION} next to the file.
+ * <p>
+ * Every change of the household is journaled as one line with a JSON change record, so a change of a device costs
+ * the JSON of its room instead of the whole household. The records are collected in memory and appended
+ * with one write and one force per {@link #flush()}, so a burst of changes is forced to the disk once.
+ * When the household is loaded, the records are replayed onto the snapshot in the household file.
+ * If the journal passes the compaction threshold or holds a changed household property, it should be folded
+ * into a fresh snapshot and cleared, see {@link #needsCompaction()}; the household header must be up to date
+ * for the {@link HouseholdIndex}. The records are numbered in the order they are appended, see {@link #getAppendedRecords()},
+ * so a snapshot taken while the household is still changed clears only the records it covers, see {@link #clear(long)}.
+ * <p>
+ * Every record sets the state of one part of the household, so replaying records which are already part of
+ * the snapshot, after a crash between writing the snapshot and clearing the journal, results in the same household.
+ * A record is appended with its line break, so only the last record can be torn by a crash. An unterminated last record
+ * is cut off when the journal is replayed, an invalid complete record fails the replay.
+ * <pre>
+ * {"change":"EDIT_HOUSEHOLD","value":{"HOUSEHOLD_NAME":...,"POSTAL_CODE":...,"NUMBER_OF_RESIDENTS":...}}
+ * {"change":"PUT_ROOM","value":{room}}               adds the room or replaces the room with the same id
+ * {"change":"REMOVE_ROOM","value":room id}
+ * {"change":"PUT_SOLAR_PANEL","value":{solar panel}} adds the solar panel or replaces the solar panel with the same id
+ * {"change":"REMOVE_SOLAR_PANEL","value":solar panel id}
+ * </pre>
+ */
+public final class HouseholdJournal {
+    /** The used Logger in this class */
+    private static final Logger logger = Logger.getLogger(HouseholdJournal.class.getName());
+    /** The file extension of the journal, appended to the name of the household file */
+    public static final String FILE_EXTENSION = ".journal";
+    /** The default size of the journal in bytes from which it should be folded into the snapshot */
+    public static final long DEFAULT_COMPACTION_THRESHOLD = 1024 * 1024;
+    /** The key of the change name in a record */
+    private static final String CHANGE_KEY = "change";
+    /** The key of the change value in a record */
+    private static final String VALUE_KEY = "value";
+
+    /** The journal file */
+    private final Path file;
+    /** The size of the journal in bytes from which it should be folded into the snapshot */
+    private final long compactionThreshold;
+    /** The serialized records which are not yet appended to the file */
+    private final List<String> pendingRecords = new ArrayList<>();
+    /** The size of the journal file in bytes */
+    private long size;
+    /** The size of the pending records in bytes, including their line breaks */
+    private long pendingSize;
+    /** The number of records appended since the journal was opened, including the replayed records */
+    private long appendedRecords;
+    /** The number of the last record which is cleared from the journal */
+    private long clearedRecords;
+    /** The number of the last record with a change of the household properties, 0 if there is none */
+    private long lastHouseholdChange;
+
+    /**
+     * Creates a new journal.
+     *
+     * @param file the journal file
+     * @param compactionThreshold the size of the journal in bytes from which it should be folded into the snapshot
+     * @param size the size of the journal file in bytes
+     */
+    private HouseholdJournal(Path file, long compactionThreshold, long size) {
+        this.file = file;
+        this.compactionThreshold = compactionThreshold;
+        this.size = size;
+    }
+
+    /**
+     * Opens the journal of the given household file with the default compaction threshold.
+     *
+     * @param householdFile the household file
+     * @return the journal of the household file, empty if the household has no journal
+     * @throws IOException if the size of the journal could not be read
+     */
+    public static HouseholdJournal open(Path householdFile) throws IOException {
+        return open(householdFile, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * Opens the journal of the given household file.
+     *
+     * @param householdFile the household file
+     * @param compactionThreshold the size of the journal in bytes from which it should be folded into the snapshot
+     * @return the journal of the household file, empty if the household has no journal
+     * @throws IOException if the size of the journal could not be read
+     */
+    public static HouseholdJournal open(Path householdFile, long compactionThreshold) throws IOException {
+        Path file = journalFile(householdFile);
+        return new HouseholdJournal(file, compactionThreshold, Files.exists(file) ? Files.size(file) : 0);
+    }
+
+    /**
+     * Get the journal file of the given household file.
+     *
+     * @param householdFile the household file
+     * @return the journal file next to the household file
+     */
+    public static Path journalFile(Path householdFile) {
+        return householdFile.resolveSibling(householdFile.getFileName() + FILE_EXTENSION);
+    }
+
+    /**
+     * Replays the records of the journal file onto the snapshot of the household.
+     * An unterminated last record was torn by a crash and is cut off. A complete record which is no valid JSON
+     * or can not be applied fails the replay, the records after it are not thrown away.
+     *
+     * @param household the JSON object of the household file, it is changed in place
+     * @return the number of replayed records
+     * @throws IOException if the journal could not be read or cut off, or has an invalid record
+     */
+    public synchronized int replay(JSONObject household) throws IOException {
+        byte[] content;
+        try {
+            content = Files.readAllBytes(file);
+        } catch (NoSuchFileException e) {
+            return 0;
+        }
+        int records = 0;
+        int start = 0;
+        for (int end = 0; end < content.length; end++) {
+            if (content[end] != '\n') {
+                continue;
+            }
+            try {
+                JSONObject record = new JSONObject(new String(content, start, end - start, StandardCharsets.UTF_8));
+                apply(household, record);
+                if (changesHousehold(record)) {
+                    lastHouseholdChange = records + 1;
+                }
+            } catch (JSONException e) {
+                logger.severe("The journal " + file + " has an invalid record at byte " + start + ": " + e.getMessage());
+                throw new IOException("Invalid record at byte " + start + " in the journal " + file, e);
+            }
+            records++;
+            start = end + 1;
+        }
+        int validLength = start;
+        if (validLength < content.length) {
+            logger.warning("The journal " + file + " has a torn last record at byte " + validLength + " and is cut off.");
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.truncate(validLength);
+                channel.force(true);
+            }
+        }
+        size = validLength;
+        appendedRecords = records;
+        logger.info("Replayed " + records + " changes from the journal " + file);
+        return records;
+    }
+
+    /**
+     * Applies one change record onto the JSON object of a household.
+     *
+     * @param household the JSON object of the household, it is changed in place
+     * @param record the change record
+     * @throws JSONException if the record is invalid
+     */
+    static void apply(JSONObject household, JSONObject record) {
+        String change = record.getString(CHANGE_KEY);
+        switch (change) {
+            case "EDIT_HOUSEHOLD": {
+                JSONObject properties = record.getJSONObject(VALUE_KEY);
+                for (HouseholdProperty property : HouseholdProperty.values()) {
+                    household.put(property.name(), properties.get(property.name()));
+                }
+                break;
+            }
+            case "PUT_ROOM": {
+                put(array(household, "rooms"), RoomProperty.ROOM_ID.name(), record.getJSONObject(VALUE_KEY));
+                break;
+            }
+            case "REMOVE_ROOM": {
+                remove(array(household, "rooms"), RoomProperty.ROOM_ID.name(), record.getInt(VALUE_KEY));
+                break;
+            }
+            case "PUT_SOLAR_PANEL": {
+                put(array(household, "solarPanels"), SolarPanelProperty.SOLAR_PANEL_ID.name(), record.getJSONObject(VALUE_KEY));
+                break;
+            }
+            case "REMOVE_SOLAR_PANEL": {
+                remove(array(household, "solarPanels"), SolarPanelProperty.SOLAR_PANEL_ID.name(), record.getInt(VALUE_KEY));
+                break;
+            }
+            default:
+                throw new JSONException("Unknown change in the journal: " + change);
+        }
+    }
+
+    /**
+     * Get the array with the given key of the household, a missing array is added.
+     *
+     * @param household the JSON object of the household
+     * @param key the key of the array
+     * @return the array of the household
+     */
+    private static JSONArray array(JSONObject household, String key) {
+        if (!(household.opt(key) instanceof JSONArray)) {
+            household.put(key, new JSONArray());
+        }
+        return household.getJSONArray(key);
+    }
+
+    /**
+     * Replaces the element with the same id as the given element, or adds the element if there is none.
+     *
+     * @param array the array of the elements
+     * @param idKey the key of the id of an element
+     * @param element the element to put
+     */
+    private static void put(JSONArray array, String idKey, JSONObject element) {
+        int id = element.getInt(idKey);
+        for (int i = 0; i < array.length(); i++) {
+            if (array.getJSONObject(i).getInt(idKey) == id) {
+                array.put(i, element);
+                return;
+            }
+        }
+        array.put(element);
+    }
+
+    /**
+     * Removes the element with the given id if there is one.
+     *
+     * @param array the array of the elements
+     * @param idKey the key of the id of an element
+     * @param id the id of the element to remove
+     */
+    private static void remove(JSONArray array, String idKey, int id) {
+        for (int i = 0; i < array.length(); i++) {
+            if (array.getJSONObject(i).getInt(idKey) == id) {
+                array.remove(i);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Creates a change record.
+     *
+     * @param change the name of the change, see the list of changes in the description of this class
+     * @param value the value of the change
+     * @return the change record
+     */
+    public static JSONObject record(String change, Object value) {
+        return new JSONObject().put(CHANGE_KEY, change).put(VALUE_KEY, value);
+    }
+
+    /**
+     * Checks if the change record changes the properties of the household, which are part of the household header.
+     *
+     * @param record the change record
+     * @return true if the record is an EDIT_HOUSEHOLD change
+     */
+    public static boolean changesHousehold(JSONObject record) {
+        return "EDIT_HOUSEHOLD".equals(record.getString(CHANGE_KEY));
+    }
+
+    /**
+     * Adds a change record to the journal. The record is serialized at once, so later changes of its value
+     * are not journaled with it, but it is only written to the file by the next {@link #flush()}.
+     *
+     * @param record the change record
+     */
+    public synchronized void append(JSONObject record) {
+        String serializedRecord = record.toString();
+        pendingRecords.add(serializedRecord);
+        pendingSize += serializedRecord.getBytes(StandardCharsets.UTF_8).length + 1;
+        appendedRecords++;
+        if (changesHousehold(record)) {
+            lastHouseholdChange = appendedRecords;
+        }
+    }
+
+    /**
+     * Get the number of records appended since the journal was opened, including the replayed records.
+     * A snapshot of the household taken now covers the records up to this number, see {@link #clear(long)}.
+     *
+     * @return the number of the last appended record
+     */
+    public synchronized long getAppendedRecords() {
+        return appendedRecords;
+    }
+
+    /**
+     * Appends all pending records to the journal file with one write and forces them to the disk.
+     *
+     * @throws IOException if the records could not be written, they stay pending
+     */
+    public void flush() throws IOException {
+        List<String> records;
+        synchronized (this) {
+            if (pendingRecords.isEmpty()) {
+                return;
+            }
+            records = List.copyOf(pendingRecords);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        for (String record : records) {
+            bytes.writeBytes(record.getBytes(StandardCharsets.UTF_8));
+            bytes.write('\n');
+        }
+        synchronized (this) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND)) {
+                ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            }
+            pendingRecords.subList(0, records.size()).clear();
+            pendingSize -= bytes.size();
+            size += bytes.size();
+        }
+    }
+
+    /**
+     * Checks if the journal should be folded into a fresh snapshot, because the file and the pending records
+     * passed the compaction threshold or it holds a change of the household properties,
+     * which are read from the snapshot without the journal.
+     *
+     * @return true if the journal should be compacted, false otherwise
+     */
+    public synchronized boolean needsCompaction() {
+        return size + pendingSize >= compactionThreshold || lastHouseholdChange > clearedRecords;
+    }
+
+    /**
+     * Checks if the journal file holds records.
+     *
+     * @return true if the journal file is empty or does not exist, false otherwise
+     */
+    public synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Get the size of the journal file.
+     *
+     * @return the size of the journal file in bytes
+     */
+    public synchronized long size() {
+        return size;
+    }
+
+    /**
+     * Clears all records of the journal file after the household was folded into a fresh snapshot,
+     * see {@link #clear(long)}. Pending records are kept.
+     *
+     * @throws IOException if the journal file could not be deleted
+     */
+    public synchronized void clear() throws IOException {
+        clear(appendedRecords - pendingRecords.size());
+    }
+
+    /**
+     * Clears the records of the journal file which are covered by a fresh snapshot of the household file.
+     * The records appended after the snapshot was taken are kept, the rest of the file is written next to it,
+     * forced to the disk and moved over the file. Pending records are never cleared, they are appended
+     * by the next {@link #flush()}, which is harmless as replaying a covered record results in the same household.
+     *
+     * @param coveredRecords the number of the last record covered by the snapshot, see {@link #getAppendedRecords()}
+     * @throws IOException if the journal file could not be read, written or deleted
+     */
+    public synchronized void clear(long coveredRecords) throws IOException {
+        long flushedRecords = appendedRecords - pendingRecords.size();
+        long lastCleared = Math.min(coveredRecords, flushedRecords);
+        if (lastCleared <= clearedRecords) {
+            return;
+        }
+        if (lastCleared == flushedRecords) {
+            Files.deleteIfExists(file);
+            size = 0;
+        } else {
+            byte[] content = Files.readAllBytes(file);
+            int start = 0;
+            for (long record = clearedRecords; record < lastCleared; record++) {
+                while (content[start] != '\n') {
+                    start++;
+                }
+                start++;
+            }
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try {
+                try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING)) {
+                    ByteBuffer buffer = ByteBuffer.wrap(content, start, content.length - start);
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                    channel.force(false);
+                }
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            size = content.length - start;
+        }
+        clearedRecords = lastCleared;
+    }
+
+    /**
+     * Deletes the journal of the given household file, for example when the household is deleted.
+     *
+     * @param householdFile the household file
+     * @throws IOException if the journal file could not be deleted
+     */
+    public static void delete(Path householdFile) throws IOException {
+        Files.deleteIfExists(journalFile(householdFile));
+    }
+}
@@ -0,0 +1,568 @@
+package ch.nfr.filehandler;
+
+import ch.nfr.filehandler.property.HouseholdProperty;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * This class reads and writes the compact binary snapshot of a household, the file format of the {@link SnapshotHandler}.
+ * <p>
+ * The snapshot holds the same JSON object as a household JSON file, so the converters and the {@link HouseholdJournal}
+ * work unchanged, but every key and every string value like the names of the units and categories is stored once
+ * in a string dictionary and referenced by its varint index. Integers like the ids are stored as zigzag varints.
+ * The file is read at once and decoded without a tokenizer.
+ * <p>
+ * The file consists of length-prefixed sections, so a reader can skip a section without decoding it.
+ * The header section holds the household properties and the delete flag with inline strings,
+ * so the household can be listed by reading only the start of the file, see {@link #readHeader(Path)}.
+ * <pre>
+ * int magic, short format version,
+ * varint length, header section:     object of the household properties and the delete flag, inline strings
+ * varint length, dictionary section: varint string count, per string: varint length, UTF-8 bytes
+ * varint length, body section:       object of all other keys, dictionary strings
+ * value:  byte tag, followed by
+ *         null, false, true: nothing
+ *         integer:           zigzag varint
+ *         double:            8 bytes IEEE 754
+ *         string, decimal:   varint dictionary index, or varint length and UTF-8 bytes if inline
+ *         object:            varint member count, per member: key as string, value
+ *         array:             varint element count, per element: value
+ * </pre>
+ * All fixed size values are stored in big-endian byte order.
+ */
+public final class HouseholdSnapshot {
+    /** The used Logger in this class */
+    private static final Logger logger = Logger.getLogger(HouseholdSnapshot.class.getName());
+    /** The file extension of household snapshot files */
+    public static final String FILE_EXTENSION = ".ehs";
+    /** The magic number at the start of every household snapshot, "ESHS" in ASCII */
+    static final int MAGIC = 0x45534853;
+    /** The version of the binary layout, files with another version are rejected */
+    static final short FORMAT_VERSION = 1;
+    /** The size of the magic number and the format version */
+    private static final int PREAMBLE_SIZE = 6;
+    /** The keys of the header section */
+    private static final List<String> HEADER_KEYS = List.of(HouseholdProperty.HOUSEHOLD_NAME.name(),
+            HouseholdProperty.POSTAL_CODE.name(), HouseholdProperty.NUMBER_OF_RESIDENTS.name(), HouseholdHeader.DELETE_KEY);
+
+    /** The tag of null */
+    private static final byte NULL = 0;
+    /** The tag of false */
+    private static final byte FALSE = 1;
+    /** The tag of true */
+    private static final byte TRUE = 2;
+    /** The tag of an integer */
+    private static final byte INTEGER = 3;
+    /** The tag of a double */
+    private static final byte DOUBLE = 4;
+    /** The tag of a string */
+    private static final byte STRING = 5;
+    /** The tag of a decimal number which does not fit into an integer or a double */
+    private static final byte DECIMAL = 6;
+    /** The tag of an object */
+    private static final byte OBJECT = 7;
+    /** The tag of an array */
+    private static final byte ARRAY = 8;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private HouseholdSnapshot() {
+    }
+
+    /**
+     * Writes the JSON object of a household as a snapshot.
+     *
+     * @param household the JSON object of the household
+     * @param out the stream to write to, it is not closed
+     * @throws IOException if the stream could not be written
+     */
+    public static void write(JSONObject household, OutputStream out) throws IOException {
+        JSONObject header = new JSONObject();
+        JSONObject body = new JSONObject();
+        for (String key : household.keySet()) {
+            (HEADER_KEYS.contains(key) ? header : body).put(key, household.get(key));
+        }
+        Encoder headerEncoder = new Encoder(null);
+        headerEncoder.writeValue(header);
+        Encoder bodyEncoder = new Encoder(new HashMap<>());
+        bodyEncoder.writeValue(body);
+        Encoder dictionaryEncoder = new Encoder(null);
+        dictionaryEncoder.writeVarint(bodyEncoder.strings.size());
+        for (String string : bodyEncoder.strings) {
+            dictionaryEncoder.writeInlineString(string);
+        }
+
+        ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+        snapshot.writeBytes(ByteBuffer.allocate(PREAMBLE_SIZE).putInt(MAGIC).putShort(FORMAT_VERSION).array());
+        for (Encoder section : List.of(headerEncoder, dictionaryEncoder, bodyEncoder)) {
+            Encoder length = new Encoder(null);
+            length.writeVarint(section.bytes.size());
+            section.bytes.writeTo(length.bytes);
+            length.bytes.writeTo(snapshot);
+        }
+        snapshot.writeTo(out);
+    }
+
+    /**
+     * Reads the JSON object of a household from a snapshot file.
+     *
+     * @param file the snapshot file
+     * @return the JSON object of the household
+     * @throws IOException if the file could not be read or is no valid snapshot
+     */
+    public static JSONObject read(Path file) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        Decoder decoder = new Decoder(file, bytes);
+        decoder.readPreamble();
+        Decoder header = decoder.readSection();
+        Decoder dictionary = decoder.readSection();
+        Decoder body = decoder.readSection();
+
+        String[] strings = new String[dictionary.readLength()];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = dictionary.readInlineString();
+        }
+        body.dictionary = strings;
+        JSONObject household = body.readObject();
+        JSONObject headerObject = header.readObject();
+        for (String key : headerObject.keySet()) {
+            household.put(key, headerObject.get(key));
+        }
+        return household;
+    }
+
+    /**
+     * Reads the header of a snapshot file, only the header section at the start of the file is read.
+     *
+     * @param file the snapshot file
+     * @return the header of the household
+     * @throws IOException if the file could not be read or is no valid snapshot
+     */
+    public static HouseholdHeader readHeader(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            byte[] preamble = new byte[PREAMBLE_SIZE];
+            in.readFully(preamble);
+            new Decoder(file, preamble).readPreamble();
+            int length = 0;
+            for (int shift = 0; ; shift += 7) {
+                int next = in.readUnsignedByte();
+                length |= (next & 0x7F) << shift;
+                if ((next & 0x80) == 0) {
+                    break;
+                }
+                if (shift >= 28) {
+                    logger.severe("Invalid section length in the household snapshot: " + file);
+                    throw new IOException("Invalid section length in the household snapshot: " + file);
+                }
+            }
+            if (length < 0 || length > Files.size(file)) {
+                logger.severe("Invalid section length in the household snapshot: " + file);
+                throw new IOException("Invalid section length in the household snapshot: " + file);
+            }
+            byte[] header = new byte[length];
+            in.readFully(header);
+            JSONObject headerObject = new Decoder(file, header).readObject();
+
+            Map<HouseholdProperty, Object> properties = new EnumMap<>(HouseholdProperty.class);
+            for (HouseholdProperty property : HouseholdProperty.values()) {
+                if (headerObject.has(property.name())) {
+                    properties.put(property, headerObject.get(property.name()));
+                }
+            }
+            return new HouseholdHeader(properties, headerObject.optBoolean(HouseholdHeader.DELETE_KEY, false));
+        }
+    }
+
+    /**
+     * This class encodes values into a growing byte array.
+     */
+    private static final class Encoder {
+        /** The encoded bytes */
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        /** The index of every string in the dictionary, null if the strings are written inline */
+        private final Map<String, Integer> indices;
+        /** The strings of the dictionary in the order of their index */
+        private final List<String> strings = new ArrayList<>();
+
+        /**
+         * Creates a new encoder.
+         *
+         * @param indices an empty map for the dictionary, null if the strings are written inline
+         */
+        private Encoder(Map<String, Integer> indices) {
+            this.indices = indices;
+        }
+
+        /**
+         * Writes a value with its tag.
+         *
+         * @param value the JSON value
+         */
+        private void writeValue(Object value) {
+            switch (value) {
+                case null -> bytes.write(NULL);
+                case Boolean bool -> bytes.write(bool ? TRUE : FALSE);
+                case Integer integer -> writeInteger(integer);
+                case Long integer -> writeInteger(integer);
+                case Short integer -> writeInteger(integer);
+                case Byte integer -> writeInteger(integer);
+                case Double number -> writeDouble(number);
+                case Float number -> writeDouble(number);
+                case BigInteger number when number.bitLength() < Long.SIZE -> writeInteger(number.longValue());
+                case BigDecimal number when isExactDouble(number) -> writeDouble(number.doubleValue());
+                case Number number -> {
+                    bytes.write(DECIMAL);
+                    writeString(number.toString());
+                }
+                case String string -> {
+                    bytes.write(STRING);
+                    writeString(string);
+                }
+                case JSONObject object -> {
+                    bytes.write(OBJECT);
+                    writeVarint(object.length());
+                    for (String key : object.keySet()) {
+                        writeString(key);
+                        writeValue(object.get(key));
+                    }
+                }
+                case JSONArray array -> {
+                    bytes.write(ARRAY);
+                    writeVarint(array.length());
+                    for (Object element : array) {
+                        writeValue(element);
+                    }
+                }
+                default -> {
+                    if (JSONObject.NULL.equals(value)) {
+                        bytes.write(NULL);
+                    } else {
+                        bytes.write(STRING);
+                        writeString(value.toString());
+                    }
+                }
+            }
+        }
+
+        /**
+         * Checks if a decimal number is read back unchanged as a double.
+         *
+         * @param number the decimal number
+         * @return true if the double of the number has the same value, false otherwise
+         */
+        private static boolean isExactDouble(BigDecimal number) {
+            double value = number.doubleValue();
+            return Double.isFinite(value) && BigDecimal.valueOf(value).compareTo(number) == 0;
+        }
+
+        /**
+         * Writes an integer with its tag as zigzag varint.
+         *
+         * @param value the integer
+         */
+        private void writeInteger(long value) {
+            bytes.write(INTEGER);
+            long zigzag = (value << 1) ^ (value >> 63);
+            while ((zigzag & ~0x7FL) != 0) {
+                bytes.write((int) ((zigzag & 0x7F) | 0x80));
+                zigzag >>>= 7;
+            }
+            bytes.write((int) zigzag);
+        }
+
+        /**
+         * Writes a double with its tag.
+         *
+         * @param value the double
+         */
+        private void writeDouble(double value) {
+            bytes.write(DOUBLE);
+            bytes.writeBytes(ByteBuffer.allocate(Double.BYTES).putDouble(value).array());
+        }
+
+        /**
+         * Writes a string as dictionary index, or inline if the encoder has no dictionary.
+         *
+         * @param string the string
+         */
+        private void writeString(String string) {
+            if (indices == null) {
+                writeInlineString(string);
+                return;
+            }
+            Integer index = indices.get(string);
+            if (index == null) {
+                index = strings.size();
+                indices.put(string, index);
+                strings.add(string);
+            }
+            writeVarint(index);
+        }
+
+        /**
+         * Writes a string inline with its length.
+         *
+         * @param string the string
+         */
+        private void writeInlineString(String string) {
+            byte[] utf8 = string.getBytes(StandardCharsets.UTF_8);
+            writeVarint(utf8.length);
+            bytes.writeBytes(utf8);
+        }
+
+        /**
+         * Writes a non-negative int as varint.
+         *
+         * @param value the non-negative int
+         */
+        private void writeVarint(int value) {
+            while ((value & ~0x7F) != 0) {
+                bytes.write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes.write(value);
+        }
+    }
+
+    /**
+     * This class decodes values from a byte array.
+     */
+    private static final class Decoder {
+        /** The snapshot file, used for error messages */
+        private final Path file;
+        /** The bytes to decode */
+        private final byte[] bytes;
+        /** The end of the bytes to decode */
+        private final int end;
+        /** The position of the next byte */
+        private int position;
+        /** The strings of the dictionary, null if the strings are inline */
+        private String[] dictionary;
+
+        /**
+         * Creates a new decoder of all given bytes.
+         *
+         * @param file the snapshot file, used for error messages
+         * @param bytes the bytes to decode
+         */
+        private Decoder(Path file, byte[] bytes) {
+            this(file, bytes, 0, bytes.length);
+        }
+
+        /**
+         * Creates a new decoder of a range of the given bytes.
+         *
+         * @param file the snapshot file, used for error messages
+         * @param bytes the bytes to decode
+         * @param position the start of the range
+         * @param end the end of the range
+         */
+        private Decoder(Path file, byte[] bytes, int position, int end) {
+            this.file = file;
+            this.bytes = bytes;
+            this.position = position;
+            this.end = end;
+        }
+
+        /**
+         * Reads and checks the magic number and the format version.
+         *
+         * @throws IOException if the bytes are no snapshot of the supported format version
+         */
+        private void readPreamble() throws IOException {
+            if (end - position < PREAMBLE_SIZE || ByteBuffer.wrap(bytes, position, PREAMBLE_SIZE).getInt() != MAGIC) {
+                logger.severe("Not a household snapshot: " + file);
+                throw new IOException("Not a household snapshot: " + file);
+            }
+            short version = ByteBuffer.wrap(bytes, position + 4, 2).getShort();
+            if (version != FORMAT_VERSION) {
+                logger.severe("Unsupported household snapshot format version " + version + ": " + file);
+                throw new IOException("Unsupported household snapshot format version " + version + ": " + file);
+            }
+            position += PREAMBLE_SIZE;
+        }
+
+        /**
+         * Reads a length-prefixed section.
+         *
+         * @return a decoder of the section
+         * @throws IOException if the section is truncated
+         */
+        private Decoder readSection() throws IOException {
+            int length = readLength();
+            Decoder section = new Decoder(file, bytes, position, position + length);
+            position += length;
+            return section;
+        }
+
+        /**
+         * Reads the next byte.
+         *
+         * @return the next byte
+         * @throws IOException if there is no byte left
+         */
+        private int readByte() throws IOException {
+            if (position >= end) {
+                logger.severe("The household snapshot is truncated: " + file);
+                throw new IOException("The household snapshot is truncated: " + file);
+            }
+            return bytes[position++];
+        }
+
+        /**
+         * Reads a varint.
+         *
+         * @return the unsigned value of the varint
+         * @throws IOException if the varint is truncated or too long
+         */
+        private long readVarint() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < Long.SIZE; shift += 7) {
+                int next = readByte();
+                value |= (long) (next & 0x7F) << shift;
+                if ((next & 0x80) == 0) {
+                    return value;
+                }
+            }
+            logger.severe("Invalid varint in the household snapshot: " + file);
+            throw new IOException("Invalid varint in the household snapshot: " + file);
+        }
+
+        /**
+         * Reads a length or a count which must fit into the remaining bytes.
+         *
+         * @return the length
+         * @throws IOException if the length is larger than the remaining bytes
+         */
+        private int readLength() throws IOException {
+            long length = readVarint();
+            if (length > end - position) {
+                logger.severe("Invalid length in the household snapshot: " + file);
+                throw new IOException("Invalid length in the household snapshot: " + file);
+            }
+            return (int) length;
+        }
+
+        /**
+         * Reads a string as dictionary index, or inline if the decoder has no dictionary.
+         *
+         * @return the string
+         * @throws IOException if the string is invalid
+         */
+        private String readString() throws IOException {
+            if (dictionary == null) {
+                return readInlineString();
+            }
+            long index = readVarint();
+            if (index >= dictionary.length) {
+                logger.severe("Invalid dictionary index in the household snapshot: " + file);
+                throw new IOException("Invalid dictionary index in the household snapshot: " + file);
+            }
+            return dictionary[(int) index];
+        }
+
+        /**
+         * Reads an inline string with its length.
+         *
+         * @return the string
+         * @throws IOException if the string is truncated
+         */
+        private String readInlineString() throws IOException {
+            int length = readLength();
+            String string = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return string;
+        }
+
+        /**
+         * Reads a value with its tag which must be an object.
+         *
+         * @return the object
+         * @throws IOException if the value is no valid object
+         */
+        private JSONObject readObject() throws IOException {
+            if (readValue() instanceof JSONObject object) {
+                return object;
+            }
+            logger.severe("Expected an object in the household snapshot: " + file);
+            throw new IOException("Expected an object in the household snapshot: " + file);
+        }
+
+        /**
+         * Reads a value with its tag.
+         *
+         * @return the JSON value
+         * @throws IOException if the value is invalid
+         */
+        private Object readValue() throws IOException {
+            int tag = readByte();
+            switch (tag) {
+                case NULL:
+                    return JSONObject.NULL;
+                case FALSE:
+                    return Boolean.FALSE;
+                case TRUE:
+                    return Boolean.TRUE;
+                case INTEGER: {
+                    long zigzag = readVarint();
+                    long value = (zigzag >>> 1) ^ -(zigzag & 1);
+                    if (value == (int) value) {
+                        return (int) value;
+                    }
+                    return value;
+                }
+                case DOUBLE: {
+                    if (end - position < Double.BYTES) {
+                        logger.severe("The household snapshot is truncated: " + file);
+                        throw new IOException("The household snapshot is truncated: " + file);
+                    }
+                    double value = ByteBuffer.wrap(bytes, position, Double.BYTES).getDouble();
+                    position += Double.BYTES;
+                    return value;
+                }
+                case STRING:
+                    return readString();
+                case DECIMAL:
+                    return new BigDecimal(readString());
+                case OBJECT: {
+                    int count = readLength();
+                    JSONObject object = new JSONObject();
+                    for (int i = 0; i < count; i++) {
+                        String key = readString();
+                        object.put(key, readValue());
+                    }
+                    return object;
+                }
+                case ARRAY: {
+                    int count = readLength();
+                    JSONArray array = new JSONArray();
+                    for (int i = 0; i < count; i++) {
+                        array.put(readValue());
+                    }
+                    return array;
+                }
+                default:
+                    logger.severe("Unknown value tag " + tag + " in the household snapshot: " + file);
+                    throw new IOException("Unknown value tag " + tag + " in the household snapshot: " + file);
+            }
+        }
+    }
+}
@@ -5,26 +5,42 @@ import ch.nfr.tablemodel.Household;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
-import org.json.JSONTokener;
 
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
 import java.io.*;
-import java.nio.charset.StandardCharsets;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /***
  * This class is responsible for handling the JSON files.
  * JSONHandler implements the FileHandler interface.
- * It saves the data from the JSONObject every 10 seconds to the file.
+ * It saves the changes of the JSONObject to the {@link HouseholdJournal} of the file after it has changed.
+ * The saves are debounced: a burst of changes is saved once, when no change followed for the quiet period,
+ * but at the latest after the maximal delay since the first unsaved change. All saves of the autosave run
+ * on one writer thread, an unchanged household is never written. The journal is folded into the file
+ * on the writer thread when it needs a compaction.
  */
 public class JsonHandler implements FileHandler {
 
@@ -33,6 +49,26 @@ public class JsonHandler implements FileHandler {
      */
     private static final Logger LOGGER = Logger.getLogger(JsonHandler.class.getName());
 
+    /**
+     * The default time in milliseconds without a change before the changes are saved.
+     */
+    static final long DEFAULT_QUIET_PERIOD = 2000;
+
+    /**
+     * The default maximal time in milliseconds between the first unsaved change and the save.
+     */
+    static final long DEFAULT_MAX_DELAY = 10000;
+
+    /**
+     * The maximal number of JSON files read at once while the households are loaded.
+     */
+    private static final int MAX_PARALLEL_READS = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+    /**
+     * The format of the household files.
+     */
+    private final HouseholdFormat format;
+
     /**
      * The configuration object.
      */
@@ -45,6 +81,7 @@ public class JsonHandler implements FileHandler {
 
     /**
      * The id of the loaded household.
+     * It is guarded by the monitor of this handler, because the autosave reads it on the writer thread.
      */
     private int loadedHouseholdId = 0;
 
@@ -54,12 +91,38 @@ public class JsonHandler implements FileHandler {
     private final PropertyChangeSupport propertyChangeSupport = new PropertyChangeSupport(this);
 
     /**
-     * The Timer object for the autosave task.
+     * The single writer thread of the autosave.
+     */
+    private final ScheduledThreadPoolExecutor autosaveWriter;
+
+    /**
+     * The time in milliseconds without a change before the changes are saved.
      */
-    private final Timer autosaveTimer;
+    private final long quietPeriod;
+
+    /**
+     * The maximal time in milliseconds between the first unsaved change and the save.
+     */
+    private final long maxDelay;
+
+    /**
+     * The scheduled save of the autosave, null if no save is pending.
+     */
+    private ScheduledFuture<?> pendingSave;
+
+    /**
+     * The time in milliseconds of the first change since the last save, 0 if there is no unsaved change.
+     */
+    private long firstUnsavedChange = 0;
+
+    /**
+     * The listener which schedules the autosave after every change of the loaded household.
+     */
+    private final PropertyChangeListener changeListener = evt -> scheduleAutosave();
 
     /**
      * The Map that contains the households.
+     * It is guarded by the monitor of this handler, because the autosave reads it on the writer thread.
      */
     private final Map<Integer, JsonRecord> households = new HashMap<>();
 
@@ -68,6 +131,11 @@ public class JsonHandler implements FileHandler {
      */
     private boolean isInitialized = false;
 
+    /**
+     * The sidecar index of the household folder, null before the folder is scanned.
+     */
+    private HouseholdIndex householdIndex;
+
     /**
      * The List that contains the files that are marked for deletion.
      */
@@ -76,22 +144,51 @@ public class JsonHandler implements FileHandler {
 
     /**
      * The constructor of the JSONHandler class.
-     * It creates a new Timer object and schedules a new AutosaveTask.
-     * The AutosaveTask saves the data to the file every 10 seconds.
+     * It uses the default quiet period of {@value #DEFAULT_QUIET_PERIOD} ms and the default maximal delay
+     * of {@value #DEFAULT_MAX_DELAY} ms for the autosave.
+     */
+    public JsonHandler() {
+        this(DEFAULT_QUIET_PERIOD, DEFAULT_MAX_DELAY);
+    }
+
+    /**
+     * The constructor of the JSONHandler class for JSON files with the given autosave delays.
+     *
+     * @param quietPeriod The time in milliseconds without a change before the changes are saved.
+     * @param maxDelay The maximal time in milliseconds between the first unsaved change and the save.
+     */
+    JsonHandler(long quietPeriod, long maxDelay) {
+        this(HouseholdFormat.JSON, quietPeriod, maxDelay);
+    }
+
+    /**
+     * The constructor of the JSONHandler class for household files in the given format.
+     * It creates the writer thread of the autosave.
      * It also adds a PropertyChangeListener to the JSONHandler object.
      * The PropertyChangeListener listens for changes in the jsonFilePath property.
      * If the jsonFilePath property changes, the old JSONObject is saved to the old file.
+     *
+     * @param format The format of the household files.
+     * @param quietPeriod The time in milliseconds without a change before the changes are saved.
+     * @param maxDelay The maximal time in milliseconds between the first unsaved change and the save.
      */
-    public JsonHandler() {
-        this.autosaveTimer = new Timer();
-        this.autosaveTimer.schedule(new AutosaveTask(), 0, 10000);
+    protected JsonHandler(HouseholdFormat format, long quietPeriod, long maxDelay) {
+        this.format = format;
+        this.quietPeriod = quietPeriod;
+        this.maxDelay = maxDelay;
+        this.autosaveWriter = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "household-autosave");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.autosaveWriter.setRemoveOnCancelPolicy(true);
 
         this.addPropertyChangeListener(evt -> {
             if ("loadedHouseholdId".equals(evt.getPropertyName())) {
                 // Delete the files that are marked for deletion
                 deleteFiles();
-                // Save the current JSONObject to the old file
-                saveDataToFile((int) evt.getOldValue());
+                // Save the current JSONObject to the old file if it has unsaved changes
+                saveIfDirty((int) evt.getOldValue());
                 try {
                     // Load the new JSONObject from the new file
                     loadJsonObject((int) evt.getNewValue());
@@ -104,29 +201,41 @@ public class JsonHandler implements FileHandler {
 
     /**
      * This method is called when the JSONHandler object is destroyed.
-     * It cancels the Timer object.
+     * It saves the unsaved changes of the loaded household and stops the writer thread.
      */
     public void tearDown() {
-        saveDataToFile(loadedHouseholdId);
-        autosaveTimer.cancel();
+        synchronized (this) {
+            if (pendingSave != null) {
+                pendingSave.cancel(false);
+                pendingSave = null;
+            }
+        }
+        autosave();
+        autosaveWriter.shutdown();
     }
 
     /**
      * This method exports the household to the given file path.
-     * It copies the file to the given file path.
+     * It copies the JSON file to the given file path, a file in another format is exported as JSON file.
      *
      * @param absolutePath The absolute path of the file.
      */
     @Override
-    public void exportHousehold(String absolutePath) {
+    public synchronized void exportHousehold(String absolutePath) {
         try {
             if (absolutePath.equals(config.getJsonFolder().getPath())) {
                 LOGGER.warning("The file cannot be exported to the same folder.");
             } else {
-                saveDataToFile(loadedHouseholdId);
+                saveIfDirty(loadedHouseholdId);
+                compactHousehold(loadedHouseholdId);
                 Path source = Path.of(households.get(loadedHouseholdId).getFileName());
                 Path newFolder = Path.of(absolutePath);
-                Files.copy(source, newFolder.resolve(source.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+                if (format == HouseholdFormat.JSON) {
+                    Files.copy(source, newFolder.resolve(source.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+                } else {
+                    writeJsonFile(newFolder.resolve(baseName(source) + HouseholdFormat.JSON.getFileExtension()),
+                            format.read(source), HouseholdFormat.JSON);
+                }
             }
         } catch (IOException e) {
             LOGGER.severe("Error while exporting the household: " + e.getMessage());
@@ -136,35 +245,34 @@ public class JsonHandler implements FileHandler {
 
     /**
      * This method imports the household from the given file path.
-     * It reads the file with the given file path and creates a new JSONObject.
+     * It reads the JSON file with the given file path and creates a new JSONObject.
+     * It writes the JSONObject in the format of the handler into the json folder and tries to load it.
      * It creates a new JsonRecord object and puts it in the households Map.
      *
      * @param absolutePath The absolute path of the file.
      * @throws RuntimeException if the file is not loadable or an error occurred while importing the household.
      */
     @Override
-    public void importHousehold(String absolutePath) {
+    public synchronized void importHousehold(String absolutePath) {
         Path source = Path.of(absolutePath);
-        Path newFile = Path.of(config.getJsonFolder().getPath()).resolve(source.getFileName());
+        Path newFile = Path.of(config.getJsonFolder().getPath()).resolve(baseName(source) + format.getFileExtension());
+        JSONObject jsonObject;
         try {
-            Files.copy(source, newFile, StandardCopyOption.REPLACE_EXISTING);
+            jsonObject = HouseholdFormat.JSON.read(source);
         } catch (IOException e) {
             LOGGER.severe("Error while importing the household: " + e.getMessage());
             throw new RuntimeException(e);
         }
         try {
-            JSONObject jsonObject = new JSONObject(new JSONTokener(new FileReader(newFile.toString())));
             if (jsonObject.has("delete")) jsonObject.remove("delete");
             jsonObject.put("delete", true);
-            FileWriter fileWriter = new FileWriter(newFile.toString(), StandardCharsets.UTF_8);
-            fileWriter.write(jsonObject.toString());
-            fileWriter.close();
-            JsonRecord jsonRecord = new JsonRecord(newFile.toString(), jsonObject.getString(HouseholdProperty.HOUSEHOLD_NAME.name()), households.size() + 1);
+            // the journal of a replaced household with the same file name must not be replayed onto the import
+            HouseholdJournal.delete(newFile);
+            writeJsonFile(newFile, jsonObject, format);
+            JsonRecord jsonRecord = new JsonRecord(newFile.toString(), jsonObject.getString(HouseholdProperty.HOUSEHOLD_NAME.name()), households.size() + 1, format);
             jsonRecord.load(); //try to load
             jsonObject.put("delete", false);
-            fileWriter = new FileWriter(newFile.toString());
-            fileWriter.write(jsonObject.toString());
-            fileWriter.close();
+            writeJsonFile(newFile, jsonObject, format);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -177,7 +285,7 @@ public class JsonHandler implements FileHandler {
      * It differs from the Method {@link #loadHouseholds()} because it loads the data from the file.
      */
     @Override
-    public Map<Integer, String> getFilesInFolder() {
+    public synchronized Map<Integer, String> getFilesInFolder() {
         LOGGER.info("getFilesInFolder");
         setLoadedHouseholdId(loadedHouseholdId);
         loadHouseholds();
@@ -191,40 +299,96 @@ public class JsonHandler implements FileHandler {
      * It reads the file with the given file path and creates a new JSONObject.
      * It goes through all the files in the json folder and searches for the name and id of the household.
      * Furthermore, it puts the name and id in a Map.
+     * The name and the delete flag are taken from the {@link HouseholdIndex}, only files which changed
+     * since they were indexed are parsed. The id is the position of the file in the folder and is not written into the file.
+     * The files are checked on one virtual thread per file, at most {@link #MAX_PARALLEL_READS} at once,
+     * the results are merged in the sorted order of the files. A file which could not be read is skipped.
      * It differs from the Method {@link #sortHouseholds()} because it loads the households from the JSON files and searches the folder.
      */
-    private void loadHouseholds() {
+    private synchronized void loadHouseholds() {
         //scan all the file in the file path
         List<String> jsonFiles = getJsonFiles();
-        Integer id = 1;
+        householdIndex = HouseholdIndex.load(Path.of(config.getJsonFolder().getPath()));
+        List<Future<HouseholdIndex.Entry>> entries = new ArrayList<>(jsonFiles.size());
+        Semaphore reads = new Semaphore(MAX_PARALLEL_READS);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String file : jsonFiles) {
+                entries.add(executor.submit(() -> {
+                    reads.acquire();
+                    try {
+                        return getIndexEntry(Path.of(file));
+                    } finally {
+                        reads.release();
+                    }
+                }));
+            }
+        }
 
-        for (String file : jsonFiles) {
+        Integer id = 1;
+        List<String> failedFiles = new ArrayList<>();
+        for (int i = 0; i < jsonFiles.size(); i++) {
+            String file = jsonFiles.get(i);
+            HouseholdIndex.Entry entry;
             try {
-                try {
-                    new JSONObject(new JSONTokener(new FileReader(file)));
-                } catch (FileNotFoundException | JSONException e) {
-                    LOGGER.warning("Error while loading the JSON file: " + file);
-                    continue;
-                }
-                JSONObject jsonObject = new JSONObject(new JSONTokener(new FileReader(file)));
-                if (jsonObject.has("delete")) {
-                    if (jsonObject.get("delete").equals(true)) {
-                        if (!isInitialized) deletedFiles.add(file);
-                        continue;
-                    }
-                }
-                if (hasJsonHouseholdProperties(jsonObject)) {
-                    String name = jsonObject.getString(HouseholdProperty.HOUSEHOLD_NAME.name());
-                    this.households.put(id, new JsonRecord(file, name, id));
-                    FileWriter fileWriter = new FileWriter(file);
-                    if (jsonObject.has("id")) jsonObject.remove("id");
-                    fileWriter.write(jsonObject.put("id", id).toString());
-                    fileWriter.close();
-                    id++;
-                }
-            } catch (IOException e) {
-                LOGGER.severe("Error while writing the id in the JSON file: " + file);
+                entry = entries.get(i).get();
+            } catch (ExecutionException | InterruptedException e) {
+                if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+                LOGGER.severe("Error while reading the JSON file: " + file);
+                failedFiles.add(file);
+                continue;
+            }
+            if (entry.deleted()) {
+                if (!isInitialized) deletedFiles.add(file);
+                continue;
             }
+            if (entry.isHousehold()) {
+                this.households.put(id, new JsonRecord(file, entry.householdName(), id, format));
+                id++;
+            }
+        }
+        if (!failedFiles.isEmpty()) {
+            LOGGER.warning(failedFiles.size() + " of " + jsonFiles.size() + " JSON files could not be read: " + failedFiles);
+        }
+        householdIndex.retainAll(jsonFiles.stream().map(Path::of).toList());
+        saveHouseholdIndex();
+    }
+
+    /**
+     * This method returns the index entry of the given file.
+     * The file is only read if it has changed since it was indexed.
+     *
+     * @param file The JSON file.
+     * @return The up-to-date index entry of the file.
+     * @throws IOException if the file could not be read.
+     */
+    private HouseholdIndex.Entry getIndexEntry(Path file) throws IOException {
+        HouseholdIndex.Entry entry = getHouseholdIndex().get(file);
+        if (entry == null) {
+            entry = getHouseholdIndex().scan(file, format);
+        }
+        return entry;
+    }
+
+    /**
+     * This method returns the household index of the json folder, it is loaded on the first call.
+     *
+     * @return The household index.
+     */
+    private HouseholdIndex getHouseholdIndex() {
+        if (householdIndex == null) {
+            householdIndex = HouseholdIndex.load(Path.of(config.getJsonFolder().getPath()));
+        }
+        return householdIndex;
+    }
+
+    /**
+     * This method saves the household index, a failed save only costs a rescan at the next start.
+     */
+    private void saveHouseholdIndex() {
+        try {
+            getHouseholdIndex().save();
+        } catch (IOException e) {
+            LOGGER.warning("Error while saving the household index: " + e.getMessage());
         }
     }
 
@@ -236,11 +400,10 @@ public class JsonHandler implements FileHandler {
      */
     private List<String> getJsonFiles() {
         LOGGER.info("getJsonFiles: " + config.getJsonFolder().getPath());
-        try {
-            return Files.walk(Path.of(config.getJsonFolder().getPath()))
-                    .filter(Files::isRegularFile)
+        try (Stream<Path> files = Files.walk(Path.of(config.getJsonFolder().getPath()))) {
+            return files.filter(Files::isRegularFile)
                     .map(Path::toString)
-                    .filter(f -> f.endsWith(".json"))
+                    .filter(f -> f.endsWith(format.getFileExtension()))
                     .sorted()
                     .collect(Collectors.toList());
         } catch (IOException e) {
@@ -250,49 +413,197 @@ public class JsonHandler implements FileHandler {
     }
 
     /**
-     * This inner class is responsible for saving the data to the file.
-     * It extends the TimerTask class and overrides the run method.
-     * This class is scheduled by the Timer object in the constructor of the {@link JsonHandler} class.
+     * This method schedules the autosave after a change of the loaded household.
+     * A pending save is postponed until no change followed for the quiet period,
+     * but not beyond the maximal delay since the first unsaved change.
      */
-    private class AutosaveTask extends TimerTask {
-        @Override
-        public void run() {
-            saveDataToFile(loadedHouseholdId);
+    private synchronized void scheduleAutosave() {
+        long now = System.currentTimeMillis();
+        if (firstUnsavedChange == 0) {
+            firstUnsavedChange = now;
+        }
+        if (pendingSave != null) {
+            pendingSave.cancel(false);
+        }
+        long delay = Math.max(0, Math.min(quietPeriod, firstUnsavedChange + maxDelay - now));
+        pendingSave = autosaveWriter.schedule(this::autosave, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * This method waits until the pending autosave is done, for example to check the saved files in a test.
+     * A save which is postponed by a further change while waiting is awaited as well.
+     *
+     * @param timeout the maximal time to wait
+     * @param unit the unit of the timeout
+     * @return true if no save is pending anymore, false if the timeout elapsed before
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    boolean awaitAutosave(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (true) {
+            ScheduledFuture<?> save;
+            synchronized (this) {
+                save = pendingSave;
+            }
+            if (save == null) {
+                return true;
+            }
+            try {
+                save.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (CancellationException e) {
+                // the save was postponed by a further change, the new pending save is awaited
+            } catch (ExecutionException e) {
+                LOGGER.severe("The autosave failed: " + e.getCause());
+                return true;
+            } catch (TimeoutException e) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * This method saves the loaded household to the file if it has unsaved changes.
+     */
+    private synchronized void autosave() {
+        pendingSave = null;
+        firstUnsavedChange = 0;
+        saveIfDirty(loadedHouseholdId);
+    }
+
+    /**
+     * This method saves the household to the file if it is loaded and has unsaved changes.
+     *
+     * @param householdId The id of the household should be saved.
+     */
+    private synchronized void saveIfDirty(int householdId) {
+        JsonRecord jsonRecord = households.get(householdId);
+        if (householdId != 0 && jsonRecord != null && jsonRecord.isDirty()) {
+            saveDataToFile(householdId);
         }
     }
 
     /**
      * This method saves the data to the file.
-     * It writes the JSONObject to the file.
+     * It appends the changes of the JSONObject to the journal of the file and marks the version of the household as saved.
+     * If the journal needs a compaction, it is folded into the file.
      *
      * @param householdId The id of the household should be saved.
      */
-    private void saveDataToFile(int householdId) {
+    private synchronized void saveDataToFile(int householdId) {
         if (householdId != 0) {
             try {
-                FileWriter fileWriter = new FileWriter(households.get(householdId).getFileName(), StandardCharsets.UTF_8);
-                fileWriter.write(jsonObject.toString());
-                fileWriter.close();
+                JsonRecord jsonRecord = households.get(householdId);
+                long version = jsonRecord.getVersion();
+                jsonRecord.getJournal().flush();
+                if (jsonRecord.getJournal().needsCompaction()) {
+                    compactHousehold(householdId);
+                }
+                jsonRecord.markSaved(version);
             } catch (IOException e) {
                 LOGGER.severe("An error occurred while saving the data to the file: " + households.get(householdId).getFileName());
 
             }
         } else {
-            LOGGER.info("No file path is set");
-            System.out.println("No file path is set");
+            LOGGER.warning("No file path is set");
         }
     }
 
+    /**
+     * This method folds the journal of a loaded household into the file.
+     * It writes a copy of the JSONObject to the file and clears the journal records covered by the copy afterward,
+     * so a crash in between only replays changes which are already in the file.
+     * The copy is taken by the thread which changes the household, see {@link JsonRecord#takeSnapshot()},
+     * so the writer thread never reads the JSONObject while it is changed.
+     * If the writer thread has no copy, the compaction is done after the next change.
+     *
+     * @param householdId The id of the household should be compacted.
+     * @throws IOException if the file could not be written or the journal could not be cleared.
+     */
+    private synchronized void compactHousehold(int householdId) throws IOException {
+        JsonRecord jsonRecord = households.get(householdId);
+        if (householdId == 0 || jsonRecord == null || jsonRecord.getJournal() == null || jsonRecord.getJournal().isEmpty()) {
+            return;
+        }
+        JsonRecord.Snapshot snapshot = jsonRecord.takeSnapshot();
+        if (snapshot == null) {
+            LOGGER.info("The journal is folded into the file after the next change: " + jsonRecord.getFileName());
+            return;
+        }
+        HouseholdJournal journal = jsonRecord.getJournal();
+        long journalSize = journal.size();
+        writeJsonFile(Path.of(jsonRecord.getFileName()), snapshot.jsonObject(), format);
+        journal.clear(snapshot.journalRecords());
+        LOGGER.info("Folded " + (journalSize - journal.size()) + " bytes of the journal into the file: " + jsonRecord.getFileName());
+    }
+
+    /**
+     * This method writes the JSONObject crash-safe to the given file.
+     * The JSONObject is streamed in the given format, a JSON file with its {@link HouseholdHeader} first, into a temporary file
+     * next to the file, which is forced to the disk and then moved over the file,
+     * so the file is either the old or the new version even if the process dies while writing.
+     * If the write fails, the old file stays intact.
+     *
+     * @param file       The file where the data should be written to.
+     * @param jsonObject The JSONObject that should be written.
+     * @param format     The format of the file.
+     * @throws IOException if the temporary file could not be written or moved.
+     */
+    private static void writeJsonFile(Path file, JSONObject jsonObject, HouseholdFormat format) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel));
+                format.write(jsonObject, out);
+                out.flush();
+                channel.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (JSONException e) {
+            throw new IOException("The JSONObject could not be written to the file: " + file, e);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * This method returns the name of the given file without its extension.
+     *
+     * @param file The file.
+     * @return The name of the file without the extension.
+     */
+    private static String baseName(Path file) {
+        String fileName = file.getFileName().toString();
+        int extension = fileName.lastIndexOf('.');
+        return extension > 0 ? fileName.substring(0, extension) : fileName;
+    }
+
     /**
      * This method switches the file to the file with the given name.
      * It sets the jsonFilePath property to the new file path.
+     * The households are listed by the header of their file only, so a file with a valid header can still fail to load.
+     * Such a household is removed from the households and marked invalid in the {@link HouseholdIndex},
+     * so it is not listed again until the file changes.
      *
      * @param householdId The id of the household should be switched to.
+     * @throws FileNotFoundException if the file of the household could not be loaded
      */
     @Override
-    public Household switchHousehold(int householdId) {
+    public synchronized Household switchHousehold(int householdId) throws FileNotFoundException {
         sortHouseholds();
-        households.get(householdId).load();
+        JsonRecord jsonRecord = Objects.requireNonNull(households.get(householdId), "No household with the id " + householdId);
+        try {
+            jsonRecord.load();
+        } catch (RuntimeException e) {
+            LOGGER.severe("Error while loading the household file " + jsonRecord.getFileName() + ": " + e.getMessage());
+            households.remove(householdId);
+            sortHouseholds();
+            getHouseholdIndex().markInvalid(Path.of(jsonRecord.getFileName()));
+            saveHouseholdIndex();
+            FileNotFoundException exception = new FileNotFoundException("The household file could not be loaded: " + jsonRecord.getFileName());
+            exception.initCause(e);
+            throw exception;
+        }
         setLoadedHouseholdId(householdId);
         return households.get(householdId).getHousehold();
     }
@@ -304,11 +615,11 @@ public class JsonHandler implements FileHandler {
      * Then it creates a new JsonRecord object and puts it in the households Map.
      */
     @Override
-    public void createHousehold() {
+    public synchronized void createHousehold() {
         LocalDateTime now = LocalDateTime.now();
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss");
         StringBuilder fileName = new StringBuilder(now.format(formatter));
-        String fileExtension = ".json";
+        String fileExtension = format.getFileExtension();
         String filePath = config.getJsonFolder().getPath() + File.separator + fileName + fileExtension;
         int counter = 1;
         int recordId = households.size() + 1;
@@ -322,9 +633,8 @@ public class JsonHandler implements FileHandler {
             if (file.createNewFile()) {
                 LOGGER.info("File created: " + file.getName());
                 Household dummyHousehold = new Household();
-                FileWriter fileWriter = writeDummyHousehold(file, dummyHousehold);
-                fileWriter.close();
-                JsonRecord jsonRecord = new JsonRecord(filePath, dummyHousehold.getName(), recordId);
+                writeDummyHousehold(file, dummyHousehold);
+                JsonRecord jsonRecord = new JsonRecord(filePath, dummyHousehold.getName(), recordId, format);
                 households.put(recordId, jsonRecord);
                 sortHouseholds();
                 setLoadedHouseholdId(0);
@@ -346,34 +656,36 @@ public class JsonHandler implements FileHandler {
      * @param file           The file where the data should be written to.
      * @param dummyHousehold The dummy household should be written to the file.
      */
-    private FileWriter writeDummyHousehold(File file, Household dummyHousehold) throws IOException {
-        FileWriter fileWriter = new FileWriter(file);
+    private void writeDummyHousehold(File file, Household dummyHousehold) throws IOException {
         JSONObject jsonObject = new JSONObject();
         jsonObject.put(HouseholdProperty.HOUSEHOLD_NAME.name(), dummyHousehold.getName());
         jsonObject.put(HouseholdProperty.POSTAL_CODE.name(), dummyHousehold.getPostalCode());
         jsonObject.put(HouseholdProperty.NUMBER_OF_RESIDENTS.name(), dummyHousehold.getNumberOfResidents());
         jsonObject.put("rooms", new JSONArray());
         jsonObject.put("solarPanels", new JSONArray());
-        jsonObject.put("id", households.size() + 1);
-        fileWriter.write(jsonObject.toString());
-        return fileWriter;
+        writeJsonFile(file.toPath(), jsonObject, format);
     }
 
     /**
      * This method flags the file for deletion.
-     * It sets a new property in the JSONObject to mark the file for deletion.
+     * It sets a new property in the JSON file to mark the file for deletion, no other file is written.
      * Then it will be removed from the list of households.
      *
      * @param householdId The id of the household should be deleted.
      */
     @Override
-    public void deleteHousehold(int householdId) {
+    public synchronized void deleteHousehold(int householdId) {
         if (householdId > 0 && householdId <= households.size()) {
-            switchHousehold(householdId);
-            setLoadedHouseholdId(householdId);
-            if (jsonObject.has("delete")) jsonObject.remove("delete");
-            jsonObject.put("delete", true);
+            Path file = Path.of(households.get(householdId).getFileName());
             setLoadedHouseholdId(0);
+            try {
+                JSONObject deletedHousehold = format.read(file);
+                writeJsonFile(file, deletedHousehold.put("delete", true), format);
+                HouseholdJournal.delete(file);
+            } catch (IOException | JSONException e) {
+                LOGGER.severe("Error while marking the household for deletion: " + file);
+                throw new RuntimeException("Error while marking the household for deletion: " + file, e);
+            }
             households.remove(householdId);
             sortHouseholds();
         } else {
@@ -383,31 +695,18 @@ public class JsonHandler implements FileHandler {
 
     /**
      * This method sorts the households by the file name alphabetically.
-     * It reads the file with the given file path and creates a new JSONObject.
+     * The ids are the positions of the households in memory only, no file is read or written.
      * It differs from the Method {@link #loadHouseholds()} because it sorts the Map wit JsonRecords.
      */
-    private void sortHouseholds() {
+    private synchronized void sortHouseholds() {
         List<JsonRecord> sortedHouseholds = households.entrySet().stream()
                 .sorted(Map.Entry.comparingByValue(Comparator.comparing(JsonRecord::getFileName)))
                 .map(Map.Entry::getValue)
                 .toList();
         households.clear();
         for (int i = 0; i < sortedHouseholds.size(); i++) {
-            try {
-                households.put(i + 1, sortedHouseholds.get(i));
-                JSONObject jsonObject = new JSONObject(new JSONTokener(new FileReader(households.get(i + 1).getFileName())));
-                if (jsonObject.has("delete")) {
-                    if (jsonObject.get("delete").equals(true)) continue;
-                }
-                FileWriter fileWriter = new FileWriter(households.get(i + 1).getFileName());
-                jsonObject.put("id", i + 1);
-                fileWriter.write(jsonObject.toString());
-                fileWriter.close();
-                households.get(i + 1).setId(i + 1);
-            } catch (IOException e) {
-                LOGGER.severe("Error while writing the id in the JSON file: " +
-                        config.getJsonFolder().getPath() + File.separator + households.get(i + 1).getFileName());
-            }
+            households.put(i + 1, sortedHouseholds.get(i));
+            households.get(i + 1).setId(i + 1);
         }
     }
 
@@ -417,9 +716,10 @@ public class JsonHandler implements FileHandler {
      *
      * @param householdId The id of the household should be loaded.
      */
-    private void loadJsonObject(int householdId) throws FileNotFoundException {
+    private synchronized void loadJsonObject(int householdId) throws FileNotFoundException {
         if (householdId != 0) {
             jsonObject = households.get(householdId).getJsonObject();
+            households.get(householdId).addChangeListener(changeListener);
         } else {
             LOGGER.info("No file path is set");
             jsonObject = new JSONObject();
@@ -433,28 +733,13 @@ public class JsonHandler implements FileHandler {
         deletedFiles.forEach(file -> {
             try {
                 Files.delete(Path.of(file));
+                HouseholdJournal.delete(Path.of(file));
             } catch (IOException e) {
                 LOGGER.severe("Error while deleting the file: " + file + e.getMessage());
             }
         });
     }
 
-    /**
-     * This method checks if the JSONObject has all the properties of the household.
-     *
-     * @param jsonObject The JSONObject that should be checked.
-     * @return True if the JSONObject has all the properties, false if not.
-     */
-    private boolean hasJsonHouseholdProperties(JSONObject jsonObject) {
-        for (HouseholdProperty property : HouseholdProperty.values()) {
-            if (!jsonObject.has(property.name())) {
-                LOGGER.severe("Error while loading the JSON file: Property: " + property.name() + " is missing");
-                return false;
-            }
-        }
-        return true;
-    }
-
     /**
      * This sets the configuration object.
      *
@@ -462,6 +747,7 @@ public class JsonHandler implements FileHandler {
      */
     public void setConfig(Config config) {
         this.config = config;
+        this.householdIndex = null;
     }
 
     /**
@@ -470,7 +756,7 @@ public class JsonHandler implements FileHandler {
      *
      * @param loadedHouseholdId The id of the loaded household.
      */
-    private void setLoadedHouseholdId(int loadedHouseholdId) {
+    private synchronized void setLoadedHouseholdId(int loadedHouseholdId) {
         int oldValue = this.loadedHouseholdId;
         this.loadedHouseholdId = loadedHouseholdId;
         this.propertyChangeSupport.firePropertyChange("loadedHouseholdId", oldValue, loadedHouseholdId);
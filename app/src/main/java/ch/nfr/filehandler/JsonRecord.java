@@ -3,11 +3,10 @@ package ch.nfr.filehandler;
 import ch.nfr.filehandler.converter.HouseholdConverter;
 import ch.nfr.tablemodel.Household;
 import org.json.JSONObject;
-import org.json.JSONTokener;
 
-import java.io.FileReader;
+import java.beans.PropertyChangeListener;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.logging.Logger;
 
 /**
@@ -31,6 +30,11 @@ public class JsonRecord {
      */
     private final String fileName;
 
+    /**
+     * The format of the file.
+     */
+    private final HouseholdFormat format;
+
     /**
      * The id of the household record.
      */
@@ -46,6 +50,26 @@ public class JsonRecord {
      */
     private final HouseholdConverter householdConverter = new HouseholdConverter();
 
+    /**
+     * The change journal of the household file, null before the household is loaded.
+     */
+    private HouseholdJournal journal;
+
+    /**
+     * The thread which loaded the household, the json object is only changed by this thread.
+     */
+    private Thread ownerThread;
+
+    /**
+     * The copy of the json object to fold into the file, null if no copy is taken.
+     */
+    private Snapshot snapshot;
+
+    /**
+     * The version of the json object which was saved to the file last.
+     */
+    private volatile long savedVersion = 0;
+
     /**
      * Constructor for the household record
      *
@@ -54,22 +78,47 @@ public class JsonRecord {
      * @param id            the id of the household
      */
     public JsonRecord(String fileName, String householdName, int id) {
+        this(fileName, householdName, id, HouseholdFormat.JSON);
+    }
+
+    /**
+     * Constructor for the household record of a file with the given format
+     *
+     * @param fileName      the name of the file
+     * @param householdName the name of the household
+     * @param id            the id of the household
+     * @param format        the format of the file
+     */
+    public JsonRecord(String fileName, String householdName, int id, HouseholdFormat format) {
         this.fileName = fileName;
         this.householdName = householdName;
         this.id = id;
+        this.format = format;
     }
 
     /**
      * This method loads data from the file and saves it in the household object, and the json object.
+     * The changes in the {@link HouseholdJournal} of the file are replayed onto the data of the file,
+     * every further change is added to the journal.
      * If the household object is already loaded, it will not load it again.
      */
     public void load() {
         if (household == null) {
             try {
                 LOGGER.info("Loading household from file: " + fileName);
-                JSONObject jsonHousehold = new JSONObject(new JSONTokener(new FileReader(fileName, StandardCharsets.UTF_8)));
+                JSONObject jsonHousehold = format.read(Path.of(fileName));
+                HouseholdJournal householdJournal = HouseholdJournal.open(Path.of(fileName));
+                householdJournal.replay(jsonHousehold);
                 this.household = householdConverter.readJson(jsonHousehold);
-                this.id = jsonHousehold.getInt("id");
+                this.journal = householdJournal;
+                this.ownerThread = Thread.currentThread();
+                householdConverter.addPropertyChangeListener("JOURNAL_RECORD", evt -> {
+                    JSONObject journalRecord = (JSONObject) evt.getNewValue();
+                    householdJournal.append(journalRecord);
+                    if (householdJournal.needsCompaction()) {
+                        prepareSnapshot(HouseholdJournal.changesHousehold(journalRecord));
+                    }
+                });
             } catch (IOException e) {
                 throw new RuntimeException(e);
             }
@@ -125,6 +174,93 @@ public class JsonRecord {
         return householdConverter.toJson();
     }
 
+    /**
+     * This method returns if the json object has changed since it was saved to the file last.
+     *
+     * @return true if the json object has unsaved changes, false otherwise
+     */
+    public boolean isDirty() {
+        return householdConverter.getVersion() != savedVersion;
+    }
+
+    /**
+     * This method returns the version of the json object, see {@link HouseholdConverter#getVersion()}.
+     *
+     * @return the version of the json object
+     */
+    public long getVersion() {
+        return householdConverter.getVersion();
+    }
+
+    /**
+     * This method marks the given version of the json object as saved to the file.
+     *
+     * @param version the version of the json object which was saved
+     */
+    public void markSaved(long version) {
+        this.savedVersion = version;
+    }
+
+    /**
+     * This method adds a listener which is notified after every change of the household.
+     * A listener which is already added is not added again.
+     *
+     * @param listener the listener to add
+     */
+    public void addChangeListener(PropertyChangeListener listener) {
+        householdConverter.removePropertyChangeListener("HOUSEHOLD_CHANGES", listener);
+        householdConverter.addPropertyChangeListener("HOUSEHOLD_CHANGES", listener);
+    }
+
+    /**
+     * This method returns the change journal of the household file.
+     *
+     * @return the change journal, null if the household is not loaded
+     */
+    public HouseholdJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * This method takes a copy of the json object for the compaction if none is taken yet
+     * or if the household properties are changed, so the household header of the file is always up to date.
+     * Other changes after the copy stay in the journal until the next compaction.
+     * It is called on the thread which changes the json object, after the change is added to the journal.
+     *
+     * @param householdChanged true if the change edited the household properties
+     */
+    private synchronized void prepareSnapshot(boolean householdChanged) {
+        if (snapshot == null || householdChanged) {
+            snapshot = copyJsonObject();
+        }
+    }
+
+    /**
+     * This method returns the copy of the json object to fold into the file and forgets it.
+     * On the thread which changes the json object a fresh copy is taken, on another thread, like the writer thread
+     * of the autosave, only the copy taken after the last change which needed a compaction is returned,
+     * because the json object may be changed while it is copied.
+     *
+     * @return the copy of the json object, null if the household is not loaded or no copy is taken on another thread
+     */
+    public synchronized Snapshot takeSnapshot() {
+        if (household != null && Thread.currentThread() == ownerThread) {
+            snapshot = copyJsonObject();
+        }
+        Snapshot takenSnapshot = snapshot;
+        snapshot = null;
+        return takenSnapshot;
+    }
+
+    /**
+     * This method copies the json object together with the number of the journal records it covers.
+     *
+     * @return the copy of the json object
+     */
+    private Snapshot copyJsonObject() {
+        return new Snapshot(new JSONObject(getJsonObject().toString()), journal.getAppendedRecords());
+    }
+
     /**
      * This method returns the household object.
      *
@@ -133,4 +269,13 @@ public class JsonRecord {
     public Household getHousehold() {
         return household;
     }
+
+    /**
+     * This record represents a copy of the json object of the household, which can be written by another thread.
+     *
+     * @param jsonObject the copy of the json object
+     * @param journalRecords the number of the last journal record whose change is part of the copy
+     */
+    public record Snapshot(JSONObject jsonObject, long journalRecords) {
+    }
 }
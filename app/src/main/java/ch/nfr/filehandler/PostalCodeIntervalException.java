@@ -0,0 +1,17 @@
+package ch.nfr.filehandler;
+
+/**
+ * Exception thrown when the postal code regions of a reference data file can not be compiled into intervals,
+ * for example because two regions cover the same postal code.
+ */
+public class PostalCodeIntervalException extends Exception {
+
+    /**
+     * Constructs a new PostalCodeIntervalException with the specified detail message.
+     *
+     * @param message the detail message. The detail message is saved for later retrieval by the {@link #getMessage()} method.
+     */
+    public PostalCodeIntervalException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,150 @@
+package ch.nfr.filehandler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * This class compiles the postal code regex keys of a reference data file into sorted postal code intervals.
+ * Every regex is evaluated once for all postal codes from {@value CompiledWeatherArchive#MIN_POSTAL_CODE}
+ * to {@value CompiledWeatherArchive#MAX_POSTAL_CODE} and the matches are collapsed into intervals.
+ * The compiled tables, like {@link CompiledElectricityPrices}, fill their dense lookup arrays from these intervals.
+ * <p>
+ * Regions covering the same postal code are rejected while compiling,
+ * postal codes without a region are reported as uncovered intervals.
+ * Instances are immutable and can be shared between threads.
+ */
+public final class PostalCodeIntervalIndex {
+    /** The used Logger in this class */
+    private static final Logger logger = Logger.getLogger(PostalCodeIntervalIndex.class.getName());
+    /** The region index of a postal code without a region */
+    public static final int NO_REGION = -1;
+
+    /** The postal code regex of each region, the position in the list is the region index */
+    private final List<String> regions;
+    /** The intervals covered by a region, sorted by their first postal code */
+    private final List<PostalCodeInterval> intervals;
+    /** The intervals of postal codes without a region */
+    private final List<PostalCodeInterval> uncoveredIntervals;
+
+    /**
+     * Creates a new index from the already compiled intervals.
+     *
+     * @param regions the postal code regex of each region
+     * @param intervals the intervals sorted by their first postal code
+     * @param uncoveredIntervals the intervals of postal codes without a region
+     */
+    private PostalCodeIntervalIndex(List<String> regions, List<PostalCodeInterval> intervals, List<PostalCodeInterval> uncoveredIntervals) {
+        this.regions = List.copyOf(regions);
+        this.intervals = List.copyOf(intervals);
+        this.uncoveredIntervals = List.copyOf(uncoveredIntervals);
+    }
+
+    /**
+     * Compiles the given postal code regex keys into postal code intervals.
+     *
+     * @param regions the postal code regex of each region, the position in the list is the region index
+     * @return the compiled index
+     * @throws PostalCodeIntervalException if a regex is invalid or two regions cover the same postal code
+     */
+    public static PostalCodeIntervalIndex compile(List<String> regions) throws PostalCodeIntervalException {
+        List<Pattern> patterns = new ArrayList<>(regions.size());
+        for (String region : regions) {
+            try {
+                patterns.add(Pattern.compile(region));
+            } catch (PatternSyntaxException e) {
+                logger.severe("Invalid postal code regex " + region + ": " + e.getMessage());
+                throw new PostalCodeIntervalException("Invalid postal code regex " + region + ": " + e.getMessage());
+            }
+        }
+
+        int[] regionOfPostalCode = new int[CompiledWeatherArchive.POSTAL_CODES];
+        Arrays.fill(regionOfPostalCode, NO_REGION);
+        List<String> overlaps = new ArrayList<>();
+        for (int region = 0; region < patterns.size(); region++) {
+            Pattern pattern = patterns.get(region);
+            for (int index = 0; index < regionOfPostalCode.length; index++) {
+                if (pattern.matcher(Integer.toString(index + CompiledWeatherArchive.MIN_POSTAL_CODE)).matches()) {
+                    if (regionOfPostalCode[index] != NO_REGION) {
+                        overlaps.add(regions.get(regionOfPostalCode[index]) + " and " + regions.get(region)
+                                + " both cover " + (index + CompiledWeatherArchive.MIN_POSTAL_CODE));
+                    } else {
+                        regionOfPostalCode[index] = region;
+                    }
+                }
+            }
+        }
+        if (!overlaps.isEmpty()) {
+            String message = "Overlapping postal code regions: " + overlaps.getFirst()
+                    + (overlaps.size() > 1 ? " (and " + (overlaps.size() - 1) + " more postal codes)" : "");
+            logger.severe(message);
+            throw new PostalCodeIntervalException(message);
+        }
+
+        List<PostalCodeInterval> intervals = new ArrayList<>();
+        List<PostalCodeInterval> uncoveredIntervals = new ArrayList<>();
+        int start = 0;
+        for (int index = 1; index <= regionOfPostalCode.length; index++) {
+            if (index == regionOfPostalCode.length || regionOfPostalCode[index] != regionOfPostalCode[start]) {
+                PostalCodeInterval interval = new PostalCodeInterval((short) (start + CompiledWeatherArchive.MIN_POSTAL_CODE),
+                        (short) (index - 1 + CompiledWeatherArchive.MIN_POSTAL_CODE), regionOfPostalCode[start]);
+                (interval.regionIndex() == NO_REGION ? uncoveredIntervals : intervals).add(interval);
+                start = index;
+            }
+        }
+        if (!uncoveredIntervals.isEmpty()) {
+            logger.warning("Postal codes without a region: " + uncoveredIntervals);
+        }
+        logger.info("Compiled " + regions.size() + " postal code regions into " + intervals.size() + " intervals");
+        return new PostalCodeIntervalIndex(regions, intervals, uncoveredIntervals);
+    }
+
+    /**
+     * Get the postal code regex of each region, the position in the list is the region index.
+     *
+     * @return an unmodifiable list with the postal code regex of each region
+     */
+    public List<String> getRegions() {
+        return regions;
+    }
+
+    /**
+     * Get all intervals covered by a region, sorted by their first postal code.
+     *
+     * @return an unmodifiable list of {@link PostalCodeInterval}s
+     */
+    public List<PostalCodeInterval> getIntervals() {
+        return intervals;
+    }
+
+    /**
+     * Get the intervals of postal codes which are not covered by any region.
+     *
+     * @return an unmodifiable list of {@link PostalCodeInterval}s with the region index {@link #NO_REGION}
+     */
+    public List<PostalCodeInterval> getUncoveredIntervals() {
+        return uncoveredIntervals;
+    }
+
+    /**
+     * A record to store an interval of postal codes belonging to the same region.
+     *
+     * @param from the first postal code of the interval
+     * @param to the last postal code of the interval
+     * @param regionIndex the index of the region or {@link #NO_REGION}
+     */
+    public record PostalCodeInterval(short from, short to, int regionIndex) {
+        /**
+         * Returns the interval in the format {@code from-to}.
+         *
+         * @return the interval as a string
+         */
+        @Override
+        public String toString() {
+            return from + "-" + to;
+        }
+    }
+}
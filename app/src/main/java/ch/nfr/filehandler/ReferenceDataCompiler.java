@@ -0,0 +1,67 @@
+package ch.nfr.filehandler;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * This class compiles the reference data properties files into a binary {@link ReferenceDataFile}.
+ * It is run by the {@code compileReferenceData} Gradle task at build time.
+ */
+public class ReferenceDataCompiler {
+    /** The used Logger in this class */
+    private static final Logger logger = Logger.getLogger(ReferenceDataCompiler.class.getName());
+
+    /**
+     * The private constructor to prevent the instantiation of this class.
+     */
+    private ReferenceDataCompiler() {
+    }
+
+    /**
+     * Compiles the reference data properties files into a binary reference data file.
+     *
+     * @param args the path of the reference data file, the weather archive, the electricity price file and the device proposal file
+     * @throws Exception if a file could not be read, is invalid or the reference data file could not be written
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length != 4) {
+            logger.severe("Usage: ReferenceDataCompiler <output> <weather archive> <electricity prices> <device proposals>");
+            throw new IllegalArgumentException("Usage: ReferenceDataCompiler <output> <weather archive> <electricity prices> <device proposals>");
+        }
+        compile(Path.of(args[0]), args[1], args[2], args[3]);
+    }
+
+    /**
+     * Compiles the reference data properties files into a binary reference data file.
+     * The data version is the latest modification time of the properties files in milliseconds,
+     * so the same input always results in the same file.
+     *
+     * @param target the path of the reference data file
+     * @param weatherArchivePath the path to the weather archive
+     * @param electricityPricePath the path to the electricity price file
+     * @param deviceProposalPath the path to the device proposal file
+     * @throws WeatherArchiveException if the weather archive is invalid
+     * @throws ElectricityPriceDataException if the electricity price file is invalid
+     * @throws DeviceProposalException if a device proposal of the device proposal file is invalid
+     * @throws IOException if a file could not be read or the reference data file could not be written
+     */
+    public static void compile(Path target, String weatherArchivePath, String electricityPricePath, String deviceProposalPath)
+            throws WeatherArchiveException, ElectricityPriceDataException, DeviceProposalException, IOException {
+        CompiledWeatherArchive weatherArchive = CompiledWeatherArchive.compile(weatherArchivePath);
+        CompiledElectricityPrices electricityPrices = CompiledElectricityPrices.compile(electricityPricePath);
+        if (!Files.isReadable(Path.of(deviceProposalPath))) {
+            logger.severe("The device proposal file " + deviceProposalPath + " could not be read.");
+            throw new IOException("The device proposal file " + deviceProposalPath + " could not be read.");
+        }
+        List<DeviceProposalHandler.DeviceProposalRecord> deviceProposals = DeviceProposalHandler.readDeviceProposals(deviceProposalPath);
+
+        long dataVersion = 0;
+        for (String path : List.of(weatherArchivePath, electricityPricePath, deviceProposalPath)) {
+            dataVersion = Math.max(dataVersion, Files.getLastModifiedTime(Path.of(path)).toMillis());
+        }
+        ReferenceDataFile.write(target, dataVersion, weatherArchive, electricityPrices, deviceProposals);
+    }
+}
@@ -0,0 +1,423 @@
+package ch.nfr.filehandler;
+
+import ch.nfr.calculator.units.EnergyUnit;
+import ch.nfr.calculator.units.TimeUnit;
+import ch.nfr.tablemodel.RoomType;
+import ch.nfr.tablemodel.device.DeviceCategory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * This class reads and writes the binary reference data file, which holds the compiled weather archive,
+ * the compiled electricity prices and the device proposals in fixed-layout sections.
+ * <p>
+ * The file is memory mapped read-only, so the data is used directly from the page cache without any parsing
+ * and several processes share one copy. All values are stored in big-endian byte order.
+ * <pre>
+ * header:   int magic, short format version, short section count, long data version
+ *           per section: int section id, int offset, int length
+ * section 1 (weather archive):   int region count, byte[9000] region of postal code,
+ *                                short[region count * 12] sun hours, per region: short length, UTF-8 postal code regex
+ * section 2 (electricity prices): double[9000] price of postal code, NaN if not covered
+ * section 3 (device proposals):   int room type count, per room type: int first record, int record count,
+ *                                 int record count, records of {@value #DEVICE_RECORD_SIZE} bytes, UTF-8 string pool
+ * </pre>
+ * Enum values are stored as ordinals, -1 for null. The file is generated at build time by {@link ReferenceDataCompiler},
+ * so the ordinals always match the compiled enums.
+ */
+public final class ReferenceDataFile {
+    /** The used Logger in this class */
+    private static final Logger logger = Logger.getLogger(ReferenceDataFile.class.getName());
+    /** The file extension of reference data files */
+    public static final String FILE_EXTENSION = ".bin";
+    /** The path of the reference data file compiled by the {@code compileReferenceData} Gradle task */
+    public static final String COMPILED_PATH = "build/reference-data/reference-data" + FILE_EXTENSION;
+    /** The magic number at the start of every reference data file, "ESRD" in ASCII */
+    static final int MAGIC = 0x45535244;
+    /** The version of the binary layout, files with another version are rejected */
+    static final short FORMAT_VERSION = 1;
+    /** The id of the weather archive section */
+    static final int WEATHER_ARCHIVE_SECTION = 1;
+    /** The id of the electricity price section */
+    static final int ELECTRICITY_PRICE_SECTION = 2;
+    /** The id of the device proposal section */
+    static final int DEVICE_PROPOSAL_SECTION = 3;
+    /** The size of the fixed header without the section table */
+    private static final int HEADER_SIZE = 16;
+    /** The size of one entry in the section table */
+    private static final int SECTION_ENTRY_SIZE = 12;
+    /** The size of one device proposal record */
+    private static final int DEVICE_RECORD_SIZE = 40;
+    /** The alignment of the sections */
+    private static final int SECTION_ALIGNMENT = 8;
+
+    /** The opened reference data files, cached per path */
+    private static final Map<String, ReferenceDataFile> openFiles = new ConcurrentHashMap<>();
+
+    /** The version of the compiled data */
+    private final long dataVersion;
+    /** The compiled weather archive, backed by the mapped file */
+    private final CompiledWeatherArchive weatherArchive;
+    /** The compiled electricity prices, backed by the mapped file */
+    private final CompiledElectricityPrices electricityPrices;
+    /** The device proposal section of the mapped file */
+    private final ByteBuffer deviceProposals;
+
+    /**
+     * Creates a new reference data file from the mapped file content.
+     *
+     * @param path the path of the file, used for error messages
+     * @param buffer the mapped file content
+     * @throws IOException if the file is not a valid reference data file
+     */
+    private ReferenceDataFile(String path, ByteBuffer buffer) throws IOException {
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            logger.severe("Not a reference data file: " + path);
+            throw new IOException("Not a reference data file: " + path);
+        }
+        if (buffer.getShort(4) != FORMAT_VERSION) {
+            logger.severe("Unsupported reference data format version " + buffer.getShort(4) + ": " + path);
+            throw new IOException("Unsupported reference data format version " + buffer.getShort(4) + ": " + path);
+        }
+        int sectionCount = buffer.getShort(6);
+        dataVersion = buffer.getLong(8);
+
+        Map<Integer, ByteBuffer> sections = new HashMap<>();
+        for (int section = 0; section < sectionCount; section++) {
+            int entry = HEADER_SIZE + section * SECTION_ENTRY_SIZE;
+            int offset = buffer.getInt(entry + 4);
+            int length = buffer.getInt(entry + 8);
+            if (offset < 0 || length < 0 || (long) offset + length > buffer.capacity()) {
+                logger.severe("Invalid section in the reference data file: " + path);
+                throw new IOException("Invalid section in the reference data file: " + path);
+            }
+            sections.put(buffer.getInt(entry), buffer.slice(offset, length));
+        }
+        for (int section : List.of(WEATHER_ARCHIVE_SECTION, ELECTRICITY_PRICE_SECTION, DEVICE_PROPOSAL_SECTION)) {
+            if (!sections.containsKey(section)) {
+                logger.severe("Missing section " + section + " in the reference data file: " + path);
+                throw new IOException("Missing section " + section + " in the reference data file: " + path);
+            }
+        }
+        weatherArchive = CompiledWeatherArchive.readSection(sections.get(WEATHER_ARCHIVE_SECTION));
+        electricityPrices = CompiledElectricityPrices.readSection(sections.get(ELECTRICITY_PRICE_SECTION));
+        deviceProposals = sections.get(DEVICE_PROPOSAL_SECTION);
+    }
+
+    /**
+     * Checks if the given path is a reference data file by its extension.
+     *
+     * @param path the path to check
+     * @return true if the path ends with {@value #FILE_EXTENSION}, false otherwise
+     */
+    public static boolean isReferenceDataFile(String path) {
+        return path != null && path.endsWith(FILE_EXTENSION);
+    }
+
+    /**
+     * Get the path to read the data of the given properties file from, see {@link #resolve(String, String)}.
+     *
+     * @param propertiesPath the path to the properties file
+     * @return {@value #COMPILED_PATH} if it is up to date, the properties file otherwise
+     */
+    public static String resolve(String propertiesPath) {
+        return resolve(propertiesPath, COMPILED_PATH);
+    }
+
+    /**
+     * Get the path to read the data of the given properties file from.
+     * The compiled reference data file is used if it is a valid reference data file and not older than the properties file,
+     * otherwise the properties file is used, for example if the application was started without building it.
+     *
+     * @param propertiesPath the path to the properties file
+     * @param compiledPath the path to the compiled reference data file
+     * @return the compiled reference data file if it is up to date, the properties file otherwise
+     */
+    static String resolve(String propertiesPath, String compiledPath) {
+        Path compiled = Path.of(compiledPath);
+        try {
+            if (Files.isReadable(compiled)
+                    && Files.getLastModifiedTime(compiled).compareTo(Files.getLastModifiedTime(Path.of(propertiesPath))) >= 0) {
+                open(compiledPath);
+                return compiledPath;
+            }
+            logger.info("The reference data file " + compiledPath + " is missing or older than " + propertiesPath);
+        } catch (IOException e) {
+            logger.warning("The reference data file " + compiledPath + " could not be used: " + e.getMessage());
+        }
+        return propertiesPath;
+    }
+
+    /**
+     * Opens the reference data file of the given path. The file is mapped only on the first call for a path.
+     *
+     * @param path the path to the reference data file
+     * @return the opened reference data file
+     * @throws IOException if the file could not be mapped or is not a valid reference data file
+     */
+    public static ReferenceDataFile open(String path) throws IOException {
+        ReferenceDataFile referenceDataFile = openFiles.get(path);
+        if (referenceDataFile == null) {
+            MappedByteBuffer buffer;
+            try (FileChannel channel = FileChannel.open(Path.of(path), StandardOpenOption.READ)) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            referenceDataFile = new ReferenceDataFile(path, buffer);
+            ReferenceDataFile previous = openFiles.putIfAbsent(path, referenceDataFile);
+            if (previous != null) {
+                referenceDataFile = previous;
+            }
+            logger.info("Mapped reference data file " + path + ", data version " + referenceDataFile.dataVersion);
+        }
+        return referenceDataFile;
+    }
+
+    /**
+     * Get the version of the compiled data.
+     *
+     * @return the data version
+     */
+    public long getDataVersion() {
+        return dataVersion;
+    }
+
+    /**
+     * Get the compiled weather archive of the file.
+     *
+     * @return the {@link CompiledWeatherArchive}
+     */
+    public CompiledWeatherArchive getWeatherArchive() {
+        return weatherArchive;
+    }
+
+    /**
+     * Get the compiled electricity prices of the file.
+     *
+     * @return the {@link CompiledElectricityPrices}
+     */
+    public CompiledElectricityPrices getElectricityPrices() {
+        return electricityPrices;
+    }
+
+    /**
+     * Get the device proposals for the given {@link RoomType}, sorted by the device key.
+     *
+     * @param roomType the room type
+     * @return a list of {@link DeviceProposalHandler.DeviceProposalRecord}s
+     */
+    public List<DeviceProposalHandler.DeviceProposalRecord> getDeviceProposals(RoomType roomType) {
+        int roomTypeCount = deviceProposals.getInt(0);
+        if (roomType.ordinal() >= roomTypeCount) {
+            return List.of();
+        }
+        int firstRecord = deviceProposals.getInt(4 + roomType.ordinal() * 8);
+        int recordCount = deviceProposals.getInt(8 + roomType.ordinal() * 8);
+        int recordsStart = 4 + roomTypeCount * 8 + 4;
+        int stringPoolStart = recordsStart + deviceProposals.getInt(recordsStart - 4) * DEVICE_RECORD_SIZE;
+
+        List<DeviceProposalHandler.DeviceProposalRecord> deviceProposalRecords = new ArrayList<>(recordCount);
+        for (int record = firstRecord; record < firstRecord + recordCount; record++) {
+            int offset = recordsStart + record * DEVICE_RECORD_SIZE;
+            deviceProposalRecords.add(new DeviceProposalHandler.DeviceProposalRecord(
+                    roomType,
+                    readString(stringPoolStart + deviceProposals.getInt(offset + 32), deviceProposals.getInt(offset + 36)),
+                    deviceProposals.get(offset + 1) != 0,
+                    readString(stringPoolStart + deviceProposals.getInt(offset + 24), deviceProposals.getInt(offset + 28)),
+                    ordinalToEnum(DeviceCategory.values(), deviceProposals.get(offset + 2)),
+                    deviceProposals.getDouble(offset + 8),
+                    ordinalToEnum(EnergyUnit.values(), deviceProposals.get(offset + 3)),
+                    deviceProposals.getDouble(offset + 16),
+                    ordinalToEnum(TimeUnit.values(), deviceProposals.get(offset + 4)),
+                    ordinalToEnum(TimeUnit.values(), deviceProposals.get(offset + 5))));
+        }
+        return deviceProposalRecords;
+    }
+
+    /**
+     * Reads an UTF-8 string from the device proposal section.
+     *
+     * @param offset the offset of the string in the section
+     * @param length the length of the string in bytes
+     * @return the string
+     */
+    private String readString(int offset, int length) {
+        byte[] bytes = new byte[length];
+        deviceProposals.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes the compiled reference data into a new reference data file.
+     * The file is written next to the target first and then moved, so a mapped file is never changed.
+     *
+     * @param target the path of the reference data file
+     * @param dataVersion the version of the compiled data
+     * @param weatherArchive the compiled weather archive
+     * @param electricityPrices the compiled electricity prices
+     * @param deviceProposals all device proposals
+     * @throws IOException if the file could not be written
+     */
+    public static void write(Path target, long dataVersion, CompiledWeatherArchive weatherArchive,
+                             CompiledElectricityPrices electricityPrices,
+                             List<DeviceProposalHandler.DeviceProposalRecord> deviceProposals) throws IOException {
+        Map<Integer, byte[]> sections = new HashMap<>();
+        sections.put(WEATHER_ARCHIVE_SECTION, toBytes(weatherArchive::writeSection));
+        sections.put(ELECTRICITY_PRICE_SECTION, toBytes(electricityPrices::writeSection));
+        sections.put(DEVICE_PROPOSAL_SECTION, toBytes(out -> writeDeviceProposals(out, deviceProposals)));
+
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(file);
+        List<Integer> sectionIds = List.of(WEATHER_ARCHIVE_SECTION, ELECTRICITY_PRICE_SECTION, DEVICE_PROPOSAL_SECTION);
+        out.writeInt(MAGIC);
+        out.writeShort(FORMAT_VERSION);
+        out.writeShort(sectionIds.size());
+        out.writeLong(dataVersion);
+        int offset = align(HEADER_SIZE + sectionIds.size() * SECTION_ENTRY_SIZE);
+        for (int sectionId : sectionIds) {
+            out.writeInt(sectionId);
+            out.writeInt(offset);
+            out.writeInt(sections.get(sectionId).length);
+            offset = align(offset + sections.get(sectionId).length);
+        }
+        for (int sectionId : sectionIds) {
+            out.write(new byte[align(out.size()) - out.size()]);
+            out.write(sections.get(sectionId));
+        }
+        out.flush();
+
+        Path parent = target.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = parent.resolve(target.getFileName() + ".tmp");
+        try {
+            Files.write(temp, file.toByteArray());
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        logger.info("Wrote reference data file " + target + " with " + file.size() + " bytes");
+    }
+
+    /**
+     * Writes the device proposal section.
+     *
+     * @param out the stream to write to
+     * @param deviceProposals all device proposals
+     * @throws IOException if the section could not be written
+     */
+    private static void writeDeviceProposals(DataOutputStream out, List<DeviceProposalHandler.DeviceProposalRecord> deviceProposals) throws IOException {
+        List<DeviceProposalHandler.DeviceProposalRecord> sortedDeviceProposals = new ArrayList<>(deviceProposals);
+        sortedDeviceProposals.sort((first, second) -> first.roomType() != second.roomType()
+                ? first.roomType().compareTo(second.roomType()) : first.deviceKey().compareTo(second.deviceKey()));
+
+        out.writeInt(RoomType.values().length);
+        for (RoomType roomType : RoomType.values()) {
+            int firstRecord = 0;
+            while (firstRecord < sortedDeviceProposals.size() && sortedDeviceProposals.get(firstRecord).roomType().compareTo(roomType) < 0) {
+                firstRecord++;
+            }
+            int recordCount = (int) sortedDeviceProposals.stream().filter(deviceProposal -> deviceProposal.roomType() == roomType).count();
+            out.writeInt(firstRecord);
+            out.writeInt(recordCount);
+        }
+
+        ByteArrayOutputStream stringPool = new ByteArrayOutputStream();
+        out.writeInt(sortedDeviceProposals.size());
+        for (DeviceProposalHandler.DeviceProposalRecord deviceProposal : sortedDeviceProposals) {
+            byte[] name = deviceProposal.deviceName().getBytes(StandardCharsets.UTF_8);
+            byte[] key = deviceProposal.deviceKey().getBytes(StandardCharsets.UTF_8);
+            out.writeByte(deviceProposal.roomType().ordinal());
+            out.writeByte(deviceProposal.isWired() ? 1 : 0);
+            out.writeByte(enumToOrdinal(deviceProposal.deviceCategory()));
+            out.writeByte(enumToOrdinal(deviceProposal.energyUnit()));
+            out.writeByte(enumToOrdinal(deviceProposal.usageUnit()));
+            out.writeByte(enumToOrdinal(deviceProposal.usagePerUnit()));
+            out.writeShort(0);
+            out.writeDouble(deviceProposal.consumption());
+            out.writeDouble(deviceProposal.usage());
+            out.writeInt(stringPool.size());
+            out.writeInt(name.length);
+            stringPool.write(name);
+            out.writeInt(stringPool.size());
+            out.writeInt(key.length);
+            stringPool.write(key);
+        }
+        stringPool.writeTo(out);
+    }
+
+    /**
+     * Collects the bytes written by the given section writer.
+     *
+     * @param sectionWriter the writer of the section
+     * @return the bytes of the section
+     * @throws IOException if the section could not be written
+     */
+    private static byte[] toBytes(SectionWriter sectionWriter) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        sectionWriter.write(out);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Rounds the offset up to the next section alignment.
+     *
+     * @param offset the offset
+     * @return the aligned offset
+     */
+    private static int align(int offset) {
+        return (offset + SECTION_ALIGNMENT - 1) / SECTION_ALIGNMENT * SECTION_ALIGNMENT;
+    }
+
+    /**
+     * Get the stored ordinal of an enum value.
+     *
+     * @param value the enum value, can be null
+     * @return the ordinal or -1 for null
+     */
+    private static int enumToOrdinal(Enum<?> value) {
+        return value == null ? -1 : value.ordinal();
+    }
+
+    /**
+     * Get the enum value of a stored ordinal.
+     *
+     * @param values the values of the enum
+     * @param ordinal the stored ordinal
+     * @param <E> the type of the enum
+     * @return the enum value or null for -1
+     */
+    private static <E extends Enum<E>> E ordinalToEnum(E[] values, byte ordinal) {
+        return ordinal < 0 ? null : values[ordinal];
+    }
+
+    /**
+     * A writer of one section of the reference data file.
+     */
+    @FunctionalInterface
+    interface SectionWriter {
+        /**
+         * Writes the section.
+         *
+         * @param out the stream to write to
+         * @throws IOException if the section could not be written
+         */
+        void write(DataOutputStream out) throws IOException;
+    }
+}
@@ -0,0 +1,235 @@
+package ch.nfr.filehandler;
+
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Logger;
+
+/**
+ * This class provides the reference data (weather archive and electricity prices) for long-running services.
+ * Both files are compiled into an immutable {@link ReferenceDataSnapshot}, which is served without any I/O.
+ * <p>
+ * After {@link #start()} the files are watched with a {@link WatchService}. On a change the files are compiled
+ * and validated in the background and the snapshot is swapped atomically. An invalid file keeps the previous snapshot.
+ * Every snapshot has a new version, so caches built on a snapshot can detect that they are outdated.
+ * Listeners are informed with the property name {@value #SNAPSHOT_PROPERTY} and the old and new snapshot.
+ */
+public class ReferenceDataService implements AutoCloseable {
+    /** The used Logger in this class */
+    private static final Logger logger = Logger.getLogger(ReferenceDataService.class.getName());
+    /** The property name of the events fired when a new snapshot is swapped in */
+    public static final String SNAPSHOT_PROPERTY = "REFERENCE_DATA_SNAPSHOT";
+    /** The time in milliseconds to wait for further changes before the files are compiled */
+    private static final long DEBOUNCE_MILLIS = 200;
+
+    /** The PropertyChangeSupport of the service */
+    private final PropertyChangeSupport propertyChangeSupport = new PropertyChangeSupport(this);
+    /** The path to the weather archive */
+    private final Path weatherArchivePath;
+    /** The path to the electricity price file */
+    private final Path electricityPricePath;
+    /** The currently served snapshot */
+    private final AtomicReference<ReferenceDataSnapshot> snapshot = new AtomicReference<>();
+    /** The version of the last compiled snapshot */
+    private final AtomicLong version = new AtomicLong();
+    /** The WatchService watching the directories of the files, null until the service is started */
+    private WatchService watchService;
+    /** The background thread waiting for changes, null until the service is started */
+    private Thread watchThread;
+
+    /**
+     * Creates a new ReferenceDataService and compiles the first snapshot.
+     *
+     * @param weatherArchivePath the path to the weather archive
+     * @param electricityPricePath the path to the electricity price file
+     * @throws WeatherArchiveException if the weather archive is invalid
+     * @throws ElectricityPriceDataException if the electricity price file is invalid
+     */
+    public ReferenceDataService(String weatherArchivePath, String electricityPricePath) throws WeatherArchiveException, ElectricityPriceDataException {
+        this.weatherArchivePath = Path.of(weatherArchivePath).toAbsolutePath().normalize();
+        this.electricityPricePath = Path.of(electricityPricePath).toAbsolutePath().normalize();
+        snapshot.set(compileSnapshot());
+    }
+
+    /**
+     * Get the currently served snapshot.
+     *
+     * @return the current {@link ReferenceDataSnapshot}
+     */
+    public ReferenceDataSnapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * Get the version of the currently served snapshot.
+     *
+     * @return the version of the current snapshot
+     */
+    public long getVersion() {
+        return snapshot.get().version();
+    }
+
+    /**
+     * Compiles and validates both files and swaps the snapshot if they are valid.
+     * If a file is invalid, the previous snapshot is kept.
+     *
+     * @return true if a new snapshot was swapped in, false if the previous snapshot is kept
+     */
+    public synchronized boolean reload() {
+        try {
+            ReferenceDataSnapshot newSnapshot = compileSnapshot();
+            ReferenceDataSnapshot oldSnapshot = snapshot.getAndSet(newSnapshot);
+            logger.info("Reference data reloaded, version " + newSnapshot.version());
+            propertyChangeSupport.firePropertyChange(SNAPSHOT_PROPERTY, oldSnapshot, newSnapshot);
+            return true;
+        } catch (WeatherArchiveException | ElectricityPriceDataException | RuntimeException e) {
+            logger.severe("Invalid reference data, keeping version " + getVersion() + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Starts watching the directories of both files for changes.
+     * Calling this method on a started service has no effect.
+     *
+     * @throws IOException if the directories could not be watched
+     */
+    public synchronized void start() throws IOException {
+        if (watchService != null) {
+            return;
+        }
+        WatchService startedWatchService = FileSystems.getDefault().newWatchService();
+        Set<Path> directories = new HashSet<>(List.of(weatherArchivePath.getParent(), electricityPricePath.getParent()));
+        try {
+            for (Path directory : directories) {
+                directory.register(startedWatchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            }
+        } catch (IOException e) {
+            startedWatchService.close();
+            logger.severe("The reference data directories could not be watched: " + e.getMessage());
+            throw e;
+        }
+        watchService = startedWatchService;
+        watchThread = new Thread(() -> watch(startedWatchService), "reference-data-watcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+        logger.info("Watching reference data " + weatherArchivePath + " and " + electricityPricePath);
+    }
+
+    /**
+     * Waits for changes of the watched files and reloads the snapshot.
+     * Further changes within {@link #DEBOUNCE_MILLIS} are collected, so a file written in several steps is compiled once.
+     *
+     * @param watchService the WatchService to wait on
+     */
+    private void watch(WatchService watchService) {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                boolean changed = pollChanges(watchService.take());
+                WatchKey key;
+                while ((key = watchService.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= pollChanges(key);
+                }
+                if (changed) {
+                    reload();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            logger.info("Stopped watching the reference data.");
+        }
+    }
+
+    /**
+     * Checks the events of the given key for changes of a watched file and resets the key.
+     *
+     * @param key the signalled key
+     * @return true if one of the watched files was changed, false otherwise
+     */
+    private boolean pollChanges(WatchKey key) {
+        boolean changed = false;
+        Path directory = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.context() instanceof Path fileName) {
+                Path file = directory.resolve(fileName);
+                changed |= file.equals(weatherArchivePath) || file.equals(electricityPricePath);
+            } else if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+
+    /**
+     * Compiles both files into a new snapshot with the next version.
+     *
+     * @return the new snapshot
+     * @throws WeatherArchiveException if the weather archive is invalid
+     * @throws ElectricityPriceDataException if the electricity price file is invalid
+     */
+    private ReferenceDataSnapshot compileSnapshot() throws WeatherArchiveException, ElectricityPriceDataException {
+        CompiledWeatherArchive weatherArchive = CompiledWeatherArchive.compile(weatherArchivePath.toString());
+        if (weatherArchive.getCoveredPostalCodes() == 0) {
+            logger.severe("The weather archive " + weatherArchivePath + " covers no postal code.");
+            throw new WeatherArchiveException("The weather archive " + weatherArchivePath + " covers no postal code.");
+        }
+        CompiledElectricityPrices electricityPrices = CompiledElectricityPrices.compile(electricityPricePath.toString());
+        if (electricityPrices.getCoveredPostalCodes() == 0) {
+            logger.severe("The electricity price file " + electricityPricePath + " covers no postal code.");
+            throw new ElectricityPriceDataException("The electricity price file " + electricityPricePath + " covers no postal code.");
+        }
+        return new ReferenceDataSnapshot(version.incrementAndGet(), Instant.now(), weatherArchive, electricityPrices);
+    }
+
+    /**
+     * Adds a PropertyChangeListener which is informed when a new snapshot is swapped in.
+     *
+     * @param listener the listener to add
+     */
+    public void addPropertyChangeListener(PropertyChangeListener listener) {
+        propertyChangeSupport.addPropertyChangeListener(listener);
+    }
+
+    /**
+     * Stops watching the files. The last snapshot is still served.
+     */
+    @Override
+    public synchronized void close() {
+        if (watchService != null) {
+            watchThread.interrupt();
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                logger.warning("Error while closing the WatchService: " + e.getMessage());
+            }
+            watchService = null;
+            watchThread = null;
+        }
+    }
+
+    /**
+     * This record is an immutable snapshot of the compiled reference data.
+     *
+     * @param version the version of the snapshot, increased with every reload
+     * @param loadedAt the time the snapshot was compiled
+     * @param weatherArchive the compiled weather archive
+     * @param electricityPrices the compiled electricity prices
+     */
+    public record ReferenceDataSnapshot(long version, Instant loadedAt, CompiledWeatherArchive weatherArchive,
+                                        CompiledElectricityPrices electricityPrices) {
+    }
+}
@@ -0,0 +1,30 @@
+package ch.nfr.filehandler;
+
+/**
+ * This class is responsible for handling the household files in the compact binary snapshot format, see {@link HouseholdSnapshot}.
+ * SnapshotHandler implements the FileHandler interface like the {@link JsonHandler}, with the same autosave,
+ * journal and index, but the households are stored as {@value HouseholdSnapshot#FILE_EXTENSION} files.
+ * JSON stays the import and export format: imported JSON files are converted into snapshots
+ * and exported households are written as JSON files.
+ */
+public class SnapshotHandler extends JsonHandler {
+
+    /**
+     * The constructor of the SnapshotHandler class.
+     * It uses the default quiet period of {@value JsonHandler#DEFAULT_QUIET_PERIOD} ms and the default maximal delay
+     * of {@value JsonHandler#DEFAULT_MAX_DELAY} ms for the autosave.
+     */
+    public SnapshotHandler() {
+        this(DEFAULT_QUIET_PERIOD, DEFAULT_MAX_DELAY);
+    }
+
+    /**
+     * The constructor of the SnapshotHandler class with the given autosave delays.
+     *
+     * @param quietPeriod The time in milliseconds without a change before the changes are saved.
+     * @param maxDelay The maximal time in milliseconds between the first unsaved change and the save.
+     */
+    SnapshotHandler(long quietPeriod, long maxDelay) {
+        super(HouseholdFormat.SNAPSHOT, quietPeriod, maxDelay);
+    }
+}
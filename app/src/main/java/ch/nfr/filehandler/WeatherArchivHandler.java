@@ -5,6 +5,7 @@ import ch.nfr.calculator.units.MonthUnit;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
 /**
@@ -14,6 +15,8 @@ import java.util.logging.Logger;
 public class WeatherArchivHandler {
     /** The used Logger in this class */
     private static final Logger logger = Logger.getLogger(WeatherArchivHandler.class.getName());
+    /** The compiled weather archives, cached per weather archive path */
+    private static final Map<String, CompiledWeatherArchive> compiledWeatherArchives = new ConcurrentHashMap<>();
 
     /**
      * The private constructor to prevent the instantiation of this class.
@@ -23,6 +26,8 @@ public class WeatherArchivHandler {
 
     /**
      * Reads the weather archive file and returns the sun hours for each month for the given postal code.
+     * The weather archive is read and compiled only on the first call for a path,
+     * afterward the sun hours are served from the {@link CompiledWeatherArchive}.
      *
      * @param weatherArchivePath the path to the weather archive file
      * @param postalCode the postal code for which the sun hours should be read
@@ -30,38 +35,120 @@ public class WeatherArchivHandler {
      * @throws WeatherArchiveException if an error occurs while reading the sun hours file or no sun hours are found for the given postal code
      */
     public static List<SunHoursPerMonthRecord> readSunHoursFile(short postalCode, String weatherArchivePath) throws WeatherArchiveException {
+        return getCompiledWeatherArchive(weatherArchivePath).getSunHours(postalCode);
+    }
+
+    /**
+     * Get the compiled weather archive of the given path.
+     * The weather archive is read and compiled only on the first call for a path.
+     * If the path ends with {@value ReferenceDataFile#FILE_EXTENSION}, the weather archive is used directly
+     * from the memory mapped {@link ReferenceDataFile}.
+     *
+     * @param weatherArchivePath the path to the weather archive file or the reference data file
+     * @return the {@link CompiledWeatherArchive} of the path
+     * @throws WeatherArchiveException if the weather archive could not be read or compiled
+     */
+    public static CompiledWeatherArchive getCompiledWeatherArchive(String weatherArchivePath) throws WeatherArchiveException {
         Objects.requireNonNull(weatherArchivePath, "Properties file must not be null");
-        List<SunHoursPerMonthRecord> sunHours = new ArrayList<>();
-        String postalCodeString = Short.toString(postalCode);
+        CompiledWeatherArchive compiledWeatherArchive = compiledWeatherArchives.get(weatherArchivePath);
+        if (compiledWeatherArchive == null) {
+            if (ReferenceDataFile.isReferenceDataFile(weatherArchivePath)) {
+                try {
+                    compiledWeatherArchive = ReferenceDataFile.open(weatherArchivePath).getWeatherArchive();
+                } catch (IOException e) {
+                    logger.severe("There was an error while reading the reference data file." + e.getMessage());
+                    throw new WeatherArchiveException("There was an error while reading the reference data file.", e);
+                }
+            } else {
+                compiledWeatherArchive = CompiledWeatherArchive.compile(weatherArchivePath);
+            }
+            CompiledWeatherArchive previous = compiledWeatherArchives.putIfAbsent(weatherArchivePath, compiledWeatherArchive);
+            if (previous != null) {
+                compiledWeatherArchive = previous;
+            }
+        }
+        return compiledWeatherArchive;
+    }
 
-        Properties properties = new Properties();
-        try (FileInputStream fileInputStream = new FileInputStream(weatherArchivePath)) {
-            properties.load(fileInputStream);
+    /**
+     * Reads the whole weather archive file at once and returns the sun hours for each month grouped by region.
+     * A region is identified by the postal code regex of the keys in the weather archive.
+     *
+     * @param weatherArchivePath the path to the weather archive file
+     * @return a map with the postal code regex of each region and the sun hours for each month of the region
+     * @throws WeatherArchiveException if an error occurs while reading the weather archive file
+     */
+    public static Map<String, List<SunHoursPerMonthRecord>> readWeatherArchive(String weatherArchivePath) throws WeatherArchiveException {
+        Map<String, List<SunHoursPerMonthRecord>> sunHoursPerRegion = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<String, Map<MonthUnit, String>> region : readMonthlyValuesPerRegion(weatherArchivePath).entrySet()) {
+                List<SunHoursPerMonthRecord> sunHours = new ArrayList<>();
+                region.getValue().forEach((month, value) -> sunHours.add(new SunHoursPerMonthRecord(month, Integer.parseInt(value))));
+                sunHoursPerRegion.put(region.getKey(), sunHours);
+            }
+        } catch (NumberFormatException e) {
+            logger.severe("Invalid sun hours in the weather archive: " + e.getMessage());
+            throw new WeatherArchiveException("Invalid sun hours in the weather archive.", e);
+        }
+        logger.info("Successfully read weather archive with " + sunHoursPerRegion.size() + " regions");
+        return sunHoursPerRegion;
+    }
 
-            properties.stringPropertyNames().stream()
-                    .filter(key -> {
-                        String[] keyParts = key.split("\\."); // Split the key into parts
-                        String postalCodeRegex = keyParts[0];// Get the postal code regex from the first part of the key
-                        return postalCodeString.matches(postalCodeRegex); // Check if the postal code matches the regex
-                    })
-                    .forEach(key -> {
-                        int sunHour = Integer.parseInt(properties.getProperty(key)); // Split the value to get the sun hours
-                        MonthUnit month = MonthUnit.parseMonthUnit(key.split("\\.")[1]);
-                        sunHours.add(new SunHoursPerMonthRecord(month, sunHour)); // Parse and add sun hours to the list
-                    });
+    /**
+     * Reads the whole temperature archive file at once and returns the mean temperature for each month grouped by region.
+     * The temperature archive uses the same postal code regex keys as the weather archive.
+     *
+     * @param temperatureArchivePath the path to the temperature archive file
+     * @return a map with the postal code regex of each region and the mean temperature for each month of the region
+     * @throws WeatherArchiveException if an error occurs while reading the temperature archive file
+     */
+    public static Map<String, List<TemperaturePerMonthRecord>> readTemperatureArchive(String temperatureArchivePath) throws WeatherArchiveException {
+        Map<String, List<TemperaturePerMonthRecord>> temperaturesPerRegion = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<String, Map<MonthUnit, String>> region : readMonthlyValuesPerRegion(temperatureArchivePath).entrySet()) {
+                List<TemperaturePerMonthRecord> temperatures = new ArrayList<>();
+                region.getValue().forEach((month, value) -> temperatures.add(new TemperaturePerMonthRecord(month, Double.parseDouble(value))));
+                temperaturesPerRegion.put(region.getKey(), temperatures);
+            }
+        } catch (NumberFormatException e) {
+            logger.severe("Invalid temperature in the temperature archive: " + e.getMessage());
+            throw new WeatherArchiveException("Invalid temperature in the temperature archive.", e);
+        }
+        logger.info("Successfully read temperature archive with " + temperaturesPerRegion.size() + " regions");
+        return temperaturesPerRegion;
+    }
+
+    /**
+     * Reads an archive file with keys in the format {@code <postal code regex>.<month>} and groups the values by region.
+     * The months of each region are sorted in the order of {@link MonthUnit}.
+     *
+     * @param archivePath the path to the archive file
+     * @return a map with the postal code regex of each region and the raw value for each month
+     * @throws WeatherArchiveException if an error occurs while reading the archive file or a key has an unknown month
+     */
+    private static Map<String, Map<MonthUnit, String>> readMonthlyValuesPerRegion(String archivePath) throws WeatherArchiveException {
+        Objects.requireNonNull(archivePath, "Properties file must not be null");
+        Map<String, Map<MonthUnit, String>> valuesPerRegion = new TreeMap<>();
 
+        Properties properties = new Properties();
+        try (FileInputStream fileInputStream = new FileInputStream(archivePath)) {
+            properties.load(fileInputStream);
         } catch (IOException e) {
-            logger.severe("There was an error while reading the weather archive." + e.getMessage());
-            throw new WeatherArchiveException("There was an error while reading the weather archive.", e);
+            logger.severe("There was an error while reading the archive " + archivePath + ": " + e.getMessage());
+            throw new WeatherArchiveException("There was an error while reading the archive " + archivePath + ".", e);
         }
 
-        if (sunHours.isEmpty()) {
-            logger.severe("No weather archive data found for the given postal code.");
-            throw new WeatherArchiveException("No weather archive data found for the given postal code.");
-        } else {
-            logger.info("Successfully read weather archive for postal code " + postalCode);
-            return sunHours;
+        for (String key : properties.stringPropertyNames()) {
+            int separator = key.lastIndexOf('.');
+            MonthUnit month = separator < 0 ? null : MonthUnit.parseMonthUnit(key.substring(separator + 1));
+            if (month == null) {
+                logger.severe("Invalid key in the archive " + archivePath + ": " + key);
+                throw new WeatherArchiveException("Invalid key in the archive " + archivePath + ": " + key);
+            }
+            valuesPerRegion.computeIfAbsent(key.substring(0, separator), region -> new EnumMap<>(MonthUnit.class))
+                    .put(month, properties.getProperty(key).trim());
         }
+        return valuesPerRegion;
     }
 
     /**
@@ -73,4 +160,12 @@ public class WeatherArchivHandler {
     public record SunHoursPerMonthRecord(MonthUnit month, int sunHours) {
     }
 
+    /**
+     * A record to store the mean temperature for a month.
+     *
+     * @param month as a {@link MonthUnit}
+     * @param temperature the mean temperature in degree celsius for the month
+     */
+    public record TemperaturePerMonthRecord(MonthUnit month, double temperature) {
+    }
 }
@@ -1,5 +1,6 @@
 package ch.nfr.filehandler.converter;
 
+import ch.nfr.filehandler.HouseholdJournal;
 import ch.nfr.filehandler.property.HouseholdProperty;
 import ch.nfr.filehandler.property.RoomProperty;
 import ch.nfr.filehandler.property.SolarPanelProperty;
@@ -9,7 +10,10 @@ import ch.nfr.tablemodel.SolarPanel;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
 import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This class converts a household object to a json object and vice versa.
@@ -20,6 +24,14 @@ public class HouseholdConverter implements JsonConverter {
      * The json object of the household.
      */
     private JSONObject jsonObject;
+    /**
+     * The version of the json object, incremented after every change written to it.
+     */
+    private final AtomicLong version = new AtomicLong();
+    /**
+     * The property change support of the household.
+     */
+    private final PropertyChangeSupport propertyChangeSupport = new PropertyChangeSupport(this);
 
     /**
      * Reads the household properties from the json object and creates a household object.
@@ -52,16 +64,22 @@ public class HouseholdConverter implements JsonConverter {
      */
     @Override
     public void writeJson(String propertyName, Object oldValue, Object newValue) {
+        JSONObject journalRecord = null;
         switch (propertyName) {
             case "EDIT_HOUSEHOLD": {
+                JSONObject properties = new JSONObject();
                 for (HouseholdProperty property : HouseholdProperty.values()) {
                     jsonObject.put(property.name(), property.getValue((Household) newValue));
+                    properties.put(property.name(), property.getValue((Household) newValue));
                 }
+                journalRecord = HouseholdJournal.record("EDIT_HOUSEHOLD", properties);
                 break;
             }
             case "ADD_ROOM": {
                 Room room = (Room) newValue;
-                jsonObject.getJSONArray("rooms").put(new RoomConverter().addPropertyChangeListener(evt -> this.writeJson(evt.getPropertyName(), evt.getOldValue(),evt.getNewValue())).toJson(room));
+                JSONObject roomJson = new RoomConverter().addPropertyChangeListener(evt -> this.writeJson(evt.getPropertyName(), evt.getOldValue(),evt.getNewValue())).toJson(room);
+                jsonObject.getJSONArray("rooms").put(roomJson);
+                journalRecord = HouseholdJournal.record("PUT_ROOM", roomJson);
                 break;
             }
             case "REMOVE_ROOM": {
@@ -75,11 +93,14 @@ public class HouseholdConverter implements JsonConverter {
                 if (index != -1) {
                     jsonObject.getJSONArray("rooms").remove(index);
                 }
+                journalRecord = HouseholdJournal.record("REMOVE_ROOM", roomId);
                 break;
             }
             case "ADD_SOLAR_PANEL": {
                 SolarPanel solarPanel = (SolarPanel) newValue;
-                jsonObject.getJSONArray("solarPanels").put(new SolarPanelConverter().addPropertyChangeListener(evt -> this.writeJson(evt.getPropertyName(), evt.getOldValue(), evt.getNewValue())).toJson(solarPanel));
+                JSONObject solarPanelJson = new SolarPanelConverter().addPropertyChangeListener(evt -> this.writeJson(evt.getPropertyName(), evt.getOldValue(), evt.getNewValue())).toJson(solarPanel);
+                jsonObject.getJSONArray("solarPanels").put(solarPanelJson);
+                journalRecord = HouseholdJournal.record("PUT_SOLAR_PANEL", solarPanelJson);
                 break;
             }
             case "REMOVE_SOLAR_PANEL": {
@@ -93,6 +114,7 @@ public class HouseholdConverter implements JsonConverter {
                 if (index != -1) {
                     jsonObject.getJSONArray("solarPanels").remove(index);
                 }
+                journalRecord = HouseholdJournal.record("REMOVE_SOLAR_PANEL", solarPanelId);
                 break;
             }
             case "ROOM_CHANGES": {
@@ -106,6 +128,7 @@ public class HouseholdConverter implements JsonConverter {
                 }
                 if (index != -1) {
                     this.jsonObject.getJSONArray("rooms").put(index, jsonObject);
+                    journalRecord = HouseholdJournal.record("PUT_ROOM", jsonObject);
                 }
                 break;
             }
@@ -120,10 +143,26 @@ public class HouseholdConverter implements JsonConverter {
                 }
                 if (index != -1) {
                     this.jsonObject.getJSONArray("solarPanels").put(index, jsonObject);
+                    journalRecord = HouseholdJournal.record("PUT_SOLAR_PANEL", jsonObject);
                 }
                 break;
             }
         }
+        if (journalRecord != null) {
+            propertyChangeSupport.firePropertyChange("JOURNAL_RECORD", null, journalRecord);
+        }
+        long newVersion = version.incrementAndGet();
+        propertyChangeSupport.firePropertyChange("HOUSEHOLD_CHANGES", newVersion - 1, newVersion);
+    }
+
+    /**
+     * Returns the version of the json object.
+     * Every change of the household, its rooms, devices or solar panels written to the json object increments the version,
+     * so a saved json object is unchanged as long as the version is the same.
+     * @return The version of the json object.
+     */
+    public long getVersion() {
+        return version.get();
     }
 
     /**
@@ -228,4 +267,45 @@ public class HouseholdConverter implements JsonConverter {
         }
         return solarPanelsMap;
     }
+
+    /**
+     * Adds a property change listener to the household, it is notified of all properties,
+     * see {@link #addPropertyChangeListener(String, PropertyChangeListener)}.
+     * @param listener The property change listener to add.
+     * @return The household converter with the added property change listener.
+     */
+    public HouseholdConverter addPropertyChangeListener(PropertyChangeListener listener) {
+        propertyChangeSupport.addPropertyChangeListener(listener);
+        return this;
+    }
+
+    /**
+     * Adds a property change listener for one property of the household.
+     * "HOUSEHOLD_CHANGES" is fired with the new version after every change,
+     * "JOURNAL_RECORD" is fired before with the {@link HouseholdJournal} record of a change of the json object.
+     * @param propertyName The name of the property to listen for.
+     * @param listener The property change listener to add.
+     * @return The household converter with the added property change listener.
+     */
+    public HouseholdConverter addPropertyChangeListener(String propertyName, PropertyChangeListener listener) {
+        propertyChangeSupport.addPropertyChangeListener(propertyName, listener);
+        return this;
+    }
+
+    /**
+     * Removes a property change listener for one property of the household.
+     * @param propertyName The name of the property.
+     * @param listener The property change listener to remove.
+     */
+    public void removePropertyChangeListener(String propertyName, PropertyChangeListener listener) {
+        propertyChangeSupport.removePropertyChangeListener(propertyName, listener);
+    }
+
+    /**
+     * Removes a property change listener from the household.
+     * @param listener The property change listener to remove.
+     */
+    public void removePropertyChangeListener(PropertyChangeListener listener) {
+        propertyChangeSupport.removePropertyChangeListener(listener);
+    }
 }
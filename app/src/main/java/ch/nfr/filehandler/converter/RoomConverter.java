@@ -11,6 +11,7 @@ import org.json.JSONObject;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
 import java.util.HashMap;
+import java.util.List;
 
 /**
  * This class converts a room object to a json object and vice versa.
@@ -64,8 +65,13 @@ public class RoomConverter implements JsonConverter {
                 break;
             }
             case "ADD_DEVICE": {
-                Device device = (Device) newValue;
-                jsonObject.getJSONArray("devices").put(new DeviceConverter().addPropertyChangeListener(evt -> this.writeJson(evt.getPropertyName(), evt.getOldValue(),evt.getNewValue())).toJson(device, jsonObject.getInt(RoomProperty.ROOM_ID.name())));
+                addDeviceJson((Device) newValue);
+                break;
+            }
+            case "ADD_DEVICES": {
+                for (Object device : (List<?>) newValue) {
+                    addDeviceJson((Device) device);
+                }
                 break;
             }
             case "REMOVE_DEVICE": {
@@ -99,6 +105,14 @@ public class RoomConverter implements JsonConverter {
         propertyChangeSupport.firePropertyChange("ROOM_CHANGES", null, jsonObject);
     }
 
+    /**
+     * Adds the json object of a device to the devices of the room.
+     * @param device The device to add.
+     */
+    private void addDeviceJson(Device device) {
+        jsonObject.getJSONArray("devices").put(new DeviceConverter().addPropertyChangeListener(evt -> this.writeJson(evt.getPropertyName(), evt.getOldValue(),evt.getNewValue())).toJson(device, jsonObject.getInt(RoomProperty.ROOM_ID.name())));
+    }
+
     /**
      * Checks if the json object has all room properties.
      * @param jsonObject The json object to check.
@@ -13,6 +13,7 @@ public enum ChangeProperty {
     EDIT_SOLAR_PANEL,
     REMOVE_SOLAR_PANEL,
     ADD_DEVICE,
+    ADD_DEVICES,
     EDIT_DEVICE,
     REMOVE_DEVICE;
 
@@ -1,9 +1,11 @@
 package ch.nfr.tablemodel;
 
+import ch.nfr.tablemodel.device.Device;
 import ch.nfr.tablemodel.records.HouseholdRecord;
 
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -31,6 +33,8 @@ public class Household implements TableModel {
     private Map<Integer, Room> rooms;
     /** The solar panels in the household. */
     private Map<Integer, SolarPanel> solarPanels;
+    /** True while {@link #addDevices(Map)} adds devices, the events of the single rooms are not forwarded then. */
+    private boolean addingDevices;
 
     /**
      * Default constructor.
@@ -106,7 +110,9 @@ public class Household implements TableModel {
      */
     public void addRoom(Room room) {
         room.addPropertyChangeListener(evt -> {
-            this.propertyChangeSupport.firePropertyChange(evt.getPropertyName(), evt.getOldValue(), evt.getNewValue());
+            if (!addingDevices || !ADD_DEVICES.name().equals(evt.getPropertyName())) {
+                this.propertyChangeSupport.firePropertyChange(evt.getPropertyName(), evt.getOldValue(), evt.getNewValue());
+            }
         });
         rooms.put(room.getId(), room);
         propertyChangeSupport.firePropertyChange(ADD_ROOM.name(), null, room);
@@ -121,6 +127,35 @@ public class Household implements TableModel {
         propertyChangeSupport.firePropertyChange(REMOVE_ROOM.name(), roomId, null);
     }
 
+    /**
+     * Adds several devices to several rooms of the household at once, see {@link Room#addDevices(List)}.
+     * All rooms and devices are checked before the first device is added, so either all devices or none are added.
+     * The listeners of the household are informed with one {@link ChangeProperty#ADD_DEVICES} event
+     * with the list of all added devices, the listeners of a room with one event per room.
+     *
+     * @param devicesPerRoom the devices to add by the id of their room
+     * @throws IllegalArgumentException if a room does not exist, a device belongs to another room or its id is already used
+     */
+    public void addDevices(Map<Integer, List<Device>> devicesPerRoom) {
+        for (Map.Entry<Integer, List<Device>> roomDevices : devicesPerRoom.entrySet()) {
+            getRoom(roomDevices.getKey()).checkNewDevices(roomDevices.getValue());
+        }
+        List<Device> addedDevices = new ArrayList<>();
+        addingDevices = true;
+        try {
+            for (Map.Entry<Integer, List<Device>> roomDevices : devicesPerRoom.entrySet()) {
+                getRoom(roomDevices.getKey()).addDevices(roomDevices.getValue());
+                addedDevices.addAll(roomDevices.getValue());
+            }
+        } finally {
+            addingDevices = false;
+        }
+        if (!addedDevices.isEmpty()) {
+            logger.info("Added " + addedDevices.size() + " devices to " + devicesPerRoom.size() + " rooms");
+            propertyChangeSupport.firePropertyChange(ADD_DEVICES.name(), null, List.copyOf(addedDevices));
+        }
+    }
+
     /**
      * Returns a room from the household.
      * @param roomId the room to return
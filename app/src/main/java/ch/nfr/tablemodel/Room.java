@@ -7,8 +7,10 @@ import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static ch.nfr.tablemodel.ChangeProperty.*;
 
@@ -134,14 +136,59 @@ public class Room implements TableModel {
      */
     public void addDevice(Device device) {
         if (id == device.getOwnerId()) {
-            device.addPropertyChangeListener(evt -> {
-                this.propertyChangeSupport.firePropertyChange(evt.getPropertyName(), evt.getOldValue(), evt.getNewValue());
-            });
-            devices.put(device.getId(), device);
+            putDevice(device);
             propertyChangeSupport.firePropertyChange(ADD_DEVICE.name(), null, device);
         }
     }
 
+    /**
+     * Adds several devices to the room at once.
+     * All devices are checked before the first device is added, so either all devices or none are added.
+     * Instead of an {@link ChangeProperty#ADD_DEVICE} event per device, one {@link ChangeProperty#ADD_DEVICES} event
+     * with the list of the added devices is fired.
+     *
+     * @param newDevices the devices to add
+     * @throws IllegalArgumentException if a device belongs to another room or its id is already used
+     */
+    public void addDevices(List<Device> newDevices) {
+        checkNewDevices(newDevices);
+        if (newDevices.isEmpty()) {
+            return;
+        }
+        newDevices.forEach(this::putDevice);
+        propertyChangeSupport.firePropertyChange(ADD_DEVICES.name(), null, List.copyOf(newDevices));
+    }
+
+    /**
+     * Checks if the given devices can be added to the room, without changing the room.
+     *
+     * @param newDevices the devices to check
+     * @throws IllegalArgumentException if a device belongs to another room or its id is already used
+     */
+    void checkNewDevices(List<Device> newDevices) {
+        Set<Integer> deviceIds = new HashSet<>();
+        for (Device device : newDevices) {
+            if (id != device.getOwnerId()) {
+                throw new IllegalArgumentException("Device with id " + device.getId() + " does not belong to room " + id);
+            }
+            if (devices.containsKey(device.getId()) || !deviceIds.add(device.getId())) {
+                throw new IllegalArgumentException("Device with id " + device.getId() + " already exists in room " + id);
+            }
+        }
+    }
+
+    /**
+     * Puts a device into the room and forwards its events to the listeners of the room.
+     *
+     * @param device the device to put
+     */
+    private void putDevice(Device device) {
+        device.addPropertyChangeListener(evt -> {
+            this.propertyChangeSupport.firePropertyChange(evt.getPropertyName(), evt.getOldValue(), evt.getNewValue());
+        });
+        devices.put(device.getId(), device);
+    }
+
     /**
      * Removes a device with their id from the room.
      *
@@ -178,11 +225,24 @@ public class Room implements TableModel {
      * @return the next free device id
      */
     public int getFreeDeviceId() {
+        return getFreeDeviceIds(1)[0];
+    }
+
+    /**
+     * Gets the next free device ids, for example to add several devices with {@link #addDevices(List)}.
+     * @param count the number of free device ids
+     * @return the next free device ids in ascending order
+     */
+    public int[] getFreeDeviceIds(int count) {
+        int[] deviceIds = new int[count];
         int deviceId = 1;
-        while (devices.containsKey(deviceId)) {
-            deviceId++;
+        for (int index = 0; index < count; index++) {
+            while (devices.containsKey(deviceId)) {
+                deviceId++;
+            }
+            deviceIds[index] = deviceId++;
         }
-        return deviceId;
+        return deviceIds;
     }
 
     /**
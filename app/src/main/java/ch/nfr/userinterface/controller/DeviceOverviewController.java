@@ -8,6 +8,7 @@ import ch.nfr.tablemodel.device.DeviceCategory;
 import ch.nfr.tablemodel.device.MobileDevice;
 import ch.nfr.tablemodel.device.WiredDevice;
 import ch.nfr.UnknownPropertyException;
+import ch.nfr.filehandler.DeviceSearchIndex;
 import ch.nfr.calculator.converter.UnitConverter;
 import ch.nfr.calculator.units.EnergyUnit;
 import ch.nfr.calculator.units.TimeUnit;
@@ -29,6 +30,10 @@ import javafx.scene.text.TextFlow;
 import javafx.stage.Stage;
 
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.logging.Logger;
 
 
@@ -247,6 +252,19 @@ public class DeviceOverviewController extends OverviewController {
                         }
                     }
                 }
+                case ADD_DEVICES -> {
+                    Map<Integer, List<TreeItem<TableModel>>> deviceItemsPerRoom = new HashMap<>();
+                    for (Object device : (List<?>) evt.getNewValue()) {
+                        deviceItemsPerRoom.computeIfAbsent(((Device) device).getOwnerId(), roomId -> new ArrayList<>())
+                                .add(new TreeItem<>((Device) device));
+                    }
+                    for (TreeItem<TableModel> roomItem : rootHousehold.getChildren()) {
+                        List<TreeItem<TableModel>> deviceItems = deviceItemsPerRoom.get(((Room) roomItem.getValue()).getId());
+                        if (deviceItems != null) {
+                            roomItem.getChildren().addAll(deviceItems);
+                        }
+                    }
+                }
                 case EDIT_DEVICE -> fillDeviceInformation();
                 case REMOVE_DEVICE -> {
                     int ownerId = ((Device) evt.getOldValue()).getOwnerId();
@@ -352,7 +370,8 @@ public class DeviceOverviewController extends OverviewController {
     /**
      * Handles the action event for adding a device.
      * It first checks if a room is selected in the tree view. If not, it sets an error message.
-     * If a room is selected, calls {@link DeviceEditorController#show(Stage)} to open the device editor.
+     * If a room is selected, calls {@link DeviceEditorController#show(Stage, DeviceSearchIndex)} to open the device editor
+     * with the device names of the household and the device proposals as suggestions.
      * If the device record is not null after adding, it adds the device to the model.
      *
      * @param event the action event
@@ -362,7 +381,7 @@ public class DeviceOverviewController extends OverviewController {
         if (!clickedItemIsRoom()) {
             setErrorOutput("Bitte wählen Sie einen Raum aus!");
         } else {
-            DeviceRecord tempDevice = DeviceEditorController.show(primaryStage);
+            DeviceRecord tempDevice = DeviceEditorController.show(primaryStage, deviceOverviewModel.createDeviceSearchIndex());
 
             if (tempDevice != null) {
                 int roomId = ((Room) clickedItem).getId();
@@ -167,7 +167,7 @@ public class SolarPanelOverviewController extends OverviewController{
         if (solarPanelOverviewModel.getHousehold() == null) {
             setErrorOutput("Es wurde kein Haushalt geladen. Bitte laden Sie zuerst einen Haushalt.");
         } else {
-            SolarRecord solarRecord = SolarPanelEditorController.show(primaryStage);
+            SolarRecord solarRecord = SolarPanelEditorController.show(primaryStage, solarPanelOverviewModel);
             if (solarRecord != null) {
                 solarPanelOverviewModel.addSolarPanel(solarRecord);
             }
@@ -185,7 +185,7 @@ public class SolarPanelOverviewController extends OverviewController{
             setErrorOutput("Bitte wählen Sie einen SolarPanel aus!");
         } else {
             SolarPanel solarPanel = (SolarPanel) clickedItem;
-            SolarRecord solarRecord = SolarPanelEditorController.show(primaryStage, solarPanel.toRecord());
+            SolarRecord solarRecord = SolarPanelEditorController.show(primaryStage, solarPanelOverviewModel, solarPanel.toRecord());
             if (solarRecord != null) {
                 solarPanelOverviewModel.editSolarPanel(solarPanel.getId(), solarRecord);
             }
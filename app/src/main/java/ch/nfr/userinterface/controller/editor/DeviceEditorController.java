@@ -1,5 +1,6 @@
 package ch.nfr.userinterface.controller.editor;
 
+import ch.nfr.filehandler.DeviceSearchIndex;
 import ch.nfr.tablemodel.device.BatteryConsumption;
 import ch.nfr.tablemodel.device.Consumption;
 import ch.nfr.tablemodel.device.DeviceCategory;
@@ -10,15 +11,19 @@ import ch.nfr.calculator.units.TimeUnit;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
+import javafx.geometry.Side;
 import javafx.scene.Scene;
 import javafx.scene.control.ChoiceBox;
+import javafx.scene.control.ContextMenu;
 import javafx.scene.control.Label;
+import javafx.scene.control.MenuItem;
 import javafx.scene.control.RadioButton;
 import javafx.scene.control.TextField;
 import javafx.stage.Stage;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Objects;
 import java.util.logging.Logger;
 
@@ -96,6 +101,14 @@ public class DeviceEditorController {
     private DeviceRecord tempDevice;
     /** The stage of the device editor window. */
     private Stage stage;
+    /** The maximum number of suggested device names. */
+    private static final int MAX_SUGGESTIONS = 8;
+    /** The popup with the suggested device names. */
+    private final ContextMenu suggestions = new ContextMenu();
+    /** The search index to suggest device names, null if no names are suggested. */
+    private DeviceSearchIndex searchIndex;
+    /** True while a suggestion is applied, the device name is not searched then. */
+    private boolean applyingSuggestion;
 
     /**
      * Initializes the device editor window.
@@ -133,6 +146,12 @@ public class DeviceEditorController {
         cableRadioButton.setSelected(true);
         enableCableFields();
         disableBatteryFields();
+        deviceName.textProperty().addListener((observable, oldValue, newValue) -> showSuggestions(newValue));
+        deviceName.focusedProperty().addListener((observable, oldValue, newValue) -> {
+            if (!newValue) {
+                suggestions.hide();
+            }
+        });
     }
 
     /**
@@ -142,6 +161,19 @@ public class DeviceEditorController {
      * @return the device record that was created in the device editor window, or null if an error occurs
      */
     public static DeviceRecord show(Stage primaryStage) {
+        return show(primaryStage, new DeviceSearchIndex(List.of()));
+    }
+
+    /**
+     * Displays the device editor window as a modal dialog.
+     * While the device name is typed, matching device names of the search index are suggested,
+     * picking a suggestion fills in the device type, category and consumption fields.
+     *
+     * @param primaryStage The primary stage of the application.
+     * @param searchIndex the search index to suggest device names
+     * @return the device record that was created in the device editor window, or null if an error occurs
+     */
+    public static DeviceRecord show(Stage primaryStage, DeviceSearchIndex searchIndex) {
         try {
             FXMLLoader loader = new FXMLLoader(RoomEditorController.class.getResource("DeviceEditorWindow.fxml"));
             Scene scene = new Scene(loader.load());
@@ -151,6 +183,7 @@ public class DeviceEditorController {
             controller.stage = stage;
             controller.stage.initOwner(primaryStage);
             controller.stage.initModality(javafx.stage.Modality.WINDOW_MODAL);
+            controller.searchIndex = Objects.requireNonNull(searchIndex);
 
             stage.setScene(scene);
             stage.setTitle(new String("Gerät hinzufügen".getBytes(), StandardCharsets.UTF_8));
@@ -221,6 +254,59 @@ public class DeviceEditorController {
         return null;
     }
 
+    /**
+     * Shows the device names of the search index which complete the typed device name below the name field.
+     *
+     * @param typedName the typed device name
+     */
+    private void showSuggestions(String typedName) {
+        if (searchIndex == null || applyingSuggestion || !deviceName.isFocused()) {
+            return;
+        }
+        List<DeviceRecord> completions = searchIndex.complete(typedName, MAX_SUGGESTIONS);
+        if (completions.isEmpty()) {
+            suggestions.hide();
+            return;
+        }
+        suggestions.getItems().clear();
+        for (DeviceRecord completion : completions) {
+            MenuItem item = new MenuItem(completion.deviceName() + " ("
+                    + new String(completion.deviceCategory().getGermanName().getBytes(), StandardCharsets.UTF_8) + ")");
+            item.setOnAction(event -> applySuggestion(completion));
+            suggestions.getItems().add(item);
+        }
+        if (!suggestions.isShowing()) {
+            suggestions.show(deviceName, Side.BOTTOM, 0, 0);
+        }
+    }
+
+    /**
+     * Fills in the device name, type, category and consumption fields with the picked suggestion.
+     *
+     * @param deviceRecord the picked device record
+     */
+    private void applySuggestion(DeviceRecord deviceRecord) {
+        applyingSuggestion = true;
+        try {
+            deviceName.setText(deviceRecord.deviceName());
+            deviceName.positionCaret(deviceRecord.deviceName().length());
+        } finally {
+            applyingSuggestion = false;
+        }
+        suggestions.hide();
+        deviceCategory.setValue(new String(deviceRecord.deviceCategory().getGermanName().getBytes(), StandardCharsets.UTF_8));
+        if (deviceRecord.isWired()) {
+            cableRadioButton.setSelected(true);
+            disableBatteryFields();
+            enableCableFields();
+        } else {
+            batteryRadioButton.setSelected(true);
+            disableCableFields();
+            enableBatteryFields();
+        }
+        setTextFields(deviceRecord.isWired(), deviceRecord.consumption());
+    }
+
     /**
      * Sets the text fields and choice boxes with the given consumption.
      *
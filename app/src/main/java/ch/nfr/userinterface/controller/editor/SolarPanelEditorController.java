@@ -1,7 +1,9 @@
 package ch.nfr.userinterface.controller.editor;
 
+import ch.nfr.calculator.SolarPanelCalculator;
 import ch.nfr.tablemodel.Orientation;
 import ch.nfr.tablemodel.records.SolarRecord;
+import ch.nfr.userinterface.model.SolarPanelOverviewModel;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -45,6 +47,12 @@ public class SolarPanelEditorController {
     @FXML
     private TextField solarPanelArea;
 
+    /**
+     * Label for the yearly production of every orientation.
+     */
+    @FXML
+    private Label orientationComparison;
+
     /**
      * Text field for the solar panel name.
      * The solar panel name is the name of the solar panel.
@@ -60,13 +68,19 @@ public class SolarPanelEditorController {
      * The stage of the SolarPanelEditorController
      */
     private Stage stage;
+    /**
+     * The model to compare the production of the orientations with.
+     */
+    private SolarPanelOverviewModel solarPanelOverviewModel;
 
     /**
      * Shows the SolarPanel editor window
      *
+     * @param primaryStage the owner of the window
+     * @param solarPanelOverviewModel the model to compare the production of the orientations with
      * @return the SolarRecord or null if the input is invalid
      */
-    public static SolarRecord show(Stage primaryStage) {
+    public static SolarRecord show(Stage primaryStage, SolarPanelOverviewModel solarPanelOverviewModel) {
         try {
             logger.info("Loading the SolarPanel editor window");
             FXMLLoader loader = new FXMLLoader(SolarPanelEditorController.class.getResource("SolarPanelEditorWindow.fxml"));
@@ -77,6 +91,7 @@ public class SolarPanelEditorController {
             controller.stage = stage;
             controller.stage.initOwner(primaryStage);
             controller.stage.initModality(Modality.WINDOW_MODAL);
+            controller.solarPanelOverviewModel = solarPanelOverviewModel;
 
             stage.setScene(scene);
             stage.setTitle(new String("SolarPanel hinzufügen".getBytes(), StandardCharsets.UTF_8));
@@ -93,9 +108,12 @@ public class SolarPanelEditorController {
     /**
      * Shows the SolarPanel editor window
      *
+     * @param primaryStage the owner of the window
+     * @param solarPanelOverviewModel the model to compare the production of the orientations with
+     * @param solarRecord the solar panel to edit
      * @return the SolarRecord or null if the input is invalid
      */
-    public static SolarRecord show(Stage primaryStage, SolarRecord solarRecord) {
+    public static SolarRecord show(Stage primaryStage, SolarPanelOverviewModel solarPanelOverviewModel, SolarRecord solarRecord) {
         try {
             logger.info("Loading the SolarPanel editor window");
             FXMLLoader loader = new FXMLLoader(SolarPanelEditorController.class.getResource("SolarPanelEditorWindow.fxml"));
@@ -106,10 +124,12 @@ public class SolarPanelEditorController {
             controller.stage = stage;
             controller.stage.initOwner(primaryStage);
             controller.stage.initModality(Modality.WINDOW_MODAL);
+            controller.solarPanelOverviewModel = solarPanelOverviewModel;
 
             controller.solarPanelName.setText(solarRecord.solarPanelName());
             controller.solarPanelArea.setText(String.valueOf(solarRecord.area()));
             controller.orientation.setValue(new String(solarRecord.orientation().getGermanName().getBytes(), StandardCharsets.UTF_8));
+            controller.updateOrientationComparison();
 
             stage.setScene(scene);
             stage.setTitle(new String("SolarPanel hinzufügen".getBytes(), StandardCharsets.UTF_8));
@@ -134,6 +154,32 @@ public class SolarPanelEditorController {
                 this.orientation.setValue(new String(orientation.getGermanName().getBytes(), StandardCharsets.UTF_8));
             }
         }
+        solarPanelArea.textProperty().addListener((observable, oldValue, newValue) -> updateOrientationComparison());
+    }
+
+    /**
+     * Shows the yearly production of every orientation for the entered area, the best first.
+     * The comparison is cleared if the area is not a valid number.
+     */
+    private void updateOrientationComparison() {
+        orientationComparison.setText("");
+        if (solarPanelOverviewModel == null) {
+            return;
+        }
+        double area;
+        try {
+            area = Double.parseDouble(solarPanelArea.getText());
+        } catch (NumberFormatException e) {
+            return;
+        }
+        SolarPanelCalculator.OrientationComparisonWrapper comparison = solarPanelOverviewModel.compareOrientations(area);
+        if (comparison != null) {
+            StringBuilder text = new StringBuilder("Jahresproduktion pro Ausrichtung:");
+            for (SolarPanelCalculator.OrientationProductionRecord record : comparison.orientationProductionRecords()) {
+                text.append(String.format("%n%s:\t%.0f kWh", record.orientation().getGermanName(), record.yearlyProductionInKiloWattHour()));
+            }
+            orientationComparison.setText(new String(text.toString().getBytes(), StandardCharsets.UTF_8));
+        }
     }
 
 
@@ -5,6 +5,7 @@ import ch.nfr.calculator.NoRegisteredDeviceException;
 import ch.nfr.calculator.SolarPanelCalculator;
 import ch.nfr.filehandler.ElectricityCostHandler;
 import ch.nfr.filehandler.ElectricityPriceDataException;
+import ch.nfr.filehandler.ReferenceDataFile;
 import ch.nfr.filehandler.WeatherArchiveException;
 
 import java.beans.PropertyChangeListener;
@@ -29,8 +30,9 @@ public class CostCalculationModel extends SecondaryModel {
      */
     public CostCalculationModel() {
         super();
-        String weatherArchivePath = "src/main/resources/weather-archive/weather-archive.properties";
-        this.costCalculator = new CostCalculator(new SolarPanelCalculator(), weatherArchivePath);
+        String weatherArchivePath = ReferenceDataFile.resolve("src/main/resources/weather-archive/weather-archive.properties");
+        String temperatureArchivePath = "src/main/resources/weather-archive/temperature-archive.properties";
+        this.costCalculator = new CostCalculator(new SolarPanelCalculator(temperatureArchivePath), weatherArchivePath);
     }
 
     /**
@@ -42,9 +44,15 @@ public class CostCalculationModel extends SecondaryModel {
      */
     public void updateCharts() {
         try {
+            // the reference data file holds only flat prices, the tariffs are compiled from the properties file once
             String electricityCostPath = "src/main/resources/electricity-price/electricityPrice.properties";
+            short postalCode = getHousehold().getPostalCode();
+            if (!ElectricityCostHandler.getTariffs(electricityCostPath).covers(postalCode)) {
+                setMessageInTextOutput("Kein Strompreis für die Postleitzahl " + postalCode + " vorhanden.");
+                return;
+            }
             CostCalculator.CalculationRecordWrapper result = costCalculator.calculateCost(getHousehold(),
-                    ElectricityCostHandler.getElectricityPrice(getHousehold().getPostalCode(), electricityCostPath));
+                    ElectricityCostHandler.getTariff(postalCode, electricityCostPath));
             propertyChangeSupport.firePropertyChange(UPDATE_CHARTS.name(), null, result);
             logger.info("Charts updated successfully.");
         } catch (NoRegisteredDeviceException e) {
@@ -2,7 +2,12 @@ package ch.nfr.userinterface.model;
 
 import static ch.nfr.userinterface.model.property.DeviceOverviewProperty.*;
 
+import ch.nfr.filehandler.DeviceProposalCatalog;
+import ch.nfr.filehandler.DeviceProposalException;
 import ch.nfr.filehandler.DeviceProposalHandler;
+import ch.nfr.filehandler.DeviceSearchIndex;
+import ch.nfr.filehandler.ReferenceDataFile;
+import ch.nfr.tablemodel.Household;
 import ch.nfr.tablemodel.Room;
 import ch.nfr.tablemodel.RoomType;
 import ch.nfr.userinterface.model.property.DeviceOverviewProperty;
@@ -162,30 +167,85 @@ public class DeviceOverviewModel extends SecondaryModel {
     }
 
     /**
-     * First gets for every {@link RoomType} the corresponding {@link DeviceRecord}s from the {@link DeviceProposalHandler}.
-     * After that, checks every room in the household and adds all the corresponding {@link DeviceRecord}s to the room.
+     * Gets the {@link DeviceProposalCatalog} from the {@link DeviceProposalHandler}, the device proposal file is read only once.
+     * After that, creates for every room in the household the corresponding devices and adds all of them
+     * with {@link Household#addDevices(Map)} at once.
+     * Listeners are informed once with the property name {@link DeviceOverviewProperty#ADD_DEVICES},
+     * old value as null and the new value as the list of the new {@link Device}s.
+     * If the device proposals could not be read, an error message is shown and no device is added.
      */
     public void quickCaptureDevices() {
-        String deviceProposalPath = "src/main/resources/default-devices/deviceProposal.properties";
-
-        Set<RoomType> usedRoomTypes = new HashSet<>();
-        Map<RoomType, List<DeviceRecord>> deviceRecordsForRoomType = new HashMap<>();
-        for (Room room : getHousehold().getAllRooms()) {
-            RoomType roomType = room.getRoomType();
-            if (roomType != RoomType.DUMMY && usedRoomTypes.add(roomType)) {
-                List<DeviceRecord> deviceRecords = DeviceProposalHandler.readDeviceProposalFile(deviceProposalPath, roomType);
-                deviceRecordsForRoomType.put(roomType, deviceRecords);
-                logger.info("DeviceRecords for RoomType " + roomType + " loaded.");
-            }
+        String deviceProposalPath = ReferenceDataFile.resolve("src/main/resources/default-devices/deviceProposal.properties");
+        DeviceProposalCatalog catalog;
+        try {
+            catalog = DeviceProposalHandler.getCatalog(deviceProposalPath);
+        } catch (DeviceProposalException e) {
+            setMessageInTextOutput(utf8("Fehler beim Lesen der Gerätevorschläge."));
+            return;
         }
 
+        Map<Integer, List<Device>> devicesPerRoom = new LinkedHashMap<>();
+        List<Device> newDevices = new ArrayList<>();
         for (Room room : getHousehold().getAllRooms()) {
             if (room.getRoomType() != RoomType.DUMMY) {
-                List<DeviceRecord> deviceRecords = deviceRecordsForRoomType.get(room.getRoomType());
-                if (deviceRecords != null) {
-                    deviceRecords.forEach(deviceRecord -> addDevice(room.getId(), deviceRecord));
+                List<DeviceRecord> deviceRecords = catalog.getDeviceRecords(room.getRoomType());
+                int[] deviceIds = room.getFreeDeviceIds(deviceRecords.size());
+                List<Device> roomDevices = new ArrayList<>(deviceRecords.size());
+                for (int index = 0; index < deviceRecords.size(); index++) {
+                    roomDevices.add(createDevice(deviceIds[index], room.getId(), deviceRecords.get(index)));
+                }
+                if (!roomDevices.isEmpty()) {
+                    devicesPerRoom.put(room.getId(), roomDevices);
+                    newDevices.addAll(roomDevices);
                 }
             }
         }
+        if (newDevices.isEmpty()) {
+            return;
+        }
+        getHousehold().addDevices(devicesPerRoom);
+
+        propertyChangeSupport.firePropertyChange(ADD_DEVICES.name(), null, List.copyOf(newDevices));
+        setMessageInTextOutput(newDevices.size() + utf8(" Geräte wurden hinzugefügt."));
+    }
+
+    /**
+     * Creates a search index to complete device names in the device editor.
+     * The devices of the household are used as user defined templates and rank before the device proposals
+     * of the {@link DeviceProposalCatalog} with the same name.
+     * If the device proposals could not be read, only the devices of the household are used.
+     *
+     * @return a new {@link DeviceSearchIndex}
+     */
+    public DeviceSearchIndex createDeviceSearchIndex() {
+        String deviceProposalPath = ReferenceDataFile.resolve("src/main/resources/default-devices/deviceProposal.properties");
+        List<DeviceRecord> deviceRecords = new ArrayList<>();
+        if (getHousehold() != null) {
+            for (Room room : getHousehold().getAllRooms()) {
+                room.getAllDevices().forEach(device -> deviceRecords.add(device.toDeviceRecord()));
+            }
+        }
+        try {
+            deviceRecords.addAll(DeviceProposalHandler.getCatalog(deviceProposalPath).getAllDeviceRecords());
+        } catch (DeviceProposalException e) {
+            setMessageInTextOutput(utf8("Fehler beim Lesen der Gerätevorschläge."));
+        }
+        return new DeviceSearchIndex(deviceRecords);
+    }
+
+    /**
+     * Creates a new device from the given DeviceRecord.
+     * If the device is a wired device, a new WiredDevice is created, otherwise a new MobileDevice is created.
+     *
+     * @param deviceId the id of the new device
+     * @param roomId the id of the room the device belongs to
+     * @param deviceRecord a DeviceRecord object holding the data for the device
+     * @return the new device
+     */
+    private Device createDevice(int deviceId, int roomId, DeviceRecord deviceRecord) {
+        if (deviceRecord.isWired()) {
+            return new WiredDevice(deviceId, roomId, deviceRecord.deviceName(), deviceRecord.deviceCategory(), deviceRecord.consumption());
+        }
+        return new MobileDevice(deviceId, roomId, deviceRecord.deviceName(), deviceRecord.deviceCategory(), deviceRecord.consumption());
     }
 }
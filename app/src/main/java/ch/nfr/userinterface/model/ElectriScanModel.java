@@ -154,9 +154,9 @@ public class ElectriScanModel {
             textOutput.set("Haushalt: " + householdOverview.get(householdId) + " wurde bereits geladen.");
         } else {
             try {
-                this.householdId = householdId;
                 Household oldHousehold = household;
                 this.household = fileHandler.switchHousehold(householdId);
+                this.householdId = householdId;
 
                 logger.info("Household set: " + household);
                 textOutput.set("Haushalt: " + householdOverview.get(householdId) + " wurde geladen.");
@@ -164,7 +164,10 @@ public class ElectriScanModel {
                         oldHousehold, household);
             } catch (FileNotFoundException e) {
                 logger.severe("Error loading household: " + householdId);
-                textOutput.set("Haushalt: " + householdOverview.get(householdId) + " konnte nicht geladen werden.");
+                String householdName = householdOverview.get(householdId);
+                // the household is not listed anymore, the ids of the other households may have changed
+                loadFileDirectory();
+                textOutput.set("Haushalt: " + householdName + " konnte nicht geladen werden.");
             }
         }
     }
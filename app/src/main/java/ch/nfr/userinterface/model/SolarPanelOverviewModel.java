@@ -1,5 +1,9 @@
 package ch.nfr.userinterface.model;
 
+import ch.nfr.calculator.InvalidSolarPanelException;
+import ch.nfr.calculator.SolarPanelCalculator;
+import ch.nfr.filehandler.ReferenceDataFile;
+import ch.nfr.filehandler.WeatherArchiveException;
 import ch.nfr.tablemodel.SolarPanel;
 import ch.nfr.tablemodel.records.SolarRecord;
 
@@ -21,10 +25,21 @@ public class SolarPanelOverviewModel extends SecondaryModel {
     private static final Logger logger = Logger.getLogger(SolarPanelOverviewModel.class.getName());
 
     /**
-     * The SolarPanelCalculator to calculate the solar panel values.
+     * The PropertyChangeSupport for the model.
      */
     private final PropertyChangeSupport propertyChangeSupport = new PropertyChangeSupport(this);
 
+    /**
+     * The path to the weather archive.
+     */
+    private final String weatherArchivePath = ReferenceDataFile.resolve("src/main/resources/weather-archive/weather-archive.properties");
+
+    /**
+     * The SolarPanelCalculator to calculate the solar panel values.
+     */
+    private final SolarPanelCalculator solarPanelCalculator =
+            new SolarPanelCalculator("src/main/resources/weather-archive/temperature-archive.properties");
+
 
     /**
      * Adds a new SolarPanel to the household.
@@ -66,6 +81,22 @@ public class SolarPanelOverviewModel extends SecondaryModel {
         setMessageInTextOutput("Solaranlage: " + newSolarPanel.getName() + utf8(" wurde gelöscht."));
     }
 
+    /**
+     * Compares the production of a solar panel with the given area for all orientations
+     * at the location of the loaded household.
+     *
+     * @param area of the solar panel in m^2.
+     * @return the production of every orientation, the best first, or null if it could not be calculated.
+     */
+    public SolarPanelCalculator.OrientationComparisonWrapper compareOrientations(double area) {
+        try {
+            return solarPanelCalculator.calculateOrientationComparison(getHousehold().getPostalCode(), area, weatherArchivePath);
+        } catch (WeatherArchiveException | InvalidSolarPanelException e) {
+            logger.warning("Orientation comparison not possible: " + e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * Adds a PropertyChangeListener to the SolarPanelOverviewModel.
      *
@@ -3,7 +3,7 @@ package ch.nfr.userinterface.model.property;
 /**
  * Enum representing the different properties of the DeviceOverviewModel.
  * These properties are used to identify the type of change that has occurred in the DeviceOverviewModel.
- * The properties include ADD_ROOM, EDIT_ROOM, REMOVE_ROOM, ADD_DEVICE, EDIT_DEVICE, and REMOVE_DEVICE.
+ * The properties include ADD_ROOM, EDIT_ROOM, REMOVE_ROOM, ADD_DEVICE, ADD_DEVICES, EDIT_DEVICE, and REMOVE_DEVICE.
  */
 public enum DeviceOverviewProperty {
 
@@ -11,6 +11,7 @@ public enum DeviceOverviewProperty {
     EDIT_ROOM,
     REMOVE_ROOM,
     ADD_DEVICE,
+    ADD_DEVICES,
     EDIT_DEVICE,
     REMOVE_DEVICE;
 
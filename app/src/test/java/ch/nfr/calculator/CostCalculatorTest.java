@@ -1,6 +1,10 @@
 package ch.nfr.calculator;
 
+import ch.nfr.calculator.tariff.FlatTariff;
+import ch.nfr.calculator.tariff.TieredTariff;
 import ch.nfr.calculator.units.MonthUnit;
+import ch.nfr.filehandler.DatedElectricityPrices;
+import ch.nfr.filehandler.ElectricityPriceDataException;
 import ch.nfr.filehandler.WeatherArchiveException;
 import ch.nfr.tablemodel.Household;
 import ch.nfr.tablemodel.Room;
@@ -11,9 +15,11 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -300,6 +306,95 @@ public class CostCalculatorTest {
 
     }
 
+    /**
+     * Positiv test Nr. 2a
+     * Test case for household with only devices and a flat tariff with a base fee.
+     * The devices and rooms should be charged like without base fee, the total cost should include the yearly base fee.
+     */
+    @Test
+    void flatTariffWithBaseFee() throws NoRegisteredDeviceException, WeatherArchiveException {
+        CostCalculator costCalculator = new CostCalculator(mockedSolarCalculator, weatherArchivePath);
+
+        setupValidMockedDevices();
+        setupMockedRooms();
+
+        doAnswer(invocation -> mockedRooms).when(mockedHousehold).getAllRooms();
+        doAnswer(invocation -> new ArrayList<>()).when(mockedHousehold).getAllSolarPanels();
+
+        CostCalculator.CalculationRecordWrapper result = costCalculator.calculateCost(mockedHousehold, new FlatTariff(validElectricityCost, 500.0));
+
+        double delta = 0.0001;
+        for (CostCalculator.RoomCalculationRecord roomResult : result.roomCalculationRecords()) {
+            assertEquals(357.1111, roomResult.electricityCostInRp(), delta,
+                    "The electricity cost should be 357.111 for room " + roomResult.room().getName());
+        }
+        assertEquals(714.2222 + 12 * 500.0, result.totalCostRecord().yearlyElectricityCostInRp(), delta,
+                "The total electricity cost should include the yearly base fee");
+        assertEquals(validElectricityCost, result.totalCostRecord().electricityCostInRpPerkWh(),
+                "The electricity cost per kWh should be the flat price");
+    }
+
+    /**
+     * Positiv test Nr. 2b
+     * Test case for household with only devices and a tiered tariff.
+     * The first 10 kWh cost 40 Rp/kWh, the remaining 12.222 kWh cost 20 Rp/kWh.
+     */
+    @Test
+    void tieredTariff() throws NoRegisteredDeviceException, WeatherArchiveException {
+        CostCalculator costCalculator = new CostCalculator(mockedSolarCalculator, weatherArchivePath);
+
+        setupValidMockedDevices();
+        setupMockedRooms();
+
+        doAnswer(invocation -> mockedRooms).when(mockedHousehold).getAllRooms();
+        doAnswer(invocation -> new ArrayList<>()).when(mockedHousehold).getAllSolarPanels();
+
+        CostCalculator.CalculationRecordWrapper result = costCalculator.calculateCost(mockedHousehold,
+                new TieredTariff(new double[]{0.0, 10.0}, new double[]{40.0, 20.0}));
+
+        double delta = 0.0001;
+        double totalCost = 10 * 40.0 + (80_000_000.0 / 3_600_000 - 10) * 20.0;
+        assertEquals(totalCost, result.totalCostRecord().yearlyElectricityCostInRp(), delta,
+                "The total electricity cost should be charged per tier");
+        double roomCost = result.roomCalculationRecords().stream().mapToDouble(CostCalculator.RoomCalculationRecord::electricityCostInRp).sum();
+        assertEquals(totalCost, roomCost, delta, "The rooms should share the total electricity cost");
+    }
+
+    /**
+     * Positiv test Nr. 3
+     * Test case for household with only devices and dated electricity prices over several years.
+     * Each year should be charged with the price valid at its date, the devices and rooms included,
+     * a year without price should throw an {@link ElectricityPriceDataException}.
+     */
+    @Test
+    void datedElectricityPrices() throws NoRegisteredDeviceException, WeatherArchiveException, ElectricityPriceDataException {
+        CostCalculator costCalculator = new CostCalculator(mockedSolarCalculator, weatherArchivePath);
+        DatedElectricityPrices prices = DatedElectricityPrices.compile("src/test/resources/electricityPriceHistory.properties");
+
+        setupValidMockedDevices();
+        setupMockedRooms();
+
+        doAnswer(invocation -> mockedRooms).when(mockedHousehold).getAllRooms();
+        doAnswer(invocation -> new ArrayList<>()).when(mockedHousehold).getAllSolarPanels();
+
+        LocalDate lastYear = LocalDate.of(2024, 12, 31);
+        LocalDate nextYear = LocalDate.of(2025, 12, 31);
+        Map<LocalDate, CostCalculator.CalculationRecordWrapper> results = costCalculator.calculateCosts(mockedHousehold, prices, List.of(lastYear, nextYear));
+
+        double delta = 0.0001;
+        double consumptionInKiloWattHour = 80_000_000.0 / 3_600_000;
+        assertEquals(List.of(lastYear, nextYear), List.copyOf(results.keySet()));
+        assertEquals(consumptionInKiloWattHour * 31.61, results.get(lastYear).totalCostRecord().yearlyElectricityCostInRp(), delta);
+        assertEquals(consumptionInKiloWattHour * 28.0, results.get(nextYear).totalCostRecord().yearlyElectricityCostInRp(), delta);
+        double roomCost = results.get(nextYear).roomCalculationRecords().stream().mapToDouble(CostCalculator.RoomCalculationRecord::electricityCostInRp).sum();
+        assertEquals(consumptionInKiloWattHour * 28.0, roomCost, delta, "The rooms should be charged with the price of their date");
+        double deviceCost = results.get(lastYear).deviceCalculationRecords().stream().mapToDouble(CostCalculator.DeviceCalculationRecord::electricityCostInRp).sum();
+        assertEquals(consumptionInKiloWattHour * 31.61, deviceCost, delta, "The devices should be charged with the price of their date");
+        assertEquals(consumptionInKiloWattHour * 28.0,
+                costCalculator.calculateCost(mockedHousehold, prices, nextYear).totalCostRecord().yearlyElectricityCostInRp(), delta);
+        assertThrows(ElectricityPriceDataException.class, () -> costCalculator.calculateCost(mockedHousehold, prices, LocalDate.of(2023, 12, 31)));
+    }
+
     /**
      * Negativ test Nr. 1a
      * Test case for household with no devices and no solar panels.
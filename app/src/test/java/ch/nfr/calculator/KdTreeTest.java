@@ -0,0 +1,69 @@
+package ch.nfr.calculator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * This class tests the KdTree class.
+ */
+public class KdTreeTest {
+
+    /**
+     * Positive test No. 1
+     * Test the findNearest method with random points.
+     * The method should find the same points as a search through all points.
+     */
+    @Test
+    void testFindNearest() {
+        Random random = new Random(42);
+        double[] east = random.doubles(500, 2480000, 2840000).toArray();
+        double[] north = random.doubles(500, 1070000, 1300000).toArray();
+        KdTree tree = new KdTree(east, north);
+        assertEquals(500, tree.size());
+
+        for (int query = 0; query < 100; query++) {
+            double queryEast = random.nextDouble(2480000, 2840000);
+            double queryNorth = random.nextDouble(1070000, 1300000);
+            List<Integer> expected = IntStream.range(0, east.length).boxed()
+                    .sorted(Comparator.comparingDouble(point -> Math.hypot(east[point] - queryEast, north[point] - queryNorth)))
+                    .limit(5).toList();
+            List<Integer> actual = tree.findNearest(queryEast, queryNorth, 5).stream().map(KdTree.NeighbourRecord::point).toList();
+            assertEquals(expected, actual);
+        }
+    }
+
+    /**
+     * Positive test No. 2
+     * Test the findNearest method with more points requested than in the tree and with an empty tree.
+     * The method should return all points of the tree.
+     */
+    @Test
+    void testFindNearestWithFewPoints() {
+        KdTree tree = new KdTree(new double[]{0, 10}, new double[]{0, 0});
+        List<KdTree.NeighbourRecord> neighbours = tree.findNearest(9, 0, 5);
+
+        assertEquals(2, neighbours.size());
+        assertEquals(new KdTree.NeighbourRecord(1, 1.0), neighbours.getFirst());
+        assertEquals(new KdTree.NeighbourRecord(0, 9.0), neighbours.getLast());
+        assertTrue(new KdTree(new double[0], new double[0]).findNearest(0, 0, 3).isEmpty());
+    }
+
+    /**
+     * Negative test No. 1
+     * Test the constructor with coordinates of different lengths.
+     * The constructor should throw an {@link IllegalArgumentException}.
+     */
+    @Test
+    void testDifferentLengths() {
+        assertThrows(IllegalArgumentException.class, () -> new KdTree(new double[2], Arrays.copyOf(new double[2], 1)));
+    }
+}
@@ -0,0 +1,147 @@
+package ch.nfr.calculator;
+
+import ch.nfr.calculator.tariff.FlatTariff;
+import ch.nfr.calculator.tariff.TieredTariff;
+import ch.nfr.calculator.units.EnergyUnit;
+import ch.nfr.calculator.units.TimeUnit;
+import ch.nfr.tablemodel.Household;
+import ch.nfr.tablemodel.Room;
+import ch.nfr.tablemodel.RoomType;
+import ch.nfr.tablemodel.device.BatteryConsumption;
+import ch.nfr.tablemodel.device.DeviceCategory;
+import ch.nfr.tablemodel.device.ElectricConsumption;
+import ch.nfr.tablemodel.device.MobileDevice;
+import ch.nfr.tablemodel.device.WiredDevice;
+import ch.nfr.tablemodel.records.DeviceRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class tests the ReplacementRecommender class.
+ */
+public class ReplacementRecommenderTest {
+    /**
+     * The number of watt seconds in a kWh.
+     */
+    private static final long KILOWATT_HOUR = 3_600_000L;
+    /**
+     * The household to recommend the replacements for.
+     */
+    private final Household household = new Household();
+    /**
+     * The recommender with several efficient models per category.
+     */
+    private final ReplacementRecommender recommender = new ReplacementRecommender(List.of(
+            wiredModel("Sparlampe", DeviceCategory.LIGHTING, 10),
+            wiredModel("LED", DeviceCategory.LIGHTING, 5),
+            wiredModel("A+++ Kühlschrank", DeviceCategory.KITCHEN, 50),
+            wiredModel("Stabmixer", DeviceCategory.KITCHEN, 1),
+            new DeviceRecord(false, "Sparhandy", DeviceCategory.COMMUNICATION,
+                    new BatteryConsumption(1, 10 * 3600L, TimeUnit.DAY, EnergyUnit.WATT_HOUR))));
+
+    /**
+     * Creates a wired model used one hour per day.
+     *
+     * @param name the name of the model
+     * @param category the category of the model
+     * @param powerInWatt the power of the model
+     * @return the device record of the model
+     */
+    private static DeviceRecord wiredModel(String name, DeviceCategory category, long powerInWatt) {
+        return new DeviceRecord(true, name, category, consumption(powerInWatt, 365));
+    }
+
+    /**
+     * Creates an electric consumption.
+     *
+     * @param powerInWatt the power
+     * @param yearlyUsageInHours the yearly usage
+     * @return the consumption
+     */
+    private static ElectricConsumption consumption(long powerInWatt, long yearlyUsageInHours) {
+        return new ElectricConsumption(powerInWatt * 3600, yearlyUsageInHours * 3600, TimeUnit.HOUR, TimeUnit.DAY, EnergyUnit.WATT_HOUR);
+    }
+
+    /**
+     * Set up the household with a kitchen and a living room.
+     */
+    @BeforeEach
+    void setUp() {
+        Room kitchen = new Room(0, "Küche", RoomType.KITCHEN, 12.0);
+        kitchen.addDevice(new WiredDevice(0, 0, "Kühlschrank", DeviceCategory.KITCHEN, consumption(150, 8760)));
+        kitchen.addDevice(new WiredDevice(1, 0, "Deckenlampe", DeviceCategory.LIGHTING, consumption(60, 1000)));
+        Room livingRoom = new Room(1, "Wohnzimmer", RoomType.LIVING_ROOM, 20.0);
+        livingRoom.addDevice(new WiredDevice(0, 1, "Stehlampe", DeviceCategory.LIGHTING, consumption(5, 1000)));
+        livingRoom.addDevice(new WiredDevice(1, 1, "Fernseher", DeviceCategory.ENTERTAINMENT, consumption(100, 1000)));
+        livingRoom.addDevice(new MobileDevice(2, 1, "Handy", DeviceCategory.COMMUNICATION,
+                new BatteryConsumption(365, 20 * 3600L, TimeUnit.DAY, EnergyUnit.WATT_HOUR)));
+        household.addRoom(kitchen);
+        household.addRoom(livingRoom);
+    }
+
+    /**
+     * Positive test No. 1
+     * Test the recommend method with a flat tariff.
+     * The devices should be ranked by their saving, devices without a saving or a comparable model are not recommended.
+     * The fridge should be compared with the fridge model and not with the small kitchen appliance,
+     * the ceiling lamp with the most efficient lamp of its power class.
+     */
+    @Test
+    void testRecommend() {
+        CostCalculator.TotalCostRecord consumption = new CostCalculator.TotalCostRecord(
+                1500 * KILOWATT_HOUR, 1500 * KILOWATT_HOUR, 0L, 0.0, 0.0);
+
+        List<ReplacementRecommender.ReplacementRecord> ranking = recommender.recommend(household, consumption, new FlatTariff(30.0), 10);
+
+        assertEquals(List.of("Kühlschrank", "Deckenlampe", "Handy"), ranking.stream().map(record -> record.device().getName()).toList());
+        assertEquals(List.of(1, 2, 3), ranking.stream().map(ReplacementRecommender.ReplacementRecord::rank).toList());
+        // 100 W saved for 8760 hours
+        assertEquals(876 * KILOWATT_HOUR, ranking.get(0).yearlySavingInWattSeconds());
+        assertEquals(876 * 30.0, ranking.get(0).yearlySavingInRp(), 0.0001);
+        assertEquals("A+++ Kühlschrank", ranking.get(0).replacement().deviceName());
+        // the LED has less than a tenth of the power of the ceiling lamp
+        assertEquals("Sparlampe", ranking.get(1).replacement().deviceName());
+        assertEquals(50 * KILOWATT_HOUR, ranking.get(1).yearlySavingInWattSeconds());
+        assertEquals("Sparhandy", ranking.get(2).replacement().deviceName());
+        assertEquals(1, ranking.get(2).room().getId());
+
+        assertEquals(List.of("Kühlschrank"), recommender.recommend(household, consumption, new FlatTariff(30.0), 1)
+                .stream().map(record -> record.device().getName()).toList());
+    }
+
+    /**
+     * Positive test No. 2
+     * Test the recommend method with a tiered tariff.
+     * The saving should be charged with the price of the highest tiers of the household's consumption.
+     */
+    @Test
+    void testRecommendTieredTariff() {
+        CostCalculator.TotalCostRecord consumption = new CostCalculator.TotalCostRecord(
+                2000 * KILOWATT_HOUR, 2000 * KILOWATT_HOUR, 0L, 0.0, 0.0);
+        TieredTariff tariff = new TieredTariff(new double[]{0.0, 1500.0}, new double[]{30.0, 20.0});
+
+        List<ReplacementRecommender.ReplacementRecord> ranking = recommender.recommend(household, consumption, tariff, 10);
+
+        // 500 kWh in the second tier and 376 kWh in the first tier
+        assertEquals(500 * 20.0 + 376 * 30.0, ranking.get(0).yearlySavingInRp(), 0.0001);
+        assertEquals(50 * 20.0, ranking.get(1).yearlySavingInRp(), 0.0001);
+    }
+
+    /**
+     * Negative test No. 1
+     * Test the recommend method with a negative limit, without efficient models and without comparable models.
+     * A device whose category only has models of another name and power class should not be recommended.
+     */
+    @Test
+    void testRecommendInvalid() {
+        CostCalculator.TotalCostRecord consumption = new CostCalculator.TotalCostRecord(0L, 0L, 0L, 0.0, 0.0);
+        assertThrows(IllegalArgumentException.class, () -> recommender.recommend(household, consumption, new FlatTariff(30.0), -1));
+        assertTrue(new ReplacementRecommender(List.of()).recommend(household, consumption, new FlatTariff(30.0), 10).isEmpty());
+        ReplacementRecommender smallModels = new ReplacementRecommender(List.of(wiredModel("Stabmixer", DeviceCategory.KITCHEN, 1)));
+        assertTrue(smallModels.recommend(household, consumption, new FlatTariff(30.0), 10).isEmpty());
+    }
+}
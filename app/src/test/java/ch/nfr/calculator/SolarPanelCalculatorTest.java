@@ -1,5 +1,8 @@
 package ch.nfr.calculator;
 
+import ch.nfr.calculator.units.MonthUnit;
+import ch.nfr.filehandler.DailySunshineIngester;
+import ch.nfr.filehandler.DailySunshineSeries;
 import ch.nfr.filehandler.WeatherArchiveException;
 import ch.nfr.tablemodel.Orientation;
 import ch.nfr.tablemodel.SolarPanel;
@@ -11,6 +14,7 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -86,6 +90,27 @@ public class SolarPanelCalculatorTest {
         assertEquals(3966.637, result.totalYearlyProduction(), 0.001);
     }
 
+    /**
+     * Positive test No. 3
+     * Test the calculateSolarPanelProduction method with the temperature correction.
+     * The production in the warm months should be lower and in the cold months higher than without correction.
+     */
+    @Test
+    void testCalculateSolarPanelProductionWithTemperatureCorrection() throws WeatherArchiveException {
+        SolarPanelCalculator temperatureCalculator = new SolarPanelCalculator("src/test/resources/temperature-archive.properties");
+        SolarPanelCalculator.TotalSolarCalculationWrapper corrected = temperatureCalculator.calculateSolarPanelProduction((short) 1000, solarPanels, path);
+        SolarPanelCalculator.TotalSolarCalculationWrapper uncorrected = calculator.calculateSolarPanelProduction((short) 1000, solarPanels, path);
+
+        assertEquals(3328.649, corrected.totalYearlyProduction(), 0.001);
+
+        List<SolarPanelCalculator.MonthCalculationRecord> correctedMonths = corrected.solarCalculationRecords().getFirst().monthCalculationRecords();
+        List<SolarPanelCalculator.MonthCalculationRecord> uncorrectedMonths = uncorrected.solarCalculationRecords().getFirst().monthCalculationRecords();
+        assertEquals(MonthUnit.JANUARY, correctedMonths.getFirst().month());
+        assertTrue(correctedMonths.getFirst().productionInKiloWattHour() > uncorrectedMonths.getFirst().productionInKiloWattHour());
+        assertEquals(MonthUnit.JULY, correctedMonths.get(6).month());
+        assertTrue(correctedMonths.get(6).productionInKiloWattHour() < uncorrectedMonths.get(6).productionInKiloWattHour());
+    }
+
     /**
      * Negative test No. 1a
      * Test the calculateSolarPanelProduction method with a solar panel with an area of 0.
@@ -134,6 +159,17 @@ public class SolarPanelCalculatorTest {
         assertThrows(WeatherArchiveException.class, () -> calculator.calculateSolarPanelProduction((short) 8000, solarPanels, "src/test/resources/weather-archive-invalid.properties"));
     }
 
+    /**
+     * Negative test No. 2b
+     * Test the calculateSolarPanelProduction method with an invalid temperature archive path.
+     * The method should throw a {@link WeatherArchiveException}.
+     */
+    @Test
+    void testCalculateSolarPanelProductionWithInvalidTemperaturePath() {
+        SolarPanelCalculator temperatureCalculator = new SolarPanelCalculator("src/test/resources/temperature-archive-invalid.properties");
+        assertThrows(WeatherArchiveException.class, () -> temperatureCalculator.calculateSolarPanelProduction((short) 1000, solarPanels, path));
+    }
+
     /**
      * Negative test No. 3
      * Test the calculateSolarPanelProduction method with an empty sun hours list.
@@ -144,5 +180,70 @@ public class SolarPanelCalculatorTest {
         assertThrows(WeatherArchiveException.class, () -> calculator.calculateSolarPanelProduction((short) 99999, solarPanels, path));
     }
 
-}
+    /**
+     * Positive test No. 4
+     * Test the calculateOrientationComparison method with an area of 100 m^2.
+     * The method should return all orientations, the south orientation first with the same production
+     * as a single south facing solar panel, and the north orientation last.
+     */
+    @Test
+    void testCalculateOrientationComparison() throws WeatherArchiveException {
+        SolarPanelCalculator.OrientationComparisonWrapper result = calculator.calculateOrientationComparison((short) 1000, 100.0, path);
+        List<SolarPanelCalculator.OrientationProductionRecord> records = result.orientationProductionRecords();
+
+        assertEquals(Orientation.values().length, records.size());
+        assertEquals(Orientation.SOUTH, result.bestOrientation());
+        assertEquals(Orientation.NORTH, records.getLast().orientation());
+        assertEquals(3449.25, records.getFirst().yearlyProductionInKiloWattHour(), 0.001);
+        for (SolarPanelCalculator.OrientationProductionRecord record : records) {
+            assertEquals(MonthUnit.values().length, record.monthCalculationRecords().size());
+            double monthlySum = record.monthCalculationRecords().stream()
+                    .mapToDouble(SolarPanelCalculator.MonthCalculationRecord::productionInKiloWattHour).sum();
+            assertEquals(record.yearlyProductionInKiloWattHour(), monthlySum, 0.001);
+        }
+    }
 
+    /**
+     * Negative test No. 4
+     * Test the calculateOrientationComparison method with an area of 0 m^2.
+     * The method should throw an {@link InvalidSolarPanelException}.
+     */
+    @Test
+    void testCalculateOrientationComparisonWithInvalidArea() {
+        assertThrows(InvalidSolarPanelException.class, () -> calculator.calculateOrientationComparison((short) 1000, 0.0, path));
+    }
+
+    /**
+     * Positive test No. 5
+     * Test the calculateSolarPanelProduction method with the daily sunshine durations of a year.
+     * In 2023 the sun shines two hours every day, in 2024 one hour, the average lies in between.
+     */
+    @Test
+    void testCalculateSolarPanelProductionOfYear() throws WeatherArchiveException {
+        DailySunshineSeries series = DailySunshineIngester.ingest("src/test/resources/daily-sunshine.csv", "src/test/resources/weather-stations.properties");
+        SolarPanelCalculator yearCalculator = new SolarPanelCalculator(null, series);
+
+        double production2023 = yearCalculator.calculateSolarPanelProduction((short) 1000, solarPanels, path, 2023).totalYearlyProduction();
+        double production2024 = yearCalculator.calculateSolarPanelProduction((short) 1000, solarPanels, path, 2024).totalYearlyProduction();
+        double average = yearCalculator.calculateSolarPanelProduction((short) 1000, solarPanels, path, DailySunshineSeries.AVERAGE_YEAR).totalYearlyProduction();
+
+        assertEquals(100 * 2.7 * 0.175 * 730 / 24, production2023, 0.001);
+        assertEquals(100 * 2.7 * 0.175 * 366 / 24, production2024, 0.001);
+        assertTrue(average < production2023 && average > production2024);
+    }
+
+    /**
+     * Negative test No. 5
+     * Test the calculateSolarPanelProduction method with a year without measurements and without a sunshine series.
+     * The method should throw a {@link WeatherArchiveException}.
+     */
+    @Test
+    void testCalculateSolarPanelProductionOfYearWithoutMeasurements() throws WeatherArchiveException {
+        DailySunshineSeries series = DailySunshineIngester.ingest("src/test/resources/daily-sunshine.csv", "src/test/resources/weather-stations.properties");
+        SolarPanelCalculator yearCalculator = new SolarPanelCalculator(null, series);
+
+        assertThrows(WeatherArchiveException.class, () -> yearCalculator.calculateSolarPanelProduction((short) 1000, solarPanels, path, 2020));
+        assertThrows(WeatherArchiveException.class, () -> calculator.calculateSolarPanelProduction((short) 1000, solarPanels, path, 2023));
+    }
+
+}
@@ -0,0 +1,113 @@
+package ch.nfr.calculator;
+
+import ch.nfr.filehandler.CoordinateHandler;
+import ch.nfr.filehandler.DailySunshineIngester;
+import ch.nfr.filehandler.DailySunshineSeries;
+import ch.nfr.filehandler.WeatherArchiveException;
+import ch.nfr.tablemodel.Orientation;
+import ch.nfr.tablemodel.SolarPanel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * This class tests the SunHoursInterpolator class.
+ */
+public class SunHoursInterpolatorTest {
+    /**
+     * The temporary directory for the station file.
+     */
+    @TempDir
+    Path tempDir;
+    /**
+     * The daily sunshine durations of Genf with 2 hours per day in 2023 and Zürich with 5 hours per day.
+     */
+    private DailySunshineSeries series;
+    /**
+     * The SunHoursInterpolator instance to test.
+     */
+    private SunHoursInterpolator interpolator;
+
+    /**
+     * Set up the test environment.
+     * @throws IOException if the station file could not be written.
+     * @throws WeatherArchiveException if the sunshine file could not be ingested.
+     */
+    @BeforeEach
+    void setUp() throws IOException, WeatherArchiveException {
+        Path stations = Files.write(tempDir.resolve("stations.properties"), List.of("GVE = 1200", "SMA = 8044"));
+        series = DailySunshineIngester.ingest("src/test/resources/daily-sunshine.csv", stations.toString());
+        interpolator = SunHoursInterpolator.create(series, "src/test/resources/weather-station-coordinates.csv",
+                "src/test/resources/postal-code-coordinates.csv");
+    }
+
+    /**
+     * Positive test No. 1
+     * Test the getSunHours method with a postal code at a station and in the middle of two stations.
+     * The sun hours should be the sun hours of the station and the mean of both stations.
+     * @throws WeatherArchiveException if the sun hours could not be interpolated.
+     */
+    @Test
+    void testGetSunHours() throws WeatherArchiveException {
+        assertArrayEquals(series.getMonthlySunHours("GVE", 2023), interpolator.getSunHours((short) 1200, 2023), 0.001);
+        assertEquals((62.0 + 155.0) / 2, interpolator.getSunHours((short) 5000, 2023)[0], 0.001);
+
+        double lausanne = interpolator.getSunHours((short) 1000, 2023)[0];
+        assertTrue(lausanne > 62.0 && lausanne < (62.0 + 155.0) / 2);
+    }
+
+    /**
+     * Positive test No. 2
+     * Test the calculateSolarPanelProduction method with the interpolated sun hours.
+     * The production of a postal code in the middle of two stations should lie between their production.
+     * @throws WeatherArchiveException if the production could not be calculated.
+     */
+    @Test
+    void testCalculateSolarPanelProduction() throws WeatherArchiveException {
+        SolarPanel panel = mock(SolarPanel.class);
+        when(panel.getArea()).thenReturn(100.0);
+        when(panel.getOrientation()).thenReturn(Orientation.SOUTH);
+        SolarPanelCalculator calculator = new SolarPanelCalculator(null, interpolator);
+
+        double production = calculator.calculateSolarPanelProduction((short) 1000, List.of(panel), "src/test/resources/weather-archive.properties", 2023)
+                .totalYearlyProduction();
+        assertTrue(production > 100 * 2.7 * 0.175 * 730 / 24);
+        assertTrue(production < 100 * 2.7 * 0.175 * 1825 / 24);
+    }
+
+    /**
+     * Negative test No. 1
+     * Test the getSunHours method with a postal code without a centroid and a year without measurements.
+     * The method should throw a {@link WeatherArchiveException}.
+     */
+    @Test
+    void testGetSunHoursWithoutData() {
+        assertThrows(WeatherArchiveException.class, () -> interpolator.getSunHours((short) 3000, 2023));
+        assertThrows(WeatherArchiveException.class, () -> interpolator.getSunHours((short) 1200, 2020));
+    }
+
+    /**
+     * Negative test No. 2
+     * Test the readStationCoordinates method with an invalid coordinate file.
+     * The method should throw a {@link WeatherArchiveException}.
+     * @throws IOException if the coordinate file could not be written.
+     */
+    @Test
+    void testInvalidCoordinateFile() throws IOException {
+        Path coordinates = Files.write(tempDir.resolve("coordinates.csv"), List.of("stn;east;north", "GVE;2498904"));
+        assertThrows(WeatherArchiveException.class, () -> CoordinateHandler.readStationCoordinates(coordinates.toString()));
+        assertThrows(WeatherArchiveException.class, () -> CoordinateHandler.readPostalCodeCoordinates("src/test/resources/weather-station-coordinates.csv"));
+    }
+}
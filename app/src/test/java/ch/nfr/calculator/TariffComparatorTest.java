@@ -0,0 +1,66 @@
+package ch.nfr.calculator;
+
+import ch.nfr.calculator.tariff.FlatTariff;
+import ch.nfr.calculator.tariff.Tariff;
+import ch.nfr.calculator.tariff.TieredTariff;
+import ch.nfr.filehandler.ElectricityCostHandler;
+import ch.nfr.filehandler.ElectricityPriceDataException;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * This class tests the TariffComparator class.
+ */
+public class TariffComparatorTest {
+    /**
+     * The aggregated consumption to test, 1500 kWh corrected consumption.
+     */
+    private final CostCalculator.TotalCostRecord consumption =
+            new CostCalculator.TotalCostRecord(1500L * 3_600_000, 2000L * 3_600_000, 500L * 3_600_000, 0.0, 0.0);
+
+    /**
+     * Test the compare method with a flat, a flat with base fee and a tiered tariff.
+     * The tariffs should be ranked by their yearly cost of the corrected consumption.
+     */
+    @Test
+    void testCompare() {
+        Map<String, Tariff> tariffs = new LinkedHashMap<>();
+        tariffs.put("flat", new FlatTariff(30.0));
+        tariffs.put("flat with base fee", new FlatTariff(20.0, 500.0));
+        tariffs.put("tiered", new TieredTariff(new double[]{0.0, 1000.0}, new double[]{30.0, 20.0}));
+
+        List<TariffComparator.TariffRankingRecord> ranking = TariffComparator.compare(consumption, tariffs);
+
+        assertEquals(List.of("flat with base fee", "tiered", "flat"), ranking.stream().map(TariffComparator.TariffRankingRecord::name).toList());
+        assertEquals(List.of(1, 2, 3), ranking.stream().map(TariffComparator.TariffRankingRecord::rank).toList());
+        assertEquals(1500 * 20.0 + 6000.0, ranking.get(0).yearlyCostInRp(), 0.0001);
+        assertEquals(40000.0, ranking.get(1).yearlyCostInRp(), 0.0001);
+        assertEquals(40000.0 / 1500, ranking.get(1).electricityCostInRpPerkWh(), 0.0001);
+        assertEquals(45000.0, ranking.get(2).yearlyCostInRp(), 0.0001);
+    }
+
+    /**
+     * Test the compare method with all tariffs of the extended tariff test file.
+     * Every region should be ranked once and the ranking should be sorted by the yearly cost.
+     *
+     * @throws ElectricityPriceDataException if the tariff file could not be read.
+     */
+    @Test
+    void testCompareAllTariffs() throws ElectricityPriceDataException {
+        Map<String, Tariff> tariffs = ElectricityCostHandler.getTariffs("src/test/resources/tariff.properties").getTariffsByRegion();
+
+        List<TariffComparator.TariffRankingRecord> ranking = TariffComparator.compare(consumption, tariffs);
+
+        assertEquals(tariffs.size(), ranking.size());
+        for (int rank = 1; rank < ranking.size(); rank++) {
+            assertTrue(ranking.get(rank - 1).yearlyCostInRp() <= ranking.get(rank).yearlyCostInRp());
+        }
+        assertTrue(TariffComparator.compare(consumption, Map.of()).isEmpty());
+    }
+}
@@ -0,0 +1,84 @@
+package ch.nfr.calculator.tariff;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * This class tests the Tariff implementations and the LoadProfile class.
+ */
+public class TariffTest {
+    /**
+     * The time of use tariff to test, 36 Rp/kWh from monday to friday 8:00 - 20:00 and 24 Rp/kWh otherwise.
+     */
+    private final TimeOfUseTariff timeOfUseTariff = new TimeOfUseTariff(36.0, 24.0,
+            EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY), 8, 20, 500.0);
+
+    /**
+     * Positive test No. 1
+     * Test the flat tariff, the price should not depend on the consumption or the load profile.
+     */
+    @Test
+    void testFlatTariff() {
+        FlatTariff tariff = new FlatTariff(30.0, 500.0);
+
+        assertEquals(30.0, tariff.getMeanPriceInRpPerKiloWattHour(1000.0, LoadProfile.UNIFORM));
+        assertEquals(6000.0, tariff.getYearlyBaseFeeInRp());
+        assertEquals(36000.0, tariff.calculateYearlyCostInRp(1000.0, LoadProfile.UNIFORM), 0.0001);
+    }
+
+    /**
+     * Positive test No. 2
+     * Test the time of use tariff with a uniform and a night load profile.
+     * 60 of the 168 hours of a week are peak hours.
+     */
+    @Test
+    void testTimeOfUseTariff() {
+        assertEquals((60 * 36.0 + 108 * 24.0) / 168, timeOfUseTariff.getMeanPriceInRpPerKiloWattHour(1000.0, LoadProfile.UNIFORM), 0.0001);
+        assertEquals(36.0, timeOfUseTariff.getSlotPriceInRpPerKiloWattHour(LoadProfile.slotOf(DayOfWeek.MONDAY, 8)));
+        assertEquals(24.0, timeOfUseTariff.getSlotPriceInRpPerKiloWattHour(LoadProfile.slotOf(DayOfWeek.SATURDAY, 12)));
+
+        double[] nightWeights = new double[LoadProfile.SLOTS];
+        for (DayOfWeek day : DayOfWeek.values()) {
+            nightWeights[LoadProfile.slotOf(day, 2)] = 1.0;
+        }
+        assertEquals(24.0, timeOfUseTariff.getMeanPriceInRpPerKiloWattHour(1000.0, LoadProfile.of(nightWeights)), 0.0001);
+    }
+
+    /**
+     * Positive test No. 3
+     * Test the tiered tariff and a composite of all tariffs.
+     */
+    @Test
+    void testTieredAndCompositeTariff() {
+        TieredTariff tieredTariff = new TieredTariff(new double[]{0.0, 1000.0}, new double[]{30.0, 20.0});
+        assertEquals(30.0, tieredTariff.getMeanPriceInRpPerKiloWattHour(0.0, LoadProfile.UNIFORM));
+        assertEquals(30000.0, tieredTariff.calculateEnergyCostInRp(1000.0, LoadProfile.UNIFORM), 0.0001);
+        assertEquals(40000.0, tieredTariff.calculateEnergyCostInRp(1500.0, LoadProfile.UNIFORM), 0.0001);
+
+        CompositeTariff compositeTariff = new CompositeTariff(List.of(tieredTariff, timeOfUseTariff, new FlatTariff(0.0, 100.0)));
+        double expected = 40000.0 + 1500.0 * timeOfUseTariff.getMeanPriceInRpPerKiloWattHour(1500.0, LoadProfile.UNIFORM) + 12 * 600.0;
+        assertEquals(expected, compositeTariff.calculateYearlyCostInRp(1500.0, LoadProfile.UNIFORM), 0.0001);
+    }
+
+    /**
+     * Negative test No. 1
+     * Test the tariffs and the load profile with invalid values.
+     * The constructors should throw an {@link IllegalArgumentException}.
+     */
+    @Test
+    void testInvalidTariffs() {
+        assertThrows(IllegalArgumentException.class, () -> new FlatTariff(-1.0));
+        assertThrows(IllegalArgumentException.class, () -> new TieredTariff(new double[]{100.0}, new double[]{30.0}));
+        assertThrows(IllegalArgumentException.class, () -> new TieredTariff(new double[]{0.0, 0.0}, new double[]{30.0, 20.0}));
+        assertThrows(IllegalArgumentException.class, () -> new TimeOfUseTariff(36.0, 24.0, EnumSet.allOf(DayOfWeek.class), 20, 8, 0.0));
+        assertThrows(IllegalArgumentException.class, () -> new CompositeTariff(List.of()));
+        assertThrows(IllegalArgumentException.class, () -> LoadProfile.of(new double[LoadProfile.SLOTS]));
+        assertThrows(IllegalArgumentException.class, () -> LoadProfile.of(new double[24]));
+    }
+}
@@ -0,0 +1,110 @@
+package ch.nfr.filehandler;
+
+import ch.nfr.tablemodel.device.DeviceCategory;
+import ch.nfr.tablemodel.device.ElectricConsumption;
+import ch.nfr.tablemodel.records.DeviceRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class tests the ApplianceDatabaseImporter and ApplianceDatabase classes.
+ */
+public class ApplianceDatabaseTest {
+    /**
+     * The temporary directory for the imported databases.
+     */
+    @TempDir
+    Path tempDir;
+    /**
+     * The path to the appliance test file.
+     */
+    private final Path csvPath = Path.of("src/test/resources/appliances.csv");
+
+    /**
+     * Imports the appliance test file into a database in the temporary directory and opens it.
+     *
+     * @return the opened appliance database
+     * @throws ApplianceDatabaseException if the file could not be imported or opened
+     */
+    private ApplianceDatabase importDatabase() throws ApplianceDatabaseException {
+        Path target = tempDir.resolve("appliances" + ApplianceDatabase.FILE_EXTENSION);
+        assertEquals(8, ApplianceDatabaseImporter.importCsv(csvPath, target));
+        return ApplianceDatabase.open(target.toString());
+    }
+
+    /**
+     * Positive test No. 1
+     * Test the findByModel method with the imported test file.
+     * The lookup should ignore the case and the duplicate line of a manufacturer should be skipped.
+     * @throws ApplianceDatabaseException if the file could not be imported or opened
+     */
+    @Test
+    void testFindByModel() throws ApplianceDatabaseException {
+        ApplianceDatabase database = importDatabase();
+        assertEquals(8, database.size());
+
+        List<ApplianceDatabase.ApplianceRecord> televisions = database.findByModel(" kd-55X80k ");
+        assertEquals(List.of("Samsung", "Sony"), televisions.stream().map(ApplianceDatabase.ApplianceRecord::manufacturer).toList());
+        assertEquals(120.0, televisions.get(1).ratedPowerInWatt());
+        assertEquals(0.5, televisions.get(1).standbyPowerInWatt());
+        assertEquals(DeviceCategory.ENTERTAINMENT, televisions.get(1).deviceCategory());
+
+        assertEquals(DeviceCategory.OTHER, database.findByModel("Magnifica S").getFirst().deviceCategory());
+        assertTrue(database.findByModel("WAN28").isEmpty());
+        assertTrue(database.findByModel("unknown").isEmpty());
+    }
+
+    /**
+     * Positive test No. 2
+     * Test the findByPrefix method and the conversion into a device record.
+     * The standby power of the remaining hours should be added to the power while in use.
+     * @throws ApplianceDatabaseException if the file could not be imported or opened
+     */
+    @Test
+    void testFindByPrefix() throws ApplianceDatabaseException {
+        ApplianceDatabase database = importDatabase();
+        assertEquals(List.of("E6", "E8"), database.findByPrefix("e", 10).stream().map(ApplianceDatabase.ApplianceRecord::model).toList());
+        assertEquals(1, database.findByPrefix("W", 1).size());
+        assertEquals(List.of("WAN28K40"), database.findByPrefix("wan", 10).stream().map(ApplianceDatabase.ApplianceRecord::model).toList());
+        assertTrue(database.findByPrefix("x", 10).isEmpty());
+
+        ApplianceDatabase.ApplianceRecord lamp = database.findByPrefix("hue", 1).getFirst();
+        assertEquals("Philips Hue White", lamp.name());
+        DeviceRecord deviceRecord = lamp.toDeviceRecord(4.0);
+        assertTrue(deviceRecord.isWired());
+        assertEquals("Philips Hue White", deviceRecord.deviceName());
+        ElectricConsumption consumption = (ElectricConsumption) deviceRecord.consumption();
+        // 9 W for 4 hours and 0.2 W for 20 hours
+        assertEquals(Math.round((9.0 * 4 + 0.2 * 20) * 3600 * 365), consumption.getYearlyConsumptionInWattSeconds(), 3600 * 365);
+        assertThrows(IllegalArgumentException.class, () -> lamp.toDeviceRecord(25.0));
+    }
+
+    /**
+     * Negative test No. 1
+     * Test the import of invalid appliance files.
+     * A line with an unknown category or an invalid power and a file which is no database should be rejected.
+     * @throws IOException if a test file could not be written
+     */
+    @Test
+    void testInvalidFiles() throws IOException {
+        Path target = tempDir.resolve("invalid" + ApplianceDatabase.FILE_EXTENSION);
+        Path unknownCategory = tempDir.resolve("unknownCategory.csv");
+        Files.writeString(unknownCategory, "manufacturer;model;category;ratedPower;standbyPower\nBosch;X;TOASTER;1;0\n");
+        assertThrows(ApplianceDatabaseException.class, () -> ApplianceDatabaseImporter.importCsv(unknownCategory, target));
+        Path invalidPower = tempDir.resolve("invalidPower.csv");
+        Files.writeString(invalidPower, "manufacturer;model;category;ratedPower;standbyPower\nBosch;X;OTHER;-1;0\n");
+        assertThrows(ApplianceDatabaseException.class, () -> ApplianceDatabaseImporter.importCsv(invalidPower, target));
+        assertFalse(Files.exists(target));
+
+        Path noDatabase = tempDir.resolve("noDatabase" + ApplianceDatabase.FILE_EXTENSION);
+        Files.writeString(noDatabase, "manufacturer;model");
+        assertThrows(ApplianceDatabaseException.class, () -> ApplianceDatabase.open(noDatabase.toString()));
+    }
+}
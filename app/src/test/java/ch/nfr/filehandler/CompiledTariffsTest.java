@@ -0,0 +1,80 @@
+package ch.nfr.filehandler;
+
+import ch.nfr.calculator.tariff.CompositeTariff;
+import ch.nfr.calculator.tariff.FlatTariff;
+import ch.nfr.calculator.tariff.LoadProfile;
+import ch.nfr.calculator.tariff.Tariff;
+import ch.nfr.calculator.tariff.TieredTariff;
+import ch.nfr.calculator.tariff.TimeOfUseTariff;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class tests the CompiledTariffs class.
+ */
+public class CompiledTariffsTest {
+    /**
+     * The temporary directory for the invalid tariff files.
+     */
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Test the compile method with the extended tariff test file.
+     * Every region should get the tariff of its properties.
+     * @throws ElectricityPriceDataException if the tariff file could not be compiled.
+     */
+    @Test
+    void testCompile() throws ElectricityPriceDataException {
+        CompiledTariffs tariffs = CompiledTariffs.compile("src/test/resources/tariff.properties");
+
+        assertInstanceOf(FlatTariff.class, tariffs.getTariff((short) 1500));
+        assertEquals(30.0, tariffs.getTariff((short) 1500).getMeanPriceInRpPerKiloWattHour(100.0, LoadProfile.UNIFORM));
+
+        Tariff timeOfUse = tariffs.getTariff((short) 2500);
+        assertInstanceOf(CompositeTariff.class, timeOfUse);
+        assertInstanceOf(TimeOfUseTariff.class, ((CompositeTariff) timeOfUse).getComponents().getFirst());
+        assertEquals(6000.0, timeOfUse.getYearlyBaseFeeInRp());
+
+        assertInstanceOf(TieredTariff.class, tariffs.getTariff((short) 3500));
+        assertFalse(tariffs.covers((short) 4000));
+        assertThrows(ElectricityPriceDataException.class, () -> tariffs.getTariff((short) 4000));
+    }
+
+    /**
+     * Test the compile method with the plain electricity price file.
+     * Every region should get a flat tariff with the electricity price.
+     * @throws ElectricityPriceDataException if the electricity price file could not be compiled.
+     */
+    @Test
+    void testCompilePlainElectricityPriceFile() throws ElectricityPriceDataException {
+        String path = "src/test/resources/electricityPrice.properties";
+        Tariff tariff = ElectricityCostHandler.getTariff((short) 8000, path);
+
+        assertInstanceOf(FlatTariff.class, tariff);
+        assertEquals(ElectricityCostHandler.getElectricityPrice((short) 8000, path), tariff.getMeanPriceInRpPerKiloWattHour(100.0, LoadProfile.UNIFORM));
+    }
+
+    /**
+     * Test the compile method with invalid tariffs.
+     * The method should throw an {@link ElectricityPriceDataException}.
+     * @throws IOException if the test files could not be written.
+     */
+    @Test
+    void testCompileInvalidTariffs() throws IOException {
+        Path missingOffPeakPrice = Files.write(tempDir.resolve("missing.properties"), List.of("^(2\\\\d{3})$.peakPrice = 36.0"));
+        Path onlyBaseFee = Files.write(tempDir.resolve("base-fee.properties"), List.of("^(2\\\\d{3})$.baseFee = 500"));
+        Path invalidTiers = Files.write(tempDir.resolve("tiers.properties"), List.of("^(2\\\\d{3})$.tiers = 0:30.0, 20.0"));
+
+        assertThrows(ElectricityPriceDataException.class, () -> CompiledTariffs.compile(missingOffPeakPrice.toString()));
+        assertThrows(ElectricityPriceDataException.class, () -> CompiledTariffs.compile(onlyBaseFee.toString()));
+        assertThrows(ElectricityPriceDataException.class, () -> CompiledTariffs.compile(invalidTiers.toString()));
+    }
+}
@@ -0,0 +1,111 @@
+package ch.nfr.filehandler;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class tests the DailySunshineIngester and DailySunshineSeries classes.
+ */
+public class DailySunshineIngesterTest {
+    /**
+     * The temporary directory for the generated sunshine files.
+     */
+    @TempDir
+    Path tempDir;
+    /**
+     * The path to the daily sunshine test file.
+     */
+    private final String sunshinePath = "src/test/resources/daily-sunshine.csv";
+    /**
+     * The path to the station test file.
+     */
+    private final String stationPath = "src/test/resources/weather-stations.properties";
+
+    /**
+     * Test the ingest method with the test file.
+     * Only the station of the station file should be ingested and the missing day should be skipped.
+     * @throws WeatherArchiveException if the sunshine file could not be ingested.
+     */
+    @Test
+    void testIngest() throws WeatherArchiveException {
+        DailySunshineSeries series = DailySunshineIngester.ingest(sunshinePath, stationPath);
+
+        assertEquals(List.of("GVE"), series.getStations());
+        assertEquals(1200, series.getPostalCode("GVE"));
+        assertEquals(730, series.getDays("GVE"));
+        assertEquals(List.of(2023, 2024), series.getYears("GVE"));
+    }
+
+    /**
+     * Test the getMonthlySunHours method with a year and the average of all years.
+     * The missing day in March 2024 should be filled with the mean of the month.
+     * @throws WeatherArchiveException if the sunshine file could not be ingested.
+     */
+    @Test
+    void testGetMonthlySunHours() throws WeatherArchiveException {
+        DailySunshineSeries series = DailySunshineIngester.ingest(sunshinePath, stationPath);
+
+        double[] sunHours2023 = series.getMonthlySunHours("GVE", 2023);
+        assertEquals(62.0, sunHours2023[0], 0.001);
+        assertEquals(56.0, sunHours2023[1], 0.001);
+        double[] sunHours2024 = series.getMonthlySunHours("GVE", 2024);
+        assertEquals(29.0, sunHours2024[1], 0.001);
+        assertEquals(31.0, sunHours2024[2], 0.001);
+        double[] average = series.getMonthlySunHours("GVE", DailySunshineSeries.AVERAGE_YEAR);
+        assertEquals(46.5, average[0], 0.001);
+
+        assertThrows(WeatherArchiveException.class, () -> series.getMonthlySunHours("GVE", 2025));
+        assertThrows(WeatherArchiveException.class, () -> series.getMonthlySunHours("SMA", 2023));
+    }
+
+    /**
+     * Test the ingest method with an unsorted file of several chunks.
+     * The chunks should be parsed in parallel and the rows of the station sorted by date.
+     * @throws IOException if the test file could not be written.
+     * @throws WeatherArchiveException if the sunshine file could not be ingested.
+     */
+    @Test
+    void testIngestSeveralChunks() throws IOException, WeatherArchiveException {
+        List<String> lines = new ArrayList<>();
+        for (LocalDate date = LocalDate.of(2000, 1, 1); date.getYear() < 2025; date = date.plusDays(1)) {
+            lines.add("GVE;" + date.toString().replace("-", "") + ";" + date.getYear() % 10 * 10);
+        }
+        assertTrue(lines.size() > DailySunshineIngester.CHUNK_SIZE);
+        Collections.reverse(lines);
+        lines.addFirst("stn;time;sre000d0");
+        Path sunshineFile = Files.write(tempDir.resolve("sunshine.csv"), lines);
+
+        DailySunshineSeries series = DailySunshineIngester.ingest(sunshineFile.toString(), stationPath);
+
+        assertEquals(lines.size() - 1, series.getDays("GVE"));
+        assertEquals(25, series.getYears("GVE").size());
+        assertEquals(31 * 30 / 60.0, series.getMonthlySunHours("GVE", 2013)[0], 0.001);
+    }
+
+    /**
+     * Test the ingest method with an invalid date and a day measured twice.
+     * The method should throw a {@link WeatherArchiveException}.
+     * @throws IOException if the test files could not be written.
+     */
+    @Test
+    void testIngestInvalidFile() throws IOException {
+        Path invalidDate = Files.write(tempDir.resolve("invalid-date.csv"), List.of("stn;time;sre000d0", "GVE;20230230;100"));
+        Path duplicateDay = Files.write(tempDir.resolve("duplicate-day.csv"), List.of("stn;time;sre000d0", "GVE;20230101;100", "GVE;20230101;100"));
+        Path invalidHeader = Files.write(tempDir.resolve("invalid-header.csv"), List.of("station;date;sunshine", "GVE;20230101;100"));
+
+        assertThrows(WeatherArchiveException.class, () -> DailySunshineIngester.ingest(invalidDate.toString(), stationPath));
+        assertThrows(WeatherArchiveException.class, () -> DailySunshineIngester.ingest(duplicateDay.toString(), stationPath));
+        assertThrows(WeatherArchiveException.class, () -> DailySunshineIngester.ingest(invalidHeader.toString(), stationPath));
+        assertThrows(WeatherArchiveException.class, () -> DailySunshineIngester.ingest("src/test/resources/no-sunshine.csv", stationPath));
+    }
+}
@@ -0,0 +1,102 @@
+package ch.nfr.filehandler;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class tests the DatedElectricityPrices class.
+ */
+public class DatedElectricityPricesTest {
+    /**
+     * The path to the dated electricity price test file.
+     */
+    private static final String PATH = "src/test/resources/electricityPriceHistory.properties";
+
+    /**
+     * The temporary directory for the invalid price files.
+     */
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Test the getElectricityPrice method at dates before, at and after the effective dates.
+     * The price valid at a date should be the last price effective at or before the date.
+     *
+     * @throws ElectricityPriceDataException if the electricity price data could not be read.
+     */
+    @Test
+    void testGetElectricityPrice() throws ElectricityPriceDataException {
+        DatedElectricityPrices prices = ElectricityCostHandler.getDatedElectricityPrices(PATH);
+
+        assertEquals(25.0, prices.getElectricityPrice((short) 1500, LocalDate.of(2000, 1, 1)));
+        assertEquals(25.0, prices.getElectricityPrice((short) 1500, LocalDate.of(2022, 12, 31)));
+        assertEquals(27.5, prices.getElectricityPrice((short) 1500, LocalDate.of(2023, 1, 1)));
+        assertEquals(30.0, prices.getElectricityPrice((short) 1500, LocalDate.of(2025, 6, 30)));
+        assertEquals(32.5, prices.getElectricityPrice((short) 1500, LocalDate.of(2030, 1, 1)));
+        assertEquals(28.0, ElectricityCostHandler.getElectricityPrice((short) 8000, PATH, LocalDate.of(2025, 1, 1)));
+        assertSame(prices, ElectricityCostHandler.getDatedElectricityPrices(PATH));
+    }
+
+    /**
+     * Test the getElectricityPrice method at a date before the first price of a region and for a postal code without region.
+     * The method should throw an {@link ElectricityPriceDataException}.
+     *
+     * @throws ElectricityPriceDataException if the electricity price data could not be read.
+     */
+    @Test
+    void testGetElectricityPriceWithoutPrice() throws ElectricityPriceDataException {
+        DatedElectricityPrices prices = ElectricityCostHandler.getDatedElectricityPrices(PATH);
+
+        assertFalse(prices.covers((short) 8000, LocalDate.of(2023, 12, 31)));
+        assertTrue(prices.covers((short) 8000, LocalDate.of(2024, 1, 1)));
+        assertThrows(ElectricityPriceDataException.class, () -> prices.getElectricityPrice((short) 8000, LocalDate.of(2023, 12, 31)));
+        assertThrows(ElectricityPriceDataException.class, () -> prices.getElectricityPrice((short) 5000, LocalDate.of(2024, 1, 1)));
+    }
+
+    /**
+     * Test the pricesFor method with several postal codes and years.
+     * The prices should be indexed by the date and then the postal code,
+     * a missing price should be reported with every other missing price.
+     *
+     * @throws ElectricityPriceDataException if the electricity price data could not be read.
+     */
+    @Test
+    void testPricesFor() throws ElectricityPriceDataException {
+        DatedElectricityPrices prices = ElectricityCostHandler.getDatedElectricityPrices(PATH);
+        List<LocalDate> years = List.of(LocalDate.of(2024, 1, 1), LocalDate.of(2025, 1, 1), LocalDate.of(2026, 1, 1));
+
+        double[][] pricesPerYear = prices.pricesFor(new short[]{1000, 8000}, years);
+        assertArrayEquals(new double[]{30.0, 31.61}, pricesPerYear[0]);
+        assertArrayEquals(new double[]{30.0, 28.0}, pricesPerYear[1]);
+        assertArrayEquals(new double[]{32.5, 28.0}, pricesPerYear[2]);
+
+        ElectricityPriceDataException exception = assertThrows(ElectricityPriceDataException.class,
+                () -> prices.pricesFor(new short[]{8000, 5000}, List.of(LocalDate.of(2023, 1, 1))));
+        assertEquals("No electricity price found for the postal codes [8000 at 2023-01-01, 5000 at 2023-01-01]", exception.getMessage());
+    }
+
+    /**
+     * Test the compile method with the plain electricity price file and with invalid dates.
+     * The plain prices should be valid at every date, an invalid date should throw an {@link ElectricityPriceDataException}.
+     *
+     * @throws ElectricityPriceDataException if the plain electricity price data could not be read.
+     * @throws IOException if the test file could not be written.
+     */
+    @Test
+    void testCompilePlainAndInvalidFile() throws ElectricityPriceDataException, IOException {
+        DatedElectricityPrices prices = DatedElectricityPrices.compile("src/test/resources/electricityPrice.properties");
+        assertEquals(31.61, prices.getElectricityPrice((short) 8000, LocalDate.of(1990, 1, 1)));
+        assertEquals(31.61, prices.getElectricityPrice((short) 8000, LocalDate.of(2090, 1, 1)));
+
+        Path invalidDate = Files.write(tempDir.resolve("invalid.properties"), List.of("^(8\\\\d{3})$@2024-13-01 = 30.0"));
+        assertThrows(ElectricityPriceDataException.class, () -> DatedElectricityPrices.compile(invalidDate.toString()));
+    }
+}
@@ -8,7 +8,11 @@ import ch.nfr.tablemodel.device.DeviceCategory;
 import ch.nfr.tablemodel.device.ElectricConsumption;
 import ch.nfr.tablemodel.records.DeviceRecord;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -23,7 +27,7 @@ public class DeviceProposalHandlerTest {
      * Tests the readDeviceProposalFile method of the DeviceProposalHandler class.
      */
     @Test
-    void readDeviceProposalFile() {
+    void readDeviceProposalFile() throws DeviceProposalException {
         String propertiesFile = "src/test/resources/testDeviceProposal.properties";
         List<DeviceRecord> deviceRecords;
         deviceRecords = DeviceProposalHandler.readDeviceProposalFile(propertiesFile, RoomType.LIVING_ROOM);
@@ -59,7 +63,7 @@ public class DeviceProposalHandlerTest {
      * Tests the readDeviceProposalFile method of the DeviceProposalHandler class with the default device proposal file.
      */
     @Test
-    void testDeviceProposalFile() {
+    void testDeviceProposalFile() throws DeviceProposalException {
         String propertiesFile = "src/main/resources/default-devices/deviceProposal.properties";
         for (RoomType roomType : RoomType.values()) {
             if (roomType != RoomType.DUMMY) {
@@ -69,4 +73,64 @@ public class DeviceProposalHandlerTest {
             }
         }
     }
+
+    /**
+     * Tests the getCatalog and reloadCatalog methods of the DeviceProposalHandler class.
+     * The catalog should be loaded once per path, be immutable and be replaced as a whole on reload.
+     */
+    @Test
+    void testCatalog() throws DeviceProposalException {
+        String propertiesFile = "src/test/resources/testDeviceProposal.properties";
+        DeviceProposalCatalog catalog = DeviceProposalHandler.getCatalog(propertiesFile);
+        assertSame(catalog, DeviceProposalHandler.getCatalog(propertiesFile), "Expected the catalog to be loaded only once");
+        assertSame(catalog.getDeviceRecords(RoomType.LIVING_ROOM), DeviceProposalHandler.readDeviceProposalFile(propertiesFile, RoomType.LIVING_ROOM),
+                "Expected the device records to be served from the catalog");
+
+        List<DeviceRecord> livingRoom = catalog.getDeviceRecords(RoomType.LIVING_ROOM);
+        assertThrows(UnsupportedOperationException.class, () -> livingRoom.add(livingRoom.getFirst()),
+                "Expected the device records to be unmodifiable");
+        assertTrue(catalog.getDeviceRecords(RoomType.DUMMY).isEmpty(), "Expected no device records for the dummy room type");
+
+        DeviceProposalCatalog reloadedCatalog = DeviceProposalHandler.reloadCatalog(propertiesFile);
+        assertNotSame(catalog, reloadedCatalog, "Expected a new catalog after the reload");
+        assertSame(reloadedCatalog, DeviceProposalHandler.getCatalog(propertiesFile), "Expected the reloaded catalog to replace the old one");
+        assertEquals(catalog.size(), reloadedCatalog.size(), "Expected the same number of device proposals after the reload");
+        assertEquals(2, livingRoom.size(), "Expected the old catalog to stay unchanged");
+    }
+
+    /**
+     * Tests the readDeviceProposals and getCatalog methods of the DeviceProposalHandler class with invalid device proposals.
+     * A missing or invalid value should throw a {@link DeviceProposalException} instead of leaving the device out.
+     *
+     * @param tempDir the temporary folder for the invalid device proposal files
+     * @throws IOException if the device proposal files could not be written
+     */
+    @Test
+    void testInvalidDeviceProposal(@TempDir Path tempDir) throws IOException {
+        Path missingValue = Files.writeString(tempDir.resolve("missingValue.properties"), """
+                KITCHEN.fridge.IS_WIRED=true
+                KITCHEN.fridge.DEVICE_CATEGORY=KITCHEN
+                KITCHEN.fridge.DEVICE_NAME=Fridge
+                KITCHEN.fridge.POWER_CONSUMPTION=20.5
+                KITCHEN.fridge.POWER_CONSUMPTION_UNIT=WATT_HOUR
+                KITCHEN.fridge.USAGE_UNIT=HOUR
+                KITCHEN.fridge.USAGE_PER_UNIT=YEAR
+                """);
+        assertThrows(DeviceProposalException.class, () -> DeviceProposalHandler.readDeviceProposals(missingValue.toString()),
+                "Expected an exception for the missing usage");
+        assertThrows(DeviceProposalException.class, () -> DeviceProposalHandler.getCatalog(missingValue.toString()),
+                "Expected no catalog for an invalid device proposal file");
+
+        Path invalidValue = Files.writeString(tempDir.resolve("invalidValue.properties"), """
+                BATHROOM.toothbrush.IS_WIRED=false
+                BATHROOM.toothbrush.DEVICE_CATEGORY=OTHER
+                BATHROOM.toothbrush.DEVICE_NAME=Toothbrush
+                BATHROOM.toothbrush.BATTERY_CAPACITY=1.2
+                BATHROOM.toothbrush.BATTERY_CAPACITY_UNIT=LITRE
+                BATHROOM.toothbrush.CHARGING_CYCLE=36
+                BATHROOM.toothbrush.CHARGING_CYCLE_UNIT=YEAR
+                """);
+        assertThrows(DeviceProposalException.class, () -> DeviceProposalHandler.readDeviceProposals(invalidValue.toString()),
+                "Expected an exception for the unknown battery capacity unit");
+    }
 }
@@ -0,0 +1,93 @@
+package ch.nfr.filehandler;
+
+import ch.nfr.calculator.units.EnergyUnit;
+import ch.nfr.calculator.units.TimeUnit;
+import ch.nfr.tablemodel.device.DeviceCategory;
+import ch.nfr.tablemodel.device.ElectricConsumption;
+import ch.nfr.tablemodel.records.DeviceRecord;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class tests the DeviceSearchIndex class.
+ */
+public class DeviceSearchIndexTest {
+    /**
+     * The consumption of the test devices.
+     */
+    private final ElectricConsumption consumption = new ElectricConsumption(3_600, 3_600, TimeUnit.HOUR, TimeUnit.DAY, EnergyUnit.WATT_HOUR);
+
+    /**
+     * The search index over the test devices.
+     */
+    private final DeviceSearchIndex searchIndex = new DeviceSearchIndex(List.of(
+            device("Trockner", DeviceCategory.OTHER),
+            device("Haartrockner", DeviceCategory.OTHER),
+            device("Kaffeemaschine", DeviceCategory.KITCHEN),
+            device("Waschmaschine", DeviceCategory.CLEANING),
+            device("Schuh Trockner", DeviceCategory.OTHER),
+            device("Tischlampe", DeviceCategory.LIGHTING)));
+
+    /**
+     * Creates a wired test device.
+     *
+     * @param name the name of the device
+     * @param category the category of the device
+     * @return the device record
+     */
+    private DeviceRecord device(String name, DeviceCategory category) {
+        return new DeviceRecord(true, name, category, consumption);
+    }
+
+    /**
+     * Test the complete method with prefixes of names and later words.
+     * Names starting with the query should be ranked before names with a later word starting with it.
+     */
+    @Test
+    void testCompletePrefix() {
+        assertEquals(List.of("Trockner", "Schuh Trockner"), names(searchIndex.complete("tro", 10)));
+        assertEquals(List.of("Kaffeemaschine"), names(searchIndex.complete("  KAFF", 10)));
+        assertEquals(List.of("Trockner"), names(searchIndex.complete("tro", 1)));
+        assertTrue(searchIndex.complete(" ", 10).isEmpty());
+    }
+
+    /**
+     * Test the complete method with typos.
+     * The trigram index should find the similar names if no name starts with the query.
+     */
+    @Test
+    void testCompleteWithTypo() {
+        assertEquals("Waschmaschine", searchIndex.complete("waschmaschnie", 10).getFirst().deviceName());
+        assertEquals("Haartrockner", searchIndex.complete("haartroknerr", 10).getFirst().deviceName());
+        assertTrue(searchIndex.complete("xyz", 10).isEmpty());
+    }
+
+    /**
+     * Test the search index with the default device proposal catalog.
+     * Every device proposal should be found by its own name, devices with the same name should be indexed once.
+     */
+    @Test
+    void testCatalog() throws DeviceProposalException {
+        DeviceProposalCatalog catalog = DeviceProposalHandler.getCatalog("src/main/resources/default-devices/deviceProposal.properties");
+        DeviceSearchIndex catalogIndex = new DeviceSearchIndex(catalog.getAllDeviceRecords());
+
+        assertTrue(catalogIndex.size() > 0);
+        assertTrue(catalogIndex.size() <= catalog.size());
+        for (DeviceRecord deviceRecord : catalog.getAllDeviceRecords()) {
+            assertEquals(deviceRecord.deviceName(), catalogIndex.complete(deviceRecord.deviceName(), 1).getFirst().deviceName());
+        }
+    }
+
+    /**
+     * Get the names of the device records.
+     *
+     * @param deviceRecords the device records
+     * @return the names of the device records
+     */
+    private static List<String> names(List<DeviceRecord> deviceRecords) {
+        return deviceRecords.stream().map(DeviceRecord::deviceName).toList();
+    }
+}
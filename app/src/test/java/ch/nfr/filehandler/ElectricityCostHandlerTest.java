@@ -2,7 +2,11 @@ package ch.nfr.filehandler;
 
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * This class tests the ElectricityCostHandler class.
@@ -28,4 +32,32 @@ public class ElectricityCostHandlerTest {
         actualPrice = ElectricityCostHandler.getElectricityPrice(postalCode, testingPath);
         assertEquals(expectedPrice, actualPrice, "The electricity price for postal code " + postalCode + " should be " + expectedPrice);
     }
+
+    /**
+     * Test the pricesFor method with several postal codes.
+     * The prices should be returned in the order of the postal codes and the file should be compiled only once.
+     *
+     * @throws ElectricityPriceDataException if the electricity price data could not be read.
+     */
+    @Test
+    void testPricesFor() throws ElectricityPriceDataException {
+        String testingPath = "src/test/resources/electricityPrice.properties";
+
+        double[] prices = ElectricityCostHandler.pricesFor(new short[]{8000, 7999, 8000}, testingPath);
+        assertArrayEquals(new double[]{31.61, 29.85, 31.61}, prices);
+        assertSame(ElectricityCostHandler.getElectricityPrices(testingPath), ElectricityCostHandler.getElectricityPrices(testingPath));
+    }
+
+    /**
+     * Test the pricesFor method with postal codes without an electricity price.
+     * The method should throw an {@link ElectricityPriceDataException} naming every unmapped postal code.
+     */
+    @Test
+    void testPricesForUnmappedPostalCodes() {
+        String path = "src/main/resources/electricity-price/electricityPrice.properties";
+
+        ElectricityPriceDataException exception = assertThrows(ElectricityPriceDataException.class,
+                () -> ElectricityCostHandler.pricesFor(new short[]{8000, 9999, 999}, path));
+        assertTrue(exception.getMessage().contains("[9999, 999]"));
+    }
 }
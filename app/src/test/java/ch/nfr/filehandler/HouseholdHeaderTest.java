@@ -0,0 +1,95 @@
+package ch.nfr.filehandler;
+
+import ch.nfr.filehandler.property.HouseholdProperty;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class tests the HouseholdHeader class.
+ */
+public class HouseholdHeaderTest {
+
+    /**
+     * Positive test No. 1
+     * Test the read method with a file written header first.
+     * The reading should stop at the first key after the header, so the truncated rooms are never read.
+     * @throws IOException if the header could not be read
+     */
+    @Test
+    void testReadStopsAfterHeader() throws IOException {
+        String truncated = "{\"HOUSEHOLD_NAME\":\"Gewerbe\",\"POSTAL_CODE\":8400,\"NUMBER_OF_RESIDENTS\":12,"
+                + "\"rooms\":[{\"name\":\"Halle\",\"devices\":[";
+        HouseholdHeader header = HouseholdHeader.read(new StringReader(truncated));
+
+        assertTrue(header.isHousehold());
+        assertFalse(header.isDeleted());
+        assertEquals("Gewerbe", header.getHouseholdName());
+        assertEquals(8400, header.getProperty(HouseholdProperty.POSTAL_CODE));
+        assertEquals(12, header.getProperty(HouseholdProperty.NUMBER_OF_RESIDENTS));
+    }
+
+    /**
+     * Positive test No. 2
+     * Test the read method with the header keys after nested arrays and objects.
+     * Brackets and escaped quotes within the skipped strings should not end the skipped values.
+     * @throws IOException if the header could not be read
+     */
+    @Test
+    void testReadSkipsNestedValues() throws IOException {
+        String json = "{ \"rooms\" : [ { \"name\" : \"Bad \\\"]}\" , \"devices\" : [ [1, 2], {\"a\": null} ] } ] ,\n"
+                + " \"POSTAL_CODE\" : 3000 , \"HOUSEHOLD_NAME\" : \"K\\u00fcche\", \"delete\" : false,"
+                + " \"NUMBER_OF_RESIDENTS\" : 2 }";
+        HouseholdHeader header = HouseholdHeader.read(new StringReader(json));
+
+        assertTrue(header.isHousehold());
+        assertEquals("Küche", header.getHouseholdName());
+        assertEquals(3000, header.getProperty(HouseholdProperty.POSTAL_CODE));
+        assertEquals(2, header.getProperty(HouseholdProperty.NUMBER_OF_RESIDENTS));
+    }
+
+    /**
+     * Positive test No. 3
+     * Test the write method with a valid household file.
+     * The header keys should be written first and the written household should equal the original.
+     * @throws IOException if the household could not be written or read
+     */
+    @Test
+    void testWriteHeaderFirst() throws IOException {
+        JSONObject household = new JSONObject(Files.readString(Path.of("src/test/resources/households/valid/Test1.json")));
+        StringWriter writer = new StringWriter();
+        HouseholdHeader.write(household, writer);
+
+        assertTrue(writer.toString().startsWith("{\"" + HouseholdProperty.HOUSEHOLD_NAME.name() + "\":"));
+        assertTrue(household.similar(new JSONObject(writer.toString())));
+        HouseholdHeader header = HouseholdHeader.read(new StringReader(writer.toString()));
+        assertEquals(household.getString(HouseholdProperty.HOUSEHOLD_NAME.name()), header.getHouseholdName());
+    }
+
+    /**
+     * Negative test No. 1
+     * Test the read method with a missing property and a household marked for deletion.
+     * Both should not be a household.
+     * @throws IOException if the header could not be read
+     */
+    @Test
+    void testReadNoHousehold() throws IOException {
+        HouseholdHeader missing = HouseholdHeader.read(new StringReader(
+                "{\"HOUSEHOLD_NAME\":\"A\",\"rooms\":[],\"NUMBER_OF_RESIDENTS\":1}"));
+        assertFalse(missing.isHousehold());
+        assertEquals(List.of(HouseholdProperty.POSTAL_CODE), missing.getMissingProperties());
+
+        HouseholdHeader deleted = HouseholdHeader.read(new StringReader(
+                "{\"HOUSEHOLD_NAME\":\"A\",\"POSTAL_CODE\":8000,\"NUMBER_OF_RESIDENTS\":1,\"delete\":true,\"rooms\":["));
+        assertTrue(deleted.isDeleted());
+        assertFalse(deleted.isHousehold());
+    }
+}
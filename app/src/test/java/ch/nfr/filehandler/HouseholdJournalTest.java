@@ -0,0 +1,169 @@
+package ch.nfr.filehandler;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class tests the HouseholdJournal class.
+ */
+public class HouseholdJournalTest {
+    /**
+     * The temporary directory for the household files.
+     */
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Creates the JSON object of an empty household.
+     *
+     * @return the JSON object of the household
+     */
+    private static JSONObject household() {
+        return new JSONObject().put("HOUSEHOLD_NAME", "Journal").put("POSTAL_CODE", 8000).put("NUMBER_OF_RESIDENTS", 2)
+                .put("rooms", new JSONArray()).put("solarPanels", new JSONArray());
+    }
+
+    /**
+     * Creates the JSON object of a room.
+     *
+     * @param id the id of the room
+     * @param name the name of the room
+     * @return the JSON object of the room
+     */
+    private static JSONObject room(int id, String name) {
+        return new JSONObject().put("ROOM_ID", id).put("ROOM_NAME", name).put("devices", new JSONArray());
+    }
+
+    /**
+     * Positive test No. 1
+     * Test the flush and replay methods.
+     * The records should be appended to the file only by the flush and replayed in their order.
+     * @throws IOException if the journal could not be written or read
+     */
+    @Test
+    void testFlushAndReplay() throws IOException {
+        Path householdFile = tempDir.resolve("household.json");
+        HouseholdJournal journal = HouseholdJournal.open(householdFile);
+        journal.append(HouseholdJournal.record("PUT_ROOM", room(1, "Kitchen")));
+        journal.append(HouseholdJournal.record("PUT_ROOM", room(2, "Bath")));
+        assertFalse(Files.exists(HouseholdJournal.journalFile(householdFile)));
+        journal.flush();
+        journal.append(HouseholdJournal.record("PUT_ROOM", room(1, "Living room")));
+        journal.append(HouseholdJournal.record("REMOVE_ROOM", 2));
+        journal.flush();
+        assertEquals(Files.size(HouseholdJournal.journalFile(householdFile)), journal.size());
+        assertFalse(journal.needsCompaction());
+
+        JSONObject household = household();
+        assertEquals(4, HouseholdJournal.open(householdFile).replay(household));
+        assertEquals(1, household.getJSONArray("rooms").length());
+        assertEquals("Living room", household.getJSONArray("rooms").getJSONObject(0).getString("ROOM_NAME"));
+    }
+
+    /**
+     * Positive test No. 2
+     * Test the needsCompaction method.
+     * A changed household property or a journal larger than the threshold should need a compaction,
+     * the cleared journal should not.
+     * @throws IOException if the journal could not be written
+     */
+    @Test
+    void testNeedsCompaction() throws IOException {
+        Path householdFile = tempDir.resolve("household.json");
+        HouseholdJournal journal = HouseholdJournal.open(householdFile, 100);
+        journal.append(HouseholdJournal.record("PUT_ROOM", room(1, "Kitchen")));
+        journal.flush();
+        assertFalse(journal.needsCompaction());
+        journal.append(HouseholdJournal.record("PUT_ROOM", room(1, "A kitchen with a long name")));
+        journal.flush();
+        assertTrue(journal.needsCompaction());
+        journal.clear();
+        assertTrue(journal.isEmpty());
+        assertFalse(journal.needsCompaction());
+
+        journal.append(HouseholdJournal.record("EDIT_HOUSEHOLD", household().put("HOUSEHOLD_NAME", "Renamed")));
+        journal.flush();
+        assertTrue(journal.needsCompaction());
+    }
+
+    /**
+     * Positive test No. 3
+     * Test the clear method with the number of covered records.
+     * Only the covered records should be removed, the later records and the records which are not flushed yet should be kept.
+     * @throws IOException if the journal could not be written or read
+     */
+    @Test
+    void testClearCoveredRecords() throws IOException {
+        Path householdFile = tempDir.resolve("household.json");
+        HouseholdJournal journal = HouseholdJournal.open(householdFile);
+        journal.append(HouseholdJournal.record("EDIT_HOUSEHOLD", household().put("HOUSEHOLD_NAME", "Renamed")));
+        journal.append(HouseholdJournal.record("PUT_ROOM", room(1, "Kitchen")));
+        journal.flush();
+        assertEquals(2, journal.getAppendedRecords());
+        assertTrue(journal.needsCompaction());
+
+        journal.clear(1);
+        assertFalse(journal.needsCompaction());
+        assertEquals(Files.size(HouseholdJournal.journalFile(householdFile)), journal.size());
+        journal.append(HouseholdJournal.record("PUT_ROOM", room(2, "Bath")));
+        journal.clear(3);
+        journal.flush();
+
+        JSONObject household = household();
+        assertEquals(1, HouseholdJournal.open(householdFile).replay(household));
+        assertEquals("Journal", household.getString("HOUSEHOLD_NAME"));
+        assertEquals("Bath", household.getJSONArray("rooms").getJSONObject(0).getString("ROOM_NAME"));
+    }
+
+    /**
+     * Negative test No. 1
+     * Test the replay method with a torn last record.
+     * The valid records should be replayed and the torn record should be cut off.
+     * @throws IOException if the journal could not be written or read
+     */
+    @Test
+    void testReplayTornRecord() throws IOException {
+        Path householdFile = tempDir.resolve("household.json");
+        HouseholdJournal journal = HouseholdJournal.open(householdFile);
+        journal.append(HouseholdJournal.record("PUT_ROOM", room(1, "Kitchen")));
+        journal.flush();
+        long validSize = journal.size();
+        Files.writeString(HouseholdJournal.journalFile(householdFile), "{\"change\":\"PUT_ROOM\",\"val", StandardOpenOption.APPEND);
+
+        JSONObject household = household();
+        HouseholdJournal reopened = HouseholdJournal.open(householdFile);
+        assertEquals(1, reopened.replay(household));
+        assertEquals(1, household.getJSONArray("rooms").length());
+        assertEquals(validSize, Files.size(HouseholdJournal.journalFile(householdFile)));
+        assertEquals(validSize, reopened.size());
+    }
+
+    /**
+     * Negative test No. 2
+     * Test the replay method with an invalid complete record before valid records.
+     * The replay should fail and the journal should not be cut off.
+     * @throws IOException if the journal could not be written
+     */
+    @Test
+    void testReplayInvalidRecord() throws IOException {
+        Path householdFile = tempDir.resolve("household.json");
+        HouseholdJournal journal = HouseholdJournal.open(householdFile);
+        journal.append(HouseholdJournal.record("PUT_ROOM", room(1, "Kitchen")));
+        journal.append(HouseholdJournal.record("RENAME_ROOM", room(1, "Bath")));
+        journal.append(HouseholdJournal.record("PUT_ROOM", room(2, "Living room")));
+        journal.flush();
+        long size = journal.size();
+
+        assertThrows(IOException.class, () -> HouseholdJournal.open(householdFile).replay(household()));
+        assertEquals(size, Files.size(HouseholdJournal.journalFile(householdFile)));
+    }
+}
@@ -0,0 +1,127 @@
+package ch.nfr.filehandler;
+
+import ch.nfr.tablemodel.Household;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * This class tests the HouseholdSnapshot and SnapshotHandler classes.
+ */
+public class HouseholdSnapshotTest {
+    /**
+     * The temporary directory for the household files.
+     */
+    @TempDir
+    Path tempDir;
+    /**
+     * The path to the valid household test file.
+     */
+    private final Path jsonPath = Path.of("src/test/resources/households/valid/Test1.json");
+
+    /**
+     * Writes the given household as snapshot into the temporary directory.
+     *
+     * @param household the JSON object of the household
+     * @return the snapshot file
+     * @throws IOException if the snapshot could not be written
+     */
+    private Path writeSnapshot(JSONObject household) throws IOException {
+        Path snapshot = tempDir.resolve("Test1" + HouseholdSnapshot.FILE_EXTENSION);
+        try (OutputStream out = Files.newOutputStream(snapshot)) {
+            HouseholdSnapshot.write(household, out);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Positive test No. 1
+     * Test the write and read methods with a large household, the devices of the valid household file repeated in many rooms.
+     * The read household should equal the written one and the snapshot should be much smaller than the JSON file.
+     * @throws IOException if the snapshot could not be written or read
+     */
+    @Test
+    void testRoundTrip() throws IOException {
+        JSONObject household = HouseholdFormat.JSON.read(jsonPath);
+        household.put("delete", false);
+        JSONArray rooms = household.getJSONArray("rooms");
+        JSONObject room = rooms.getJSONObject(0);
+        for (int roomId = 2; roomId <= 50; roomId++) {
+            rooms.put(new JSONObject(room.toString()).put("ROOM_ID", roomId).put("ROOM_NAME", "Raum " + roomId));
+        }
+        Path snapshot = writeSnapshot(household);
+        Path json = tempDir.resolve("Test1.json");
+        try (OutputStream out = Files.newOutputStream(json)) {
+            HouseholdFormat.JSON.write(household, out);
+        }
+
+        JSONObject read = HouseholdSnapshot.read(snapshot);
+        assertTrue(household.similar(read));
+        assertEquals(Integer.class, read.get("POSTAL_CODE").getClass());
+        assertTrue(Files.size(snapshot) * 5 < Files.size(json), Files.size(snapshot) + " bytes of " + Files.size(json));
+
+        HouseholdHeader header = HouseholdSnapshot.readHeader(snapshot);
+        assertTrue(header.isHousehold());
+        assertEquals(household.getString("HOUSEHOLD_NAME"), header.getHouseholdName());
+    }
+
+    /**
+     * Positive test No. 2
+     * Test the SnapshotHandler with an imported JSON household.
+     * The household should be stored as snapshot, loaded from it and exported as JSON file.
+     * @throws IOException if the households could not be written or read
+     */
+    @Test
+    void testSnapshotHandler() throws IOException {
+        Path folder = Files.createDirectory(tempDir.resolve("households"));
+        Path exportFolder = Files.createDirectory(tempDir.resolve("export"));
+        Config config = mock(Config.class);
+        when(config.getJsonFolder()).thenReturn(folder.toFile());
+        SnapshotHandler snapshotHandler = new SnapshotHandler();
+        snapshotHandler.setConfig(config);
+        snapshotHandler.importHousehold(jsonPath.toString());
+        assertTrue(Files.exists(folder.resolve("Test1" + HouseholdSnapshot.FILE_EXTENSION)));
+        assertFalse(Files.exists(folder.resolve("Test1.json")));
+
+        Map<Integer, String> households = snapshotHandler.getFilesInFolder();
+        assertEquals(Map.of(1, "Test No. 1"), households);
+        Household household = snapshotHandler.switchHousehold(1);
+        assertEquals("Test No. 1", household.getName());
+
+        snapshotHandler.exportHousehold(exportFolder.toString());
+        JSONObject exported = HouseholdFormat.JSON.read(exportFolder.resolve("Test1.json"));
+        assertFalse(exported.getBoolean("delete"));
+        exported.remove("delete");
+        assertTrue(HouseholdFormat.JSON.read(jsonPath).similar(exported));
+        snapshotHandler.tearDown();
+    }
+
+    /**
+     * Negative test No. 1
+     * Test the read method with a truncated snapshot and a JSON file.
+     * Both should throw an IOException.
+     * @throws IOException if the snapshot could not be written
+     */
+    @Test
+    void testReadInvalidSnapshot() throws IOException {
+        Path snapshot = writeSnapshot(HouseholdFormat.JSON.read(jsonPath));
+        byte[] bytes = Files.readAllBytes(snapshot);
+        Files.write(snapshot, Arrays.copyOf(bytes, bytes.length - 10));
+
+        assertThrows(IOException.class, () -> HouseholdSnapshot.read(snapshot));
+        assertThrows(IOException.class, () -> HouseholdSnapshot.read(jsonPath));
+        assertThrows(IOException.class, () -> HouseholdSnapshot.readHeader(jsonPath));
+    }
+}
@@ -1,16 +1,24 @@
 package ch.nfr.filehandler;
 
 import ch.nfr.tablemodel.Household;
+import ch.nfr.tablemodel.Room;
+import org.json.JSONObject;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 /**
  * This class tests the JsonHandler class
@@ -95,7 +103,7 @@ public class JsonHandlerTest {
      * The Id is valid
      */
     @Test
-    public void testSwitchToValidHouseholds() {
+    public void testSwitchToValidHouseholds() throws FileNotFoundException {
         config = mock(Config.class);
         when(config.getJsonFolder()).thenReturn(new File("src/test/resources/households/valid"));
         JsonHandler jsonHandler = new JsonHandler();
@@ -133,6 +141,37 @@ public class JsonHandlerTest {
         jsonHandler.tearDown();
     }
 
+    /**
+     * Test 1.1.2
+     * Nr. 3
+     * Test if the method switchHousehold fails for a household with a valid header and a corrupt body
+     * The household is listed by its header, but should not be listed anymore after it failed to load
+     *
+     * @param tempDir The temporary folder with the corrupt and a valid household
+     * @throws IOException if the households could not be written
+     */
+    @Test
+    public void testSwitchToCorruptHousehold(@TempDir Path tempDir) throws IOException {
+        Files.writeString(tempDir.resolve("Corrupt.json"),
+                "{\"HOUSEHOLD_NAME\":\"Corrupt\",\"POSTAL_CODE\":8000,\"NUMBER_OF_RESIDENTS\":2,\"delete\":false,\"rooms\":[{\"ROOM_ID\":");
+        Files.copy(Path.of("src/test/resources/households/valid/Test1.json"), tempDir.resolve("Test1.json"));
+        config = mock(Config.class);
+        when(config.getJsonFolder()).thenReturn(tempDir.toFile());
+        JsonHandler jsonHandler = new JsonHandler();
+        jsonHandler.setConfig(config);
+        assertEquals(Map.of(1, "Corrupt", 2, "Test No. 1"), jsonHandler.getFilesInFolder());
+
+        assertThrows(FileNotFoundException.class, () -> jsonHandler.switchHousehold(1));
+        assertEquals(Map.of(1, "Test No. 1"), jsonHandler.getFilesInFolder());
+        assertEquals("Test No. 1", jsonHandler.switchHousehold(1).getName());
+        jsonHandler.tearDown();
+
+        JsonHandler reloadedHandler = new JsonHandler();
+        reloadedHandler.setConfig(config);
+        assertEquals(Map.of(1, "Test No. 1"), reloadedHandler.getFilesInFolder());
+        reloadedHandler.tearDown();
+    }
+
     /**
      * Test 1.1.3
      * Nr. 1
@@ -213,4 +252,258 @@ public class JsonHandlerTest {
         assertEquals(2, jsonHandler.getFilesInFolder().size());
         jsonHandler.tearDown();
     }
+
+    /**
+     * Test 1.1.5
+     * Nr. 1
+     * Test if the autosave writes the loaded household only after it has changed
+     * The idle household should not be written
+     * A burst of changes should be written once after the quiet period
+     * The file should be replaced without leaving the temporary file behind
+     *
+     * @param tempDir The temporary folder with a copy of the valid households
+     * @throws IOException if the households could not be copied or read
+     * @throws InterruptedException if the test is interrupted while waiting for the autosave
+     */
+    @Test
+    public void testDebouncedAutosave(@TempDir Path tempDir) throws IOException, InterruptedException {
+        Files.copy(Path.of("src/test/resources/households/valid/Test1.json"), tempDir.resolve("Test1.json"));
+        config = mock(Config.class);
+        when(config.getJsonFolder()).thenReturn(tempDir.toFile());
+        JsonHandler jsonHandler = new JsonHandler(1000, 10_000);
+        jsonHandler.setConfig(config);
+        jsonHandler.getFilesInFolder();
+        Household household = jsonHandler.switchHousehold(1);
+        Path file = tempDir.resolve("Test1.json");
+        FileTime idleTime = FileTime.fromMillis(0);
+        Files.setLastModifiedTime(file, idleTime);
+
+        assertTrue(jsonHandler.awaitAutosave(10, TimeUnit.SECONDS));
+        assertEquals(idleTime, Files.getLastModifiedTime(file));
+
+        household.editHousehold("Autosave 1", household.getPostalCode(), household.getNumberOfResidents());
+        household.editHousehold("Autosave 2", household.getPostalCode(), household.getNumberOfResidents());
+        assertEquals(idleTime, Files.getLastModifiedTime(file));
+        assertTrue(jsonHandler.awaitAutosave(10, TimeUnit.SECONDS));
+        assertTrue(Files.readString(file).contains("Autosave 2"));
+        assertFalse(Files.exists(tempDir.resolve("Test1.json.tmp")));
+
+        Files.setLastModifiedTime(file, idleTime);
+        jsonHandler.tearDown();
+        assertEquals(idleTime, Files.getLastModifiedTime(file));
+    }
+
+    /**
+     * Test 1.1.6
+     * Nr. 1
+     * Test if the method getFilesInFolder uses the household index
+     * The unchanged files should not be written again
+     * A changed file should be parsed again
+     *
+     * @param tempDir The temporary folder with a copy of the valid households
+     * @throws IOException if the households could not be copied or read
+     */
+    @Test
+    public void testHouseholdIndex(@TempDir Path tempDir) throws IOException {
+        for (String file : new String[]{"AFilename.json", "Test1.json", "Test2.json"}) {
+            Files.copy(Path.of("src/test/resources/households/valid").resolve(file), tempDir.resolve(file));
+        }
+        config = mock(Config.class);
+        when(config.getJsonFolder()).thenReturn(tempDir.toFile());
+        JsonHandler jsonHandler = new JsonHandler();
+        jsonHandler.setConfig(config);
+        assertEquals(3, jsonHandler.getFilesInFolder().size());
+        jsonHandler.tearDown();
+        assertTrue(Files.exists(tempDir.resolve(HouseholdIndex.FILE_NAME)));
+
+        FileTime indexedTime = Files.getLastModifiedTime(tempDir.resolve("AFilename.json"));
+        Path changedFile = tempDir.resolve("Test2.json");
+        Files.writeString(changedFile, Files.readString(changedFile).replace("Test No. 2", "Test No. 2 changed"));
+
+        jsonHandler = new JsonHandler();
+        jsonHandler.setConfig(config);
+        Map<Integer, String> households = jsonHandler.getFilesInFolder();
+        assertEquals("Test No. 3", households.get(1));
+        assertEquals("Test No. 1", households.get(2));
+        assertEquals("Test No. 2 changed", households.get(3));
+        assertEquals(indexedTime, Files.getLastModifiedTime(tempDir.resolve("AFilename.json")));
+        jsonHandler.tearDown();
+    }
+
+    /**
+     * Test 1.1.6
+     * Nr. 2
+     * Test if switching, creating and deleting households only writes the affected file
+     * The ids should be assigned in memory without writing them into the files
+     *
+     * @param tempDir The temporary folder with a copy of the valid households
+     * @throws IOException if the households could not be copied or read
+     */
+    @Test
+    public void testSwitchingWithoutRewrites(@TempDir Path tempDir) throws IOException {
+        String[] files = {"AFilename.json", "Test1.json", "Test2.json"};
+        for (String file : files) {
+            Files.copy(Path.of("src/test/resources/households/valid").resolve(file), tempDir.resolve(file));
+        }
+        config = mock(Config.class);
+        when(config.getJsonFolder()).thenReturn(tempDir.toFile());
+        JsonHandler jsonHandler = new JsonHandler();
+        jsonHandler.setConfig(config);
+        jsonHandler.getFilesInFolder();
+        FileTime untouched = FileTime.fromMillis(0);
+        for (String file : files) {
+            Files.setLastModifiedTime(tempDir.resolve(file), untouched);
+        }
+
+        assertEquals("Test No. 3", jsonHandler.switchHousehold(1).getName());
+        assertEquals("Test No. 2", jsonHandler.switchHousehold(3).getName());
+        jsonHandler.createHousehold();
+        // the created file is named by the date and sorted first
+        jsonHandler.deleteHousehold(2);
+        assertTrue(Files.readString(tempDir.resolve("AFilename.json")).contains("\"delete\":true"));
+        assertEquals(untouched, Files.getLastModifiedTime(tempDir.resolve("Test1.json")));
+        assertEquals(untouched, Files.getLastModifiedTime(tempDir.resolve("Test2.json")));
+        assertFalse(Files.readString(tempDir.resolve("Test1.json")).contains("\"delete\":true"));
+
+        Map<Integer, String> households = jsonHandler.getFilesInFolder();
+        assertEquals(3, households.size());
+        assertEquals("Default Haushalt", households.get(1));
+        assertEquals("Test No. 1", households.get(2));
+        jsonHandler.tearDown();
+    }
+
+    /**
+     * Test 1.1.7
+     * Test if the method getFilesInFolder loads a large folder in the sorted order of the files
+     * The files are read in parallel, invalid files should be skipped without aborting the loading
+     *
+     * @param tempDir The temporary folder with many copies of a valid household
+     * @throws IOException if the households could not be written
+     */
+    @Test
+    public void testParallelLoading(@TempDir Path tempDir) throws IOException {
+        String household = Files.readString(Path.of("src/test/resources/households/valid/Test1.json"));
+        for (int i = 0; i < 100; i++) {
+            Files.writeString(tempDir.resolve(String.format("household%03d.json", i)), household.replace("Test No. 1", "Nr. " + i));
+        }
+        Files.writeString(tempDir.resolve("household050a.json"), "no json");
+        config = mock(Config.class);
+        when(config.getJsonFolder()).thenReturn(tempDir.toFile());
+        JsonHandler jsonHandler = new JsonHandler();
+        jsonHandler.setConfig(config);
+
+        Map<Integer, String> households = jsonHandler.getFilesInFolder();
+        assertEquals(100, households.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals("Nr. " + i, households.get(i + 1));
+        }
+        jsonHandler.tearDown();
+    }
+
+    /**
+     * Test 1.1.8
+     * Nr. 1
+     * Test if a change of a room is appended to the journal instead of rewriting the household file
+     * The change should be replayed when the household is loaded again
+     *
+     * @param tempDir The temporary folder with a copy of a valid household
+     * @throws IOException if the household could not be copied or read
+     * @throws InterruptedException if the test is interrupted while waiting for the autosave
+     */
+    @Test
+    public void testJournaledChanges(@TempDir Path tempDir) throws IOException, InterruptedException {
+        Path file = tempDir.resolve("Test1.json");
+        Files.copy(Path.of("src/test/resources/households/valid/Test1.json"), file);
+        config = mock(Config.class);
+        when(config.getJsonFolder()).thenReturn(tempDir.toFile());
+        JsonHandler jsonHandler = new JsonHandler(100, 1000);
+        jsonHandler.setConfig(config);
+        jsonHandler.getFilesInFolder();
+        Household household = jsonHandler.switchHousehold(1);
+        FileTime idleTime = FileTime.fromMillis(0);
+        Files.setLastModifiedTime(file, idleTime);
+
+        Room room = household.getAllRooms().getFirst();
+        room.editRoom("Journaled Room", room.getRoomType(), room.getRoomSize());
+        assertTrue(jsonHandler.awaitAutosave(10, TimeUnit.SECONDS));
+        assertEquals(idleTime, Files.getLastModifiedTime(file));
+        assertTrue(Files.readString(HouseholdJournal.journalFile(file)).contains("Journaled Room"));
+        jsonHandler.tearDown();
+
+        jsonHandler = new JsonHandler();
+        jsonHandler.setConfig(config);
+        jsonHandler.getFilesInFolder();
+        household = jsonHandler.switchHousehold(1);
+        assertEquals("Journaled Room", household.getRoom(room.getId()).getName());
+        jsonHandler.tearDown();
+    }
+
+    /**
+     * Test 1.1.8
+     * Nr. 2
+     * Test if an imported household replaces the journal of a household with the same file name
+     * The stale journal should be deleted and not be replayed onto the imported household
+     *
+     * @param tempDir The temporary folder with the stale journal
+     * @throws IOException if the journal could not be written
+     */
+    @Test
+    public void testImportDeletesJournal(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("Test1.json");
+        HouseholdJournal journal = HouseholdJournal.open(file);
+        journal.append(HouseholdJournal.record("EDIT_HOUSEHOLD",
+                new JSONObject().put("HOUSEHOLD_NAME", "Stale").put("POSTAL_CODE", 8000).put("NUMBER_OF_RESIDENTS", 1)));
+        journal.flush();
+        config = mock(Config.class);
+        when(config.getJsonFolder()).thenReturn(tempDir.toFile());
+        JsonHandler jsonHandler = new JsonHandler();
+        jsonHandler.setConfig(config);
+
+        jsonHandler.importHousehold("src/test/resources/households/valid/Test1.json");
+        assertFalse(Files.exists(HouseholdJournal.journalFile(file)));
+        jsonHandler.getFilesInFolder();
+        assertEquals("Test No. 1", jsonHandler.switchHousehold(1).getName());
+        jsonHandler.tearDown();
+    }
+
+    /**
+     * Test 1.1.8
+     * Nr. 3
+     * Test if the autosave folds only the copy taken by the changing thread into the household file
+     * The change of the household should be written to the file and the later change of a room should stay in the journal
+     * Both changes should be loaded again
+     *
+     * @param tempDir The temporary folder with a copy of a valid household
+     * @throws IOException if the household could not be copied or read
+     * @throws InterruptedException if the test is interrupted while waiting for the autosave
+     */
+    @Test
+    public void testCompactionCopy(@TempDir Path tempDir) throws IOException, InterruptedException {
+        Path file = tempDir.resolve("Test1.json");
+        Files.copy(Path.of("src/test/resources/households/valid/Test1.json"), file);
+        config = mock(Config.class);
+        when(config.getJsonFolder()).thenReturn(tempDir.toFile());
+        JsonHandler jsonHandler = new JsonHandler(100, 1000);
+        jsonHandler.setConfig(config);
+        jsonHandler.getFilesInFolder();
+        Household household = jsonHandler.switchHousehold(1);
+
+        household.editHousehold("Compacted", household.getPostalCode(), household.getNumberOfResidents());
+        Room room = household.getAllRooms().getFirst();
+        room.editRoom("Journaled Room", room.getRoomType(), room.getRoomSize());
+        assertTrue(jsonHandler.awaitAutosave(10, TimeUnit.SECONDS));
+        assertTrue(Files.readString(file).contains("Compacted"));
+        assertFalse(Files.readString(file).contains("Journaled Room"));
+        assertTrue(Files.readString(HouseholdJournal.journalFile(file)).contains("Journaled Room"));
+        assertFalse(Files.readString(HouseholdJournal.journalFile(file)).contains("Compacted"));
+        jsonHandler.tearDown();
+
+        jsonHandler = new JsonHandler();
+        jsonHandler.setConfig(config);
+        jsonHandler.getFilesInFolder();
+        household = jsonHandler.switchHousehold(1);
+        assertEquals("Compacted", household.getName());
+        assertEquals("Journaled Room", household.getRoom(room.getId()).getName());
+        jsonHandler.tearDown();
+    }
 }
@@ -1,11 +1,23 @@
 package ch.nfr.filehandler;
 
+import ch.nfr.calculator.units.EnergyUnit;
+import ch.nfr.calculator.units.TimeUnit;
+import ch.nfr.tablemodel.ChangeProperty;
 import ch.nfr.tablemodel.Household;
+import ch.nfr.tablemodel.Room;
 import ch.nfr.tablemodel.RoomType;
+import ch.nfr.tablemodel.device.Device;
 import ch.nfr.tablemodel.device.DeviceCategory;
+import ch.nfr.tablemodel.device.ElectricConsumption;
 import ch.nfr.tablemodel.device.WiredDevice;
 import org.junit.jupiter.api.Test;
 
+import java.beans.PropertyChangeEvent;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -76,6 +88,33 @@ public class JsonRecordTest {
         assertEquals(DeviceCategory.OTHER, household.getRoom(1).getAllDevices().get(1).getCategory());
     }
 
+    /**
+     * Positive test No. 3
+     * Test if the method {@link Household#addDevices(Map)} adds all devices at once
+     * The household should fire one event and the json object should contain all new devices
+     */
+    @Test
+    public void testAddDevices() {
+        JsonRecord jsonRecord = new JsonRecord(testFolder + "Test1.json", "Test No. 1", 1);
+        jsonRecord.load();
+        Household household = jsonRecord.getHousehold();
+        List<PropertyChangeEvent> events = new ArrayList<>();
+        household.addPropertyChangeListener(events::add);
+
+        int[] deviceIds = household.getRoom(1).getFreeDeviceIds(2);
+        ElectricConsumption consumption = new ElectricConsumption(3_600, 3_600, TimeUnit.HOUR, TimeUnit.DAY, EnergyUnit.WATT_HOUR);
+        List<Device> devices = List.of(
+                new WiredDevice(deviceIds[0], 1, "Lampe", DeviceCategory.LIGHTING, consumption),
+                new WiredDevice(deviceIds[1], 1, "Haartrockner", DeviceCategory.OTHER, consumption));
+        household.addDevices(Map.of(1, devices));
+
+        assertEquals(1, events.size());
+        assertEquals(ChangeProperty.ADD_DEVICES.name(), events.getFirst().getPropertyName());
+        assertEquals(devices, events.getFirst().getNewValue());
+        assertEquals(4, household.getRoom(1).getAllDevices().size());
+        assertEquals(4, jsonRecord.getJsonObject().getJSONArray("rooms").getJSONObject(0).getJSONArray("devices").length());
+    }
+
     /**
      * Negative test No. 1
      * Test if the method {@link JsonRecord#load()} throws an exception if the file does not exist
@@ -114,4 +153,55 @@ public class JsonRecordTest {
         JsonRecord jsonRecord = new JsonRecord(testFolder + fileName, "Test No. 1 Missing", 1);
         assertThrows(RuntimeException.class, jsonRecord::load);
     }
+
+    /**
+     * Negative test No. 4
+     * Test if the method {@link Household#addDevices(Map)} adds no device if one device is invalid
+     * The second device has an id which is already used
+     * The method should throw an exception and the room should be unchanged
+     */
+    @Test
+    public void testAddDevicesWithUsedId() {
+        JsonRecord jsonRecord = new JsonRecord(testFolder + "Test1.json", "Test No. 1", 1);
+        jsonRecord.load();
+        Household household = jsonRecord.getHousehold();
+
+        ElectricConsumption consumption = new ElectricConsumption(3_600, 3_600, TimeUnit.HOUR, TimeUnit.DAY, EnergyUnit.WATT_HOUR);
+        int usedId = household.getRoom(1).getAllDevices().getFirst().getId();
+        List<Device> devices = List.of(
+                new WiredDevice(household.getRoom(1).getFreeDeviceId(), 1, "Lampe", DeviceCategory.LIGHTING, consumption),
+                new WiredDevice(usedId, 1, "Haartrockner", DeviceCategory.OTHER, consumption));
+
+        assertThrows(IllegalArgumentException.class, () -> household.addDevices(Map.of(1, devices)));
+        assertThrows(IllegalArgumentException.class, () -> household.addDevices(Map.of(99, devices)));
+        assertEquals(2, household.getRoom(1).getAllDevices().size());
+        assertEquals(2, jsonRecord.getJsonObject().getJSONArray("rooms").getJSONObject(0).getJSONArray("devices").length());
+    }
+
+    /**
+     * Negative test No. 5
+     * Test if the method {@link Household#addDevices(Map)} adds no device if a device of a later room is invalid
+     * The devices of the second room have an id which is already used, the devices of the first room are valid
+     * The method should throw an exception, both rooms should be unchanged and no event should be fired
+     */
+    @Test
+    public void testAddDevicesToRoomsWithUsedId() {
+        JsonRecord jsonRecord = new JsonRecord(testFolder + "Test1.json", "Test No. 1", 1);
+        jsonRecord.load();
+        Household household = jsonRecord.getHousehold();
+        household.addRoom(new Room(2, "Küche", RoomType.KITCHEN, 12));
+        List<PropertyChangeEvent> events = new ArrayList<>();
+        household.addPropertyChangeListener(events::add);
+
+        ElectricConsumption consumption = new ElectricConsumption(3_600, 3_600, TimeUnit.HOUR, TimeUnit.DAY, EnergyUnit.WATT_HOUR);
+        int usedId = household.getRoom(1).getAllDevices().getFirst().getId();
+        Map<Integer, List<Device>> devicesPerRoom = new LinkedHashMap<>();
+        devicesPerRoom.put(2, List.of(new WiredDevice(1, 2, "Wasserkocher", DeviceCategory.KITCHEN, consumption)));
+        devicesPerRoom.put(1, List.of(new WiredDevice(usedId, 1, "Haartrockner", DeviceCategory.OTHER, consumption)));
+
+        assertThrows(IllegalArgumentException.class, () -> household.addDevices(devicesPerRoom));
+        assertTrue(household.getRoom(2).getAllDevices().isEmpty());
+        assertEquals(2, household.getRoom(1).getAllDevices().size());
+        assertTrue(events.isEmpty());
+    }
 }
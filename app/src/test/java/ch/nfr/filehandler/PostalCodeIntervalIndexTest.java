@@ -0,0 +1,84 @@
+package ch.nfr.filehandler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class tests the PostalCodeIntervalIndex class.
+ */
+public class PostalCodeIntervalIndexTest {
+
+    /**
+     * Creates an interval of postal codes.
+     *
+     * @param from the first postal code
+     * @param to the last postal code
+     * @param regionIndex the index of the region
+     * @return the interval
+     */
+    private static PostalCodeIntervalIndex.PostalCodeInterval interval(int from, int to, int regionIndex) {
+        return new PostalCodeIntervalIndex.PostalCodeInterval((short) from, (short) to, regionIndex);
+    }
+
+    /**
+     * Test the compile method with regions in the format of the reference data files.
+     * The regions should be collapsed into sorted intervals with their region index.
+     * @throws PostalCodeIntervalException if the regions could not be compiled.
+     */
+    @Test
+    void testCompile() throws PostalCodeIntervalException {
+        PostalCodeIntervalIndex index = PostalCodeIntervalIndex.compile(List.of(
+                "^(1[89]\\d{2}|3[789]\\d{2})$", "^1[0-7]\\d{2}$", "^[24-9]\\d{3}$", "^3[0-6]\\d{2}$"));
+
+        assertEquals(List.of(interval(1000, 1799, 1), interval(1800, 1999, 0), interval(2000, 2999, 2),
+                interval(3000, 3699, 3), interval(3700, 3999, 0), interval(4000, 9999, 2)), index.getIntervals());
+        assertTrue(index.getUncoveredIntervals().isEmpty());
+    }
+
+    /**
+     * Test the compile method with regions which do not cover all postal codes.
+     * The uncovered postal codes should be reported and not be part of the intervals.
+     * @throws PostalCodeIntervalException if the regions could not be compiled.
+     */
+    @Test
+    void testUncoveredPostalCodes() throws PostalCodeIntervalException {
+        PostalCodeIntervalIndex index = PostalCodeIntervalIndex.compile(List.of("^(12\\d{2})$", "^(8\\d{3})$"));
+
+        assertEquals("[1000-1199, 1300-7999, 9000-9999]", index.getUncoveredIntervals().toString());
+        assertEquals(PostalCodeIntervalIndex.NO_REGION, index.getUncoveredIntervals().getFirst().regionIndex());
+        assertEquals(List.of(interval(1200, 1299, 0), interval(8000, 8999, 1)), index.getIntervals());
+    }
+
+    /**
+     * Test the compile method with regions covering the same postal codes.
+     * The method should throw a {@link PostalCodeIntervalException}.
+     */
+    @Test
+    void testOverlappingRegions() {
+        PostalCodeIntervalException exception = assertThrows(PostalCodeIntervalException.class,
+                () -> PostalCodeIntervalIndex.compile(List.of("^(8\\d{3})$", "^(8[0-4]\\d{2})$")));
+        assertTrue(exception.getMessage().contains("8000"));
+    }
+
+    /**
+     * Test the compile method with an invalid regex.
+     * The method should throw a {@link PostalCodeIntervalException}.
+     */
+    @Test
+    void testInvalidRegex() {
+        assertThrows(PostalCodeIntervalException.class, () -> PostalCodeIntervalIndex.compile(List.of("^(8\\d{3}$")));
+    }
+
+    /**
+     * Test the electricity price with a postal code without a price region.
+     * The method should throw an {@link ElectricityPriceDataException} instead of returning a random price.
+     */
+    @Test
+    void testElectricityPriceOfUncoveredPostalCode() {
+        assertThrows(ElectricityPriceDataException.class,
+                () -> ElectricityCostHandler.getElectricityPrice((short) 9999, "src/main/resources/electricity-price/electricityPrice.properties"));
+    }
+}
@@ -0,0 +1,142 @@
+package ch.nfr.filehandler;
+
+import ch.nfr.tablemodel.RoomType;
+import ch.nfr.tablemodel.records.DeviceRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class tests the ReferenceDataFile and ReferenceDataCompiler classes.
+ */
+public class ReferenceDataFileTest {
+    /**
+     * The temporary directory for the reference data file.
+     */
+    @TempDir
+    Path tempDir;
+    /**
+     * The path to the compiled reference data file.
+     */
+    private String referenceDataPath;
+
+    /**
+     * Compiles the test reference data into a reference data file.
+     * @throws Exception if the reference data could not be compiled.
+     */
+    @BeforeEach
+    void setUp() throws Exception {
+        Path referenceData = tempDir.resolve("reference-data" + ReferenceDataFile.FILE_EXTENSION);
+        ReferenceDataCompiler.compile(referenceData, "src/test/resources/weather-archive.properties",
+                "src/test/resources/electricityPrice.properties", "src/test/resources/testDeviceProposal.properties");
+        referenceDataPath = referenceData.toString();
+    }
+
+    /**
+     * Test the weather archive of the reference data file, it should be the same as in the properties file.
+     * @throws WeatherArchiveException if the weather archive could not be read.
+     */
+    @Test
+    void testWeatherArchive() throws WeatherArchiveException {
+        assertEquals(WeatherArchivHandler.readSunHoursFile((short) 1000, "src/test/resources/weather-archive.properties"),
+                WeatherArchivHandler.readSunHoursFile((short) 1000, referenceDataPath));
+        assertThrows(WeatherArchiveException.class, () -> WeatherArchivHandler.readSunHoursFile((short) 8000, referenceDataPath));
+    }
+
+    /**
+     * Test the electricity prices of the reference data file, they should be the same as in the properties file.
+     * @throws ElectricityPriceDataException if the electricity prices could not be read.
+     */
+    @Test
+    void testElectricityPrices() throws ElectricityPriceDataException {
+        assertEquals(31.61, ElectricityCostHandler.getElectricityPrice((short) 8000, referenceDataPath));
+        assertEquals(29.85, ElectricityCostHandler.getElectricityPrice((short) 7999, referenceDataPath));
+    }
+
+    /**
+     * Test the device proposals of the reference data file, they should be the same as in the properties file.
+     */
+    @Test
+    void testDeviceProposals() throws DeviceProposalException {
+        for (RoomType roomType : RoomType.values()) {
+            List<DeviceRecord> expected = DeviceProposalHandler.readDeviceProposalFile("src/test/resources/testDeviceProposal.properties", roomType);
+            List<DeviceRecord> actual = DeviceProposalHandler.readDeviceProposalFile(referenceDataPath, roomType);
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).deviceName(), actual.get(i).deviceName());
+                assertEquals(expected.get(i).deviceCategory(), actual.get(i).deviceCategory());
+                assertEquals(expected.get(i).consumption().getYearlyConsumptionInWattSeconds(),
+                        actual.get(i).consumption().getYearlyConsumptionInWattSeconds());
+            }
+        }
+        assertEquals(2, DeviceProposalHandler.readDeviceProposalFile(referenceDataPath, RoomType.LIVING_ROOM).size());
+    }
+
+    /**
+     * Test the open method with a file which is not a reference data file.
+     * The method should throw an {@link IOException}.
+     * @throws IOException if the test file could not be written.
+     */
+    @Test
+    void testOpenInvalidFile() throws IOException {
+        Path invalid = Files.writeString(tempDir.resolve("invalid" + ReferenceDataFile.FILE_EXTENSION), "no reference data");
+        assertThrows(IOException.class, () -> ReferenceDataFile.open(invalid.toString()));
+    }
+
+    /**
+     * Test the resolve method with an up-to-date, an outdated, a missing and an invalid reference data file.
+     * Only the up-to-date reference data file should be used instead of the properties file.
+     * @throws IOException if the files could not be written.
+     */
+    @Test
+    void testResolve() throws IOException {
+        Path propertiesFile = Files.copy(Path.of("src/test/resources/electricityPrice.properties"), tempDir.resolve("prices.properties"));
+        Files.setLastModifiedTime(propertiesFile, FileTime.fromMillis(0));
+        assertEquals(referenceDataPath, ReferenceDataFile.resolve(propertiesFile.toString(), referenceDataPath));
+
+        Files.setLastModifiedTime(propertiesFile, FileTime.fromMillis(System.currentTimeMillis() + 60_000));
+        assertEquals(propertiesFile.toString(), ReferenceDataFile.resolve(propertiesFile.toString(), referenceDataPath));
+
+        Files.setLastModifiedTime(propertiesFile, FileTime.fromMillis(0));
+        String missingPath = tempDir.resolve("missing" + ReferenceDataFile.FILE_EXTENSION).toString();
+        assertEquals(propertiesFile.toString(), ReferenceDataFile.resolve(propertiesFile.toString(), missingPath));
+        Path invalidFile = Files.writeString(tempDir.resolve("invalid" + ReferenceDataFile.FILE_EXTENSION), "no reference data");
+        assertEquals(propertiesFile.toString(), ReferenceDataFile.resolve(propertiesFile.toString(), invalidFile.toString()));
+    }
+
+    /**
+     * Test the compilation of an extended electricity price file with tariff properties.
+     * The compilation should not fail, the regions with tariff properties should not be covered by the reference data file
+     * and their tariffs should be read from the properties file.
+     * @throws Exception if the reference data could not be compiled.
+     */
+    @Test
+    void testCompileTariffs() throws Exception {
+        Path propertiesFile = Files.writeString(tempDir.resolve("tariffs.properties"), """
+                ^(1[0-9]{3})$ = 28.61
+                ^(2[0-9]{3})$.peakPrice = 32.0
+                ^(2[0-9]{3})$.offPeakPrice = 24.0
+                ^(2[0-9]{3})$.peakDays = MONDAY-FRIDAY
+                ^(3[0-9]{3})$ = 30.0
+                ^(3[0-9]{3})$.baseFee = 500
+                """);
+        Path referenceData = tempDir.resolve("tariffs" + ReferenceDataFile.FILE_EXTENSION);
+        ReferenceDataCompiler.compile(referenceData, "src/test/resources/weather-archive.properties",
+                propertiesFile.toString(), "src/test/resources/testDeviceProposal.properties");
+
+        CompiledElectricityPrices electricityPrices = ElectricityCostHandler.getElectricityPrices(referenceData.toString());
+        assertEquals(28.61, electricityPrices.getElectricityPrice((short) 1000));
+        assertFalse(electricityPrices.covers((short) 2000));
+        assertFalse(electricityPrices.covers((short) 3000));
+        assertTrue(ElectricityCostHandler.getTariffs(propertiesFile.toString()).covers((short) 2000));
+        assertTrue(ElectricityCostHandler.getTariffs(propertiesFile.toString()).covers((short) 3000));
+    }
+}
@@ -0,0 +1,111 @@
+package ch.nfr.filehandler;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class tests the ReferenceDataService class.
+ */
+public class ReferenceDataServiceTest {
+    /**
+     * The temporary directory with the copied reference data.
+     */
+    @TempDir
+    Path tempDir;
+    /**
+     * The path to the copied weather archive.
+     */
+    private Path weatherArchive;
+    /**
+     * The path to the copied electricity price file.
+     */
+    private Path electricityPrice;
+
+    /**
+     * Copies the test reference data into the temporary directory.
+     * @throws IOException if the files could not be copied.
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+        weatherArchive = Files.copy(Path.of("src/test/resources/weather-archive.properties"), tempDir.resolve("weather-archive.properties"));
+        electricityPrice = Files.copy(Path.of("src/test/resources/electricityPrice.properties"), tempDir.resolve("electricityPrice.properties"));
+    }
+
+    /**
+     * Test the first snapshot, it should have the version 1 and serve the data of both files.
+     */
+    @Test
+    void testInitialSnapshot() throws Exception {
+        try (ReferenceDataService service = new ReferenceDataService(weatherArchive.toString(), electricityPrice.toString())) {
+            ReferenceDataService.ReferenceDataSnapshot snapshot = service.getSnapshot();
+            assertEquals(1, snapshot.version());
+            assertEquals(31.61, snapshot.electricityPrices().getElectricityPrice((short) 8000));
+            assertEquals(12, snapshot.weatherArchive().getSunHours((short) 1000).size());
+        }
+    }
+
+    /**
+     * Test the reload method with a changed price file, the new snapshot should be swapped in with a new version.
+     */
+    @Test
+    void testReload() throws Exception {
+        try (ReferenceDataService service = new ReferenceDataService(weatherArchive.toString(), electricityPrice.toString())) {
+            ReferenceDataService.ReferenceDataSnapshot oldSnapshot = service.getSnapshot();
+            Files.writeString(electricityPrice, "^(8\\\\d{3})$ = 40.0\n");
+
+            assertTrue(service.reload());
+            assertEquals(2, service.getVersion());
+            assertEquals(40.0, service.getSnapshot().electricityPrices().getElectricityPrice((short) 8000));
+            assertEquals(31.61, oldSnapshot.electricityPrices().getElectricityPrice((short) 8000));
+        }
+    }
+
+    /**
+     * Test the reload method with an invalid price file, the previous snapshot should be kept.
+     */
+    @Test
+    void testReloadWithInvalidFile() throws Exception {
+        try (ReferenceDataService service = new ReferenceDataService(weatherArchive.toString(), electricityPrice.toString())) {
+            ReferenceDataService.ReferenceDataSnapshot oldSnapshot = service.getSnapshot();
+            Files.writeString(electricityPrice, "^(8\\\\d{3})$ = not a price\n");
+
+            assertFalse(service.reload());
+            assertSame(oldSnapshot, service.getSnapshot());
+        }
+    }
+
+    /**
+     * Test the watching of the files, a replaced price file should be reloaded in the background.
+     */
+    @Test
+    void testWatchReload() throws Exception {
+        try (ReferenceDataService service = new ReferenceDataService(weatherArchive.toString(), electricityPrice.toString())) {
+            service.start();
+            Path newPrices = Files.writeString(tempDir.resolve("new-prices.tmp"), "^(8\\\\d{3})$ = 40.0\n");
+            Files.move(newPrices, electricityPrice, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (service.getVersion() == 1 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            assertEquals(40.0, service.getSnapshot().electricityPrices().getElectricityPrice((short) 8000));
+        }
+    }
+
+    /**
+     * Test the constructor with an invalid weather archive, no service should be created.
+     */
+    @Test
+    void testInvalidWeatherArchive() {
+        assertThrows(WeatherArchiveException.class,
+                () -> new ReferenceDataService(tempDir.resolve("missing.properties").toString(), electricityPrice.toString()));
+    }
+}
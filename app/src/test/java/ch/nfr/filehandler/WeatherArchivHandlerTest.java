@@ -3,6 +3,7 @@ package ch.nfr.filehandler;
 import org.junit.jupiter.api.Test;
 
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -39,4 +40,60 @@ public class WeatherArchivHandlerTest {
             }
         }
     }
+
+    /**
+     * Test the readWeatherArchive method, every region should have the sun hours of all months.
+     * @throws WeatherArchiveException if the weather archive file could not be read.
+     */
+    @Test
+    public void testReadWeatherArchive() throws WeatherArchiveException {
+        Map<String, List<WeatherArchivHandler.SunHoursPerMonthRecord>> sunHoursPerRegion =
+                WeatherArchivHandler.readWeatherArchive("src/main/resources/weather-archive/weather-archive.properties");
+        assertEquals(10, sunHoursPerRegion.size());
+        sunHoursPerRegion.values().forEach(sunHours -> assertEquals(12, sunHours.size()));
+    }
+
+    /**
+     * Test the readTemperatureArchive method, the regions have to be the same as in the weather archive.
+     * @throws WeatherArchiveException if the archive files could not be read.
+     */
+    @Test
+    public void testReadTemperatureArchive() throws WeatherArchiveException {
+        Map<String, List<WeatherArchivHandler.TemperaturePerMonthRecord>> temperaturesPerRegion =
+                WeatherArchivHandler.readTemperatureArchive("src/main/resources/weather-archive/temperature-archive.properties");
+        Map<String, List<WeatherArchivHandler.SunHoursPerMonthRecord>> sunHoursPerRegion =
+                WeatherArchivHandler.readWeatherArchive("src/main/resources/weather-archive/weather-archive.properties");
+        assertEquals(sunHoursPerRegion.keySet(), temperaturesPerRegion.keySet());
+        temperaturesPerRegion.values().forEach(temperatures -> assertEquals(12, temperatures.size()));
+    }
+
+    /**
+     * Test the getCompiledWeatherArchive method, the archive is compiled only once per path
+     * and the compiled sun hours are the same as in the weather archive.
+     * @throws WeatherArchiveException if the weather archive file could not be read.
+     */
+    @Test
+    public void testGetCompiledWeatherArchive() throws WeatherArchiveException {
+        String weatherArchive = "src/main/resources/weather-archive/weather-archive.properties";
+        CompiledWeatherArchive compiledWeatherArchive = WeatherArchivHandler.getCompiledWeatherArchive(weatherArchive);
+        assertSame(compiledWeatherArchive, WeatherArchivHandler.getCompiledWeatherArchive(weatherArchive));
+
+        Map<String, List<WeatherArchivHandler.SunHoursPerMonthRecord>> sunHoursPerRegion = WeatherArchivHandler.readWeatherArchive(weatherArchive);
+        int regionIndex = compiledWeatherArchive.getRegionIndex((short) 8400);
+        String region = compiledWeatherArchive.getRegions().get(regionIndex);
+        assertTrue("8400".matches(region));
+        assertEquals(sunHoursPerRegion.get(region), compiledWeatherArchive.getSunHours((short) 8400));
+    }
+
+    /**
+     * Test the readSunHoursFile method with postal codes outside the weather archive.
+     * The method should throw a {@link WeatherArchiveException}.
+     */
+    @Test
+    public void testReadSunHoursFileWithUnknownPostalCode() {
+        String weatherArchive = "src/test/resources/weather-archive.properties";
+        assertThrows(WeatherArchiveException.class, () -> WeatherArchivHandler.readSunHoursFile((short) 8000, weatherArchive));
+        assertThrows(WeatherArchiveException.class, () -> WeatherArchivHandler.readSunHoursFile((short) 999, weatherArchive));
+        assertThrows(WeatherArchiveException.class, () -> WeatherArchivHandler.readSunHoursFile((short) -1, weatherArchive));
+    }
 }